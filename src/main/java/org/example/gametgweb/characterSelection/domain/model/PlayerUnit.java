@@ -104,7 +104,7 @@ public class PlayerUnit implements GameUnit {
         // Применяем урон
         this.health = Math.max(this.health - actualDamage, 0);
 
-        log.info("{} получает {} урона в {} (x{})",
+        log.debug("{} получает {} урона в {} (x{})",
                 name, actualDamage, bodyPart.name(), bodyPart.getDamageMultiplier());
 
         // Возвращаем эффективность атакованной части тела
@@ -100,7 +100,7 @@ public class BodyPartEfficiency {
      * @param bodyPart часть тела для запроса
      * @return текущая эффективность части тела (0.0 - 1.0+)
      */
-    private double getCurrentEfficiency(Body bodyPart) {
+    public double getCurrentEfficiency(Body bodyPart) {
         return switch (bodyPart) {
             case HEAD -> headEfficiency;
             case CHEST -> torsoEfficiency;
@@ -19,9 +19,10 @@ public class PlayerUnitEntity{
     private Long id;
 
     /**
-     * Шаблон юнита (не меняется никогда)
+     * Шаблон юнита (не меняется никогда).
+     * Загружается лениво; запросы, которые маппят юнит в домен, подгружают шаблон явно.
      */
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     private UnitEntity template;
 
     /**
@@ -2,10 +2,16 @@ package org.example.gametgweb.characterSelection.infrastructure.persistence.repo
 
 import org.example.gametgweb.characterSelection.infrastructure.persistence.entity.PlayerUnitEntity;
 import org.example.gametgweb.characterSelection.infrastructure.persistence.entity.UnitEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Шаблон юнита загружается лениво, а маппинг в домен его читает,
+ * поэтому методы поиска подгружают шаблон тем же запросом.
+ */
 public interface JpaPlayerUnitRepository extends JpaRepository<PlayerUnitEntity, Long> {
     /**
      * Находит юнита по его имени.
@@ -13,5 +19,14 @@ public interface JpaPlayerUnitRepository extends JpaRepository<PlayerUnitEntity,
      * @param name имя юнита
      * @return Optional с {@link UnitEntity}, если найден
      */
+    @EntityGraph(attributePaths = "template")
     Optional<PlayerUnitEntity> findByName(String name);
+
+    @Override
+    @EntityGraph(attributePaths = "template")
+    Optional<PlayerUnitEntity> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "template")
+    List<PlayerUnitEntity> findAll();
 }
@@ -0,0 +1,33 @@
+package org.example.gametgweb.configs.persistence;
+
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql.ProfilingDataSource;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql.SqlStatementProfiler;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает пул соединений в {@link ProfilingDataSource}, чтобы {@link SqlStatementProfiler}
+ * считал запросы каждого HTTP-запроса и WebSocket-сообщения.
+ * Включается свойством {@code game.sql.profiler.enabled=true}: прокси добавляют работу
+ * каждому запросу, поэтому по умолчанию учёт выключен и включается профилем {@code dev} и в тестах.
+ */
+@Configuration
+@ConditionalOnProperty(name = "game.sql.profiler.enabled", havingValue = "true")
+public class SqlProfilingConfig {
+
+    @Bean
+    static BeanPostProcessor profilingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof ProfilingDataSource)
+                        ? new ProfilingDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.gametgweb.configs.scheduling;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Включает выполнение методов с {@code @Scheduled}
+ * (например, фоновой обработки outbox результатов дуэлей).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
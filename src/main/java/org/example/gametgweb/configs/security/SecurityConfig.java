@@ -6,28 +6,45 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.LogoutConfigurer;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.Set;
 
 /**
  * Конфигурация безопасности приложения.
  *
  * Используется современный подход без WebSecurityConfigurerAdapter.
  * Настраивает:
- * - авторизацию запросов,
+ * - авторизацию запросов ({@code /admin/**} — только {@code ROLE_ADMIN}, см. {@code game.admin.usernames}),
  * - форму логина,
  * - логаут,
  * - хэширование паролей через BCrypt,
- * - AuthenticationManager с использованием кастомного UserDetailsService.
+ * - AuthenticationManager с использованием кастомного UserDetailsService,
+ * - CSRF-защиту изменяющих запросов к {@code /admin/**}.
  */
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity
 public class SecurityConfig {
 
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    /**
+     * Изменяющие запросы к админке. Только они требуют CSRF-токен: браузерные формы
+     * и WebSocket игры работают без него, как раньше.
+     */
+    private static final RequestMatcher ADMIN_WRITES = request ->
+            !SAFE_METHODS.contains(request.getMethod())
+                    && request.getRequestURI().startsWith(request.getContextPath() + "/admin/");
+
     /** Кастомная реализация UserDetailsService для загрузки игроков из БД */
     private final PlayerServiceImpl userDetailsService;
 
@@ -50,6 +67,8 @@ public class SecurityConfig {
                         .requestMatchers("/register.html", "/login.html").permitAll() // страницы
                         .requestMatchers("/register").permitAll() // POST регистрация
                         .requestMatchers("/css/**", "/js/**", "/images/**").permitAll() // статика
+                        .requestMatchers("/internal/**").permitAll() // межузловые запросы, проверяются токеном кластера
+                        .requestMatchers("/admin/**").hasRole("ADMIN") // админка — только game.admin.usernames
                         .anyRequest().authenticated()
                 )
 
@@ -68,10 +87,13 @@ public class SecurityConfig {
                 .logout(LogoutConfigurer::permitAll)
                 // Разрешаем выполнение logout всем, иначе только авторизованные смогут разлогиниться
 
-                // 4️⃣ Отключение CSRF
-                .csrf(AbstractHttpConfigurer::disable);
-        // CSRF (Cross-Site Request Forgery) отключен.
-        // Обычно для API на REST это безопасно, для браузерных форм лучше включать.
+                // 4️⃣ CSRF только для изменяющих запросов к /admin/**
+                .csrf(csrf -> csrf
+                        .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
+                        .csrfTokenRequestHandler(eagerCsrfToken())
+                        .requireCsrfProtectionMatcher(ADMIN_WRITES));
+        // Токен приходит в cookie XSRF-TOKEN, админский клиент возвращает его в заголовке X-XSRF-TOKEN.
+        // Остальные запросы (формы игры, REST игры) по-прежнему без CSRF.
 
         // 5️⃣ Построение цепочки фильтров
         return http.build();
@@ -79,6 +101,13 @@ public class SecurityConfig {
     }
 
 
+    /** Выдаёт CSRF-токен в cookie на каждом ответе, а не при первом обращении к нему */
+    private static CsrfTokenRequestAttributeHandler eagerCsrfToken() {
+        CsrfTokenRequestAttributeHandler handler = new CsrfTokenRequestAttributeHandler();
+        handler.setCsrfRequestAttributeName(null);
+        return handler;
+    }
+
     /**
      * Создание AuthenticationManager для Spring Security.
      * Используется кастомный UserDetailsService и BCryptPasswordEncoder.
@@ -2,9 +2,17 @@ package org.example.gametgweb.configs.webSocket;
 
 import org.example.gametgweb.gameplay.game.campaign.infrastructure.webSocket.CampaignWebSocketHandler;
 import org.example.gametgweb.gameplay.game.campaign.infrastructure.webSocket.PlayerHandshakeInterceptor;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql.SqlProfilingWebSocketHandler;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql.SqlStatementProfiler;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.handler.ConcurrentSendWebSocketHandler;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.handler.DuelWebSocketHandler;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.interceptor.ConnectionAdmissionInterceptor;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.interceptor.DuelContextInterceptor;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.interceptor.RoomAffinityInterceptor;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.ConnectionGovernor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
@@ -21,7 +29,13 @@ import org.springframework.beans.factory.annotation.Autowired;
  * <ul>
  *     <li>Включает поддержку WebSocket с помощью {@link EnableWebSocket}.</li>
  *     <li>Регистрирует {@link DuelWebSocketHandler} по адресу <code>/ws/duel</code>.</li>
+ *     <li>Один раз на подключение собирает контекст дуэли ({@link DuelContextInterceptor}).</li>
+ *     <li>Перенаправляет подключения к комнатам других узлов ({@link RoomAffinityInterceptor}).</li>
+ *     <li>Отклоняет подключения сверх лимитов на игрока, адрес и узел ({@link ConnectionAdmissionInterceptor});
+ *     на <code>/ws/campaign</code> — только лимиты на адрес и узел.</li>
  *     <li>Ограничивает подключение клиентов только указанным в настройках доменом.</li>
+ *     <li>Считает SQL-запросы каждого сообщения ({@link SqlProfilingWebSocketHandler}).</li>
+ *     <li>Упорядочивает отправку из нескольких потоков в одну сессию ({@link ConcurrentSendWebSocketHandler}).</li>
  * </ul>
  *
  * <p><b>Важно:</b> значение <code>game.base-url</code> должно быть определено
@@ -37,22 +51,64 @@ public class WebSocketConfig implements WebSocketConfigurer {
 
     private final CampaignWebSocketHandler campaignWebSocketHandler;
 
+    /** Разбор и проверка параметров подключения к дуэли. */
+    private final DuelContextInterceptor contextInterceptor;
+
+    /** Маршрутизация handshake на узел-владелец комнаты. */
+    private final RoomAffinityInterceptor roomAffinityInterceptor;
+
+    /** Ограничение числа подключений на игрока, адрес и узел. */
+    private final ConnectionAdmissionInterceptor admissionInterceptor;
+
+    /** Лимиты подключений кампании: адрес и узел, без лимита на игрока. */
+    private final ConnectionAdmissionInterceptor campaignAdmissionInterceptor;
+
+    /** Учёт SQL-запросов по WebSocket-сообщениям. */
+    private final SqlStatementProfiler sqlProfiler;
+
     /** Разрешённый источник подключений (берётся из конфигурации). */
     private final String allowedOrigin;
 
+    /** Предельное время одной отправки в сессию, мс. */
+    private final int sendTimeLimitMs;
+
+    /** Предельный объём кадров, ждущих отправки в сессию, байт. */
+    private final int sendBufferBytes;
+
     /**
      * Конструктор конфигурации WebSocket.
      *
      * @param duelWebSocketHandler обработчик соединений для дуэлей.
+     * @param contextInterceptor интерцептор, собирающий контекст сессии дуэли.
+     * @param roomAffinityInterceptor интерцептор, направляющий игрока на узел-владелец комнаты.
+     * @param admissionInterceptor интерцептор, отклоняющий подключения сверх лимитов.
+     * @param governor учёт подключений узла, общий для дуэлей и кампании.
+     * @param sqlProfiler учёт SQL-запросов по WebSocket-сообщениям.
      * @param allowedOrigin значение параметра {@code game.base-url} из конфигурации приложения,
      *                      указывающее разрешённый источник подключения.
+     * @param sendTimeLimitMs предельное время одной отправки в сессию, мс.
+     * @param sendBufferBytes предельный объём кадров, ждущих отправки в сессию, байт.
      */
     @Autowired
     public WebSocketConfig(DuelWebSocketHandler duelWebSocketHandler, CampaignWebSocketHandler campaignWebSocketHandler,
-                           @Value("${game.base-url}") String allowedOrigin) {
+                           DuelContextInterceptor contextInterceptor,
+                           RoomAffinityInterceptor roomAffinityInterceptor,
+                           ConnectionAdmissionInterceptor admissionInterceptor,
+                           ConnectionGovernor governor,
+                           SqlStatementProfiler sqlProfiler,
+                           @Value("${game.base-url}") String allowedOrigin,
+                           @Value("${game.ws.send-time-limit-ms:5000}") int sendTimeLimitMs,
+                           @Value("${game.ws.send-buffer-bytes:524288}") int sendBufferBytes) {
         this.duelWebSocketHandler = duelWebSocketHandler;
         this.campaignWebSocketHandler = campaignWebSocketHandler;
+        this.contextInterceptor = contextInterceptor;
+        this.roomAffinityInterceptor = roomAffinityInterceptor;
+        this.admissionInterceptor = admissionInterceptor;
+        this.campaignAdmissionInterceptor = new ConnectionAdmissionInterceptor(governor, false);
+        this.sqlProfiler = sqlProfiler;
         this.allowedOrigin = allowedOrigin;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferBytes = sendBufferBytes;
     }
 
     /**
@@ -62,11 +118,18 @@ public class WebSocketConfig implements WebSocketConfigurer {
      */
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(duelWebSocketHandler, "/ws/duel")
+        registry.addHandler(new SqlProfilingWebSocketHandler(concurrentSend(duelWebSocketHandler), sqlProfiler, "/ws/duel"),
+                        "/ws/duel")
+                .addInterceptors(contextInterceptor, roomAffinityInterceptor, admissionInterceptor)
                 .setAllowedOrigins(allowedOrigin);
 
-        registry.addHandler(campaignWebSocketHandler, "/ws/campaign")
-                .addInterceptors(new PlayerHandshakeInterceptor())
-                .setAllowedOrigins("*");
+        registry.addHandler(new SqlProfilingWebSocketHandler(concurrentSend(campaignWebSocketHandler), sqlProfiler, "/ws/campaign"),
+                        "/ws/campaign")
+                .addInterceptors(new PlayerHandshakeInterceptor(), campaignAdmissionInterceptor)
+                .setAllowedOrigins(allowedOrigin);
+    }
+
+    private WebSocketHandler concurrentSend(WebSocketHandler handler) {
+        return new ConcurrentSendWebSocketHandler(handler, sendTimeLimitMs, sendBufferBytes);
     }
 }
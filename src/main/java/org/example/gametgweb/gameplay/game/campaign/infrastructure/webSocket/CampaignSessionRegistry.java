@@ -5,6 +5,7 @@ import org.example.gametgweb.gameplay.game.campaign.infrastructure.persistence.e
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 
 import java.io.IOException;
 import java.util.Map;
@@ -101,7 +102,9 @@ public class CampaignSessionRegistry {
         sessions.removeIf(s -> !s.isOpen());
         sessions.forEach(s -> {
             try { s.sendMessage(new TextMessage(message)); }
-            catch (IOException e) { log.error("Ошибка отправки сообщения: {}", e.getMessage()); }
+            catch (IOException | IllegalStateException | SessionLimitExceededException e) {
+                log.error("Ошибка отправки сообщения: {}", e.getMessage());
+            }
         });
     }
 }
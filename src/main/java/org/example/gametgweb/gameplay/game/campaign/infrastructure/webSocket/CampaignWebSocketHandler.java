@@ -11,6 +11,8 @@ import org.example.gametgweb.gameplay.game.campaign.infrastructure.persistence.r
 import org.example.gametgweb.gameplay.game.duel.domain.model.Player;
 import org.example.gametgweb.gameplay.game.duel.domain.repository.PlayerRepositoryImpl;
 import org.example.gametgweb.gameplay.game.duel.application.services.combat.CombatService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.latency.LatencyMonitor;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.ConnectionGovernor;
 import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
@@ -27,6 +29,10 @@ import java.util.Map;
  * Отвечает за приём и обработку событий от клиента (игрока),
  * делегируя игровую механику в {@link CombatService}.
  * Сохраняет состояние активных кампаний в {@link CampaignSessionRegistry}.
+ * RTT сессий и время хода (от приёма до рассылки результата) замеряются {@link LatencyMonitor}
+ * под комнатой {@code campaign/<игрок>}.
+ * Сессии учитываются в {@link ConnectionGovernor} вместе с дуэлями — по адресу и узлу,
+ * без лимита на игрока: у одного игрока может быть открыто несколько вкладок кампании.
  */
 @Slf4j
 @Component
@@ -38,6 +44,8 @@ public class CampaignWebSocketHandler extends TextWebSocketHandler {
     private final CampaignSessionRegistry registry;
     private final PlayerRepositoryImpl playerService;
     private final CombatService combatService;
+    private final LatencyMonitor latencyMonitor;
+    private final ConnectionGovernor governor;
 
     /**
      * При подключении игрока к WebSocket-серверу.
@@ -53,8 +61,15 @@ public class CampaignWebSocketHandler extends TextWebSocketHandler {
             } catch (IOException ignored) {}
             return;
         }
+        if (!governor.tryAcquire(session, null)) {
+            try {
+                session.close(CloseStatus.POLICY_VIOLATION.withReason("Too many connections"));
+            } catch (IOException ignored) {}
+            return;
+        }
 
         registry.addSession(playerName, session);
+        latencyMonitor.register(session, latencyRoom(playerName), playerName);
         log.info("⚔ Игрок подключился к кампании: {} ({})", session.getId(), playerName);
     }
 
@@ -72,6 +87,12 @@ public class CampaignWebSocketHandler extends TextWebSocketHandler {
         JsonNode node = mapper.readTree(message.getPayload());
         String action = node.has("action") ? node.get("action").asText() : "";
 
+        // ответ на ping сервера — только замер RTT
+        if ("pong".equals(action)) {
+            latencyMonitor.onPong(session, node.path("t").asLong());
+            return;
+        }
+
         log.info("📩 Получено действие '{}' от {}", action, session.getId());
 
         try {
@@ -95,9 +116,12 @@ public class CampaignWebSocketHandler extends TextWebSocketHandler {
 
     /**
      * При отключении игрока удаляет сессию из реестра.
+     * Сессии, не допущенные лимитами, в реестр не попадали.
      */
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        latencyMonitor.unregister(session);
+        if (!governor.release(session)) return;
         String playerName = getCurrentPlayerName(session);
         log.info("❌ Игрок {} отключился: {}", playerName, session.getId());
         registry.removeSession(playerName, session);
@@ -144,6 +168,7 @@ public class CampaignWebSocketHandler extends TextWebSocketHandler {
      * Универсальный метод для атаки (игрока или врага).
      */
     private void handleCombatTurn(WebSocketSession session, JsonNode node, boolean isPlayerTurn) throws IOException {
+        long started = System.nanoTime();
         String playerName = getCurrentPlayerName(session);
         CampaignEntity campaignEntity = registry.getCampaign(playerName);
         if (campaignEntity == null) throw new IllegalStateException("Кампания не начата для " + playerName);
@@ -165,6 +190,7 @@ public class CampaignWebSocketHandler extends TextWebSocketHandler {
                 "player", campaignEntity.getPlayerUnitEntity(),
                 "enemy", campaignEntity.getEnemyUnitEntity()
         )));
+        latencyMonitor.onRound(latencyRoom(playerName), System.nanoTime() - started);
     }
 
     /**
@@ -178,6 +204,13 @@ public class CampaignWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
+    /**
+     * Комната, под которой {@link LatencyMonitor} учитывает замеры кампании игрока.
+     */
+    private static String latencyRoom(String playerName) {
+        return "campaign/" + playerName;
+    }
+
     /**
      * Извлекает имя игрока из атрибутов WebSocket-сессии.
      */
@@ -0,0 +1,17 @@
+package org.example.gametgweb.gameplay.game.duel.api.dto;
+
+import java.util.List;
+
+/**
+ * Результат повторного расчёта одной дуэли из журнала.
+ *
+ * @param gameCode   код комнаты
+ * @param startedAt  время начала дуэли (мс)
+ * @param seed       seed генератора комнаты
+ * @param rounds     число воспроизведённых раундов
+ * @param finished   дуэль завершилась (в журнале есть запись конца)
+ * @param mismatches расхождения между журналом и пересчётом; пусто — бой воспроизведён точно
+ */
+public record DuelReplayDto(String gameCode, long startedAt, long seed, int rounds, boolean finished,
+                            List<String> mismatches) {
+}
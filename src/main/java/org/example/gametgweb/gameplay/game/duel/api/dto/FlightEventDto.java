@@ -0,0 +1,18 @@
+package org.example.gametgweb.gameplay.game.duel.api.dto;
+
+import java.time.Instant;
+
+/**
+ * Событие из журнала комнаты ({@code /admin/flight-recorder/{gameCode}}).
+ *
+ * @param seq    порядковый номер события в комнате
+ * @param at     время события
+ * @param kind   вид события: {@code IN_FRAME}, {@code MOVE}, {@code ROUND}, {@code SEND}, {@code SEND_FAIL},
+ *               {@code JOIN}, {@code LEAVE}, {@code ERROR}
+ * @param player игрок или {@code null} (рассылка всей комнате)
+ * @param detail тип кадра, часть тела, HP после раунда, текст ошибки
+ * @param size   размер кадра, байт
+ * @param count  число получателей рассылки или код закрытия соединения
+ */
+public record FlightEventDto(long seq, Instant at, String kind, String player, String detail, long size, int count) {
+}
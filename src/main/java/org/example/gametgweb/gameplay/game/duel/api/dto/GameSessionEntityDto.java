@@ -18,8 +18,10 @@ import java.util.List;
  *     <li>{@code id} — уникальный идентификатор игровой сессии;</li>
  *     <li>{@code gameCode} — код игры или сессии;</li>
  *     <li>{@code state} — текущее состояние игры ({@link GameState});</li>
+ *     <li>{@code version} — версия сессии, прочитанная из базы (для оптимистичной блокировки);</li>
  *     <li>{@code players} — список игроков с обновляемыми полями в виде {@link PlayerUpdateDto}.</li>
  * </ul>
  */
-public record GameSessionEntityDto(Long id, String gameCode, GameState state, List<PlayerUpdateDto> players) {
+public record GameSessionEntityDto(Long id, String gameCode, GameState state, Long version,
+                                   List<PlayerUpdateDto> players) {
 }
@@ -0,0 +1,14 @@
+package org.example.gametgweb.gameplay.game.duel.api.dto;
+
+/**
+ * Счётчики ограничения входящих WebSocket-кадров узла.
+ *
+ * @param droppedFrames  кадров отброшено общим лимитом сессии
+ * @param droppedChat    сообщений чата отброшено
+ * @param droppedAttacks атак отброшено
+ * @param disconnects    сессий отключено за флуд
+ * @param sessions       текущее число сессий дуэлей
+ */
+public record InboundLimitStatsDto(long droppedFrames, long droppedChat, long droppedAttacks,
+                                   long disconnects, int sessions) {
+}
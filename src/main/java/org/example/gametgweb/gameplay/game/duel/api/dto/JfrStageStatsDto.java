@@ -0,0 +1,16 @@
+package org.example.gametgweb.gameplay.game.duel.api.dto;
+
+/**
+ * Сводка событий JFR по одному этапу обработки дуэли или одной комнате.
+ *
+ * @param key          этап ({@code "broadcast"}, {@code "finish finalize"}) или код комнаты
+ * @param count        число событий в окне
+ * @param avgMillis    средняя длительность, мс
+ * @param maxMillis    наибольшая длительность, мс
+ * @param totalMillis  суммарная длительность, мс
+ * @param payloadBytes отправлено данных, байт
+ * @param slowestStage этап с наибольшей длительностью (для комнаты) или {@code null}
+ */
+public record JfrStageStatsDto(String key, long count, double avgMillis, double maxMillis,
+                               double totalMillis, long payloadBytes, String slowestStage) {
+}
@@ -0,0 +1,16 @@
+package org.example.gametgweb.gameplay.game.duel.api.dto;
+
+import java.util.List;
+
+/**
+ * Живая сводка событий JFR дуэлей.
+ *
+ * @param streaming   идёт ли потоковая запись
+ * @param thresholdMs порог длительности: более короткие события не записываются
+ * @param windowMs    длина окна; сводка покрывает текущее и предыдущее окно
+ * @param stages      этапы, от самых долгих по суммарному времени
+ * @param rooms       самые медленные комнаты
+ */
+public record JfrSummaryDto(boolean streaming, long thresholdMs, long windowMs,
+                            List<JfrStageStatsDto> stages, List<JfrStageStatsDto> rooms) {
+}
@@ -0,0 +1,17 @@
+package org.example.gametgweb.gameplay.game.duel.api.dto;
+
+/**
+ * Перцентили одной гистограммы задержек узла.
+ *
+ * @param name    {@code rtt} — круговая задержка ping/pong, {@code round-server} — от последнего хода
+ *                до отправки результата, {@code round-end-to-end} — то же плюс RTT самого медленного игрока
+ * @param count   число замеров
+ * @param p50Ms   медиана, мс
+ * @param p90Ms   90-й перцентиль, мс
+ * @param p99Ms   99-й перцентиль, мс
+ * @param p999Ms  99.9-й перцентиль, мс
+ * @param maxMs   максимум, мс
+ */
+public record LatencyHistogramDto(String name, long count, double p50Ms, double p90Ms,
+                                  double p99Ms, double p999Ms, double maxMs) {
+}
@@ -0,0 +1,13 @@
+package org.example.gametgweb.gameplay.game.duel.api.dto;
+
+import java.util.List;
+
+/**
+ * Сводка задержек узла и комнат ({@code /admin/latency}).
+ *
+ * @param slowRoundMs порог медленного раунда (время сервера плюс RTT)
+ * @param histograms  гистограммы узла
+ * @param rooms       комнаты, от большего числа медленных раундов
+ */
+public record LatencyReportDto(long slowRoundMs, List<LatencyHistogramDto> histograms, List<RoomQualityDto> rooms) {
+}
@@ -0,0 +1,12 @@
+package org.example.gametgweb.gameplay.game.duel.api.dto;
+
+/**
+ * Текущие настройки логирования игровых пакетов.
+ *
+ * @param logger           имя логгера
+ * @param level            действующий уровень логгера
+ * @param perRoomPerSecond лимит сообщений горячих путей на комнату в секунду
+ * @param debugSampleEvery выборка DEBUG-сообщений горячих путей: каждое N-е сообщение комнаты
+ */
+public record LoggingSettingsDto(String logger, String level, int perRoomPerSecond, int debugSampleEvery) {
+}
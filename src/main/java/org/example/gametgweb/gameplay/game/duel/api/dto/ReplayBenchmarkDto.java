@@ -0,0 +1,13 @@
+package org.example.gametgweb.gameplay.game.duel.api.dto;
+
+/**
+ * Итог прогона всех дуэлей журнала через боевой движок.
+ *
+ * @param duels           число воспроизведённых дуэлей
+ * @param rounds          общее число раундов
+ * @param inconsistent    число дуэлей с расхождениями
+ * @param elapsedMs       время пересчёта (без чтения журнала)
+ * @param roundsPerSecond пропускная способность движка
+ */
+public record ReplayBenchmarkDto(int duels, long rounds, int inconsistent, long elapsedMs, long roundsPerSecond) {
+}
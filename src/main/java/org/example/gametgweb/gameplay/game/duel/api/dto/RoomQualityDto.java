@@ -0,0 +1,17 @@
+package org.example.gametgweb.gameplay.game.duel.api.dto;
+
+/**
+ * Качество связи и обработки в одной комнате.
+ *
+ * @param room          код комнаты ({@code campaign/<игрок>} для кампании)
+ * @param rounds        сыграно раундов
+ * @param avgServerMs   среднее время сервера от последнего хода до результата, мс
+ * @param maxServerMs   наибольшее время сервера, мс
+ * @param avgRttMs      средний RTT игроков комнаты, мс
+ * @param maxRttMs      наибольший RTT, мс
+ * @param slowByNetwork медленных раундов, где RTT больше времени сервера
+ * @param slowByServer  медленных раундов, где время сервера больше RTT
+ */
+public record RoomQualityDto(String room, long rounds, double avgServerMs, double maxServerMs,
+                             double avgRttMs, double maxRttMs, long slowByNetwork, long slowByServer) {
+}
@@ -0,0 +1,18 @@
+package org.example.gametgweb.gameplay.game.duel.api.dto;
+
+/**
+ * Сводка SQL-запросов одной области учёта (HTTP-эндпоинта или типа WebSocket-сообщения).
+ *
+ * @param scope         имя области, например {@code "POST /JoinDuel"} или {@code "WS /ws/duel attack"}
+ * @param calls         число выполнений области
+ * @param statements    всего запросов к БД
+ * @param avgStatements запросов на одно выполнение
+ * @param maxStatements наибольшее число запросов за одно выполнение
+ * @param rows          прочитано и изменено строк
+ * @param avgMillis     время запросов на одно выполнение, мс
+ * @param budget        бюджет запросов из {@code game.sql.budgets} или {@code null}
+ * @param overBudget    число выполнений сверх бюджета
+ */
+public record SqlScopeStatsDto(String scope, long calls, long statements, double avgStatements,
+                               long maxStatements, long rows, double avgMillis, Integer budget, long overBudget) {
+}
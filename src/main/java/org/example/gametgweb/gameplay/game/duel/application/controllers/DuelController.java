@@ -93,10 +93,23 @@ public class DuelController {
      */
     @GetMapping("/GetAllDuels")
     public List<GameSessionDto> getAllDuels() {
-        duelManager.getAllDuels().forEach(d ->
-                log.info("Game {} has {} players", d.gameCode(), d.playersCount())
-        );
-        return duelManager.getAllDuels();
+        List<GameSessionDto> duels = duelManager.getAllDuels();
+        duels.forEach(d -> log.info("Game {} has {} players", d.gameCode(), d.playersCount()));
+        return duels;
+    }
+
+    /**
+     * Возвращает ссылку на страницу дуэли на узле, который обслуживает комнату.
+     * <p>
+     * Используется клиентом, если WebSocket-подключение к текущему узлу было отклонено,
+     * потому что комната принадлежит другому узлу.
+     *
+     * @param gameCode код комнаты
+     * @return ссылка на страницу дуэли на узле-владельце
+     */
+    @GetMapping("/duel/route")
+    public String route(@RequestParam String gameCode) {
+        return duelManager.roomLink(gameCode);
     }
 
     private Long getPlayerId(PlayerDetails playerDetails) {
@@ -0,0 +1,49 @@
+package org.example.gametgweb.gameplay.game.duel.application.controllers;
+
+import org.example.gametgweb.gameplay.game.duel.api.dto.DuelReplayDto;
+import org.example.gametgweb.gameplay.game.duel.api.dto.ReplayBenchmarkDto;
+import org.example.gametgweb.gameplay.game.duel.application.services.replay.DuelReplayService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Служебный контроллер воспроизведения дуэлей из журнала боёв.
+ * Прогон журнала нагружает CPU, поэтому доступ только у {@code ROLE_ADMIN}.
+ */
+@PreAuthorize("hasRole('ADMIN')")
+@RestController
+public class DuelReplayController {
+
+    private final DuelReplayService replayService;
+
+    @Autowired
+    public DuelReplayController(DuelReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    /**
+     * Пересчитывает дуэли комнаты и сверяет результат с журналом.
+     *
+     * @param gameCode код комнаты
+     * @return результаты по каждой дуэли комнаты
+     */
+    @GetMapping("/admin/replay/{gameCode}")
+    public List<DuelReplayDto> replay(@PathVariable String gameCode) {
+        return replayService.replay(gameCode);
+    }
+
+    /**
+     * Прогоняет весь журнал через боевой движок.
+     *
+     * @return сводка с пропускной способностью
+     */
+    @GetMapping("/admin/replay-benchmark")
+    public ReplayBenchmarkDto benchmark() {
+        return replayService.benchmark();
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.gametgweb.gameplay.game.duel.application.controllers;
+
+import org.example.gametgweb.gameplay.game.duel.api.dto.FlightEventDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.flight.RoomFlightRecorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Служебный контроллер бортовых журналов комнат. Журнал содержит имена игроков
+ * и ходы, поэтому доступ только у {@code ROLE_ADMIN}.
+ */
+@PreAuthorize("hasRole('ADMIN')")
+@RestController
+public class FlightRecorderController {
+
+    private final RoomFlightRecorder recorder;
+
+    @Autowired
+    public FlightRecorderController(RoomFlightRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Комнаты, для которых есть журнал.
+     *
+     * @return коды комнат
+     */
+    @GetMapping("/admin/flight-recorder")
+    public Set<String> rooms() {
+        return recorder.rooms();
+    }
+
+    /**
+     * Последние события комнаты от старых к новым.
+     *
+     * @param gameCode код комнаты
+     * @return события или {@code 404}, если журнала нет
+     */
+    @GetMapping("/admin/flight-recorder/{gameCode}")
+    public ResponseEntity<List<FlightEventDto>> dump(@PathVariable String gameCode) {
+        List<FlightEventDto> events = recorder.dump(gameCode);
+        return events.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(events);
+    }
+}
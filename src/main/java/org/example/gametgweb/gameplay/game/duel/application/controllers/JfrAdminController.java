@@ -0,0 +1,52 @@
+package org.example.gametgweb.gameplay.game.duel.application.controllers;
+
+import org.example.gametgweb.gameplay.game.duel.api.dto.JfrSummaryDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr.DuelJfrMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Служебный контроллер потоковой записи JFR событий дуэлей. Доступ только у {@code ROLE_ADMIN}.
+ */
+@PreAuthorize("hasRole('ADMIN')")
+@RestController
+public class JfrAdminController {
+
+    private final DuelJfrMonitor monitor;
+
+    @Autowired
+    public JfrAdminController(DuelJfrMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * Самые медленные этапы и комнаты за последние одно-два окна.
+     *
+     * @param top сколько комнат вернуть
+     * @return сводка; пустая, пока поток не запущен
+     */
+    @GetMapping("/admin/jfr-summary")
+    public JfrSummaryDto summary(@RequestParam(defaultValue = "10") int top) {
+        return monitor.summary(top);
+    }
+
+    /**
+     * Включает или выключает потоковую запись.
+     *
+     * @param enabled {@code true} — запустить, {@code false} — остановить
+     * @return текущая сводка
+     */
+    @PostMapping("/admin/jfr-stream")
+    public JfrSummaryDto stream(@RequestParam boolean enabled) {
+        if (enabled) {
+            monitor.start();
+        } else {
+            monitor.stop();
+        }
+        return monitor.summary(10);
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.gametgweb.gameplay.game.duel.application.controllers;
+
+import org.example.gametgweb.gameplay.game.duel.api.dto.LatencyReportDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.latency.LatencyMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Служебный контроллер задержек игроков: RTT и время раундов. Доступ только у {@code ROLE_ADMIN}.
+ */
+@PreAuthorize("hasRole('ADMIN')")
+@RestController
+public class LatencyController {
+
+    private final LatencyMonitor monitor;
+
+    @Autowired
+    public LatencyController(LatencyMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * Перцентили задержек узла и комнаты с наибольшим числом медленных раундов.
+     *
+     * @param top сколько комнат вернуть
+     * @return сводка с момента запуска или сброса
+     */
+    @GetMapping("/admin/latency")
+    public LatencyReportDto report(@RequestParam(defaultValue = "10") int top) {
+        return monitor.report(top);
+    }
+
+    /**
+     * Сбрасывает гистограммы и сводку комнат.
+     */
+    @DeleteMapping("/admin/latency")
+    public ResponseEntity<Void> reset() {
+        monitor.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.gametgweb.gameplay.game.duel.application.controllers;
+
+import org.example.gametgweb.gameplay.game.duel.api.dto.LoggingSettingsDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.RoomLogLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Служебный контроллер логирования: уровень игровых логгеров и лимит логов комнат меняются без перезапуска.
+ * <p>
+ * Например, {@code POST /admin/logging?level=DEBUG} включает подробные логи горячих путей
+ * (с лимитом на комнату), {@code POST /admin/logging?level=INFO} — выключает,
+ * {@code POST /admin/logging?debugSampleEvery=10} оставляет каждое десятое DEBUG-сообщение комнаты.
+ * Доступ только у {@code ROLE_ADMIN}.
+ */
+@PreAuthorize("hasRole('ADMIN')")
+@RestController
+public class LoggingAdminController {
+
+    private static final String GAME_LOGGER = "org.example.gametgweb";
+
+    private final LoggingSystem loggingSystem;
+    private final RoomLogLimiter limiter;
+
+    @Autowired
+    public LoggingAdminController(LoggingSystem loggingSystem, RoomLogLimiter limiter) {
+        this.loggingSystem = loggingSystem;
+        this.limiter = limiter;
+    }
+
+    /**
+     * @param logger имя логгера, по умолчанию корневой пакет игры
+     * @return действующий уровень логгера и лимит логов комнат
+     */
+    @GetMapping("/admin/logging")
+    public LoggingSettingsDto settings(@RequestParam(defaultValue = GAME_LOGGER) String logger) {
+        LoggerConfiguration config = loggingSystem.getLoggerConfiguration(logger);
+        String level = config != null && config.getEffectiveLevel() != null ? config.getEffectiveLevel().name() : null;
+        return new LoggingSettingsDto(logger, level, limiter.getPerSecond(), limiter.getSampleEvery());
+    }
+
+    /**
+     * Меняет уровень логгера, лимит и/или выборку логов комнат.
+     *
+     * @param logger           имя логгера, по умолчанию корневой пакет игры
+     * @param level            новый уровень ({@code DEBUG}, {@code INFO}, ...)
+     * @param perRoomPerSecond новый лимит сообщений на комнату в секунду
+     * @param debugSampleEvery записывать каждое N-е DEBUG-сообщение комнаты
+     * @return настройки после изменения
+     */
+    @PostMapping("/admin/logging")
+    public LoggingSettingsDto update(@RequestParam(defaultValue = GAME_LOGGER) String logger,
+                                     @RequestParam(required = false) LogLevel level,
+                                     @RequestParam(required = false) Integer perRoomPerSecond,
+                                     @RequestParam(required = false) Integer debugSampleEvery) {
+        if (level != null) loggingSystem.setLogLevel(logger, level);
+        if (perRoomPerSecond != null) limiter.setPerSecond(perRoomPerSecond);
+        if (debugSampleEvery != null) limiter.setSampleEvery(debugSampleEvery);
+        return settings(logger);
+    }
+}
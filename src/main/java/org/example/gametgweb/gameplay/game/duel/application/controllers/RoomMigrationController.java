@@ -0,0 +1,74 @@
+package org.example.gametgweb.gameplay.game.duel.application.controllers;
+
+import org.example.gametgweb.gameplay.game.duel.application.services.migration.RoomMigrationService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.snapshot.RoomSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Контроллер переноса комнат дуэлей между узлами кластера.
+ * <p>
+ * {@code /admin/**} — ручной перенос и вывод узла перед деплоем (только {@code ROLE_ADMIN}),
+ * {@code /internal/**} — приём комнаты от другого узла (по токену кластера).
+ */
+@RestController
+public class RoomMigrationController {
+
+    private final RoomMigrationService migrationService;
+
+    @Autowired
+    public RoomMigrationController(RoomMigrationService migrationService) {
+        this.migrationService = migrationService;
+    }
+
+    /**
+     * Переносит все комнаты узла на их будущих владельцев.
+     *
+     * @return число перенесённых комнат
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/admin/rooms/drain")
+    public int drain() {
+        return migrationService.drain();
+    }
+
+    /**
+     * Переносит одну комнату на указанный узел.
+     *
+     * @param gameCode код комнаты
+     * @param target   базовый URL узла-приёмника, один из {@code game.cluster.nodes}
+     * @return {@code true}, если комната перенесена; 400, если узел не входит в кластер
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/admin/rooms/{gameCode}/migrate")
+    public ResponseEntity<Boolean> migrate(@PathVariable String gameCode, @RequestParam String target) {
+        if (!migrationService.isClusterNode(target)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(migrationService.migrate(gameCode, target));
+    }
+
+    /**
+     * Принимает комнату от другого узла.
+     *
+     * @param token токен кластера
+     * @param room  снимок комнаты
+     */
+    @PostMapping("/internal/rooms/import")
+    public ResponseEntity<Void> importRoom(@RequestHeader(value = RoomMigrationService.TOKEN_HEADER, required = false) String token,
+                                           @RequestBody RoomSnapshot room) {
+        if (!migrationService.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        migrationService.importRoom(room);
+        return ResponseEntity.ok().build();
+    }
+}
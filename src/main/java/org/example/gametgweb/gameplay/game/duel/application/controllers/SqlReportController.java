@@ -0,0 +1,47 @@
+package org.example.gametgweb.gameplay.game.duel.application.controllers;
+
+import org.example.gametgweb.gameplay.game.duel.api.dto.SqlScopeStatsDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql.SqlStatementProfiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Служебный контроллер сводки SQL-запросов по эндпоинтам и WebSocket-сообщениям.
+ * Доступ только у {@code ROLE_ADMIN}. Без {@code game.sql.profiler.enabled=true} сводка пуста.
+ */
+@PreAuthorize("hasRole('ADMIN')")
+@RestController
+public class SqlReportController {
+
+    private final SqlStatementProfiler profiler;
+
+    @Autowired
+    public SqlReportController(SqlStatementProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Число запросов, строк и время по каждой области с момента запуска или сброса.
+     *
+     * @return сводка, от самых «дорогих» областей
+     */
+    @GetMapping("/admin/sql-report")
+    public List<SqlScopeStatsDto> report() {
+        return profiler.report();
+    }
+
+    /**
+     * Сбрасывает сводку, например перед замером сценария.
+     */
+    @DeleteMapping("/admin/sql-report")
+    public ResponseEntity<Void> reset() {
+        profiler.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.gametgweb.gameplay.game.duel.application.controllers;
+
+import org.example.gametgweb.gameplay.game.duel.api.dto.InboundLimitStatsDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.ConnectionGovernor;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.InboundRateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Служебный контроллер состояния WebSocket-подключений дуэлей. Доступ только у {@code ROLE_ADMIN}.
+ */
+@PreAuthorize("hasRole('ADMIN')")
+@RestController
+public class WebSocketAdminController {
+
+    private final InboundRateLimiter rateLimiter;
+    private final ConnectionGovernor governor;
+
+    @Autowired
+    public WebSocketAdminController(InboundRateLimiter rateLimiter, ConnectionGovernor governor) {
+        this.rateLimiter = rateLimiter;
+        this.governor = governor;
+    }
+
+    /**
+     * Счётчики отброшенных кадров и отключений за флуд.
+     *
+     * @return сводка ограничителя
+     */
+    @GetMapping("/admin/ws-limits")
+    public InboundLimitStatsDto limits() {
+        return rateLimiter.getStats(governor.getSessionCount());
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.gametgweb.gameplay.game.duel.application.events;
+
+/**
+ * Последний игрок комнаты не вернулся за время ожидания переподключения,
+ * и {@code PlayerOrderService} удалил комнату. Слушатели освобождают
+ * оставшееся в памяти состояние комнаты.
+ *
+ * @param gameCode код комнаты
+ */
+public record RoomAbandonedEvent(String gameCode) {}
@@ -0,0 +1,82 @@
+package org.example.gametgweb.gameplay.game.duel.application.events;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * RoomEventBus — асинхронная упорядоченная шина доменных событий дуэли.
+ *
+ * <p>События публикуются из боевой логики под блокировкой комнаты
+ * ({@code DuelCombatService}), но слушатели — рассылки, {@code @Transactional}
+ * завершение дуэли в БД — выполняются вне этой блокировки на виртуальных потоках.
+ *
+ * <p>Для каждой комнаты поддерживается свой «почтовый ящик» — цепочка
+ * {@link CompletableFuture}: очередное событие доставляется только после того,
+ * как завершилась доставка предыдущего события той же комнаты. Порядок событий
+ * внутри комнаты сохраняется, разные комнаты обрабатываются параллельно.
+ *
+ * <p>Доставка выполняется через стандартный {@link ApplicationEventPublisher},
+ * поэтому существующие {@code @EventListener} не меняются. Ошибка слушателя
+ * логируется и не останавливает доставку следующих событий комнаты.
+ */
+@Slf4j
+@Component
+public class RoomEventBus {
+
+    private final ApplicationEventPublisher publisher;
+
+    /** Виртуальные потоки для доставки событий — по одному на задачу. */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Хвост цепочки доставки для каждой комнаты.
+     * Key — gameCode, Value — future доставки последнего опубликованного события.
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RoomEventBus(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * Ставит событие в очередь комнаты и сразу возвращает управление.
+     *
+     * @param gameCode код комнаты, определяющий порядок доставки
+     * @param event    доменное событие
+     */
+    public void publish(String gameCode, Object event) {
+        CompletableFuture<Void> tail = tails.compute(gameCode, (k, previous) ->
+                (previous != null ? previous : CompletableFuture.<Void>completedFuture(null))
+                        .handleAsync((ignored, error) -> {
+                            deliver(gameCode, event);
+                            return null;
+                        }, executor));
+
+        // комната без ожидающих событий не должна держать запись в карте
+        tail.whenComplete((ignored, error) -> tails.remove(gameCode, tail));
+    }
+
+    private void deliver(String gameCode, Object event) {
+        try {
+            publisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            log.error("Ошибка обработки события {} в комнате {}", event.getClass().getSimpleName(), gameCode, e);
+        }
+    }
+
+    /** Дожидается доставки уже опубликованных событий при остановке приложения */
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+        log.info("RoomEventBus завершил работу");
+    }
+}
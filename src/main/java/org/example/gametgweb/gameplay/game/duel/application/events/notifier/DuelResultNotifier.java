@@ -1,11 +1,9 @@
 package org.example.gametgweb.gameplay.game.duel.application.events.notifier;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.RoomSessionRegistry;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service.MessageDispatcherService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.FrameCache;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
 /**
  * DuelResultNotifier — сервис уведомлений о результате дуэли.
  *
@@ -15,8 +13,8 @@ import java.util.Map;
  * <p>Сервис инкапсулирует:
  * <ul>
  *     <li>структуру отправляемого сообщения;</li>
- *     <li>сериализацию данных в JSON;</li>
- *     <li>взаимодействие с {@link RoomSessionRegistry}.</li>
+ *     <li>выбор заранее сериализованного кадра из {@link FrameCache};</li>
+ *     <li>взаимодействие с {@link MessageDispatcherService}.</li>
  * </ul>
  * </p>
  *
@@ -37,25 +35,22 @@ import java.util.Map;
 @Service
 public class DuelResultNotifier {
 
-    private final RoomSessionRegistry roomSessionRegistry;
-    private final ObjectMapper objectMapper;
+    private final MessageDispatcherService messageDispatcher;
+    private final FrameCache frameCache;
 
-    public DuelResultNotifier(RoomSessionRegistry roomSessionRegistry,
-                              ObjectMapper objectMapper) {
-        this.roomSessionRegistry = roomSessionRegistry;
-        this.objectMapper = objectMapper;
+    public DuelResultNotifier(MessageDispatcherService messageDispatcher,
+                              FrameCache frameCache) {
+        this.messageDispatcher = messageDispatcher;
+        this.frameCache = frameCache;
     }
     /**
      * Отправляет игроку уведомление о победе в дуэли.
      *
      * @param gameCode   код игровой сессии
      * @param playerName имя игрока-получателя
-     * @throws JsonProcessingException если возникла ошибка сериализации сообщения
      */
-    public void sendWin(String gameCode, String playerName)
-            throws JsonProcessingException {
-
-        send(gameCode, playerName, "Вы победили!");
+    public void sendWin(String gameCode, String playerName) {
+        send(gameCode, playerName, true);
     }
 
     /**
@@ -63,12 +58,9 @@ public class DuelResultNotifier {
      *
      * @param gameCode   код игровой сессии
      * @param playerName имя игрока-получателя
-     * @throws JsonProcessingException если возникла ошибка сериализации сообщения
      */
-    public void sendLose(String gameCode, String playerName)
-            throws JsonProcessingException {
-
-        send(gameCode, playerName, "Вы проиграли!");
+    public void sendLose(String gameCode, String playerName) {
+        send(gameCode, playerName, false);
     }
 
     /**
@@ -79,21 +71,9 @@ public class DuelResultNotifier {
      *
      * @param gameCode   код игровой сессии
      * @param playerName имя игрока-получателя
-     * @param text       текст результата дуэли
-     * @throws JsonProcessingException если возникла ошибка сериализации сообщения
+     * @param won        {@code true} — победа, {@code false} — поражение
      */
-    private void send(String gameCode,
-                      String playerName,
-                      String text) throws JsonProcessingException {
-
-        roomSessionRegistry.sendToPlayer(
-                gameCode,
-                playerName,
-                objectMapper.writeValueAsString(Map.of(
-                        "type", "duelResult",
-                        "resultText", text,
-                        "targetPlayer", playerName
-                ))
-        );
+    private void send(String gameCode, String playerName, boolean won) {
+        messageDispatcher.sendToPlayer(gameCode, playerName, frameCache.duelResult(playerName, won));
     }
 }
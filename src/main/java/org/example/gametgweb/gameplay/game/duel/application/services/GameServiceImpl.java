@@ -64,19 +64,24 @@ public class GameServiceImpl implements GameService {
         jpaGameSessionRepository.deleteById(id);
     }
 
+    /**
+     * Удаляет завершённую игру по коду.
+     * <p>
+     * Связи игроков снимаются и игра удаляется двумя запросами, без загрузки игры,
+     * игроков и их юнитов.
+     *
+     * @param gameCode код игры
+     * @throws IllegalArgumentException если игры с таким кодом нет
+     */
     @Override
+    @Transactional
     public void deleteByGameCode(String gameCode) {
-        GameSessionEntity session = jpaGameSessionRepository.findByGameCode(gameCode)
-                .orElseThrow(() -> new IllegalArgumentException("Game not found"));
-
         // 🔥 разрываем связи
-        for (PlayerEntity player : session.getPlayers()) {
-            player.setGameSessionEntity(null);
-        }
+        jpaPlayerRepository.detachAllFromGame(gameCode);
 
-        session.getPlayers().clear();
-
-        jpaGameSessionRepository.delete(session);
+        if (jpaGameSessionRepository.deleteGame(gameCode) == 0) {
+            throw new IllegalArgumentException("Game not found");
+        }
     }
 
 
@@ -7,12 +7,20 @@ import org.example.gametgweb.gameplay.game.duel.domain.model.GameSession;
 import org.example.gametgweb.gameplay.game.duel.domain.model.Player;
 import org.example.gametgweb.gameplay.game.duel.domain.repository.GameSessionRepository;
 import org.example.gametgweb.gameplay.game.duel.domain.repository.PlayerRepository;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.PreparedUnitRegistry;
 import org.example.gametgweb.gameplay.game.duel.shared.domain.GameState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 /**
  * Сервис для управления игровыми сессиями дуэли.
@@ -24,6 +32,16 @@ import java.util.stream.Collectors;
  * - управление связью игрок-сессия.
  * <p>
  * Работает с доменной моделью {@link GameSession} и репозиториями {@link GameSessionRepository} и {@link PlayerRepository}.
+ * <p>
+ * Комната создаётся запросом {@code INSERT ... ON CONFLICT DO NOTHING} ({@link GameSessionRepository#createIfAbsent}),
+ * а не гонкой за уникальным ограничением {@code game_code}. При входе с созданием вставка идёт
+ * в транзакции входа: одновременная вставка того же кода ждёт её коммита в БД, и каждый запрос
+ * держит одно соединение пула. Явное создание комнаты ({@link #createGameAndAttachPlayer}) идёт
+ * вне транзакций и дополнительно single-flight: одновременные запросы ждут единственного запроса в БД.
+ * <p>
+ * Вход и выход игрока меняют версионируемую игру без пессимистичных блокировок. Если за время
+ * операции ту же игру изменил другой запрос, операция повторяется в новой транзакции на свежих данных,
+ * не более {@code game.session.update-attempts} раз.
  */
 @Service
 @Slf4j
@@ -31,16 +49,31 @@ public class GameSessionService {
 
     private final GameSessionRepository repository;
     private final PlayerRepository playerRepository;
+    private final PreparedUnitRegistry preparedUnits;
+
+    /** Создания комнат, выполняющиеся сейчас; результат — создана ли комната этим запросом. */
+    private final ConcurrentHashMap<String, CompletableFuture<Boolean>> creating = new ConcurrentHashMap<>();
+
+    private final TransactionTemplate transactions;
+    private final int updateAttempts;
 
     /**
      * Конструктор для внедрения зависимостей.
      *
-     * @param repository       репозиторий для работы с игровыми сессиями
-     * @param playerRepository репозиторий для работы с игроками
+     * @param repository         репозиторий для работы с игровыми сессиями
+     * @param playerRepository   репозиторий для работы с игроками
+     * @param preparedUnits      юниты, загруженные при входе и ожидающие подключения к комнате
+     * @param transactionManager менеджер транзакций для повторяемых операций
+     * @param updateAttempts     число попыток операции при конфликте версий игры
      */
-    public GameSessionService(GameSessionRepository repository, PlayerRepository playerRepository) {
+    public GameSessionService(GameSessionRepository repository, PlayerRepository playerRepository,
+                              PreparedUnitRegistry preparedUnits, PlatformTransactionManager transactionManager,
+                              @Value("${game.session.update-attempts:3}") int updateAttempts) {
         this.repository = repository;
         this.playerRepository = playerRepository;
+        this.preparedUnits = preparedUnits;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.updateAttempts = Math.max(1, updateAttempts);
     }
 
 
@@ -53,13 +86,18 @@ public class GameSessionService {
      * @return обновлённая доменная модель {@link GameSession} после добавления игрока
      * @throws IllegalArgumentException если playerId = null или игрок не найден
      */
-    @Transactional
     public GameSession joinOrCreateGame(String gameCode, Long playerId) {
         validatePlayerId(playerId);
 
-        GameSession game = findOrCreateGameSession(gameCode);
+        return withRetry(() -> {
+            GameSession game = repository.findByGameCode(gameCode).orElseGet(() -> {
+                // в транзакции попытки: конкурентная вставка ждёт в БД, а не второго соединения
+                repository.createIfAbsent(gameCode, GameState.WAITING);
+                return loadGame(gameCode);
+            });
 
-        return attachAndSaveOrUpdate(playerId, game);
+            return attachAndSaveOrUpdate(playerId, game);
+        });
     }
 
     /**
@@ -71,60 +109,52 @@ public class GameSessionService {
      * @param playerId ID игрока
      * @return сохранённая доменная модель {@link GameSession} с присвоенным ID
      */
-    @Transactional
     public GameSession createGameAndAttachPlayer(String gameCode, Long playerId) {
         validatePlayerId(playerId);
 
-        if (repository.findByGameCode(gameCode).isPresent()) {
+        if (!createGame(gameCode)) {
             throw new GameAlreadyExistsException(gameCode);
         }
 
-        GameSession game = repository.save(createNewGameSession(gameCode));
+        return withRetry(() -> {
+            GameSession game = loadGame(gameCode);
 
-        log.info("Создана игра: id={}, gameCode={}, players={}",
-                game.getId(), game.getGameCode(), game.getPlayers().size());
+            log.info("Создана игра: id={}, gameCode={}, players={}",
+                    game.getId(), game.getGameCode(), game.getPlayers().size());
 
-        attachAndSaveOrUpdate(playerId, game);
-
-        return game;
+            return attachAndSaveOrUpdate(playerId, game);
+        });
     }
 
     /**
      * Возвращает список активных игровых сессий.
      *
      * <p>
-     * Загружает все сессии из репозитория,
-     * логирует игроков в каждой сессии
-     * и маппит результат в {@link GameSessionDto}.
+     * Лобби нужны только код комнаты и число игроков, поэтому они читаются
+     * одним агрегирующим запросом без загрузки игроков и их юнитов.
      * </p>
      *
      * @return список DTO игровых сессий
      */
-    @Transactional(readOnly = true)
     public List<GameSessionDto> getAllSessions() {
-        return repository.findAll().stream()
-                .peek(gs -> {
-                    String playerNames = gs.getPlayers().stream()
-                            .map(Player::getUsername)
-                            .collect(Collectors.joining(", "));
-                    log.info("Game {} has {} players: {}", gs.getGameCode(), gs.getPlayers().size(), playerNames);
-                })
-                .map(gs -> new GameSessionDto(gs.getGameCode(), gs.getPlayers().size()))
-                .toList();
+        return repository.findLobby();
     }
 
     /**
      * Вспомогательный метод: прикрепляет игрока к сессии и сохраняет изменения.
+     * Загруженный при этом активный юнит игрока передаётся в {@link PreparedUnitRegistry},
+     * чтобы подключение к комнате не читало его из БД повторно.
      *
      * @param playerId ID игрока
      * @param game     доменная модель игры
      * @return обновлённая модель {@link GameSession}
      */
     private GameSession attachAndSaveOrUpdate(Long playerId, GameSession game) {
-        attachPlayerToGame(playerId, game);
+        Player player = attachPlayerToGame(playerId, game);
         log.info("Перед сохранением: {} игроков в игре {}", game.getPlayers().size(), game.getGameCode());
 
         repository.updateOrSaveGame(game);
+        player.getActiveUnit().ifPresent(unit -> preparedUnits.put(game.getGameCode(), player.getUsername(), unit));
         return game;
     }
 
@@ -133,15 +163,17 @@ public class GameSessionService {
      *
      * @param playerId ID игрока
      * @param game     доменная модель игры {@link GameSession}
+     * @return загруженный игрок
      * @throws IllegalArgumentException если игрок не найден
      */
-    private void attachPlayerToGame(Long playerId, GameSession game) {
+    private Player attachPlayerToGame(Long playerId, GameSession game) {
         Player player = playerRepository.findById(playerId)
                 .orElseThrow(() -> new IllegalArgumentException("Player not found"));
 
         if (!game.getPlayers().contains(player)) {
             game.addPlayer(player);
         }
+        return player;
     }
 
     /**
@@ -152,13 +184,15 @@ public class GameSessionService {
      * @return обновлённая модель {@link GameSession}
      * @throws IllegalArgumentException если игрок не найден или сессия не существует
      */
-    @Transactional
     public GameSession joinGame(String gameCode, Long playerId) {
         validatePlayerId(playerId);
-        GameSession game = repository.findByGameCode(gameCode)
-                .orElseThrow(() -> new IllegalArgumentException("Комната не найдена или не существует"));
 
-        return attachAndSaveOrUpdate(playerId, game);
+        return withRetry(() -> {
+            GameSession game = repository.findByGameCode(gameCode)
+                    .orElseThrow(() -> new IllegalArgumentException("Комната не найдена или не существует"));
+
+            return attachAndSaveOrUpdate(playerId, game);
+        });
     }
 
     /**
@@ -168,37 +202,94 @@ public class GameSessionService {
      * @param username игрока
      * @throws IllegalArgumentException если игрок или сессия не найдены
      */
-    @Transactional
     public void removePlayerFromGame(String gameCode, String username) {
-        GameSession game = repository.findByGameCode(gameCode)
-                .orElseThrow(() -> new IllegalArgumentException("Комната не найдена"));
+        withRetry(() -> {
+            GameSession game = repository.findByGameCode(gameCode)
+                    .orElseThrow(() -> new IllegalArgumentException("Комната не найдена"));
 
-        game.removePlayerByName(username);
-        log.info("Игрок {} удалён из игры {}", username, gameCode);
+            game.removePlayerByName(username);
+            log.info("Игрок {} удалён из игры {}", username, gameCode);
 
-        repository.updateOrSaveGame(game);
+            repository.updateOrSaveGame(game);
+            return game;
+        });
     }
 
     /**
-     * Находит существующую сессию по коду или создаёт новую.
+     * Выполняет операцию над игрой в отдельной транзакции и повторяет её при конфликте версий.
+     * <p>
+     * Каждая попытка заново читает игру, поэтому повтор видит изменения конкурентного запроса.
+     * Между попытками — короткая случайная пауза, чтобы столкнувшиеся запросы разошлись.
      *
-     * @param gameCode код сессии
-     * @return доменная модель {@link GameSession}
+     * @param operation операция чтения и изменения игры
+     * @return результат операции
+     * @throws OptimisticLockingFailureException если конфликт повторился во всех попытках
      */
-    private GameSession findOrCreateGameSession(String gameCode) {
-        return repository.findByGameCode(gameCode)
-                .orElseGet(() -> createNewGameSession(gameCode));
+    private <T> T withRetry(Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactions.execute(status -> operation.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= updateAttempts) throw e;
+                log.info("Конфликт версий игры, повтор {}/{}", attempt + 1, updateAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 10L + 20L * attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Прервано ожидание повтора обновления игры", e);
+        }
     }
 
     /**
-     * Создаёт новую игровую сессию в состоянии {@link GameState#WAITING}
-     * и сохраняет её в базу.
+     * Создаёт игровую сессию в состоянии {@link GameState#WAITING}, если её ещё нет.
+     * <p>
+     * Запрос в БД выполняет только первый из одновременных вызовов для кода;
+     * остальные дожидаются его результата. Вызывается только вне транзакции: тогда
+     * созданная строка зафиксирована к моменту возврата, и все вызывающие сразу её видят,
+     * а ожидающие не держат соединений пула.
      *
      * @param gameCode код создаваемой игры
+     * @return {@code true}, если игра создана этим вызовом
+     */
+    private boolean createGame(String gameCode) {
+        CompletableFuture<Boolean> mine = new CompletableFuture<>();
+        CompletableFuture<Boolean> inFlight = creating.putIfAbsent(gameCode, mine);
+        if (inFlight != null) {
+            try {
+                inFlight.join();
+                return false;
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            boolean created = repository.createIfAbsent(gameCode, GameState.WAITING);
+            mine.complete(created);
+            return created;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            creating.remove(gameCode, mine);
+        }
+    }
+
+    /**
+     * Загружает только что созданную или найденную игру.
+     *
+     * @param gameCode код игры
      * @return доменная модель {@link GameSession} с установленным ID
      */
-    private GameSession createNewGameSession(String gameCode) {
-        return new GameSession(gameCode, GameState.WAITING);
+    private GameSession loadGame(String gameCode) {
+        return repository.findByGameCode(gameCode)
+                .orElseThrow(() -> new IllegalStateException("Игра не найдена после создания: " + gameCode));
     }
 
     /**
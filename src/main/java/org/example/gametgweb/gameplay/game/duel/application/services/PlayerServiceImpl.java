@@ -1,30 +1,39 @@
 package org.example.gametgweb.gameplay.game.duel.application.services;
 
+import lombok.extern.slf4j.Slf4j;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.security.PasswordEncoderServiceImpl;
 import org.example.gametgweb.gameplay.game.duel.shared.PlayerDetails;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.entity.PlayerEntity;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.repository.JpaPlayerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Сервис для управления игроками (PlayerEntity) и интеграции с Spring Security.
  * Реализует интерфейс {@link UserDetailsService} для поддержки аутентификации.
  */
+@Slf4j
 @Service
 public class PlayerServiceImpl implements PlayerService, UserDetailsService {
 
     private final JpaPlayerRepository jpaPlayerRepository;
     private final PasswordEncoderServiceImpl passwordEncoder;
 
+    /** Игроки с ролью {@code ROLE_ADMIN} (доступ к {@code /admin/**}). */
+    private final Set<String> adminUsernames;
+
     @Autowired
-    public PlayerServiceImpl(JpaPlayerRepository jpaPlayerRepository, PasswordEncoderServiceImpl passwordEncoder) {
+    public PlayerServiceImpl(JpaPlayerRepository jpaPlayerRepository, PasswordEncoderServiceImpl passwordEncoder,
+                             @Value("${game.admin.usernames:}") Set<String> adminUsernames) {
         this.jpaPlayerRepository = jpaPlayerRepository;
         this.passwordEncoder = passwordEncoder;
+        this.adminUsernames = adminUsernames;
     }
 
     /**
@@ -100,14 +109,14 @@ public class PlayerServiceImpl implements PlayerService, UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        System.out.println("Попытка загрузки пользователя: " + username); // логируем имя
+        log.debug("Загрузка пользователя {}", username);
         PlayerEntity player = findByUsername(username);
         if (player == null) {
-            System.out.println("Пользователь не найден: " + username);
+            log.debug("Пользователь {} не найден", username);
             throw new UsernameNotFoundException("User not found: " + username);
         }
-        System.out.println("Пользователь найден, хэш пароля: " + player.getPassword());
-        return new PlayerDetails(player);
+        log.debug("Пользователь {} найден", username);
+        return new PlayerDetails(player, adminUsernames.contains(player.getUsername()));
     }
 
 }
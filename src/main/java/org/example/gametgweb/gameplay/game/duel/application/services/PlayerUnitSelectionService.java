@@ -60,7 +60,7 @@ public class PlayerUnitSelectionService {
      * @throws IllegalArgumentException если игрок не найден в базе данных
      */
     public Player selectUnitForPlayer(Player player, PlayerUnit unit) {
-        PlayerEntity entity = jpaPlayerRepository.findById(player.getId())
+        PlayerEntity entity = jpaPlayerRepository.findWithActiveUnitById(player.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Player not found"));
         log.info(unit.getId().toString());
         log.info("айди вроде найден");
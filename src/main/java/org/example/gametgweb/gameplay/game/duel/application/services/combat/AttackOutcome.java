@@ -0,0 +1,16 @@
+package org.example.gametgweb.gameplay.game.duel.application.services.combat;
+
+/**
+ * Результат одной атаки, рассчитанной {@link CombatEngine}.
+ *
+ * @param message       текстовое описание хода
+ * @param damage        рассчитанный урон (до множителя части тела у защищающегося)
+ * @param critical      {@code true}, если удар оказался критическим
+ * @param partDestroyed {@code true}, если атакованная часть тела уничтожена
+ */
+public record AttackOutcome(
+        String message,
+        long damage,
+        boolean critical,
+        boolean partDestroyed
+) {}
@@ -0,0 +1,49 @@
+package org.example.gametgweb.gameplay.game.duel.application.services.combat;
+
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.DuelRoundResponseDto;
+
+/**
+ * Итог обработки хода игрока в {@link DuelCombatService}.
+ *
+ * @param status что произошло с ходом
+ * @param round  результат раунда — только для {@link Status#RESOLVED}
+ */
+public record AttackResult(Status status, DuelRoundResponseDto round) {
+
+    /** Что произошло с ходом */
+    public enum Status {
+        /** Ход закрыл раунд, результат в {@link AttackResult#round()}. */
+        RESOLVED,
+        /** Ход принят, ожидается ход второго игрока. */
+        WAITING,
+        /** Ход отклонён: снимок комнаты сейчас передаётся другому узлу. */
+        MIGRATING,
+        /** Ход отклонён: комната уже передана другому узлу. */
+        MOVED_AWAY
+    }
+
+    private static final AttackResult WAITING = new AttackResult(Status.WAITING, null);
+    private static final AttackResult MIGRATING = new AttackResult(Status.MIGRATING, null);
+    private static final AttackResult MOVED_AWAY = new AttackResult(Status.MOVED_AWAY, null);
+
+    public static AttackResult resolved(DuelRoundResponseDto round) {
+        return new AttackResult(Status.RESOLVED, round);
+    }
+
+    public static AttackResult waiting() {
+        return WAITING;
+    }
+
+    public static AttackResult migrating() {
+        return MIGRATING;
+    }
+
+    public static AttackResult movedAway() {
+        return MOVED_AWAY;
+    }
+
+    /** Отклонён ли ход — клиенту нужно повторить его после переподключения */
+    public boolean rejected() {
+        return status == Status.MIGRATING || status == Status.MOVED_AWAY;
+    }
+}
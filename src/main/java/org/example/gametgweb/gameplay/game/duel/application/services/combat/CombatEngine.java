@@ -2,43 +2,60 @@ package org.example.gametgweb.gameplay.game.duel.application.services.combat;
 
 import lombok.extern.slf4j.Slf4j;
 import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
-import org.example.gametgweb.gameplay.game.duel.application.events.BodyPartDestroyedEvent;
 import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.util.random.RandomGenerator;
+
 @Slf4j
 @Component
 public class CombatEngine {
 
-    private final ApplicationEventPublisher eventPublisher;
+    /**
+     * Выполняет атаку одного юнита на другого.
+     *
+     * @param attacker атакующий юнит
+     * @param defender защищающийся юнит
+     * @param target   часть тела, в которую идёт удар
+     * @param gameCode код игровой комнаты
+     * @param random   генератор случайных чисел комнаты
+     * @return результат атаки
+     */
+    public AttackOutcome performAttack(PlayerUnit attacker, PlayerUnit defender, Body target, String gameCode, RandomGenerator random) {
+        AttackOutcome outcome = simulateAttack(attacker, defender, target, random);
 
-    @Autowired
-    public CombatEngine(ApplicationEventPublisher eventPublisher) {
-        this.eventPublisher = eventPublisher;
+        // уничтоженные части тела уходят клиентам в кадре состояния комнаты
+        if (outcome.partDestroyed()) {
+            log.warn("💀 {} потерял {} в комнате {}", defender.getName(), target, gameCode);
+        }
+        return outcome;
     }
 
     /**
-     * Выполняет атаку одного юнита на другого.
+     * Рассчитывает атаку так же, как {@link #performAttack}, но без публикации событий.
+     * Используется движком воспроизведения дуэлей.
      *
      * @param attacker атакующий юнит
      * @param defender защищающийся юнит
      * @param target   часть тела, в которую идёт удар
-     * @param gameCode код игровой комнаты
-     * @return текстовое описание хода
+     * @param random   генератор случайных чисел
+     * @return результат атаки
      */
-    public String performAttack(PlayerUnit attacker, PlayerUnit defender, Body target, String gameCode) {
+    public AttackOutcome simulateAttack(PlayerUnit attacker, PlayerUnit defender, Body target, RandomGenerator random) {
         validateAttackParameters(attacker, defender, target);
 
-        long damage = calculateDamage(attacker, target);
+        boolean critical = isCritical(random);
+        long damage = calculateDamage(attacker, target, critical);
         validateDamage(damage);
 
         double efficiency = applyDamageAndGetEfficiency(defender, target, damage);
 
-        checkAndPublishBodyPartDestroyed(gameCode, defender, target, efficiency);
-
-        return formatAttackMessage(attacker, defender, target, damage);
+        return new AttackOutcome(
+                formatAttackMessage(attacker, defender, target, damage),
+                damage,
+                critical,
+                efficiency == 0.0
+        );
     }
 
     /**
@@ -67,18 +84,6 @@ public class CombatEngine {
         return defender.takeDamage(target, damage);
     }
 
-    /**
-     * Проверяет уничтожение части тела и публикует событие если необходимо.
-     */
-    private void checkAndPublishBodyPartDestroyed(String gameCode, PlayerUnit defender, Body target, double efficiency) {
-        if (efficiency == 0.0) {
-            log.warn("💀 {} потерял {}", defender.getName(), target);
-            eventPublisher.publishEvent(
-                    new BodyPartDestroyedEvent(this, gameCode, defender.getName(), target)
-            );
-        }
-    }
-
     /**
      * Форматирует сообщение о результате атаки.
      */
@@ -97,11 +102,10 @@ public class CombatEngine {
     /**
      * Здесь можно добавить механику критов, брони, уклонения и т.д.
      */
-    private long calculateDamage(PlayerUnit attacker, Body target) {
+    private long calculateDamage(PlayerUnit attacker, Body target, boolean critical) {
         long baseDamage = attacker.getDamage();
 
-        // Критический удар 10%
-        if (Math.random() < 0.1) {
+        if (critical) {
             log.debug("💥 Критический удар по {}", target);
             return (long) (baseDamage * target.getDamageMultiplier() * 1.5);
         }
@@ -109,4 +113,12 @@ public class CombatEngine {
         // Используем множитель части тела
         return (long) (baseDamage * target.getDamageMultiplier());
     }
+
+    /**
+     * Критический удар — 10%. Случайность берётся только из генератора комнаты,
+     * чтобы бой можно было воспроизвести по seed.
+     */
+    private boolean isCritical(RandomGenerator random) {
+        return random.nextDouble() < 0.1;
+    }
 }
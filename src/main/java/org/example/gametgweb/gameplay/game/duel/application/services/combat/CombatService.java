@@ -2,15 +2,23 @@ package org.example.gametgweb.gameplay.game.duel.application.services.combat;
 
 import lombok.RequiredArgsConstructor;
 import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.eventlog.DuelEventLog;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.eventlog.DuelLogRecord;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr.RoundEvent;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.DuelRoundResult;
 import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.SplittableRandom;
+
 @Service
 @RequiredArgsConstructor
 public class CombatService {
 
     private final CombatEngine engine;
+    private final DuelRandomRegistry randoms;
+    private final DuelEventLog eventLog;
 
 //    public String attack(PlayerUnit attacker, PlayerUnit defender, Body body) {
 //        return engine.performAttack(attacker, defender, body);
@@ -20,6 +28,10 @@ public class CombatService {
     /**
      * Выполняет раунд дуэли: оба игрока атакуют друг друга выбранными частями тела.
      *
+     * <p>Первый раунд комнаты создаёт генератор с новым seed и пишет в журнал
+     * начальное состояние юнитов; каждый раунд дописывается в {@link DuelEventLog},
+     * по смерти юнита журнал дуэли закрывается.
+     *
      * @param attacker первый игрок
      * @param bodyA часть тела, выбранная первым игроком для атаки
      * @param defender второй игрок
@@ -27,15 +39,55 @@ public class CombatService {
      * @return карта с описанием боя и текущим здоровьем
      */
     public DuelRoundResult duelRound(PlayerUnit attacker, Body bodyA, PlayerUnit defender, Body bodyD, String gameCode) {
-        String msg1 = engine.performAttack(attacker, defender, bodyA, gameCode);
-        String msg2 = engine.performAttack(defender, attacker, bodyD, gameCode);
+        RoundEvent event = new RoundEvent();
+        event.begin();
+        try {
+            SplittableRandom random = randoms.forRoom(gameCode,
+                    seed -> eventLog.append(new DuelLogRecord.Start(gameCode, System.currentTimeMillis(), seed,
+                            List.of(snapshot(attacker), snapshot(defender)))));
+
+            AttackOutcome first = engine.performAttack(attacker, defender, bodyA, gameCode, random);
+            AttackOutcome second = engine.performAttack(defender, attacker, bodyD, gameCode, random);
+
+            eventLog.append(new DuelLogRecord.Round(gameCode, System.currentTimeMillis(),
+                    unitId(attacker), bodyA,
+                    unitId(defender), bodyD,
+                    first.damage(), first.critical(),
+                    second.damage(), second.critical(),
+                    first.partDestroyed(), second.partDestroyed(),
+                    attacker.getHealth(), defender.getHealth()));
+
+            if (!attacker.isAlive() || !defender.isAlive()) {
+                eventLog.append(new DuelLogRecord.End(gameCode, System.currentTimeMillis()));
+                randoms.release(gameCode);
+            }
 
-        long attackerHpPercent = (attacker.getHealth() / attacker.getMaxHealth()) * 100;
-        long defenderHpPercent = (defender.getHealth() / defender.getMaxHealth()) * 100;
+            String msg1 = first.message();
+            String msg2 = second.message();
 
-        return new DuelRoundResult(new String[]{msg1, msg2},
-                attackerHpPercent,
-                defenderHpPercent);
+            long attackerHpPercent = (attacker.getHealth() / attacker.getMaxHealth()) * 100;
+            long defenderHpPercent = (defender.getHealth() / defender.getMaxHealth()) * 100;
+
+            return new DuelRoundResult(new String[]{msg1, msg2},
+                    attackerHpPercent,
+                    defenderHpPercent);
+        } finally {
+            // событие закрывается и при исключении расчёта: иначе JFR не увидит упавший раунд
+            event.complete(gameCode, 2, 0);
+        }
+    }
+
+    private static DuelLogRecord.UnitSnapshot snapshot(PlayerUnit unit) {
+        Body[] parts = Body.values();
+        double[] efficiency = new double[parts.length];
+        for (Body part : parts) {
+            efficiency[part.ordinal()] = unit.getBodyEfficiency().getCurrentEfficiency(part);
+        }
+        return new DuelLogRecord.UnitSnapshot(unitId(unit), unit.getName(),
+                unit.getMaxHealth(), unit.getHealth(), unit.getDamage(), efficiency);
     }
 
+    private static long unitId(PlayerUnit unit) {
+        return unit.getId() != null ? unit.getId() : -1L;
+    }
 }
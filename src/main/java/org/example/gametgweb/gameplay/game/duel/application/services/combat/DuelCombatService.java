@@ -1,22 +1,23 @@
 package org.example.gametgweb.gameplay.game.duel.application.services.combat;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
 import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelDeathDetector;
 import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelTurn;
 import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelTurnManager;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.cluster.RoomOwnership;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr.AttackEvent;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.DuelRoundResponseDto;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.DuelRoundResult;
-import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.RoomSessionRegistry;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service.MessageDispatcherService;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.UnitRegistryService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.FrameCache;
 import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * DuelCombatService — сервис обработки логики боя между двумя игроками в дуэли.
@@ -27,8 +28,11 @@ import java.util.concurrent.ConcurrentHashMap;
  *     <li>Определение готовности хода (когда оба игрока сделали выбор);</li>
  *     <li>Вызов {@link CombatService#duelRound(PlayerUnit, Body, PlayerUnit, Body, String)} для расчёта результатов боя;</li>
  *     <li>Очистку хода после завершения раунда;</li>
- *     <li>Возврат результата боя в виде JSON строки.</li>
+ *     <li>Возврат результата боя в виде {@link DuelRoundResponseDto}.</li>
  * </ul>
+ *
+ * <p>Ход в комнате, которая переносится или уже перенесена на другой узел, не регистрируется:
+ * {@link AttackResult} сообщает об этом отдельным статусом, чтобы клиент повторил ход.
  */
 @Slf4j
 @Service
@@ -36,10 +40,11 @@ public class DuelCombatService {
 
     private final DuelTurnManager turnManager;
     private final CombatService combatService;
-    private final RoomSessionRegistry roomSessionRegistry;
+    private final MessageDispatcherService messageDispatcher;
     private final UnitRegistryService unitRegistryService;
-    private final ObjectMapper objectMapper;
+    private final FrameCache frameCache;
     private final DuelDeathDetector duelDeathDetector;
+    private final RoomOwnership ownership;
 
     /**
      * Потокобезопасная карта для хранения объектов-мониторов, используемых для синхронизации
@@ -53,23 +58,26 @@ public class DuelCombatService {
      *
      * @param turnManager         Сервис управления текущим ходом дуэли.
      * @param combatService       Сервис бизнес-логики, выполняющий расчёт одного раунда боя.
-     * @param roomSessionRegistry Реестр сессий для широковещательной рассылки уведомлений.
+     * @param messageDispatcher   Диспетчер сообщений для рассылки уведомлений игрокам комнаты.
      * @param unitRegistryService Реестр юнитов для получения текущего состояния юнитов перед расчетом.
-     * @param objectMapper        Объект для сериализации ответов в JSON.
+     * @param frameCache          Кеш заранее сериализованных сообщений.
+     * @param ownership           Распределение комнат по узлам (переданные комнаты не обрабатываются).
      */
     @Autowired
     public DuelCombatService(DuelTurnManager turnManager,
                              CombatService combatService,
-                             RoomSessionRegistry roomSessionRegistry,
+                             MessageDispatcherService messageDispatcher,
                              UnitRegistryService unitRegistryService,
-                             ObjectMapper objectMapper,
-                             DuelDeathDetector duelDeathDetector) {
+                             FrameCache frameCache,
+                             DuelDeathDetector duelDeathDetector,
+                             RoomOwnership ownership) {
         this.turnManager = turnManager;
         this.combatService = combatService;
-        this.roomSessionRegistry = roomSessionRegistry;
+        this.messageDispatcher = messageDispatcher;
         this.unitRegistryService = unitRegistryService;
-        this.objectMapper = objectMapper;
+        this.frameCache = frameCache;
         this.duelDeathDetector = duelDeathDetector;
+        this.ownership = ownership;
     }
 
     /**
@@ -82,13 +90,36 @@ public class DuelCombatService {
      * @param gameCode Код комнаты дуэли.
      * @param player   Имя игрока, совершившего ход.
      * @param body     Выбранное игроком тело для атаки (Body).
-     * @return JSON-строка с результатом раунда, если оба игрока сделали ход; {@code null}, если ожидается второй игрок.
+     * @return результат раунда, ожидание второго игрока или отказ из-за переноса комнаты.
      * @throws Exception Ошибка при выполнении операций.
      */
-    public String processAttack(String gameCode, String player, Body body) throws Exception {
+    public AttackResult processAttack(String gameCode, String player, Body body) throws Exception {
+        AttackEvent event = new AttackEvent();
+        event.begin();
+        AttackResult result = null;
+        try {
+            result = attackInRoom(gameCode, player, body);
+            return result;
+        } finally {
+            event.complete(gameCode, player, result != null && result.status() == AttackResult.Status.RESOLVED);
+        }
+    }
+
+    private AttackResult attackInRoom(String gameCode, String player, Body body) {
         Object roomLock = locks.computeIfAbsent(gameCode, k -> new Object());
 
         synchronized (roomLock) {
+            // комната передана другому узлу — ход нужно повторить там
+            if (ownership.isMovedAway(gameCode)) {
+                log.info("Ход {} в комнате {} отклонён: комната перенесена на {}", player, gameCode, ownership.ownerOf(gameCode));
+                return AttackResult.movedAway();
+            }
+            // снимок комнаты уже передаётся — ход не попал бы в него
+            if (ownership.isMigrating(gameCode)) {
+                log.info("Ход {} в комнате {} отклонён: комната переносится на другой узел", player, gameCode);
+                return AttackResult.migrating();
+            }
+
             DuelTurn turn = turnManager.addMove(gameCode, player, body);
 
             // игрок нажал "Атаковать"
@@ -98,7 +129,8 @@ public class DuelCombatService {
             selectionNotification(turn, gameCode);
 
             // если оба игрока нажали "Атаковать" → считаем раунд
-            return readingRound(turn, gameCode);
+            DuelRoundResponseDto round = readingRound(turn, gameCode);
+            return round != null ? AttackResult.resolved(round) : AttackResult.waiting();
         }
     }
 
@@ -111,16 +143,12 @@ public class DuelCombatService {
      *
      * @param turn     Текущий объект хода дуэли.
      * @param gameCode Код комнаты.
-     * @throws JsonProcessingException если произошла ошибка при сериализации JSON-сообщения.
      */
-    private void selectionNotification(DuelTurn turn, String gameCode) throws JsonProcessingException {
+    private void selectionNotification(DuelTurn turn, String gameCode) {
         // уведомление о том, что оба игрока сделали выбор
         if (turn.isReady() && !turn.isBothSelectedNotified()) {
             turn.setBothSelectedNotified(true);
-            roomSessionRegistry.broadcast(
-                    gameCode,
-                    objectMapper.writeValueAsString(Map.of("type", "bothSelected"))
-            );
+            messageDispatcher.broadcastFrame(gameCode, frameCache.bothSelected());
         }
     }
 
@@ -132,16 +160,14 @@ public class DuelCombatService {
      *
      * @param turn     Текущий объект хода дуэли.
      * @param gameCode Код игровой комнаты.
-     * @return JSON-строка с результатом раунда, если оба готовы; {@code null}, если ожидается второй игрок.
-     * @throws JsonProcessingException если произошла ошибка при сериализации JSON.
+     * @return результат раунда, если оба готовы; {@code null}, если ожидается второй игрок.
      */
-    private String readingRound(DuelTurn turn, String gameCode) throws JsonProcessingException {
+    private DuelRoundResponseDto readingRound(DuelTurn turn, String gameCode) {
         if (turn.isReady()) {
             PlayerUnit u1 = unitRegistryService.getUnit(gameCode, turn.getPlayer1());
             PlayerUnit u2 = unitRegistryService.getUnit(gameCode, turn.getPlayer2());
 
-            log.info(String.valueOf(u1.getId()));
-            log.info(String.valueOf(u2.getId()));
+            log.atDebug().addKeyValue("room", gameCode).log("Раунд юнитов {} и {}", u1.getId(), u2.getId());
 
             DuelRoundResult result = combatService.duelRound(u1, turn.getBody1(), u2, turn.getBody2(), gameCode);
 
@@ -161,9 +187,27 @@ public class DuelCombatService {
             duelDeathDetector.checkAndPublishDuelResult(gameCode, u1, u2, player1Name, player2Name);
             // очищаем ход после раунда
             turnManager.removeTurn(gameCode);
-            return objectMapper.writeValueAsString(response);
+            return response;
         }
 
         return null; // ждём второго игрока
     }
+
+    /**
+     * Выполняет действие под блокировкой комнаты — так же, как обработка атаки.
+     *
+     * <p>Используется снимком комнаты, чтобы юниты и текущий ход
+     * были зафиксированы согласованно, а не посреди раунда.</p>
+     *
+     * @param gameCode Код комнаты дуэли.
+     * @param action   Действие над состоянием комнаты.
+     * @return результат действия.
+     */
+    public <T> T inRoom(String gameCode, Supplier<T> action) {
+        Object roomLock = locks.computeIfAbsent(gameCode, k -> new Object());
+
+        synchronized (roomLock) {
+            return action.get();
+        }
+    }
 }
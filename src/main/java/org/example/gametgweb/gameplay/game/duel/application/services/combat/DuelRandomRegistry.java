@@ -0,0 +1,66 @@
+package org.example.gametgweb.gameplay.game.duel.application.services.combat;
+
+import org.example.gametgweb.gameplay.game.duel.application.events.RoomAbandonedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongConsumer;
+
+/**
+ * Реестр генераторов случайных чисел дуэлей.
+ *
+ * <p>У каждой комнаты свой генератор с явным seed: зная seed и ходы,
+ * любой бой можно воспроизвести заново с теми же критическими ударами.
+ *
+ * <p>Генератор не потокобезопасен и используется только под блокировкой комнаты
+ * в {@link DuelCombatService}.
+ *
+ * <p>Генератор удаляется по окончании дуэли, при переносе комнаты на другой узел
+ * и когда комнату покинули все игроки ({@link RoomAbandonedEvent}).
+ */
+@Component
+public class DuelRandomRegistry {
+
+    /**
+     * Генераторы активных дуэлей.
+     * Key — gameCode, Value — генератор, созданный из seed комнаты.
+     */
+    private final ConcurrentHashMap<String, SplittableRandom> randoms = new ConcurrentHashMap<>();
+
+    /**
+     * Возвращает генератор комнаты, создавая его при первом раунде.
+     *
+     * @param gameCode код комнаты
+     * @param onCreate вызывается с seed, если генератор был только что создан
+     * @return генератор комнаты
+     */
+    public SplittableRandom forRoom(String gameCode, LongConsumer onCreate) {
+        return randoms.computeIfAbsent(gameCode, k -> {
+            long seed = ThreadLocalRandom.current().nextLong();
+            onCreate.accept(seed);
+            return new SplittableRandom(seed);
+        });
+    }
+
+    /**
+     * Удаляет генератор завершённой дуэли.
+     *
+     * @param gameCode код комнаты
+     */
+    public void release(String gameCode) {
+        randoms.remove(gameCode);
+    }
+
+    /**
+     * Удаляет генератор комнаты, брошенной игроками до конца дуэли.
+     *
+     * @param event событие удаления комнаты
+     */
+    @EventListener
+    public void onRoomAbandoned(RoomAbandonedEvent event) {
+        release(event.gameCode());
+    }
+}
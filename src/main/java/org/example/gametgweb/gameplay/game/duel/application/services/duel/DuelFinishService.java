@@ -3,19 +3,36 @@ package org.example.gametgweb.gameplay.game.duel.application.services.duel;
 import lombok.extern.slf4j.Slf4j;
 import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
 import org.example.gametgweb.characterSelection.domain.repository.PlayerUnitRepositoryImpl;
+import org.example.gametgweb.characterSelection.infrastructure.persistence.entity.BodyPartEfficiency;
 import org.example.gametgweb.gameplay.game.duel.application.services.GameServiceImpl;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr.FinishEvent;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.entity.DuelResultOutboxEntity;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.entity.DuelResultOutboxEntity.Outcome;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.repository.JpaDuelResultOutboxRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
 
 /**
  * DuelFinishService — сервис для завершения дуэлей и обработки состояния юнитов.
  *
- * <p>Отвечает за:
- * <ul>
- *     <li>Сохранение состояния юнитов после боя;</li>
- *     <li>Сброс юнитов проигравших до шаблона;</li>
- *     <li>Удаление игровой сессии после окончания дуэли.</li>
- * </ul>
+ * <p>Завершение дуэли идёт через outbox-таблицу {@code duel_result_outbox}:
+ * <ol>
+ *     <li>В момент окончания боя результат одной короткой вставкой
+ *         записывается в outbox ({@link #enqueueWin}, {@link #enqueueDraw});</li>
+ *     <li>Фоновый обработчик вызывает {@link #finalizeResult} для каждой строки:
+ *         сохраняет юниты, сбрасывает проигравших до шаблона,
+ *         удаляет игровую сессию и саму строку — в одной транзакции.</li>
+ * </ol>
+ *
+ * <p>Так задержки БД не попадают на критический путь раунда,
+ * а падение между уведомлением игроков и сохранением не теряет результат.
+ *
+ * <p>Каждый шаг пишет событие JFR {@link FinishEvent}, которое закрывается после коммита транзакции,
+ * поэтому длительность включает и сброс изменений в БД.
  */
 @Slf4j
 @Service
@@ -23,65 +40,149 @@ public class DuelFinishService {
 
     private final PlayerUnitRepositoryImpl playerUnitRepository;
     private final GameServiceImpl gameService;
+    private final JpaDuelResultOutboxRepository outboxRepository;
 
-    public DuelFinishService(PlayerUnitRepositoryImpl playerUnitRepository, GameServiceImpl gameService) {
+    public DuelFinishService(PlayerUnitRepositoryImpl playerUnitRepository,
+                             GameServiceImpl gameService,
+                             JpaDuelResultOutboxRepository outboxRepository) {
         this.playerUnitRepository = playerUnitRepository;
         this.gameService = gameService;
+        this.outboxRepository = outboxRepository;
     }
 
     /**
-     * Завершает дуэль между двумя игроками.
+     * Записывает в outbox результат дуэли с победителем.
      *
-     * <p>Сохраняет состояние юнита победителя, ресетит юнит проигравшего до шаблона
-     * и удаляет игровую сессию.</p>
+     * <p>Сохраняет снимок здоровья и эффективности частей тела победителя,
+     * так как юнит в памяти может измениться до обработки строки.</p>
      *
      * @param gameCode Игровая сессия дуэли
      * @param winner  Игрок-победитель
      * @param loser   Игрок-проигравший
      */
     @Transactional
-    public void finishDuel(String gameCode, PlayerUnit winner, PlayerUnit loser) {
+    public void enqueueWin(String gameCode, PlayerUnit winner, PlayerUnit loser) {
+        completeAfterCommit(gameCode, "win");
+        DuelResultOutboxEntity entry = newEntry(gameCode, Outcome.WIN);
+        entry.setWinnerUnitId(winner.getId());
+        entry.setWinnerHealth(winner.getHealth());
+        entry.setWinnerEfficiency(new BodyPartEfficiency(winner.getBodyEfficiency()));
+        entry.setLoserUnitId(loser.getId());
 
-        Long winnerId = winner.getId();
-        log.info("Winner id: {}", winnerId.toString());
-        Long loserId = loser.getId();
-        log.info("Winner id: {}", loserId.toString());
+        outboxRepository.save(entry);
+        log.info("Результат дуэли {} записан в outbox: победил {}", gameCode, winner.getName());
+    }
 
-        // 1. сохранить состояние юнита победителя
-        playerUnitRepository.save(winner);
-        log.info(winner.getName() + " won the game");
+    /**
+     * Записывает в outbox результат дуэли с одновременной смертью обоих игроков.
+     *
+     * @param gameCode Игровая сессия дуэли
+     * @param loser1  Первый игрок, умерший в дуэли
+     * @param loser2  Второй игрок, умерший в дуэли
+     */
+    @Transactional
+    public void enqueueDraw(String gameCode, PlayerUnit loser1, PlayerUnit loser2) {
+        completeAfterCommit(gameCode, "draw");
+        DuelResultOutboxEntity entry = newEntry(gameCode, Outcome.DRAW);
+        entry.setLoserUnitId(loser1.getId());
+        entry.setSecondLoserUnitId(loser2.getId());
+
+        outboxRepository.save(entry);
+        log.info("Результат дуэли {} записан в outbox: ничья", gameCode);
+    }
+
+    /**
+     * Захватывает и применяет одну строку outbox к основным таблицам.
+     *
+     * <p>Строка захватывается {@code FOR UPDATE SKIP LOCKED} до конца транзакции, поэтому
+     * при нескольких узлах её применяет только один. Сохраняет состояние юнита победителя,
+     * ресетит юниты проигравших до шаблона, удаляет игровую сессию и строку outbox.
+     * Всё выполняется в одной транзакции, поэтому при ошибке строка остаётся
+     * и будет обработана повторно.</p>
+     *
+     * @param id идентификатор строки outbox
+     * @return {@code false}, если строку уже применили, она в dead-letter или её применяет другой узел
+     */
+    @Transactional
+    public boolean finalizeResult(Long id) {
+        DuelResultOutboxEntity entry = outboxRepository.claim(id).orElse(null);
+        if (entry == null) return false;
 
-        // 2. сбросить юнит проигравшего до шаблона и сохранить
+        completeAfterCommit(entry.getGameCode(), "finalize");
 
-        loser.resetToTemplate();
-        playerUnitRepository.save(loser); // теперь это update
-        log.info(loser.getName() + " lose the game");
+        // 1. сохранить состояние юнита победителя
+        if (entry.getOutcome() == Outcome.WIN) {
+            playerUnitRepository.findById(entry.getWinnerUnitId()).ifPresent(winner -> {
+                winner.setHealth(entry.getWinnerHealth());
+                winner.setBodyEfficiency(new BodyPartEfficiency(entry.getWinnerEfficiency()));
+                playerUnitRepository.save(winner);
+                log.info(winner.getName() + " won the game");
+            });
+        }
+
+        // 2. сбросить юниты проигравших до шаблона и сохранить
+        resetLoser(entry.getLoserUnitId());
+        if (entry.getSecondLoserUnitId() != null) {
+            resetLoser(entry.getSecondLoserUnitId());
+        }
 
         // 3. удалить комнату
-        gameService.deleteByGameCode(gameCode);
+        try {
+            gameService.deleteByGameCode(entry.getGameCode());
+        } catch (IllegalArgumentException e) {
+            log.warn("Комната {} уже удалена", entry.getGameCode());
+        }
+
+        outboxRepository.delete(entry);
+        return true;
     }
 
     /**
-     * Завершает дуэль с одновременной смертью обоих игроков.
+     * Учитывает неудачную попытку применить строку outbox и переводит её в dead-letter,
+     * когда попытки исчерпаны.
      *
-     * <p>Ресетит юнитов обоих игроков до шаблона, сохраняет их состояния и удаляет игровую сессию.</p>
-     *
-     * @param gameCode Игровая сессия дуэли
-     * @param loser1  Первый игрок, умерший в дуэли
-     * @param loser2  Второй игрок, умерший в дуэли
+     * @param id          идентификатор строки outbox
+     * @param error       ошибка применения
+     * @param maxAttempts допустимое число неудачных попыток
+     * @return {@code true}, если строка ушла в dead-letter
      */
     @Transactional
-    public void finishDuelWithDoubleDeath(String gameCode, PlayerUnit loser1, PlayerUnit loser2) {
-        // Сбросить первого
-            loser1.resetToTemplate();
-            playerUnitRepository.save(loser1);
+    public boolean recordFailure(Long id, RuntimeException error, int maxAttempts) {
+        String message = String.valueOf(error);
+        outboxRepository.recordFailure(id, message.length() > 1000 ? message.substring(0, 1000) : message);
+        return outboxRepository.markDeadIfExhausted(id, maxAttempts, Instant.now()) > 0;
+    }
 
-        // Сбросить второго
-        loser2.resetToTemplate();
-            playerUnitRepository.save(loser2);
+    /**
+     * Начинает событие JFR шага и закрывает его по завершении текущей транзакции.
+     * Пока запись выключена, синхронизация не регистрируется.
+     */
+    private static void completeAfterCommit(String gameCode, String phase) {
+        FinishEvent event = new FinishEvent();
+        if (!event.isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()) return;
 
-        // 3. удалить комнату
-        gameService.deleteByGameCode(gameCode);
+        event.begin();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                event.complete(gameCode, phase);
+            }
+        });
     }
-}
 
+    private void resetLoser(Long unitId) {
+        playerUnitRepository.findById(unitId).ifPresent(loser -> {
+            loser.resetToTemplate();
+            playerUnitRepository.save(loser); // теперь это update
+            log.info(loser.getName() + " lose the game");
+        });
+    }
+
+    private static DuelResultOutboxEntity newEntry(String gameCode, Outcome outcome) {
+        DuelResultOutboxEntity entry = new DuelResultOutboxEntity();
+        entry.setGameCode(gameCode);
+        entry.setOutcome(outcome);
+        entry.setCreatedAt(Instant.now());
+        return entry;
+    }
+}
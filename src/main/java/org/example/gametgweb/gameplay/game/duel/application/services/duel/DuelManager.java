@@ -3,9 +3,12 @@ package org.example.gametgweb.gameplay.game.duel.application.services.duel;
 import org.example.gametgweb.gameplay.game.duel.api.dto.GameSessionDto;
 import org.example.gametgweb.gameplay.game.duel.application.services.GameSessionService;
 import org.example.gametgweb.gameplay.game.duel.domain.model.GameSession;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.cluster.RoomOwnership;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -19,20 +22,24 @@ import java.util.List;
  * </ul>
  * <p>
  * Этот сервис служит "оркестратором", объединяя логику {@link GameSessionService} и возвращая готовые ссылки для фронтенда.
+ * Ссылка всегда ведёт на узел-владелец комнаты ({@link RoomOwnership}).
  */
 @Service
 public class DuelManager {
 
     private final GameSessionService gameService;
+    private final RoomOwnership ownership;
 
     /**
      * Конструктор с внедрением зависимостей.
      *
      * @param gameService сервис для работы с игровыми сессиями
+     * @param ownership   распределение комнат по узлам кластера
      */
     @Autowired
-    public DuelManager(GameSessionService gameService) {
+    public DuelManager(GameSessionService gameService, RoomOwnership ownership) {
         this.gameService = gameService;
+        this.ownership = ownership;
     }
 
     /**
@@ -96,7 +103,21 @@ public class DuelManager {
      * @return ссылка вида "/duel-battle.html?id={gameCode}"
      */
     private String buildGameLink(GameSession game) {
-        return "/duel-battle.html?id=" + game.getGameCode();
+        return roomLink(game.getGameCode());
+    }
+
+    /**
+     * Формирует ссылку на страницу дуэли на узле-владельце комнаты.
+     * <p>
+     * Для комнат текущего узла ссылка относительная, для чужих — абсолютная,
+     * с базовым URL владельца.
+     *
+     * @param gameCode код комнаты
+     * @return ссылка вида "/duel-battle.html?id={gameCode}" или "{owner}/duel-battle.html?id={gameCode}"
+     */
+    public String roomLink(String gameCode) {
+        String link = "/duel-battle.html?id=" + URLEncoder.encode(gameCode, StandardCharsets.UTF_8);
+        return ownership.isLocal(gameCode) ? link : ownership.ownerOf(gameCode) + link;
     }
 }
 
@@ -1,5 +1,9 @@
 package org.example.gametgweb.gameplay.game.duel.application.services.duel;
 
+import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.cluster.RoomOwnership;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.DuelRoundResponseDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.RoomSessionRegistry;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.SessionRegistryService;
 import org.example.gametgweb.gameplay.game.duel.application.services.lifecycle.PlayerLifecycleService;
 import org.example.gametgweb.gameplay.game.duel.application.services.order.PlayerOrderService;
@@ -10,6 +14,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * DuelRoomCoordinator — Высокоуровневый сервис-координатор, управляющий логикой присутствия
  * игроков и их жизненным циклом в комнате дуэли.
@@ -32,6 +38,7 @@ public class DuelRoomCoordinator {
     private final UnitInitializationService unitInit;
     private final UnitStateBroadcaster broadcaster;
     private final PlayerLifecycleService lifecycle;
+    private final RoomOwnership ownership;
 
     /**
      * Конструктор для внедрения зависимостей.
@@ -41,6 +48,7 @@ public class DuelRoomCoordinator {
      * @param unitInit           Сервис для загрузки данных игрока и регистрации его активного юнита.
      * @param broadcaster        Сервис для широковещательной рассылки состояния юнитов.
      * @param lifecycle          Сервис для обработки событий жизненного цикла игрока (присоединение, переподключение, выход).
+     * @param ownership          Распределение комнат по узлам кластера.
      */
     @Autowired
     public DuelRoomCoordinator(
@@ -48,13 +56,15 @@ public class DuelRoomCoordinator {
             PlayerOrderService playerOrderService,
             UnitInitializationService unitInit,
             UnitStateBroadcaster broadcaster,
-            PlayerLifecycleService lifecycle
+            PlayerLifecycleService lifecycle,
+            RoomOwnership ownership
     ) {
         this.sessionRegistry = sessionRegistry;
         this.playerOrderService = playerOrderService;
         this.unitInit = unitInit;
         this.broadcaster = broadcaster;
         this.lifecycle = lifecycle;
+        this.ownership = ownership;
     }
 
     /**
@@ -62,10 +72,13 @@ public class DuelRoomCoordinator {
      *
      * <p>Выполняет последовательность действий:
      * <ol>
+     * <li>Начинает получение активного юнита: юнит, загруженный при входе в дуэль по HTTP,
+     * берётся сразу, иначе запрос в БД идёт в виртуальном потоке параллельно со следующими шагами.</li>
      * <li>Регистрирует новую WebSocket-сессию.</li>
      * <li>Добавляет игрока в порядок комнаты.</li>
-     * <li>Инициализирует и регистрирует активный юнит игрока.</li>
-     * <li>Рассылает обновленное состояние юнитов всем игрокам.</li>
+     * <li>Регистрирует активный юнит игрока.</li>
+     * <li>Рассылает обновленное состояние комнаты всем игрокам
+     * (если оно не изменилось — отправляет снимок только новой сессии).</li>
      * <li>Инициирует обработку события присоединения (через {@link PlayerLifecycleService}).</li>
      * </ol>
      *
@@ -76,11 +89,14 @@ public class DuelRoomCoordinator {
         String game = ctx.gameCode();
         String player = ctx.playerName();
 
+        CompletableFuture<PlayerUnit> unit = unitInit.prepareUnit(game, player);
         sessionRegistry.registerNewSession(game, player, session);
         playerOrderService.addPlayer(game, player);
-        unitInit.handleNewJoin(game, player);
+        unitInit.registerPrepared(game, player, unit);
 
-        broadcaster.broadcastUnitsState(game, playerOrderService.getOrder(game));
+        if (!broadcaster.broadcastRoomState(game, playerOrderService.getOrder(game), null)) {
+            broadcaster.sendSnapshot(game, playerOrderService.getOrder(game), session);
+        }
         lifecycle.handleJoin(ctx);
     }
 
@@ -91,7 +107,7 @@ public class DuelRoomCoordinator {
      * <ol>
      * <li>Заменяет старую WebSocket-сессию новой.</li>
      * <li>Помечает игрока как онлайн (снимает статус оффлайн).</li>
-     * <li>Рассылает обновленное состояние юнитов всем игрокам.</li>
+     * <li>Отправляет снимок состояния комнаты только переподключившейся сессии.</li>
      * <li>Инициирует обработку события переподключения (через {@link PlayerLifecycleService}).</li>
      * </ol>
      *
@@ -105,7 +121,7 @@ public class DuelRoomCoordinator {
         sessionRegistry.replacePlayerSession(game, player, session);
         playerOrderService.markOnline(game, player);
 
-        broadcaster.broadcastUnitsState(game, playerOrderService.getOrder(game));
+        broadcaster.sendSnapshot(game, playerOrderService.getOrder(game), session);
         lifecycle.handleReconnect(ctx);
     }
 
@@ -119,6 +135,10 @@ public class DuelRoomCoordinator {
      * <li>Инициирует обработку события выхода (через {@link PlayerLifecycleService}).</li>
      * </ol>
      *
+     * <p>Если комната перенесена на другой узел, игрок не выходит, а переподключается туда:
+     * удаляется только сессия, без таймера выхода и удаления игрока из игры.
+     * То же для сессии, вытесненной новым подключением того же игрока: игрок остаётся в комнате.</p>
+     *
      * @param ctx     Контекст WebSocket-сообщения (gameCode, playerName).
      * @param session WebSocket-сессия, которую необходимо удалить.
      */
@@ -127,19 +147,32 @@ public class DuelRoomCoordinator {
         String player = ctx.playerName();
 
         sessionRegistry.removeSession(game, session);
+        if (ownership.isMovedAway(game) || RoomSessionRegistry.isDisplaced(session)) return;
+
         playerOrderService.removePlayer(game, player);
 
         lifecycle.handleLeave(ctx);
     }
 
     /**
-     * Отправляет текущее состояние всех юнитов в указанной комнате всем активным сессиям.
+     * Рассылает кадр состояния комнаты всем активным сессиям.
      *
      * <p>Использует {@link UnitStateBroadcaster} и порядок игроков из {@link PlayerOrderService}.
      *
      * @param gameCode Код комнаты дуэли.
+     * @param round    Результат раунда или {@code null}, если кадр вызван не раундом.
+     */
+    public void sendRoomState(String gameCode, DuelRoundResponseDto round) {
+        broadcaster.broadcastRoomState(gameCode, playerOrderService.getOrder(gameCode), round);
+    }
+
+    /**
+     * Отправляет одной сессии полный снимок состояния комнаты, не затрагивая остальных.
+     *
+     * @param gameCode Код комнаты дуэли.
+     * @param session  Сессия, которой нужен снимок.
      */
-    public void sendUnitsState(String gameCode) {
-        broadcaster.broadcastUnitsState(gameCode, playerOrderService.getOrder(gameCode));
+    public void sendSnapshot(String gameCode, WebSocketSession session) {
+        broadcaster.sendSnapshot(gameCode, playerOrderService.getOrder(gameCode), session);
     }
 }
@@ -1,6 +1,7 @@
 package org.example.gametgweb.gameplay.game.duel.application.services.duel;
 
 import org.example.gametgweb.gameplay.game.duel.application.services.order.PlayerOrderService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.DuelRoundResponseDto;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.UnitStateBroadcaster;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.WebSocketContext;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -74,29 +75,42 @@ public class DuelRoomService {
     /**
      * Проверяет, является ли текущее подключение игрока попыткой переподключения.
      *
-     * <p>Игрок считается переподключающимся, если:
-     * <ul>
-     *     <li>он присутствует в игровом порядке комнаты;</li>
-     *     <li>он помечен как оффлайн.</li>
-     * </ul>
+     * <p>Игрок считается переподключающимся, если он уже присутствует в игровом порядке комнаты:
+     * либо помечен как оффлайн, либо открыл бой во второй вкладке. Во втором случае новая сессия
+     * вытесняет прежнюю, а юнит не загружается заново — состояние боя сохраняется.
      *
      * @param ctx Контекст комнаты дуэли.
      * @return {@code true}, если подключение — реконнект; иначе {@code false}.
      */
     private boolean isReconnect(WebSocketContext ctx) {
-        return playerOrder.contains(ctx.gameCode(), ctx.playerName())
-                && playerOrder.isOffline(ctx.gameCode(), ctx.playerName());
+        return playerOrder.contains(ctx.gameCode(), ctx.playerName());
     }
 
     /**
-     * Отправляет текущее состояние всех игровых юнитов в указанной комнате всем активным сессиям.
+     * Рассылает всем активным сессиям комнаты единый кадр состояния:
+     * юниты, результат раунда и уничтоженные части тела.
      *
      * <p>Использует {@link UnitStateBroadcaster} для отправки, а порядок игроков
-     * извлекается из {@link PlayerOrderService}.
+     * извлекается из {@link PlayerOrderService}. Если состояние не изменилось
+     * и раунда не было, кадр не отправляется.
      *
      * @param gameCode Код комнаты дуэли.
+     * @param round    Результат раунда или {@code null}.
      */
-    public void sendUnitsState(String gameCode) {
-        workflow.sendUnitsState(gameCode);
+    public void sendRoomState(String gameCode, DuelRoundResponseDto round) {
+        workflow.sendRoomState(gameCode, round);
     }
-}
\ No newline at end of file
+
+    /**
+     * Отправляет запросившей сессии полный снимок состояния комнаты.
+     *
+     * <p>Вызывается клиентом в дельта-режиме, когда он обнаружил разрыв
+     * в последовательности кадров и не может применить очередную дельту.
+     *
+     * @param ctx     Контекст комнаты и имени игрока.
+     * @param session Сессия, запросившая снимок.
+     */
+    public void resyncRoomState(WebSocketContext ctx, WebSocketSession session) {
+        workflow.sendSnapshot(ctx.gameCode(), session);
+    }
+}
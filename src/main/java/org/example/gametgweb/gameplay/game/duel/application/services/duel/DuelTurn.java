@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * DuelTurn — представляет текущий ход дуэли между двумя игроками.
@@ -44,5 +45,11 @@ public class DuelTurn {
     public String getPlayer2() { return new ArrayList<>(moves.keySet()).get(1); }
     public Body getBody1() { return moves.get(getPlayer1()); }
     public Body getBody2() { return moves.get(getPlayer2()); }
+
+    /** Копия выборов игроков в порядке хода (для снимка комнаты) */
+    public Map<String, Body> getMoves() { return new LinkedHashMap<>(moves); }
+
+    /** Копия имён игроков, нажавших "Атаковать" (для снимка комнаты) */
+    public Set<String> getReadyPlayers() { return Set.copyOf(readyFlags.keySet()); }
 }
 
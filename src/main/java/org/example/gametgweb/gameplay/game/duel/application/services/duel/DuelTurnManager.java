@@ -3,6 +3,8 @@ package org.example.gametgweb.gameplay.game.duel.application.services.duel;
 import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -57,4 +59,28 @@ public class DuelTurnManager {
     public void removeTurn(String gameCode) {
         turns.remove(gameCode);
     }
+
+    /**
+     * Возвращает текущий незавершённый ход комнаты.
+     *
+     * @param gameCode код комнаты
+     * @return ход или {@code null}, если в комнате никто не ходил
+     */
+    public DuelTurn getTurn(String gameCode) {
+        return turns.get(gameCode);
+    }
+
+    /**
+     * Восстанавливает незавершённый ход комнаты из снимка.
+     *
+     * @param gameCode     код комнаты
+     * @param moves        выборы игроков в порядке хода
+     * @param readyPlayers игроки, уже нажавшие "Атаковать"
+     */
+    public void restoreTurn(String gameCode, Map<String, Body> moves, Set<String> readyPlayers) {
+        DuelTurn turn = new DuelTurn();
+        moves.forEach(turn::addMove);
+        readyPlayers.forEach(turn::setReady);
+        turns.put(gameCode, turn);
+    }
 }
@@ -0,0 +1,210 @@
+package org.example.gametgweb.gameplay.game.duel.application.services.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.application.services.combat.DuelCombatService;
+import org.example.gametgweb.gameplay.game.duel.application.services.combat.DuelRandomRegistry;
+import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelManager;
+import org.example.gametgweb.gameplay.game.duel.application.services.order.PlayerOrderService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.cluster.RoomOwnership;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.snapshot.RoomSnapshot;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.snapshot.RoomSnapshotService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.MigrateMessageDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service.MessageDispatcherService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.MessageFormatter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.socket.TextMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+
+/**
+ * RoomMigrationService — перенос живых комнат дуэлей между узлами кластера.
+ *
+ * <p>Протокол переноса одной комнаты:
+ * <ol>
+ *     <li>Под блокировкой комнаты ({@link DuelCombatService#inRoom}) она помечается переносимой
+ *         ({@link RoomOwnership#beginMigration}) и фиксируется тем же снимком, что и при перезапуске
+ *         ({@link RoomSnapshot}): юниты, незавершённый ход, порядок игроков. Пока идёт перенос,
+ *         ходы в комнате отклоняются.</li>
+ *     <li>Снимок передаётся узлу-приёмнику ({@code POST /internal/rooms/import}) уже без блокировки,
+ *         с таймаутами {@code game.cluster.connect-timeout-ms} и {@code game.cluster.read-timeout-ms}.
+ *         Если приёмник не ответил успехом, пометка снимается и комната остаётся на месте.</li>
+ *     <li>Снова под блокировкой локальное состояние удаляется, комната помечается перенесённой
+ *         в {@link RoomOwnership}: новые ходы и handshake этого узла отправляют клиента к новому владельцу.</li>
+ *     <li>Игрокам отправляется {@code {"type":"migrate","url":...}} — клиент переходит на новый узел.</li>
+ * </ol>
+ *
+ * <p>На приёмнике игроки восстанавливаются оффлайн, поэтому их подключение — обычный реконнект
+ * в окне ожидания {@link PlayerOrderService}; выход со старого узла не запускает таймер выхода.
+ *
+ * <p>Узлы аутентифицируют друг друга общим токеном {@code game.cluster.token}. Комнаты переносятся
+ * только на узлы из {@code game.cluster.nodes}: снимок и токен не уходят на произвольный адрес,
+ * а клиенты не перенаправляются за пределы кластера.
+ */
+@Slf4j
+@Service
+public class RoomMigrationService {
+
+    /** Заголовок с токеном межузловых запросов. */
+    public static final String TOKEN_HEADER = "X-Cluster-Token";
+
+    private final DuelCombatService combatService;
+    private final RoomSnapshotService snapshots;
+    private final PlayerOrderService playerOrder;
+    private final DuelRandomRegistry randoms;
+    private final RoomOwnership ownership;
+    private final DuelManager duelManager;
+    private final MessageDispatcherService dispatcher;
+    private final MessageFormatter formatter;
+    private final RestClient restClient;
+    private final String token;
+
+    @Autowired
+    public RoomMigrationService(DuelCombatService combatService,
+                                RoomSnapshotService snapshots,
+                                PlayerOrderService playerOrder,
+                                DuelRandomRegistry randoms,
+                                RoomOwnership ownership,
+                                DuelManager duelManager,
+                                MessageDispatcherService dispatcher,
+                                MessageFormatter formatter,
+                                @Value("${game.cluster.token:}") String token,
+                                @Value("${game.cluster.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                @Value("${game.cluster.read-timeout-ms:5000}") long readTimeoutMs) {
+        this.combatService = combatService;
+        this.snapshots = snapshots;
+        this.playerOrder = playerOrder;
+        this.randoms = randoms;
+        this.ownership = ownership;
+        this.duelManager = duelManager;
+        this.dispatcher = dispatcher;
+        this.formatter = formatter;
+        this.token = token;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(connectTimeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    /**
+     * Переносит все комнаты этого узла на узлы, которые будут владеть ими
+     * после вывода текущего узла из кластера.
+     *
+     * @return число перенесённых комнат
+     */
+    public int drain() {
+        int moved = 0;
+        for (String gameCode : playerOrder.getRooms()) {
+            if (!ownership.isLocal(gameCode)) continue;
+
+            String target = ownership.ownerExcluding(gameCode, ownership.self());
+            if (target != null && migrate(gameCode, target)) moved++;
+        }
+        log.info("Вывод узла: перенесено {} комнат", moved);
+        return moved;
+    }
+
+    /**
+     * Входит ли узел в {@code game.cluster.nodes}, то есть можно ли переносить на него комнаты.
+     *
+     * @param node базовый URL узла
+     */
+    public boolean isClusterNode(String node) {
+        return ownership.isMember(node);
+    }
+
+    /**
+     * Переносит одну комнату на указанный узел.
+     *
+     * @param gameCode код комнаты
+     * @param target   базовый URL узла-приёмника из {@code game.cluster.nodes}
+     * @return {@code true}, если комната перенесена
+     * @throws IllegalArgumentException если узел не входит в кластер
+     */
+    public boolean migrate(String gameCode, String target) {
+        if (!ownership.isMember(target)) {
+            throw new IllegalArgumentException("Узел не входит в game.cluster.nodes: " + target);
+        }
+        if (target.equals(ownership.self()) || !ownership.isLocal(gameCode)) return false;
+
+        RoomSnapshot room = combatService.inRoom(gameCode, () -> {
+            if (!ownership.beginMigration(gameCode)) return null;
+
+            RoomSnapshot captured = snapshots.captureRoom(gameCode);
+            if (captured == null) ownership.endMigration(gameCode);
+            return captured;
+        });
+        if (room == null) return false;
+
+        boolean moved = false;
+        try {
+            // сетевой вызов — без блокировки комнаты; ходы отклоняются пометкой переноса
+            if (send(gameCode, target, room)) {
+                moved = combatService.inRoom(gameCode, () -> {
+                    snapshots.discardRoom(gameCode);
+                    randoms.release(gameCode);
+                    ownership.moveTo(gameCode, target);
+                    return true;
+                });
+            }
+        } finally {
+            // пометка снимается при любом исходе, иначе комната навсегда отклоняла бы ходы
+            ownership.endMigration(gameCode);
+        }
+
+        if (moved) {
+            String link = duelManager.roomLink(gameCode);
+            dispatcher.broadcastLocal(gameCode, new TextMessage(formatter.format(new MigrateMessageDTO(link))));
+            log.info("Комната {} перенесена на {}", gameCode, target);
+        }
+        return moved;
+    }
+
+    /**
+     * Принимает комнату, переданную другим узлом.
+     *
+     * @param room снимок комнаты
+     */
+    public void importRoom(RoomSnapshot room) {
+        combatService.inRoom(room.gameCode(), () -> {
+            snapshots.restoreRoom(room);
+            ownership.adopt(room.gameCode());
+            return null;
+        });
+        log.info("Комната {} принята от другого узла", room.gameCode());
+    }
+
+    private boolean send(String gameCode, String target, RoomSnapshot room) {
+        try {
+            restClient.post()
+                    .uri(target + "/internal/rooms/import")
+                    .header(TOKEN_HEADER, token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(room)
+                    .retrieve()
+                    .toBodilessEntity();
+            return true;
+        } catch (RestClientException e) {
+            log.error("Узел {} не принял комнату {} — комната остаётся на месте", target, gameCode, e);
+            return false;
+        }
+    }
+
+    /**
+     * Проверяет токен межузлового запроса. Пустой токен в настройках запрещает приём комнат.
+     *
+     * @param presented токен из заголовка запроса
+     */
+    public boolean isTrusted(String presented) {
+        return !token.isEmpty() && presented != null
+                && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,6 +1,9 @@
 package org.example.gametgweb.gameplay.game.duel.application.services.order;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.application.events.RoomAbandonedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
@@ -22,6 +25,8 @@ import java.util.concurrent.Executors;
  * <p>
  * Потокобезопасен благодаря {@link ConcurrentHashMap}, однако операции с {@link List}
  * требуют аккуратности — используется модель «один поток на комнату», что в обычных WebSocket-играх допустимо.
+ * <p>
+ * Когда последний игрок комнаты удаляется по таймауту, публикуется {@link RoomAbandonedEvent}.
  */
 @Component
 @Slf4j
@@ -50,6 +55,13 @@ public class PlayerOrderService {
     private final ExecutorService scheduler =
             Executors.newVirtualThreadPerTaskExecutor();
 
+    private final ApplicationEventPublisher publisher;
+
+    @Autowired
+    public PlayerOrderService(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
     /**
      * Добавляет игрока в порядок, если его ещё нет в списке.
      *
@@ -121,7 +133,8 @@ public class PlayerOrderService {
     /**
      * Выполняет окончательное удаление игрока, если он все еще помечен как оффлайн.
      *
-     * <p>Если список игроков после удаления становится пустым, комната также удаляется из {@code orderMap}.</p>
+     * <p>Если список игроков после удаления становится пустым, комната также удаляется из {@code orderMap}
+     * и публикуется {@link RoomAbandonedEvent}.</p>
      *
      * @param gameCode   код игровой комнаты
      * @param playerName имя игрока
@@ -138,6 +151,7 @@ public class PlayerOrderService {
                 orderMap.remove(gameCode);
                 offlinePlayers.remove(gameCode); // Очищаем и оффлайн-карту для комнаты
                 log.info("Комната {} удалена, так как все игроки вышли.", gameCode);
+                publisher.publishEvent(new RoomAbandonedEvent(gameCode));
             }
 
             log.info("Игрок {} удалён из комнаты {} после 30 секунд offline",
@@ -187,6 +201,44 @@ public class PlayerOrderService {
         }
     }
 
+    /**
+     * Возвращает коды всех комнат, в которых есть игроки.
+     *
+     * @return копия множества кодов комнат
+     */
+    public Set<String> getRooms() {
+        return Set.copyOf(orderMap.keySet());
+    }
+
+    /**
+     * Восстанавливает порядок комнаты после перезапуска узла.
+     *
+     * <p>Все игроки считаются отключёнными: у каждого запускается обычный таймер удаления,
+     * и подключение в течение этого окна обрабатывается как переподключение.</p>
+     *
+     * @param gameCode код игровой комнаты
+     * @param order    имена игроков в порядке подключения
+     */
+    public void restoreRoom(String gameCode, List<String> order) {
+        for (String playerName : order) {
+            addPlayer(gameCode, playerName);
+            removePlayer(gameCode, playerName);
+        }
+    }
+
+    /**
+     * Удаляет комнату целиком, без ожидания переподключений.
+     *
+     * <p>Отложенные задачи удаления для этой комнаты становятся пустыми операциями.</p>
+     *
+     * @param gameCode код игровой комнаты
+     */
+    public void removeRoom(String gameCode) {
+        orderMap.remove(gameCode);
+        offlinePlayers.remove(gameCode);
+        log.info("Порядок комнаты {} удалён", gameCode);
+    }
+
     /**
      * Возвращает текущий порядок игроков (неизменяемый список).
      *
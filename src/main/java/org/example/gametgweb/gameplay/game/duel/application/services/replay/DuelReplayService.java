@@ -0,0 +1,179 @@
+package org.example.gametgweb.gameplay.game.duel.application.services.replay;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
+import org.example.gametgweb.characterSelection.infrastructure.persistence.entity.BodyPartEfficiency;
+import org.example.gametgweb.gameplay.game.duel.api.dto.DuelReplayDto;
+import org.example.gametgweb.gameplay.game.duel.api.dto.ReplayBenchmarkDto;
+import org.example.gametgweb.gameplay.game.duel.application.services.combat.AttackOutcome;
+import org.example.gametgweb.gameplay.game.duel.application.services.combat.CombatEngine;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.eventlog.DuelEventLog;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.eventlog.DuelLogRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * DuelReplayService — движок воспроизведения дуэлей из {@link DuelEventLog}.
+ *
+ * <p>Дуэль пересчитывается через тот же {@link CombatEngine#simulateAttack},
+ * что и живой бой, с генератором, созданным из записанного seed.
+ * Событий и сетевых рассылок при этом нет, поэтому пересчёт идёт на полной скорости CPU.
+ *
+ * <p>Применение:
+ * <ul>
+ *     <li>разбор спорных боёв — результат каждого раунда сверяется с журналом;</li>
+ *     <li>анализ баланса и воспроизводимая нагрузка для бенчмарков движка.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class DuelReplayService {
+
+    private final DuelEventLog eventLog;
+    private final CombatEngine engine;
+
+    @Autowired
+    public DuelReplayService(DuelEventLog eventLog, CombatEngine engine) {
+        this.eventLog = eventLog;
+        this.engine = engine;
+    }
+
+    /**
+     * Бой, собранный из записей журнала: начало и раунды по порядку.
+     */
+    private static final class DuelTrace {
+        private final DuelLogRecord.Start start;
+        private final List<DuelLogRecord.Round> rounds = new ArrayList<>();
+        private boolean finished;
+
+        private DuelTrace(DuelLogRecord.Start start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * Воспроизводит все дуэли, сыгранные в комнате с указанным кодом.
+     *
+     * @param gameCode код комнаты
+     * @return результаты воспроизведения в порядке начала дуэлей
+     */
+    public List<DuelReplayDto> replay(String gameCode) {
+        return loadTraces().stream()
+                .filter(trace -> trace.start.gameCode().equals(gameCode))
+                .map(this::replay)
+                .toList();
+    }
+
+    /**
+     * Прогоняет все дуэли журнала через движок и замеряет пропускную способность.
+     * Чтение журнала в замер не входит.
+     *
+     * @return сводка прогона
+     */
+    public ReplayBenchmarkDto benchmark() {
+        List<DuelTrace> traces = loadTraces();
+
+        long rounds = 0;
+        int inconsistent = 0;
+        long started = System.nanoTime();
+        for (DuelTrace trace : traces) {
+            DuelReplayDto result = replay(trace);
+            rounds += result.rounds();
+            if (!result.mismatches().isEmpty()) inconsistent++;
+        }
+        long elapsedNanos = System.nanoTime() - started;
+
+        long elapsedMs = elapsedNanos / 1_000_000;
+        long roundsPerSecond = elapsedNanos > 0 ? rounds * 1_000_000_000L / elapsedNanos : 0;
+        log.info("Воспроизведено {} дуэлей ({} раундов) за {} мс", traces.size(), rounds, elapsedMs);
+
+        return new ReplayBenchmarkDto(traces.size(), rounds, inconsistent, elapsedMs, roundsPerSecond);
+    }
+
+    // --- Вспомогательные методы ---
+
+    private List<DuelTrace> loadTraces() {
+        List<DuelTrace> traces = new ArrayList<>();
+        Map<String, DuelTrace> open = new HashMap<>();
+
+        eventLog.scan(record -> {
+            switch (record) {
+                case DuelLogRecord.Start start -> {
+                    DuelTrace trace = new DuelTrace(start);
+                    traces.add(trace);
+                    open.put(start.gameCode(), trace);
+                }
+                case DuelLogRecord.Round round -> {
+                    DuelTrace trace = open.get(round.gameCode());
+                    if (trace != null) trace.rounds.add(round);
+                }
+                case DuelLogRecord.End end -> {
+                    DuelTrace trace = open.remove(end.gameCode());
+                    if (trace != null) trace.finished = true;
+                }
+            }
+        });
+        return traces;
+    }
+
+    private DuelReplayDto replay(DuelTrace trace) {
+        List<DuelLogRecord.UnitSnapshot> snapshots = trace.start.units();
+        List<PlayerUnit> units = snapshots.stream().map(DuelReplayService::restore).toList();
+        SplittableRandom random = new SplittableRandom(trace.start.seed());
+        List<String> mismatches = new ArrayList<>();
+
+        int number = 0;
+        for (DuelLogRecord.Round round : trace.rounds) {
+            number++;
+            PlayerUnit attacker = find(units, round.attackerId(), 0);
+            PlayerUnit defender = find(units, round.defenderId(), 1);
+
+            AttackOutcome first = engine.simulateAttack(attacker, defender, round.attackerTarget(), random);
+            AttackOutcome second = engine.simulateAttack(defender, attacker, round.defenderTarget(), random);
+
+            compare(mismatches, number, "урон первого", round.attackerDamage(), first.damage());
+            compare(mismatches, number, "урон второго", round.defenderDamage(), second.damage());
+            compare(mismatches, number, "крит первого", round.attackerCritical(), first.critical());
+            compare(mismatches, number, "крит второго", round.defenderCritical(), second.critical());
+            compare(mismatches, number, "разрушение первым", round.attackerDestroyed(), first.partDestroyed());
+            compare(mismatches, number, "разрушение вторым", round.defenderDestroyed(), second.partDestroyed());
+            compare(mismatches, number, "HP первого", round.attackerHealthAfter(), attacker.getHealth());
+            compare(mismatches, number, "HP второго", round.defenderHealthAfter(), defender.getHealth());
+        }
+
+        return new DuelReplayDto(trace.start.gameCode(), trace.start.timestamp(), trace.start.seed(),
+                number, trace.finished, mismatches);
+    }
+
+    private static PlayerUnit restore(DuelLogRecord.UnitSnapshot snapshot) {
+        PlayerUnit unit = new PlayerUnit(snapshot.unitId(), null, snapshot.name(),
+                snapshot.maxHealth(), snapshot.health(), snapshot.damage(), null);
+        double[] e = snapshot.efficiency();
+        unit.setBodyEfficiency(new BodyPartEfficiency(e[0], e[1], e[2], e[3], e[4], e[5]));
+        return unit;
+    }
+
+    /** Ищет юнита по id; если id не уникальны (юниты без id), берёт по позиции. */
+    private static PlayerUnit find(List<PlayerUnit> units, long unitId, int fallback) {
+        PlayerUnit match = null;
+        for (PlayerUnit unit : units) {
+            if (unit.getId() == unitId) {
+                if (match != null) return units.get(fallback);
+                match = unit;
+            }
+        }
+        return match != null ? match : units.get(fallback);
+    }
+
+    private static void compare(List<String> mismatches, int round, String field, Object logged, Object replayed) {
+        if (!logged.equals(replayed)) {
+            mismatches.add("раунд %d: %s — в журнале %s, при пересчёте %s".formatted(round, field, logged, replayed));
+        }
+    }
+}
@@ -15,6 +15,8 @@ public class GameSession {
     private Long id;
     private String gameCode;
     private GameState state;
+    /** Версия сессии на момент чтения из базы; {@code null} у ещё не сохранённой сессии. */
+    private Long version;
     private List<Player> players = new ArrayList<>();
 
     public GameSession(String gameCode, GameState state) {
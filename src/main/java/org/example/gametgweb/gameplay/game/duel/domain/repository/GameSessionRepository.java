@@ -1,6 +1,8 @@
 package org.example.gametgweb.gameplay.game.duel.domain.repository;
 
+import org.example.gametgweb.gameplay.game.duel.api.dto.GameSessionDto;
 import org.example.gametgweb.gameplay.game.duel.domain.model.GameSession;
+import org.example.gametgweb.gameplay.game.duel.shared.domain.GameState;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,7 +17,25 @@ public interface GameSessionRepository {
      */
     Optional<GameSession> findByGameCode(String gameCode);
 
+    /**
+     * Создаёт пустую игру с указанным кодом, если её ещё нет.
+     * Выполняется в транзакции вызывающего: строка видна другим запросам после её коммита.
+     *
+     * @param gameCode код игры
+     * @param state    начальное состояние
+     * @return {@code true}, если игра создана этим вызовом; {@code false}, если уже существовала
+     */
+    boolean createIfAbsent(String gameCode, GameState state);
+
     List<GameSession> findAll();
+
+    /**
+     * Возвращает строки лобби: код комнаты и число игроков, без загрузки самих игроков.
+     *
+     * @return список комнат для лобби
+     */
+    List<GameSessionDto> findLobby();
+
     /**
      * Обновляет состояние существующей игры.
      *
@@ -1,7 +1,9 @@
 package org.example.gametgweb.gameplay.game.duel.domain.repository;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.api.dto.GameSessionDto;
 import org.example.gametgweb.gameplay.game.duel.api.dto.GameSessionEntityDto;
+import org.example.gametgweb.gameplay.game.duel.api.dto.PlayerUpdateDto;
 import org.example.gametgweb.gameplay.game.duel.domain.model.GameSession;
 import org.example.gametgweb.gameplay.game.duel.domain.model.Player;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.entity.GameSessionEntity;
@@ -9,12 +11,15 @@ import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.entit
 import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.mapper.GameSessionMapper;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.repository.JpaGameSessionRepository;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.repository.JpaPlayerRepository;
+import org.example.gametgweb.gameplay.game.duel.shared.domain.GameState;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -28,10 +33,12 @@ import java.util.stream.Collectors;
  * <ul>
  *     <li>Состояние сессии сохраняется в базу через {@link #save(GameSession)}.</li>
  *     <li>Последующие игроки подтягивают существующую сессию из базы через {@link #findByGameCode(String)}.</li>
- *      *     <li>После добавления нового игрока агрегат синхронизируется с сущностью базы через {@link #updateGame(GameSession)}.</li>
+ *     <li>После добавления нового игрока агрегат синхронизируется с сущностью базы через {@link #updateGame(GameSession)}.</li>
  *     <li>При этом {@link #updateEntityFromDto(GameSessionEntity, GameSessionEntityDto)} получает DTO, содержащий
- *         полный актуальный список игроков (старые и новые), и заменяет коллекцию игроков сущности,
- *         чтобы Hibernate корректно обновил связи в базе.</li>
+ *         полный актуальный список игроков (старые и новые), и меняет только разницу: отвязывает ушедших
+ *         и привязывает новых игроков, не переписывая связи остальных.</li>
+ *     <li>Игра версионируется ({@code @Version}): обновление по устаревшему снимку завершается
+ *         {@link ObjectOptimisticLockingFailureException}, и сервис повторяет операцию на свежих данных.</li>
  * </ul>
  *
  * <p>Таким образом, класс обеспечивает:
@@ -72,6 +79,23 @@ public class GameSessionRepositoryImpl implements GameSessionRepository {
                 .map(GameSessionMapper::toDomain);
     }
 
+    /**
+     * Создаёт игровую сессию одним запросом {@code INSERT ... ON CONFLICT DO NOTHING}.
+     * <p>
+     * Выполняется в транзакции вызывающего и не занимает второе соединение пула.
+     * Конкурентная вставка того же кода ждёт завершения этой транзакции
+     * и после её коммита ничего не делает.
+     *
+     * @param gameCode уникальный код сессии
+     * @param state    начальное состояние
+     * @return {@code true}, если сессия создана этим вызовом
+     */
+    @Override
+    @Transactional
+    public boolean createIfAbsent(String gameCode, GameState state) {
+        return jpaGameSessionRepository.insertIfAbsent(gameCode, state.name()) > 0;
+    }
+
     /**
      * Возвращает все игровые сессии.
      *
@@ -90,11 +114,10 @@ public class GameSessionRepositoryImpl implements GameSessionRepository {
         List<GameSessionEntity> entities = jpaGameSessionRepository.findAll();
 
         // Логируем прямо из JPA, до маппинга
-        for (GameSessionEntity g : entities) {
-            String playerNames = g.getPlayers().stream()
-                    .map(p -> String.format("Player[id=%d, username=%s]", p.getId(), p.getUsername()))
-                    .collect(Collectors.joining(", "));
-            log.info("Before mapping - Game {} has {} players: {}", g.getGameCode(), g.getPlayers().size(), playerNames);
+        if (log.isDebugEnabled()) {
+            for (GameSessionEntity g : entities) {
+                log.debug("Before mapping - Game {} has {} players: {}", g.getGameCode(), g.getPlayers().size(), describePlayers(g));
+            }
         }
 
         // Маппим в домен
@@ -103,16 +126,30 @@ public class GameSessionRepositoryImpl implements GameSessionRepository {
                 .toList();
 
         // Логируем уже доменные модели
-        for (GameSession g : sessions) {
-            String playerNames = g.getPlayers().stream()
-                    .map(Player::getUsername)
-                    .collect(Collectors.joining(", "));
-            log.info("After mapping - Game {} has {} players: {}", g.getGameCode(), g.getPlayers().size(), playerNames);
+        if (log.isDebugEnabled()) {
+            for (GameSession g : sessions) {
+                String playerNames = g.getPlayers().stream()
+                        .map(Player::getUsername)
+                        .collect(Collectors.joining(", "));
+                log.debug("After mapping - Game {} has {} players: {}", g.getGameCode(), g.getPlayers().size(), playerNames);
+            }
         }
 
         return sessions;
     }
 
+    /**
+     * Возвращает строки лобби одним агрегирующим запросом.
+     *
+     * @return код и число игроков каждой комнаты
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<GameSessionDto> findLobby() {
+        return jpaGameSessionRepository.findLobbyRooms().stream()
+                .map(room -> new GameSessionDto(room.getGameCode(), (int) room.getPlayersCount()))
+                .toList();
+    }
 
     /**
      * Обновляет существующую игровую сессию в базе данных.
@@ -122,9 +159,13 @@ public class GameSessionRepositoryImpl implements GameSessionRepository {
      * <p>
      * Изменяются только поля, присутствующие в DTO. Игроки синхронизируются:
      * добавляются новые, удаляются отсутствующие, существующие сохраняются.
+     * <p>
+     * Версия игры поднимается при коммите. Если снимок {@code game} прочитан до чужого
+     * изменения той же игры, обновление отклоняется.
      *
      * @param game доменная модель {@link GameSession}, содержащая актуальные данные для обновления
-     * @throws IllegalStateException если сессия с указанным идентификатором не найдена
+     * @throws IllegalStateException                    если сессия с указанным идентификатором не найдена
+     * @throws ObjectOptimisticLockingFailureException если версия снимка устарела
      */
     @Override
     @Transactional
@@ -132,17 +173,18 @@ public class GameSessionRepositoryImpl implements GameSessionRepository {
         GameSessionEntityDto dto = GameSessionMapper.toDto(game);
 
         GameSessionEntity entity = jpaGameSessionRepository
-                .findById(dto.id())
+                .findForUpdateById(dto.id())
                 .orElseThrow(() -> new IllegalStateException("Session not found"));
-        log.info("Before update - players in DTO: {}", dto.players()); // логируем входящих игроков
+        if (dto.version() != null && !Objects.equals(dto.version(), entity.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(GameSessionEntity.class, dto.id());
+        }
+        log.debug("Before update - players in DTO: {}", dto.players()); // логируем входящих игроков
 
         updateEntityFromDto(entity, dto);
         GameSessionEntity saved = jpaGameSessionRepository.save(entity);
-        log.info("After update - players in DB: {}",
-                saved.getPlayers().stream()
-                        .map(p -> String.format("Player[id=%d, username=%s]", p.getId(), p.getUsername()))
-                        .toList()
-        );
+        if (log.isDebugEnabled()) {
+            log.debug("After update - players in DB: {}", describePlayers(saved));
+        }
     }
 
     /**
@@ -160,15 +202,13 @@ public class GameSessionRepositoryImpl implements GameSessionRepository {
         GameSessionEntityDto entityDto = GameSessionMapper.toDto(game);
         GameSessionEntity gameSessionEntity = new GameSessionEntity();
         updateEntityFromDto(gameSessionEntity, entityDto);
-        log.info("Before save - players in DTO: {}", entityDto.players()); // логируем входящих игроков
+        log.debug("Before save - players in DTO: {}", entityDto.players()); // логируем входящих игроков
 
         GameSessionEntity saved = jpaGameSessionRepository.save(gameSessionEntity);
 
-        log.info("After save - players in DB: {}",
-                saved.getPlayers().stream()
-                        .map(p -> String.format("Player[id=%d, username=%s]", p.getId(), p.getUsername()))
-                        .toList()
-        );
+        if (log.isDebugEnabled()) {
+            log.debug("After save - players in DB: {}", describePlayers(saved));
+        }
         return GameSessionMapper.toDomain(saved);
     }
 
@@ -187,8 +227,9 @@ public class GameSessionRepositoryImpl implements GameSessionRepository {
      * Обновляет состояние сущности {@link GameSessionEntity} на основе данных из {@link GameSessionEntityDto}.
      * <p>
      * Метод устанавливает код игры, текущее состояние и список игроков.
-     * Список игроков преобразуется из DTO в сущности {@link PlayerEntity} через {@link JpaPlayerRepository}.
-     * Если какой-либо игрок не найден в базе, будет выброшено {@link IllegalArgumentException}.
+     * Игроки сверяются по идентификатору: отсутствующие в DTO отвязываются, новые загружаются
+     * через {@link JpaPlayerRepository} и привязываются, связи остальных не трогаются.
+     * Если какой-либо новый игрок не найден в базе, будет выброшено {@link IllegalArgumentException}.
      *
      * @param entity сущность {@link GameSessionEntity}, которую нужно обновить
      * @param dto    DTO {@link GameSessionEntityDto}, содержащий актуальные данные для обновления
@@ -197,12 +238,32 @@ public class GameSessionRepositoryImpl implements GameSessionRepository {
     private void updateEntityFromDto(GameSessionEntity entity, GameSessionEntityDto dto) {
         entity.setGameCode(dto.gameCode());
         entity.setState(dto.state());
-        if (dto.players() != null) {
-            List<PlayerEntity> playerEntities = dto.players().stream().map(dtoEntity -> jpaPlayerRepository.findById(dtoEntity.id())
-                            .orElseThrow(() -> new IllegalArgumentException("Плеер не найден")))
-                    .collect(Collectors.toCollection(ArrayList::new));
+        if (dto.players() == null) return;
+
+        Set<Long> wanted = dto.players().stream()
+                .map(PlayerUpdateDto::id)
+                .collect(Collectors.toSet());
+
+        entity.getPlayers().removeIf(player -> {
+            if (wanted.contains(player.getId())) return false;
+            player.setGameSessionEntity(null);
+            return true;
+        });
 
-            entity.setPlayers(playerEntities);
+        Set<Long> linked = entity.getPlayers().stream()
+                .map(PlayerEntity::getId)
+                .collect(Collectors.toSet());
+
+        for (PlayerUpdateDto player : dto.players()) {
+            if (linked.contains(player.id())) continue;
+            entity.addPlayer(jpaPlayerRepository.findById(player.id())
+                    .orElseThrow(() -> new IllegalArgumentException("Плеер не найден")));
         }
     }
+
+    private static String describePlayers(GameSessionEntity entity) {
+        return entity.getPlayers().stream()
+                .map(p -> "Player[id=" + p.getId() + ", username=" + p.getUsername() + "]")
+                .collect(Collectors.joining(", "));
+    }
 }
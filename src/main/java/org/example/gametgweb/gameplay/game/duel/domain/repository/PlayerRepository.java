@@ -1,5 +1,6 @@
 package org.example.gametgweb.gameplay.game.duel.domain.repository;
 
+import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
 import org.example.gametgweb.gameplay.game.duel.domain.model.Player;
 
 import java.util.Optional;
@@ -46,4 +47,12 @@ public interface PlayerRepository {
      * @throws IllegalArgumentException если игрок с таким именем не найден
      */
     Player findByUsername(String username);
+
+    /**
+     * Находит только активный юнит игрока, не загружая самого игрока.
+     *
+     * @param username имя пользователя
+     * @return {@link Optional} с юнитом или пустой, если игрока нет или юнит не выбран
+     */
+    Optional<PlayerUnit> findActiveUnit(String username);
 }
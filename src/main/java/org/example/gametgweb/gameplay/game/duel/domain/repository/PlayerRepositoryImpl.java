@@ -1,5 +1,7 @@
 package org.example.gametgweb.gameplay.game.duel.domain.repository;
 
+import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
+import org.example.gametgweb.characterSelection.infrastructure.persistence.mapper.PlayerUnitMapper;
 import org.example.gametgweb.gameplay.game.duel.domain.model.Player;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.entity.PlayerEntity;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.mapper.PlayerMapper;
@@ -16,6 +18,9 @@ import java.util.stream.Collectors;
  * <p>
  * Отвечает за маппинг между доменной моделью {@link Player} и JPA-сущностью {@link PlayerEntity}.
  * Управляет сохранением, обновлением, удалением и поиском игроков, не затрагивая чувствительные данные (пароль).
+ * <p>
+ * Доменный игрок всегда содержит активный юнит, поэтому поиск читает игрока вместе с юнитом
+ * и шаблоном одним запросом ({@link PlayerEntity#WITH_ACTIVE_UNIT}).
  */
 @Service
 public class PlayerRepositoryImpl implements PlayerRepository {
@@ -35,7 +40,7 @@ public class PlayerRepositoryImpl implements PlayerRepository {
      */
     @Override
     public Optional<Player> findById(Long id) {
-        return jpaPlayerRepository.findById(id)
+        return jpaPlayerRepository.findWithActiveUnitById(id)
                 .map(PlayerMapper::toDomain);
     }
 
@@ -61,11 +66,23 @@ public class PlayerRepositoryImpl implements PlayerRepository {
      */
     @Override
     public Player findByUsername(String username) {
-        PlayerEntity entity = jpaPlayerRepository.findByUsername(username)
+        PlayerEntity entity = jpaPlayerRepository.findWithActiveUnitByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("Игрок не найден: " + username));
         return PlayerMapper.toDomain(entity);
     }
 
+    /**
+     * Находит только активный юнит игрока с шаблоном одним запросом.
+     *
+     * @param username имя пользователя
+     * @return {@link Optional} с юнитом или пустой, если игрока нет или юнит не выбран
+     */
+    @Override
+    public Optional<PlayerUnit> findActiveUnit(String username) {
+        return jpaPlayerRepository.findActiveUnitByUsername(username)
+                .map(PlayerUnitMapper::toDomain);
+    }
+
     /**
      * Получает список всех игроков.
      *
@@ -0,0 +1,45 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.bus;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * LocalRoomBus — шина комнат в пределах одного процесса.
+ *
+ * <p>Режим по умолчанию для одного узла: кадры доставляются подписчикам синхронно.
+ * Несколько диспетчеров с разными идентификаторами узла, подписанных на один
+ * экземпляр, ведут себя как узлы кластера — это локальная замена сетевой шины.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "game.room-bus", havingValue = "local", matchIfMissing = true)
+public class LocalRoomBus implements RoomBus {
+
+    private final List<Consumer<RoomBusMessage>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(RoomBusMessage message) {
+        for (Consumer<RoomBusMessage> receiver : receivers) {
+            try {
+                receiver.accept(message);
+            } catch (RuntimeException e) {
+                log.error("Ошибка доставки кадра комнаты {} из шины", message.gameCode(), e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<RoomBusMessage> receiver) {
+        receivers.add(receiver);
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return receivers.size() > 1;
+    }
+}
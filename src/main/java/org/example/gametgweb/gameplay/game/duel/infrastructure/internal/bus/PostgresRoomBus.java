@@ -0,0 +1,207 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.bus;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * PostgresRoomBus — шина комнат между узлами через PostgreSQL LISTEN/NOTIFY.
+ *
+ * <p>Не требует отдельного брокера: все узлы уже подключены к общей базе.
+ * {@link #publish} только ставит кадр в очередь ({@code game.room-bus.queue-size}) и не ходит в базу:
+ * рассылка комнаты не ждёт ни соединения из пула, ни ответа сервера. Поток-публикатор держит
+ * своё долгоживущее соединение и отправляет накопившиеся кадры пачкой — одним
+ * {@code pg_notify} по массиву, в порядке постановки в очередь. Приём — отдельное
+ * долгоживущее соединение с {@code LISTEN}, которое опрашивает виртуальный поток.
+ * Таким образом шина постоянно занимает два соединения пула. При обрыве соединения
+ * оба потока переподключаются.
+ *
+ * <p>NOTIFY ограничивает полезную нагрузку ~8000 байтами, поэтому кадры больше
+ * {@link #MAX_PAYLOAD_BYTES} не пересылаются и логируются. Доставка
+ * «не более одного раза»: кадры, отправленные во время переподключения или не поместившиеся
+ * в очередь, теряются, а клиент в дельта-режиме восстановится по resync.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "game.room-bus", havingValue = "postgres")
+public class PostgresRoomBus implements RoomBus {
+
+    private static final String CHANNEL = "duel_room_bus";
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long RECONNECT_DELAY_MS = 1000L;
+    private static final int MAX_BATCH = 256;
+
+    /** Один запрос на пачку: unnest сохраняет порядок элементов массива. */
+    private static final String NOTIFY_BATCH = "SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload";
+
+    private final DataSource dataSource;
+    private final ObjectMapper mapper;
+    private final List<Consumer<RoomBusMessage>> receivers = new CopyOnWriteArrayList<>();
+
+    private final BlockingQueue<RoomBusMessage> outgoing;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Thread listener;
+    private final Thread publisher;
+    private volatile boolean running = true;
+
+    @Autowired
+    public PostgresRoomBus(DataSource dataSource, ObjectMapper mapper,
+                           @Value("${game.room-bus.queue-size:10000}") int queueSize) {
+        this.dataSource = dataSource;
+        this.mapper = mapper;
+        this.outgoing = new LinkedBlockingQueue<>(queueSize);
+        this.listener = Thread.ofVirtual().name("room-bus-listener").start(this::listen);
+        this.publisher = Thread.ofVirtual().name("room-bus-publisher").start(this::publishLoop);
+    }
+
+    @Override
+    public void publish(RoomBusMessage message) {
+        if (!outgoing.offer(message)) {
+            long total = dropped.incrementAndGet();
+            // 1, 2, 4, 8... — лог не растёт вместе с переполнением
+            if ((total & (total - 1)) == 0) {
+                log.warn("Очередь шины комнат переполнена: не передано {} кадров (последний — комната {})",
+                        total, message.gameCode());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<RoomBusMessage> receiver) {
+        receivers.add(receiver);
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+
+    /** Цикл отправки очереди кадров с переподключением при ошибках */
+    private void publishLoop() {
+        List<RoomBusMessage> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !outgoing.isEmpty()) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement notify = connection.prepareStatement(NOTIFY_BATCH)) {
+                connection.setAutoCommit(true);
+                notify.setString(1, CHANNEL);
+
+                while (running || !outgoing.isEmpty()) {
+                    RoomBusMessage first = outgoing.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+
+                    batch.add(first);
+                    outgoing.drainTo(batch, MAX_BATCH - 1);
+                    send(connection, notify, batch);
+                    batch.clear();
+                }
+            } catch (SQLException e) {
+                log.error("Не удалось опубликовать {} кадров в шину комнат, переподключение", batch.size(), e);
+                batch.clear();
+                if (running) sleepBeforeReconnect();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(Connection connection, PreparedStatement notify, List<RoomBusMessage> batch) throws SQLException {
+        List<String> payloads = new ArrayList<>(batch.size());
+        for (RoomBusMessage message : batch) {
+            try {
+                String payload = mapper.writeValueAsString(message);
+                if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+                    log.warn("Кадр комнаты {} слишком велик для NOTIFY и не передан другим узлам", message.gameCode());
+                } else {
+                    payloads.add(payload);
+                }
+            } catch (JsonProcessingException e) {
+                log.error("Не удалось сериализовать кадр комнаты {} для шины", message.gameCode(), e);
+            }
+        }
+        if (payloads.isEmpty()) return;
+
+        notify.setArray(2, connection.createArrayOf("text", payloads.toArray()));
+        notify.execute();
+    }
+
+    /** Цикл приёма уведомлений с переподключением при ошибках */
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Шина комнат подписана на канал {}", CHANNEL);
+
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) continue;
+
+                    for (PGNotification notification : notifications) {
+                        deliver(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.error("Соединение шины комнат потеряно, переподключение", e);
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        try {
+            RoomBusMessage message = mapper.readValue(payload, RoomBusMessage.class);
+            for (Consumer<RoomBusMessage> receiver : receivers) {
+                receiver.accept(message);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Ошибка обработки кадра из шины комнат", e);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /** Отправляет оставшиеся кадры и останавливает потоки шины при остановке приложения */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        publisher.join(POLL_TIMEOUT_MS * 2L);
+        listener.join(POLL_TIMEOUT_MS * 2L);
+        log.info("PostgresRoomBus завершил работу");
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.bus;
+
+import java.util.function.Consumer;
+
+/**
+ * RoomBus — шина кадров комнат между узлами приложения.
+ *
+ * <p>Сессии игроков живут в памяти того узла, к которому они подключены.
+ * Чтобы рассылка по комнате и адресная отправка доходили до игроков на любом узле,
+ * {@code MessageDispatcherService} доставляет кадр локально и публикует его в шину,
+ * а кадры, пришедшие из шины от других узлов, доставляет своим сессиям.
+ *
+ * <p>Реализация выбирается свойством {@code game.room-bus}:
+ * <ul>
+ *     <li>{@code local} (по умолчанию) — {@link LocalRoomBus}, в пределах одного процесса;</li>
+ *     <li>{@code postgres} — {@link PostgresRoomBus}, через LISTEN/NOTIFY.</li>
+ * </ul>
+ *
+ * <p>Шина доставляет подписчикам все кадры, включая опубликованные этим же узлом;
+ * собственные кадры отсеивает получатель по {@link RoomBusMessage#origin()}.
+ */
+public interface RoomBus {
+
+    /**
+     * Публикует кадр для остальных узлов.
+     *
+     * @param message кадр комнаты
+     */
+    void publish(RoomBusMessage message);
+
+    /**
+     * Регистрирует получателя кадров из шины.
+     *
+     * @param receiver обработчик кадров
+     */
+    void subscribe(Consumer<RoomBusMessage> receiver);
+
+    /**
+     * Есть ли за шиной другие узлы. Если нет, публиковать кадры бессмысленно,
+     * и диспетчер не тратит время на их сериализацию.
+     */
+    boolean isDistributed();
+}
@@ -0,0 +1,18 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.bus;
+
+/**
+ * Кадр, пересылаемый между узлами через {@link RoomBus}.
+ *
+ * @param origin   идентификатор узла-отправителя
+ * @param gameCode код комнаты
+ * @param player   имя получателя или {@code null} для рассылки всей комнате
+ * @param payload  текст WebSocket-кадра (JSON) или байты бинарного кадра в Base64
+ * @param binary   кадр бинарный: {@code payload} — Base64
+ */
+public record RoomBusMessage(String origin, String gameCode, String player, String payload, boolean binary) {
+
+    /** Кадр адресован всей комнате */
+    public boolean isBroadcast() {
+        return player == null;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.cluster;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Идентификатор текущего узла кластера.
+ *
+ * <p>Берётся из {@code game.cluster.self}; если свойство не задано,
+ * узел получает случайный идентификатор на время жизни процесса.
+ */
+@Slf4j
+@Getter
+@Component
+public class NodeIdentity {
+
+    private final String nodeId;
+
+    public NodeIdentity(@Value("${game.cluster.self:}") String self) {
+        this.nodeId = self.isBlank() ? UUID.randomUUID().toString() : self;
+        log.info("Идентификатор узла: {}", nodeId);
+    }
+}
@@ -0,0 +1,280 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.application.events.DuelDrawEvent;
+import org.example.gametgweb.gameplay.game.duel.application.events.DuelFinishedEvent;
+import org.example.gametgweb.gameplay.game.duel.application.events.RoomAbandonedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RoomOwnership — детерминированное распределение комнат дуэлей по узлам кластера.
+ *
+ * <p>Каждая комната ({@code gameCode}) принадлежит ровно одному узлу из списка
+ * {@code game.cluster.nodes}, выбранному rendezvous-хешированием (HRW): для каждого
+ * узла считается вес {@code hash(node, gameCode)}, владелец — узел с максимальным весом.
+ * Все узлы с одинаковым списком приходят к одному ответу без координации,
+ * а при добавлении или удалении узла переезжают только комнаты этого узла.
+ *
+ * <p>Состояние комнаты ({@code UnitRegistryService}, ходы, блокировки) живёт только
+ * на узле-владельце и остаётся однописательным. Если список узлов не задан
+ * или текущий узел в него не входит, все комнаты считаются локальными.
+ *
+ * <p>Миграция комнаты ({@code RoomMigrationService}) переопределяет хеш: узел-источник
+ * запоминает нового владельца и направляет клиентов к нему, узел-приёмник считает
+ * принятую комнату своей. После вывода узла из {@code game.cluster.nodes} хеш
+ * сам указывает на того же владельца, что выбрал {@link #ownerExcluding}.
+ *
+ * <p>Принятая комната забывается, когда дуэль в ней закончилась или комнату бросили игроки.
+ * Узел-источник этих событий не видит — комната уже живёт на приёмнике, — поэтому адрес
+ * перенесённой комнаты хранится {@code game.cluster.moved-retain-ms}, а затем комната снова
+ * распределяется хешем.
+ *
+ * <p>Узлы задаются базовыми URL, например
+ * {@code game.cluster.nodes=https://duel-a.example.org,https://duel-b.example.org}
+ * и {@code game.cluster.self=https://duel-a.example.org}.
+ *
+ * <p>Игрока отправляют на узел-владелец ссылкой или редиректом, без липкой балансировки,
+ * поэтому вход должен быть виден на любом узле: HTTP-сессии хранятся в общей базе
+ * (spring-session-jdbc), а cookie сессии выдаётся на общий родительский домен узлов
+ * ({@code server.servlet.session.cookie.domain}, например {@code example.org}).
+ */
+@Slf4j
+@Component
+public class RoomOwnership {
+
+    private final String self;
+    private final String[] nodes;
+    private final long[] nodeHashes;
+
+    /** Комнаты, принятые этим узлом при миграции. */
+    private final Set<String> adopted = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Комнаты, переданные этим узлом другим узлам.
+     * Key — gameCode, Value — новый владелец и время переноса.
+     */
+    private final ConcurrentHashMap<String, Moved> movedAway = new ConcurrentHashMap<>();
+
+    /** Комнаты, снимок которых сейчас передаётся другому узлу: ходы в них не принимаются. */
+    private final Set<String> migrating = ConcurrentHashMap.newKeySet();
+
+    private final long movedRetainMs;
+
+    @Autowired
+    public RoomOwnership(NodeIdentity identity,
+                         @Value("${game.cluster.nodes:}") List<String> nodes,
+                         @Value("${game.cluster.moved-retain-ms:3600000}") long movedRetainMs) {
+        this.self = identity.getNodeId();
+        this.movedRetainMs = movedRetainMs;
+
+        String[] members = nodes.stream()
+                .map(String::trim)
+                .filter(n -> !n.isEmpty())
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+
+        if (members.length > 0 && !Arrays.asList(members).contains(self)) {
+            log.warn("Узел {} не входит в game.cluster.nodes — все комнаты обслуживаются локально", self);
+            members = new String[0];
+        }
+
+        this.nodes = members;
+        this.nodeHashes = Arrays.stream(members).mapToLong(RoomOwnership::hash).toArray();
+        log.info("Узлы кластера дуэлей: {}", members.length > 0 ? String.join(", ", members) : "только локальный");
+    }
+
+    /**
+     * Возвращает узел-владелец комнаты.
+     *
+     * @param gameCode код комнаты
+     * @return базовый URL владельца или идентификатор текущего узла, если кластер не настроен
+     */
+    public String ownerOf(String gameCode) {
+        Moved moved = movedAway.get(gameCode);
+        if (moved != null) return moved.node();
+        if (adopted.contains(gameCode)) return self;
+
+        String owner = ownerExcluding(gameCode, null);
+        return owner != null ? owner : self;
+    }
+
+    /**
+     * Выбирает владельца комнаты среди узлов кластера без указанного узла.
+     * Используется при выводе узла: комната переезжает туда, где её будет искать хеш
+     * после удаления узла из списка.
+     *
+     * @param gameCode код комнаты
+     * @param excluded исключаемый узел или {@code null}
+     * @return узел-владелец или {@code null}, если подходящих узлов нет
+     */
+    public String ownerExcluding(String gameCode, String excluded) {
+        long key = hash(gameCode);
+        String best = null;
+        long bestWeight = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].equals(excluded)) continue;
+
+            long weight = mix(nodeHashes[i] ^ key);
+            if (best == null || Long.compareUnsigned(weight, bestWeight) > 0) {
+                best = nodes[i];
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Принадлежит ли комната текущему узлу.
+     *
+     * @param gameCode код комнаты
+     */
+    public boolean isLocal(String gameCode) {
+        return self.equals(ownerOf(gameCode));
+    }
+
+    /**
+     * Была ли комната передана этим узлом другому узлу.
+     *
+     * @param gameCode код комнаты
+     */
+    public boolean isMovedAway(String gameCode) {
+        return movedAway.containsKey(gameCode);
+    }
+
+    /**
+     * Входит ли узел в {@code game.cluster.nodes}.
+     * Переносить комнаты и направлять клиентов можно только на такие узлы.
+     *
+     * @param node базовый URL узла
+     */
+    public boolean isMember(String node) {
+        return node != null && Arrays.asList(nodes).contains(node);
+    }
+
+    /**
+     * Отмечает начало переноса комнаты: до {@link #endMigration} ходы в ней отклоняются,
+     * чтобы снятый снимок оставался актуальным.
+     *
+     * @param gameCode код комнаты
+     * @return {@code false}, если комната уже переносится
+     */
+    public boolean beginMigration(String gameCode) {
+        return migrating.add(gameCode);
+    }
+
+    /**
+     * Отмечает окончание переноса комнаты — успешного или нет.
+     *
+     * @param gameCode код комнаты
+     */
+    public void endMigration(String gameCode) {
+        migrating.remove(gameCode);
+    }
+
+    /**
+     * Переносится ли комната прямо сейчас.
+     *
+     * @param gameCode код комнаты
+     */
+    public boolean isMigrating(String gameCode) {
+        return migrating.contains(gameCode);
+    }
+
+    /**
+     * Отмечает, что комната принята этим узлом при миграции.
+     *
+     * @param gameCode код комнаты
+     */
+    public void adopt(String gameCode) {
+        movedAway.remove(gameCode);
+        adopted.add(gameCode);
+    }
+
+    /**
+     * Отмечает, что комната передана другому узлу.
+     *
+     * @param gameCode код комнаты
+     * @param node     новый владелец, узел из {@code game.cluster.nodes}
+     * @throws IllegalArgumentException если узел не входит в кластер
+     */
+    public void moveTo(String gameCode, String node) {
+        if (!isMember(node)) {
+            throw new IllegalArgumentException("Узел не входит в game.cluster.nodes: " + node);
+        }
+        adopted.remove(gameCode);
+        movedAway.put(gameCode, new Moved(node, System.currentTimeMillis()));
+    }
+
+    /**
+     * Забывает переопределение владельца комнаты: дальше её распределяет хеш.
+     *
+     * @param gameCode код комнаты
+     */
+    public void forget(String gameCode) {
+        adopted.remove(gameCode);
+        movedAway.remove(gameCode);
+    }
+
+    /** Забывает принятую комнату, дуэль в которой закончилась победой */
+    @EventListener
+    public void onDuelFinished(DuelFinishedEvent event) {
+        forget(event.gameCode());
+    }
+
+    /** Забывает принятую комнату, дуэль в которой закончилась ничьей */
+    @EventListener
+    public void onDuelDraw(DuelDrawEvent event) {
+        forget(event.gameCode());
+    }
+
+    /** Забывает принятую комнату, которую покинули все игроки */
+    @EventListener
+    public void onRoomAbandoned(RoomAbandonedEvent event) {
+        forget(event.gameCode());
+    }
+
+    /** Удаляет адреса комнат, перенесённых раньше {@code game.cluster.moved-retain-ms} */
+    @Scheduled(fixedDelayString = "${game.cluster.moved-retain-ms:3600000}")
+    public void evictMoved() {
+        long threshold = System.currentTimeMillis() - movedRetainMs;
+        movedAway.values().removeIf(moved -> moved.at() <= threshold);
+    }
+
+    /** Идентификатор текущего узла */
+    public String self() {
+        return self;
+    }
+
+    /** Новый владелец перенесённой комнаты и время переноса, мс */
+    private record Moved(String node, long at) {}
+
+    // --- Вспомогательные методы ---
+
+    /** FNV-1a (64 бита) по UTF-8 байтам строки */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /** Финализатор SplitMix64: равномерно перемешивает биты веса */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
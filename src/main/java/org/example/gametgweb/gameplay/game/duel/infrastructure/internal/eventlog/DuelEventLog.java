@@ -0,0 +1,361 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.eventlog;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * DuelEventLog — журнал дуэлей узла: append-only сегменты, отображённые в память.
+ *
+ * <p>{@link #append} только кладёт запись в очередь ({@code game.event-log.queue-size}) и не берёт
+ * общих блокировок: игровые потоки разных комнат не ждут друг друга. Единственный поток-писатель
+ * {@code duel-event-log} кодирует записи {@link DuelLogRecord} в компактный бинарный вид
+ * и дописывает в текущий сегмент через {@link MappedByteBuffer} — без системного вызова
+ * на каждую запись. Когда сегмент заполнен, он сбрасывается на диск и открывается следующий.
+ * При переполнении очереди запись теряется и это логируется — ход игры важнее журнала.
+ *
+ * <p>После рестарта писатель продолжает последний сегмент с конца его данных,
+ * а не открывает новый: сегмент отображается целиком, и короткие запуски не оставляют
+ * по почти пустому файлу на каждый старт.
+ *
+ * <p>Формат записи (big-endian):
+ * <pre>
+ * [length:i32][type:u8][timestamp:i64][gameCode:str] payload
+ * START  [seed:i64][units:u8]{[unitId:i64][name:str][maxHealth:i64][health:i64][damage:i64][eff:f64 × 6]}
+ * ROUND  [attackerId:i64][attackerTarget:u8][defenderId:i64][defenderTarget:u8]
+ *        [attackerDamage:i64][defenderDamage:i64][flags:u8]
+ *        [attackerHealthAfter:i64][defenderHealthAfter:i64]
+ * END    —
+ * </pre>
+ * flags: 1 — крит первого, 2 — крит второго, 4 — первый уничтожил часть тела, 8 — второй.
+ * {@code str} — {@code u16} длина и UTF-8. Запись с длиной 0 означает конец данных сегмента:
+ * писатель сначала пишет данные записи и завершающий 0 за ней и только потом длину,
+ * поэтому оборванная запись выглядит как конец данных.
+ *
+ * <p>Ошибки ввода-вывода логируются и не прерывают игровой процесс.
+ */
+@Slf4j
+@Component
+public class DuelEventLog {
+
+    private static final byte TYPE_START = 1;
+    private static final byte TYPE_ROUND = 2;
+    private static final byte TYPE_END = 3;
+
+    private static final int FLAG_ATTACKER_CRITICAL = 1;
+    private static final int FLAG_DEFENDER_CRITICAL = 2;
+    private static final int FLAG_ATTACKER_DESTROYED = 4;
+    private static final int FLAG_DEFENDER_DESTROYED = 8;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentSize;
+
+    /** Префикс сегментов текущего запуска узла. */
+    private final String segmentPrefix = "duel-" + System.currentTimeMillis();
+
+    private final BlockingQueue<DuelLogRecord> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // --- состояние писателя: только поток duel-event-log ---
+
+    /** Буфер для кодирования одной записи. */
+    private final ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+
+    private int segmentIndex;
+    private boolean resumeChecked;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+
+    @Autowired
+    public DuelEventLog(@Value("${game.event-log.enabled:true}") boolean enabled,
+                        @Value("${game.event-log.dir:data/duel-log}") String directory,
+                        @Value("${game.event-log.segment-size-mb:64}") int segmentSizeMb,
+                        @Value("${game.event-log.queue-size:65536}") int queueSize) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSizeMb * 1024L * 1024L;
+        this.queue = new LinkedBlockingQueue<>(queueSize);
+        this.writer = enabled ? Thread.ofPlatform().name("duel-event-log").daemon().start(this::writeLoop) : null;
+    }
+
+    // ============================================================
+    // ========================= Запись ===========================
+    // ============================================================
+
+    /**
+     * Ставит запись в очередь журнала и сразу возвращает управление.
+     *
+     * @param record запись журнала
+     */
+    public void append(DuelLogRecord record) {
+        if (!enabled) return;
+
+        if (!queue.offer(record)) {
+            long total = dropped.incrementAndGet();
+            // 1, 2, 4, 8... — лог не растёт вместе с переполнением
+            if ((total & (total - 1)) == 0) {
+                log.error("Очередь журнала дуэлей переполнена: потеряно {} записей (последняя — комната {})",
+                        total, record.gameCode());
+            }
+        }
+    }
+
+    /** Дописывает оставшиеся записи и сбрасывает сегмент на диск при остановке приложения */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (writer == null) return;
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        log.info("DuelEventLog завершил работу");
+    }
+
+    private void writeLoop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                DuelLogRecord record = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (record != null) write(record);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeSegment();
+        }
+    }
+
+    private void write(DuelLogRecord record) {
+        try {
+            scratch.clear();
+            encode(record, scratch);
+            scratch.flip();
+
+            int length = scratch.remaining();
+            ensureCapacity(Integer.BYTES + length);
+
+            // данные и завершающий 0 — раньше длины: оборванная запись читается как конец сегмента
+            int start = segment.position();
+            segment.position(start + Integer.BYTES);
+            segment.put(scratch);
+            segment.putInt(segment.position(), 0);
+            segment.putInt(start, length);
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось записать событие дуэли {} в журнал", record.gameCode(), e);
+        }
+    }
+
+    private void closeSegment() {
+        if (segment == null) return;
+        try {
+            segment.force();
+            channel.close();
+        } catch (IOException e) {
+            log.error("Ошибка закрытия сегмента журнала дуэлей", e);
+        }
+        segment = null;
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        // в сегменте всегда остаётся место под завершающий 0
+        if (segment == null && !resumeChecked) {
+            resumeChecked = true;
+            resumeLastSegment();
+        }
+        if (segment != null && segment.remaining() >= bytes + Integer.BYTES) return;
+
+        if (bytes + Integer.BYTES > segmentSize) {
+            throw new IllegalStateException("Запись журнала больше сегмента: " + bytes + " байт");
+        }
+
+        closeSegment();
+
+        Files.createDirectories(directory);
+        Path file = directory.resolve("%s-%05d%s".formatted(segmentPrefix, ++segmentIndex, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        log.info("Открыт сегмент журнала дуэлей {}", file);
+    }
+
+    /** Открывает последний сегмент прошлого запуска и встаёт на конец его данных */
+    private void resumeLastSegment() throws IOException {
+        List<Path> files = segments();
+        if (files.isEmpty()) return;
+
+        Path last = files.getLast();
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        while (segment.remaining() >= Integer.BYTES) {
+            int length = segment.getInt(segment.position());
+            if (length <= 0 || length > segment.remaining() - Integer.BYTES) break;
+            segment.position(segment.position() + Integer.BYTES + length);
+        }
+        log.info("Продолжен сегмент журнала дуэлей {} с позиции {}", last, segment.position());
+    }
+
+    private static void encode(DuelLogRecord record, ByteBuffer out) {
+        switch (record) {
+            case DuelLogRecord.Start start -> {
+                header(out, TYPE_START, start);
+                out.putLong(start.seed());
+                out.put((byte) start.units().size());
+                for (DuelLogRecord.UnitSnapshot unit : start.units()) {
+                    out.putLong(unit.unitId());
+                    putString(out, unit.name());
+                    out.putLong(unit.maxHealth());
+                    out.putLong(unit.health());
+                    out.putLong(unit.damage());
+                    for (double efficiency : unit.efficiency()) {
+                        out.putDouble(efficiency);
+                    }
+                }
+            }
+            case DuelLogRecord.Round round -> {
+                header(out, TYPE_ROUND, round);
+                out.putLong(round.attackerId());
+                out.put((byte) round.attackerTarget().ordinal());
+                out.putLong(round.defenderId());
+                out.put((byte) round.defenderTarget().ordinal());
+                out.putLong(round.attackerDamage());
+                out.putLong(round.defenderDamage());
+                int flags = (round.attackerCritical() ? FLAG_ATTACKER_CRITICAL : 0)
+                        | (round.defenderCritical() ? FLAG_DEFENDER_CRITICAL : 0)
+                        | (round.attackerDestroyed() ? FLAG_ATTACKER_DESTROYED : 0)
+                        | (round.defenderDestroyed() ? FLAG_DEFENDER_DESTROYED : 0);
+                out.put((byte) flags);
+                out.putLong(round.attackerHealthAfter());
+                out.putLong(round.defenderHealthAfter());
+            }
+            case DuelLogRecord.End end -> header(out, TYPE_END, end);
+        }
+    }
+
+    private static void header(ByteBuffer out, byte type, DuelLogRecord record) {
+        out.put(type);
+        out.putLong(record.timestamp());
+        putString(out, record.gameCode());
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] utf8 = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) utf8.length);
+        out.put(utf8);
+    }
+
+    // ============================================================
+    // ========================= Чтение ===========================
+    // ============================================================
+
+    /**
+     * Последовательно читает все сегменты журнала (в порядке записи)
+     * и передаёт записи потребителю.
+     *
+     * @param consumer обработчик записей
+     */
+    public void scan(Consumer<DuelLogRecord> consumer) {
+        for (Path file : segments()) {
+            try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+
+                while (buffer.remaining() >= Integer.BYTES) {
+                    int length = buffer.getInt();
+                    if (length <= 0 || length > buffer.remaining()) break;
+
+                    ByteBuffer record = buffer.slice(buffer.position(), length);
+                    buffer.position(buffer.position() + length);
+                    consumer.accept(decode(record));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private List<Path> segments() {
+        if (!Files.isDirectory(directory)) return List.of();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static DuelLogRecord decode(ByteBuffer in) {
+        byte type = in.get();
+        long timestamp = in.getLong();
+        String gameCode = getString(in);
+
+        return switch (type) {
+            case TYPE_START -> {
+                long seed = in.getLong();
+                int count = Byte.toUnsignedInt(in.get());
+                List<DuelLogRecord.UnitSnapshot> units = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    long unitId = in.getLong();
+                    String name = getString(in);
+                    long maxHealth = in.getLong();
+                    long health = in.getLong();
+                    long damage = in.getLong();
+                    double[] efficiency = new double[Body.values().length];
+                    for (int part = 0; part < efficiency.length; part++) {
+                        efficiency[part] = in.getDouble();
+                    }
+                    units.add(new DuelLogRecord.UnitSnapshot(unitId, name, maxHealth, health, damage, efficiency));
+                }
+                yield new DuelLogRecord.Start(gameCode, timestamp, seed, units);
+            }
+            case TYPE_ROUND -> {
+                long attackerId = in.getLong();
+                Body attackerTarget = Body.values()[in.get()];
+                long defenderId = in.getLong();
+                Body defenderTarget = Body.values()[in.get()];
+                long attackerDamage = in.getLong();
+                long defenderDamage = in.getLong();
+                int flags = in.get();
+                yield new DuelLogRecord.Round(gameCode, timestamp,
+                        attackerId, attackerTarget,
+                        defenderId, defenderTarget,
+                        attackerDamage, (flags & FLAG_ATTACKER_CRITICAL) != 0,
+                        defenderDamage, (flags & FLAG_DEFENDER_CRITICAL) != 0,
+                        (flags & FLAG_ATTACKER_DESTROYED) != 0, (flags & FLAG_DEFENDER_DESTROYED) != 0,
+                        in.getLong(), in.getLong());
+            }
+            case TYPE_END -> new DuelLogRecord.End(gameCode, timestamp);
+            default -> throw new IllegalStateException("Неизвестный тип записи журнала: " + type);
+        };
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] utf8 = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
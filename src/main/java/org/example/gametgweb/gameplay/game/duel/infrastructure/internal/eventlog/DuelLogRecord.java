@@ -0,0 +1,54 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.eventlog;
+
+import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
+
+import java.util.List;
+
+/**
+ * Запись журнала дуэлей {@link DuelEventLog}.
+ *
+ * <p>Журнал хранит ровно столько, сколько нужно для повторного расчёта боя:
+ * seed генератора, исходное состояние юнитов, ходы и результаты каждого раунда.
+ */
+public sealed interface DuelLogRecord {
+
+    /** Код комнаты, к которой относится запись. */
+    String gameCode();
+
+    /** Время записи в миллисекундах. */
+    long timestamp();
+
+    /**
+     * Состояние юнита на момент начала боя.
+     *
+     * @param unitId     идентификатор юнита
+     * @param name       имя юнита
+     * @param maxHealth  максимальное здоровье
+     * @param health     текущее здоровье
+     * @param damage     базовый урон
+     * @param efficiency эффективность частей тела в порядке {@link Body#values()}
+     */
+    record UnitSnapshot(long unitId, String name, long maxHealth, long health, long damage, double[] efficiency) {}
+
+    /**
+     * Начало дуэли: seed генератора комнаты и исходные юниты.
+     */
+    record Start(String gameCode, long timestamp, long seed, List<UnitSnapshot> units) implements DuelLogRecord {}
+
+    /**
+     * Раунд: ходы обоих игроков и рассчитанный результат (для сверки при воспроизведении).
+     * Флаги {@code *Destroyed} — удар первого/второго игрока вывел часть тела противника из строя.
+     */
+    record Round(String gameCode, long timestamp,
+                 long attackerId, Body attackerTarget,
+                 long defenderId, Body defenderTarget,
+                 long attackerDamage, boolean attackerCritical,
+                 long defenderDamage, boolean defenderCritical,
+                 boolean attackerDestroyed, boolean defenderDestroyed,
+                 long attackerHealthAfter, long defenderHealthAfter) implements DuelLogRecord {}
+
+    /**
+     * Конец дуэли (один или оба юнита погибли).
+     */
+    record End(String gameCode, long timestamp) implements DuelLogRecord {}
+}
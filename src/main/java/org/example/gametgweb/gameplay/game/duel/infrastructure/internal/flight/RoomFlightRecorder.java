@@ -0,0 +1,202 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.flight;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.api.dto.FlightEventDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RoomFlightRecorder — бортовой журнал комнаты: последние структурированные события дуэли.
+ *
+ * <p>У каждой комнаты своё кольцо фиксированного размера {@code game.flight.capacity}.
+ * Ячейки кольца создаются один раз при первом событии комнаты и дальше только перезаписываются,
+ * поэтому запись события — это несколько присваиваний под монитором комнаты, без выделения памяти
+ * и без форматирования строк.
+ *
+ * <p>Журнал выводится в лог при ошибке обработки хода и отдаётся по запросу
+ * ({@code GET /admin/flight-recorder/{gameCode}}): историю одной комнаты видно целиком,
+ * без подробного глобального логирования и без перемешивания со строками других комнат.
+ * Кольца комнат без событий дольше {@code game.flight.retain-ms} удаляются.
+ */
+@Slf4j
+@Component
+public class RoomFlightRecorder {
+
+    /** Виды событий журнала. */
+    public enum Kind { IN_FRAME, MOVE, ROUND, SEND, SEND_FAIL, JOIN, LEAVE, ERROR }
+
+    private final ConcurrentHashMap<String, Ring> rings = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int capacity;
+    private final long retainMs;
+
+    @Autowired
+    public RoomFlightRecorder(@Value("${game.flight.enabled:true}") boolean enabled,
+                              @Value("${game.flight.capacity:256}") int capacity,
+                              @Value("${game.flight.retain-ms:600000}") long retainMs) {
+        this.enabled = enabled;
+        this.capacity = Math.max(capacity, 1);
+        this.retainMs = retainMs;
+    }
+
+    /**
+     * Записывает событие комнаты.
+     *
+     * @param gameCode код комнаты
+     * @param kind     вид события
+     * @param player   игрок или {@code null}
+     * @param detail   короткое описание (тип кадра, часть тела, причина)
+     * @param size     размер кадра, байт
+     * @param count    число получателей или код закрытия
+     */
+    public void record(String gameCode, Kind kind, String player, String detail, long size, int count) {
+        if (!enabled || gameCode == null) return;
+        rings.computeIfAbsent(gameCode, k -> new Ring(capacity)).write(kind, player, detail, size, count);
+    }
+
+    public void record(String gameCode, Kind kind, String player, String detail) {
+        record(gameCode, kind, player, detail, 0, 0);
+    }
+
+    /**
+     * Записывает итог раунда. Здоровье хранится числами и форматируется только при выводе журнала.
+     *
+     * @param gameCode   код комнаты
+     * @param attacker   первый игрок раунда
+     * @param attackerHp его здоровье, %
+     * @param defender   второй игрок раунда
+     * @param defenderHp его здоровье, %
+     */
+    public void recordRound(String gameCode, String attacker, double attackerHp, String defender, double defenderHp) {
+        if (!enabled || gameCode == null) return;
+        rings.computeIfAbsent(gameCode, k -> new Ring(capacity)).writeRound(attacker, attackerHp, defender, defenderHp);
+    }
+
+    /**
+     * Возвращает события комнаты от старых к новым.
+     *
+     * @param gameCode код комнаты
+     * @return события; пустой список, если журнала комнаты нет
+     */
+    public List<FlightEventDto> dump(String gameCode) {
+        Ring ring = rings.get(gameCode);
+        return ring != null ? ring.snapshot() : List.of();
+    }
+
+    /** Коды комнат, для которых есть журнал */
+    public Set<String> rooms() {
+        return Set.copyOf(rings.keySet());
+    }
+
+    /**
+     * Выводит журнал комнаты в лог одной записью.
+     *
+     * @param gameCode код комнаты
+     * @param reason   причина вывода
+     */
+    public void logDump(String gameCode, String reason) {
+        List<FlightEventDto> events = dump(gameCode);
+        if (events.isEmpty()) return;
+
+        StringBuilder sb = new StringBuilder(events.size() * 64);
+        for (FlightEventDto e : events) {
+            sb.append("\n  #").append(e.seq()).append(' ').append(e.at()).append(' ').append(e.kind());
+            if (e.player() != null) sb.append(" player=").append(e.player());
+            if (e.detail() != null) sb.append(' ').append(e.detail());
+            if (e.size() != 0) sb.append(" size=").append(e.size());
+            if (e.count() != 0) sb.append(" count=").append(e.count());
+        }
+        log.atWarn().addKeyValue("room", gameCode)
+                .log("Журнал комнаты ({}, последние {} событий):{}", reason, events.size(), sb);
+    }
+
+    /** Удаляет журналы комнат без событий дольше {@code game.flight.retain-ms} */
+    @Scheduled(fixedDelayString = "${game.flight.retain-ms:600000}")
+    public void evictIdle() {
+        long threshold = System.currentTimeMillis() - retainMs;
+        rings.values().removeIf(ring -> ring.lastWriteAt() < threshold);
+    }
+
+    /** Переиспользуемая ячейка кольца. Поля противника и здоровья заполняет только {@link Kind#ROUND}. */
+    private static final class Slot {
+        long at;
+        Kind kind;
+        String player;
+        String detail;
+        long size;
+        int count;
+        String opponent;
+        double hp;
+        double opponentHp;
+
+        /** Описание события; для раунда собирается из чисел только здесь, при выводе */
+        String describe() {
+            if (kind != Kind.ROUND) return detail;
+            return hp + "% / " + opponent + " " + opponentHp + "%";
+        }
+    }
+
+    /** Кольцо событий одной комнаты; все обращения — под его монитором. */
+    private static final class Ring {
+        private final Slot[] slots;
+        private long next;
+
+        Ring(int capacity) {
+            slots = new Slot[capacity];
+            for (int i = 0; i < capacity; i++) {
+                slots[i] = new Slot();
+            }
+        }
+
+        synchronized void write(Kind kind, String player, String detail, long size, int count) {
+            Slot slot = claim(kind, player);
+            slot.detail = detail;
+            slot.size = size;
+            slot.count = count;
+            slot.opponent = null;
+            slot.hp = 0;
+            slot.opponentHp = 0;
+        }
+
+        synchronized void writeRound(String attacker, double attackerHp, String defender, double defenderHp) {
+            Slot slot = claim(Kind.ROUND, attacker);
+            slot.detail = null;
+            slot.size = 0;
+            slot.count = 0;
+            slot.opponent = defender;
+            slot.hp = attackerHp;
+            slot.opponentHp = defenderHp;
+        }
+
+        private Slot claim(Kind kind, String player) {
+            Slot slot = slots[(int) (next++ % slots.length)];
+            slot.at = System.currentTimeMillis();
+            slot.kind = kind;
+            slot.player = player;
+            return slot;
+        }
+
+        synchronized long lastWriteAt() {
+            return next == 0 ? 0 : slots[(int) ((next - 1) % slots.length)].at;
+        }
+
+        synchronized List<FlightEventDto> snapshot() {
+            long from = Math.max(0, next - slots.length);
+            List<FlightEventDto> events = new ArrayList<>((int) (next - from));
+            for (long seq = from; seq < next; seq++) {
+                Slot s = slots[(int) (seq % slots.length)];
+                events.add(new FlightEventDto(seq, Instant.ofEpochMilli(s.at), s.kind.name(),
+                        s.player, s.describe(), s.size, s.count));
+            }
+            return events;
+        }
+    }
+}
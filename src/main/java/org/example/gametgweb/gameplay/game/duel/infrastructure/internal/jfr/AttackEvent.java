@@ -0,0 +1,35 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Обработка хода игрока, включая ожидание блокировки комнаты и расчёт раунда, если ход второй.
+ */
+@Name(AttackEvent.NAME)
+@Label("Duel Attack")
+@Description("Ход игрока в дуэли: от получения до ответа")
+public class AttackEvent extends DuelStageEvent {
+
+    public static final String NAME = "org.example.gametgweb.duel.Attack";
+
+    @Label("Player")
+    String player;
+
+    @Label("Round Resolved")
+    boolean resolved;
+
+    /**
+     * Завершает обработку хода.
+     *
+     * @param room     код комнаты
+     * @param player   игрок, сделавший ход
+     * @param resolved ход закрыл раунд
+     */
+    public void complete(String room, String player, boolean resolved) {
+        this.player = player;
+        this.resolved = resolved;
+        complete(room, resolved ? 2 : 1, 0);
+    }
+}
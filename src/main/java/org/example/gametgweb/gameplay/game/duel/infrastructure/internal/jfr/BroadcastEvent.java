@@ -0,0 +1,16 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Рассылка кадра по сессиям комнаты; игроки — число получателей, объём — сумма по всем отправкам.
+ */
+@Name(BroadcastEvent.NAME)
+@Label("Duel Broadcast")
+@Description("Рассылка кадра всем игрокам комнаты")
+public class BroadcastEvent extends DuelStageEvent {
+
+    public static final String NAME = "org.example.gametgweb.duel.Broadcast";
+}
@@ -0,0 +1,202 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.api.dto.JfrStageStatsDto;
+import org.example.gametgweb.gameplay.game.duel.api.dto.JfrSummaryDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DuelJfrMonitor — потоковое чтение событий JFR дуэлей внутри приложения.
+ *
+ * <p>Пока поток выключен, события {@link DuelStageEvent} не записываются и почти ничего не стоят.
+ * Включённый поток ({@code game.jfr.stream.enabled} или {@code POST /admin/jfr-stream})
+ * включает события с порогом {@code game.jfr.threshold-ms} и раз в секунду получает их из JFR,
+ * складывая длительности по этапам и по комнатам. Сводка покрывает текущее и предыдущее окно
+ * {@code game.jfr.window-ms}, поэтому показывает недавние всплески, а не всё время работы.
+ *
+ * <p>Запись, запущенная снаружи ({@code -XX:StartFlightRecording}, {@code jcmd JFR.start}),
+ * видит те же события независимо от этого потока.
+ */
+@Slf4j
+@Component
+public class DuelJfrMonitor {
+
+    /** Сколько JFR держит данные потока на диске до удаления. */
+    private static final Duration MAX_AGE = Duration.ofSeconds(30);
+
+    private final boolean enabledOnStart;
+    private final long thresholdMs;
+    private final long windowMs;
+
+    private RecordingStream stream;
+    private volatile Window current = new Window();
+    private volatile Window previous = new Window();
+
+    @Autowired
+    public DuelJfrMonitor(@Value("${game.jfr.stream.enabled:false}") boolean enabledOnStart,
+                          @Value("${game.jfr.threshold-ms:0}") long thresholdMs,
+                          @Value("${game.jfr.window-ms:60000}") long windowMs) {
+        this.enabledOnStart = enabledOnStart;
+        this.thresholdMs = thresholdMs;
+        this.windowMs = windowMs;
+    }
+
+    @PostConstruct
+    void init() {
+        if (enabledOnStart) start();
+    }
+
+    /**
+     * Запускает потоковую запись событий дуэлей. Повторный запуск ничего не делает.
+     *
+     * @return {@code true}, если поток идёт
+     */
+    public synchronized boolean start() {
+        if (stream != null) return true;
+
+        try {
+            RecordingStream rs = new RecordingStream();
+            Duration threshold = Duration.ofMillis(thresholdMs);
+            rs.enable(AttackEvent.NAME).withThreshold(threshold);
+            rs.enable(RoundEvent.NAME).withThreshold(threshold);
+            rs.enable(BroadcastEvent.NAME).withThreshold(threshold);
+            rs.enable(FinishEvent.NAME).withThreshold(threshold);
+            rs.enable(TimerEvent.NAME).withThreshold(threshold);
+            rs.setMaxAge(MAX_AGE);
+
+            rs.onEvent(AttackEvent.NAME, e -> record("attack", e));
+            rs.onEvent(RoundEvent.NAME, e -> record("round", e));
+            rs.onEvent(BroadcastEvent.NAME, e -> record("broadcast", e));
+            rs.onEvent(FinishEvent.NAME, e -> record("finish " + e.getString("phase"), e));
+            rs.onEvent(TimerEvent.NAME, e -> record("timer " + e.getString("kind"), e));
+
+            rs.startAsync();
+            stream = rs;
+            current = new Window();
+            previous = new Window();
+            log.info("Поток JFR событий дуэлей запущен (порог {} мс)", thresholdMs);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("JFR недоступен, поток событий дуэлей не запущен: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /** Останавливает потоковую запись; события снова перестают записываться. */
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream == null) return;
+        stream.close();
+        stream = null;
+        log.info("Поток JFR событий дуэлей остановлен");
+    }
+
+    public synchronized boolean isStreaming() {
+        return stream != null;
+    }
+
+    /** Начинает новое окно сводки */
+    @Scheduled(fixedRateString = "${game.jfr.window-ms:60000}")
+    public void rotate() {
+        previous = current;
+        current = new Window();
+    }
+
+    /**
+     * Сводка текущего и предыдущего окна.
+     *
+     * @param top сколько комнат вернуть
+     * @return этапы по суммарному времени и самые медленные комнаты по наибольшей длительности
+     */
+    public JfrSummaryDto summary(int top) {
+        Map<String, Stats> stages = merge(previous.stages, current.stages);
+        Map<String, Stats> rooms = merge(previous.rooms, current.rooms);
+
+        List<JfrStageStatsDto> stageStats = stages.entrySet().stream()
+                .map(e -> e.getValue().toDto(e.getKey()))
+                .sorted(Comparator.comparingDouble(JfrStageStatsDto::totalMillis).reversed())
+                .toList();
+        List<JfrStageStatsDto> roomStats = rooms.entrySet().stream()
+                .map(e -> e.getValue().toDto(e.getKey()))
+                .sorted(Comparator.comparingDouble(JfrStageStatsDto::maxMillis).reversed())
+                .limit(Math.max(top, 0))
+                .toList();
+
+        return new JfrSummaryDto(isStreaming(), thresholdMs, windowMs, stageStats, roomStats);
+    }
+
+    private void record(String stage, RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        long bytes = event.getLong("payloadBytes");
+        String room = event.getString("room");
+
+        Window window = current;
+        window.stages.computeIfAbsent(stage, k -> new Stats()).add(nanos, bytes, stage);
+        if (room != null) {
+            window.rooms.computeIfAbsent(room, k -> new Stats()).add(nanos, bytes, stage);
+        }
+    }
+
+    private static Map<String, Stats> merge(Map<String, Stats> older, Map<String, Stats> newer) {
+        Map<String, Stats> merged = new HashMap<>();
+        older.forEach((key, stats) -> merged.computeIfAbsent(key, k -> new Stats()).addAll(stats));
+        newer.forEach((key, stats) -> merged.computeIfAbsent(key, k -> new Stats()).addAll(stats));
+        return merged;
+    }
+
+    /** Одно окно сводки; пишет в него только поток JFR, читает контроллер. */
+    private static final class Window {
+        final ConcurrentHashMap<String, Stats> stages = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, Stats> rooms = new ConcurrentHashMap<>();
+    }
+
+    private static final class Stats {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private long payloadBytes;
+        private String slowestStage;
+
+        synchronized void add(long nanos, long bytes, String stage) {
+            count++;
+            totalNanos += nanos;
+            payloadBytes += bytes;
+            if (nanos >= maxNanos) {
+                maxNanos = nanos;
+                slowestStage = stage;
+            }
+        }
+
+        synchronized void addAll(Stats other) {
+            synchronized (other) {
+                count += other.count;
+                totalNanos += other.totalNanos;
+                payloadBytes += other.payloadBytes;
+                if (other.maxNanos >= maxNanos) {
+                    maxNanos = other.maxNanos;
+                    slowestStage = other.slowestStage;
+                }
+            }
+        }
+
+        synchronized JfrStageStatsDto toDto(String key) {
+            double avg = count == 0 ? 0 : totalNanos / 1_000_000.0 / count;
+            return new JfrStageStatsDto(key, count, avg, maxNanos / 1_000_000.0, totalNanos / 1_000_000.0,
+                    payloadBytes, key.equals(slowestStage) ? null : slowestStage);
+        }
+    }
+}
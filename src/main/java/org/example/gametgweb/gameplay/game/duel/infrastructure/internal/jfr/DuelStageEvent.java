@@ -0,0 +1,46 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Базовое событие JFR для этапа обработки дуэли: комната, число игроков и объём данных.
+ * Длительность события — время между {@link #begin()} и {@link #complete}.
+ *
+ * <p>Пока запись JFR выключена, {@link #complete} сводится к проверке {@link #shouldCommit()},
+ * а сам объект события JIT убирает escape-анализом — на горячем пути остаётся только вызов.
+ */
+@Category({"Game", "Duel"})
+@StackTrace(false)
+public abstract class DuelStageEvent extends Event {
+
+    @Label("Room")
+    String room;
+
+    @Label("Players")
+    int players;
+
+    @Label("Payload Size")
+    @DataAmount
+    long payloadBytes;
+
+    /**
+     * Завершает этап и записывает событие, если оно включено и превысило порог.
+     *
+     * @param room         код комнаты
+     * @param players      число игроков, затронутых этапом
+     * @param payloadBytes объём отправленных данных, байт
+     */
+    public final void complete(String room, int players, long payloadBytes) {
+        end();
+        if (!shouldCommit()) return;
+
+        this.room = room;
+        this.players = players;
+        this.payloadBytes = payloadBytes;
+        commit();
+    }
+}
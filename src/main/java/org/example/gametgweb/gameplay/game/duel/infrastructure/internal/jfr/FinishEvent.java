@@ -0,0 +1,31 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Сохранение результата дуэли: запись в outbox ({@code win}, {@code draw})
+ * или применение строки outbox к основным таблицам ({@code finalize}), включая коммит транзакции.
+ */
+@Name(FinishEvent.NAME)
+@Label("Duel Finish")
+@Description("Сохранение результата дуэли")
+public class FinishEvent extends DuelStageEvent {
+
+    public static final String NAME = "org.example.gametgweb.duel.Finish";
+
+    @Label("Phase")
+    String phase;
+
+    /**
+     * Завершает этап сохранения.
+     *
+     * @param room  код комнаты
+     * @param phase {@code win}, {@code draw} или {@code finalize}
+     */
+    public void complete(String room, String phase) {
+        this.phase = phase;
+        complete(room, 2, 0);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Расчёт одного раунда дуэли вместе с записью в журнал боя.
+ */
+@Name(RoundEvent.NAME)
+@Label("Duel Round")
+@Description("Расчёт раунда дуэли")
+public class RoundEvent extends DuelStageEvent {
+
+    public static final String NAME = "org.example.gametgweb.duel.Round";
+}
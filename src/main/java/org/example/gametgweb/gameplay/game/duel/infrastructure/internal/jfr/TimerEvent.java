@@ -0,0 +1,43 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Срабатывание отложенного join/leave: длительность — выполнение действия,
+ * опоздание — насколько таймер сработал позже запланированного.
+ */
+@Name(TimerEvent.NAME)
+@Label("Duel Join/Leave Timer")
+@Description("Отложенное уведомление о входе или выходе игрока")
+public class TimerEvent extends DuelStageEvent {
+
+    public static final String NAME = "org.example.gametgweb.duel.JoinLeaveTimer";
+
+    @Label("Player")
+    String player;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Lag")
+    @Timespan(Timespan.MILLISECONDS)
+    long lagMillis;
+
+    /**
+     * Завершает выполнение таймера.
+     *
+     * @param room      код комнаты
+     * @param player    игрок
+     * @param kind      {@code join} или {@code leave}
+     * @param lagMillis опоздание срабатывания, мс
+     */
+    public void complete(String room, String player, String kind, long lagMillis) {
+        this.player = player;
+        this.kind = kind;
+        this.lagMillis = lagMillis;
+        complete(room, 1, 0);
+    }
+}
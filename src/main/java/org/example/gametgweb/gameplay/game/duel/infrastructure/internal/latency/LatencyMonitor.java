@@ -0,0 +1,238 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.latency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.example.gametgweb.gameplay.game.duel.api.dto.LatencyHistogramDto;
+import org.example.gametgweb.gameplay.game.duel.api.dto.LatencyReportDto;
+import org.example.gametgweb.gameplay.game.duel.api.dto.RoomQualityDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LatencyMonitor — задержки, которые чувствует игрок: сеть и сервер по отдельности.
+ *
+ * <p>Раз в {@code game.latency.ping-interval-ms} каждая сессия {@code /ws/duel} и {@code /ws/campaign}
+ * получает кадр {@code {"type":"ping","t":...}} с отметкой времени сервера в микросекундах.
+ * Клиент сразу возвращает ту же отметку в {@code pong}, и сервер получает RTT сессии
+ * по своим же часам — без синхронизации часов клиента. Ping отправляется в ту же обёртку сессии
+ * ({@code ConcurrentSendWebSocketHandler}), что и остальные кадры, поэтому не пересекается с ними.
+ *
+ * <p>Время раунда — от хода, закрывшего раунд, до отправки результата. Вместе с наибольшим
+ * последним RTT игроков комнаты оно даёт оценку задержки «ход — результат» у игрока.
+ * Замеры идут в HDR-гистограммы узла ({@code rtt}, {@code round-server}, {@code round-end-to-end}),
+ * а по комнате — средние, максимумы и число медленных раундов ({@code game.latency.slow-round-ms})
+ * с разбивкой: что было больше — сеть или сервер.
+ */
+@Slf4j
+@Component
+public class LatencyMonitor {
+
+    /** Начало отсчёта отметок ping: отметки остаются небольшими и точно передаются числом JS. */
+    private static final long EPOCH_NANOS = System.nanoTime();
+
+    /** Верхняя граница замера; более долгие ответы считаются потерянными. */
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final ConcurrentHashMap<WebSocketSession, Probe> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, RoomQuality> rooms = new ConcurrentHashMap<>();
+
+    private final Histogram rtt = new ConcurrentHistogram(MAX_MICROS, 3);
+    private final Histogram roundServer = new ConcurrentHistogram(MAX_MICROS, 3);
+    private final Histogram roundEndToEnd = new ConcurrentHistogram(MAX_MICROS, 3);
+
+    private final boolean enabled;
+    private final long slowRoundMicros;
+    private final long roomRetainMs;
+
+    @Autowired
+    public LatencyMonitor(@Value("${game.latency.enabled:true}") boolean enabled,
+                          @Value("${game.latency.slow-round-ms:250}") long slowRoundMs,
+                          @Value("${game.latency.room-retain-ms:600000}") long roomRetainMs) {
+        this.enabled = enabled;
+        this.slowRoundMicros = TimeUnit.MILLISECONDS.toMicros(slowRoundMs);
+        this.roomRetainMs = roomRetainMs;
+    }
+
+    /**
+     * Начинает замеры RTT сессии.
+     *
+     * @param session    WebSocket-сессия
+     * @param room       комната, к которой относятся замеры
+     * @param playerName игрок
+     */
+    public void register(WebSocketSession session, String room, String playerName) {
+        if (!enabled) return;
+        sessions.put(session, new Probe(room, playerName));
+    }
+
+    /** Прекращает замеры RTT сессии */
+    public void unregister(WebSocketSession session) {
+        sessions.remove(session);
+    }
+
+    /** Отправляет ping всем отслеживаемым сессиям */
+    @Scheduled(fixedRateString = "${game.latency.ping-interval-ms:5000}")
+    public void ping() {
+        if (!enabled) return;
+
+        sessions.keySet().forEach(session -> {
+            if (!session.isOpen()) return;
+            try {
+                session.sendMessage(new TextMessage("{\"type\":\"ping\",\"t\":" + nowMicros() + "}"));
+            } catch (Exception e) {
+                // сессия закрывается или клиент не успевает принимать кадры — замер пропускается
+                log.debug("Ping сессии {} не отправлен: {}", session.getId(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Принимает ответ клиента на ping.
+     *
+     * @param session     сессия, приславшая pong
+     * @param stampMicros отметка из ping
+     */
+    public void onPong(WebSocketSession session, long stampMicros) {
+        Probe probe = sessions.get(session);
+        if (probe == null) return;
+
+        long micros = nowMicros() - stampMicros;
+        if (micros < 0 || micros > MAX_MICROS) return;
+
+        rtt.recordValue(micros);
+        rooms.computeIfAbsent(probe.room(), k -> new RoomQuality()).recordRtt(probe.playerName(), micros);
+    }
+
+    /**
+     * Учитывает раунд комнаты.
+     *
+     * @param room        код комнаты
+     * @param serverNanos время от хода, закрывшего раунд, до отправки результата
+     */
+    public void onRound(String room, long serverNanos) {
+        if (!enabled) return;
+
+        long server = Math.min(TimeUnit.NANOSECONDS.toMicros(serverNanos), MAX_MICROS);
+        RoomQuality quality = rooms.computeIfAbsent(room, k -> new RoomQuality());
+        long network = quality.recordRound(server, slowRoundMicros);
+
+        roundServer.recordValue(server);
+        roundEndToEnd.recordValue(Math.min(server + network, MAX_MICROS));
+    }
+
+    /**
+     * Сводка гистограмм узла и худших комнат.
+     *
+     * @param top сколько комнат вернуть
+     */
+    public LatencyReportDto report(int top) {
+        List<LatencyHistogramDto> histograms = List.of(
+                toDto("rtt", rtt),
+                toDto("round-server", roundServer),
+                toDto("round-end-to-end", roundEndToEnd));
+
+        List<RoomQualityDto> worst = rooms.entrySet().stream()
+                .map(e -> e.getValue().toDto(e.getKey()))
+                .sorted(Comparator.comparingLong((RoomQualityDto r) -> r.slowByNetwork() + r.slowByServer())
+                        .thenComparingDouble(r -> r.maxServerMs() + r.maxRttMs())
+                        .reversed())
+                .limit(Math.max(top, 0))
+                .toList();
+
+        return new LatencyReportDto(TimeUnit.MICROSECONDS.toMillis(slowRoundMicros), histograms, worst);
+    }
+
+    /** Сбрасывает гистограммы и сводку комнат */
+    public void reset() {
+        rtt.reset();
+        roundServer.reset();
+        roundEndToEnd.reset();
+        rooms.clear();
+    }
+
+    /** Удаляет сводки комнат без замеров дольше {@code game.latency.room-retain-ms} */
+    @Scheduled(fixedDelayString = "${game.latency.room-retain-ms:600000}")
+    public void evictIdle() {
+        long threshold = System.currentTimeMillis() - roomRetainMs;
+        rooms.values().removeIf(room -> room.lastUpdateAt() < threshold);
+    }
+
+    private static long nowMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - EPOCH_NANOS);
+    }
+
+    private static LatencyHistogramDto toDto(String name, Histogram histogram) {
+        Histogram copy = histogram.copy();
+        return new LatencyHistogramDto(name, copy.getTotalCount(),
+                millis(copy.getValueAtPercentile(50)),
+                millis(copy.getValueAtPercentile(90)),
+                millis(copy.getValueAtPercentile(99)),
+                millis(copy.getValueAtPercentile(99.9)),
+                millis(copy.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private record Probe(String room, String playerName) {}
+
+    /** Замеры одной комнаты; все обращения — под её монитором. */
+    private static final class RoomQuality {
+        private final Map<String, Long> lastRtt = new HashMap<>();
+        private long rounds;
+        private long serverSum;
+        private long serverMax;
+        private long rttCount;
+        private long rttSum;
+        private long rttMax;
+        private long slowByNetwork;
+        private long slowByServer;
+        private volatile long lastUpdateAt = System.currentTimeMillis();
+
+        synchronized void recordRtt(String playerName, long micros) {
+            if (playerName != null) lastRtt.put(playerName, micros);
+            rttCount++;
+            rttSum += micros;
+            rttMax = Math.max(rttMax, micros);
+            lastUpdateAt = System.currentTimeMillis();
+        }
+
+        /** @return последний RTT самого медленного игрока комнаты, мкс */
+        synchronized long recordRound(long serverMicros, long slowMicros) {
+            long network = lastRtt.values().stream().mapToLong(Long::longValue).max().orElse(0);
+            rounds++;
+            serverSum += serverMicros;
+            serverMax = Math.max(serverMax, serverMicros);
+            if (serverMicros + network > slowMicros) {
+                if (network > serverMicros) slowByNetwork++;
+                else slowByServer++;
+            }
+            lastUpdateAt = System.currentTimeMillis();
+            return network;
+        }
+
+        long lastUpdateAt() {
+            return lastUpdateAt;
+        }
+
+        synchronized RoomQualityDto toDto(String room) {
+            return new RoomQualityDto(room, rounds,
+                    rounds == 0 ? 0 : millis(serverSum) / rounds, millis(serverMax),
+                    rttCount == 0 ? 0 : millis(rttSum) / rttCount, millis(rttMax),
+                    slowByNetwork, slowByServer);
+        }
+    }
+}
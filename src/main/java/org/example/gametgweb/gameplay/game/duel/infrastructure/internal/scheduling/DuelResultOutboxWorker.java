@@ -0,0 +1,79 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelFinishService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.repository.JpaDuelResultOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * DuelResultOutboxWorker — фоновый обработчик outbox-таблицы результатов дуэлей.
+ * <p>
+ * Периодически читает идентификаторы пачки строк {@code duel_result_outbox} и применяет каждую
+ * через {@link DuelFinishService#finalizeResult} в отдельной транзакции. Строка захватывается
+ * {@code FOR UPDATE SKIP LOCKED}, поэтому обработчики нескольких узлов делят очередь,
+ * а не применяют одни и те же результаты.
+ * <p>
+ * Ошибка одной строки не мешает остальным: строка остаётся в таблице и будет повторно
+ * обработана при следующем опросе. После {@code game.outbox.max-attempts} неудач подряд
+ * строка уходит в dead-letter и больше не выбирается.
+ * <p>
+ * Строки, записанные до падения приложения, обрабатываются после рестарта.
+ */
+@Slf4j
+@Component
+public class DuelResultOutboxWorker {
+
+    private final JpaDuelResultOutboxRepository outboxRepository;
+    private final DuelFinishService duelFinishService;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    @Autowired
+    public DuelResultOutboxWorker(JpaDuelResultOutboxRepository outboxRepository,
+                                  DuelFinishService duelFinishService,
+                                  @Value("${game.outbox.batch-size:100}") int batchSize,
+                                  @Value("${game.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.duelFinishService = duelFinishService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /** Обрабатывает очередную пачку результатов дуэлей */
+    @Scheduled(fixedDelayString = "${game.outbox.poll-interval-ms:500}")
+    public void drain() {
+        List<Long> batch = outboxRepository.findPendingIds(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) return;
+
+        int done = 0;
+        for (Long id : batch) {
+            try {
+                if (duelFinishService.finalizeResult(id)) done++;
+            } catch (RuntimeException e) {
+                fail(id, e);
+            }
+        }
+        if (done > 0) {
+            log.info("Outbox результатов дуэлей: обработано {} из {}", done, batch.size());
+        }
+    }
+
+    private void fail(Long id, RuntimeException error) {
+        try {
+            if (duelFinishService.recordFailure(id, error, maxAttempts)) {
+                log.error("Результат дуэли (outbox id={}) не применён за {} попыток и переведён в dead-letter",
+                        id, maxAttempts, error);
+            } else {
+                log.warn("Не удалось применить результат дуэли (outbox id={}), повтор при следующем опросе", id, error);
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось учесть ошибку outbox id={}", id, e);
+        }
+    }
+}
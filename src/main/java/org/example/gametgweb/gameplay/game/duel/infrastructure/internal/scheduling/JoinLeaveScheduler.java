@@ -2,6 +2,7 @@ package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.schedul
 
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr.TimerEvent;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.WebSocketContext;
 import org.springframework.stereotype.Component;
 
@@ -16,6 +17,7 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * Управляет входами и выходами игроков с небольшой задержкой,
  * учитывая быстрые перезагрузки страниц и дублирующиеся соединения.
+ * Каждое срабатывание пишет событие JFR {@link TimerEvent} с опозданием таймера.
  */
 @Slf4j
 @Component
@@ -54,7 +56,9 @@ public class JoinLeaveScheduler {
 
     /** Планирует join-сообщение с задержкой */
     public void scheduleJoin(String gameCode, String playerName, Runnable action) {
-        scheduler.schedule(action, JOIN_DELAY_MS, TimeUnit.MILLISECONDS);
+        long dueAt = System.currentTimeMillis() + JOIN_DELAY_MS;
+        scheduler.schedule(() -> timed(gameCode, playerName, "join", dueAt, action),
+                JOIN_DELAY_MS, TimeUnit.MILLISECONDS);
     }
 
     /** Планирует leave-сообщение с задержкой */
@@ -63,8 +67,9 @@ public class JoinLeaveScheduler {
 
         getMap(lastLeaveAt, gameCode).put(playerName, System.currentTimeMillis());
 
+        long dueAt = System.currentTimeMillis() + LEAVE_DELAY_MS;
         ScheduledFuture<?> future = scheduler.schedule(() -> {
-            action.run();
+            timed(gameCode, playerName, "leave", dueAt, action);
             getMap(pendingLeaveTasks, gameCode).remove(playerName);
         }, LEAVE_DELAY_MS, TimeUnit.MILLISECONDS);
 
@@ -104,6 +109,17 @@ public class JoinLeaveScheduler {
         log.info("JoinLeaveScheduler завершил работу");
     }
 
+    /** Выполняет действие таймера, записывая событие JFR */
+    private static void timed(String gameCode, String playerName, String kind, long dueAt, Runnable action) {
+        TimerEvent event = new TimerEvent();
+        event.begin();
+        try {
+            action.run();
+        } finally {
+            event.complete(gameCode, playerName, kind, System.currentTimeMillis() - dueAt);
+        }
+    }
+
     /** Вспомогательный метод: получает карту по ключу или создаёт новую */
     private <T> ConcurrentHashMap<String, T> getMap(ConcurrentHashMap<String, ConcurrentHashMap<String, T>> map, String key) {
         return map.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
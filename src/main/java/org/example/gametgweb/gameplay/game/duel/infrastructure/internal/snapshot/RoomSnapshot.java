@@ -0,0 +1,41 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.snapshot;
+
+import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Снимок состояния одной комнаты дуэли для восстановления после перезапуска.
+ *
+ * @param gameCode код комнаты
+ * @param order    имена игроков в порядке подключения
+ * @param units    юниты игроков комнаты
+ * @param turn     незавершённый ход или {@code null}
+ */
+public record RoomSnapshot(String gameCode, List<String> order, List<Unit> units, Turn turn) {
+
+    /**
+     * Состояние юнита игрока в бою.
+     *
+     * @param playerName имя игрока
+     * @param unitId     идентификатор юнита игрока
+     * @param unitName   имя юнита
+     * @param imagePath  изображение юнита
+     * @param maxHealth  максимальное здоровье
+     * @param health     текущее здоровье
+     * @param damage     базовый урон
+     * @param efficiency эффективность частей тела в порядке {@link Body#values()}
+     */
+    public record Unit(String playerName, Long unitId, String unitName, String imagePath,
+                       long maxHealth, long health, long damage, double[] efficiency) {}
+
+    /**
+     * Незавершённый ход комнаты.
+     *
+     * @param moves        выборы игроков в порядке хода
+     * @param readyPlayers игроки, уже нажавшие "Атаковать"
+     */
+    public record Turn(Map<String, Body> moves, Set<String> readyPlayers) {}
+}
@@ -0,0 +1,285 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.snapshot;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
+import org.example.gametgweb.characterSelection.infrastructure.persistence.entity.BodyPartEfficiency;
+import org.example.gametgweb.gameplay.game.duel.application.events.RoomAbandonedEvent;
+import org.example.gametgweb.gameplay.game.duel.application.services.combat.DuelCombatService;
+import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelTurn;
+import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelTurnManager;
+import org.example.gametgweb.gameplay.game.duel.application.services.order.PlayerOrderService;
+import org.example.gametgweb.gameplay.game.duel.domain.repository.PlayerRepositoryImpl;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.UnitRegistryService;
+import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * RoomSnapshotService — периодические снимки живых комнат дуэлей в локальный файл
+ * и их восстановление при старте узла.
+ *
+ * <p>В снимок попадает всё, что иначе живёт только в памяти JVM: порядок игроков
+ * ({@link PlayerOrderService}), юниты с текущим HP и эффективностью частей тела
+ * ({@link UnitRegistryService}) и незавершённый ход ({@link DuelTurnManager}).
+ * Каждая комната фиксируется под своей блокировкой в {@link DuelCombatService},
+ * поэтому снимок никогда не попадает в середину раунда. Комнаты, где юнит уже погиб,
+ * пропускаются — их результат завершается через outbox.
+ *
+ * <p>Файл пишется во временный и атомарно переименовывается, так что при падении
+ * на диске всегда остаётся последний целый снимок. Последний снимок пишется
+ * и при штатной остановке.
+ *
+ * <p>При старте все игроки восстановленных комнат помечаются оффлайн: клиент,
+ * переподключившийся в окно ожидания {@link PlayerOrderService}, продолжает бой
+ * с того же места как обычный реконнект. WebSocket-сессии не восстанавливаются.
+ * Если в это окно не вернулся никто, {@link PlayerOrderService} удаляет комнату
+ * ({@link RoomAbandonedEvent}), и вместе с ней освобождаются юниты и незавершённый ход.
+ */
+@Slf4j
+@Component
+public class RoomSnapshotService {
+
+    private static final TypeReference<List<RoomSnapshot>> SNAPSHOT_TYPE = new TypeReference<>() {};
+
+    private final PlayerOrderService playerOrder;
+    private final UnitRegistryService unitRegistry;
+    private final DuelTurnManager turnManager;
+    private final DuelCombatService combatService;
+    private final PlayerRepositoryImpl playerRepository;
+    private final ObjectMapper mapper;
+
+    private final boolean enabled;
+    private final Path file;
+
+    /** Запись снимков запрещена, пока не прочитан снимок прошлого запуска. */
+    private volatile boolean restored;
+
+    @Autowired
+    public RoomSnapshotService(PlayerOrderService playerOrder,
+                               UnitRegistryService unitRegistry,
+                               DuelTurnManager turnManager,
+                               DuelCombatService combatService,
+                               PlayerRepositoryImpl playerRepository,
+                               ObjectMapper mapper,
+                               @Value("${game.snapshot.enabled:true}") boolean enabled,
+                               @Value("${game.snapshot.file:data/room-snapshot.json.gz}") String file) {
+        this.playerOrder = playerOrder;
+        this.unitRegistry = unitRegistry;
+        this.turnManager = turnManager;
+        this.combatService = combatService;
+        this.playerRepository = playerRepository;
+        this.mapper = mapper;
+        this.enabled = enabled;
+        this.file = Path.of(file);
+    }
+
+    // ============================================================
+    // ========================= Снимок ===========================
+    // ============================================================
+
+    /** Периодически сохраняет снимок всех живых комнат */
+    @Scheduled(fixedDelayString = "${game.snapshot.interval-ms:5000}")
+    public void snapshot() {
+        if (!enabled || !restored) return;
+
+        List<RoomSnapshot> rooms = new ArrayList<>();
+        for (String gameCode : playerOrder.getRooms()) {
+            RoomSnapshot room = combatService.inRoom(gameCode, () -> captureRoom(gameCode));
+            if (room != null) rooms.add(room);
+        }
+
+        try {
+            write(rooms);
+            log.debug("Снимок {} комнат сохранён в {}", rooms.size(), file);
+        } catch (IOException e) {
+            log.error("Не удалось сохранить снимок комнат в {}", file, e);
+        }
+    }
+
+    /** Сохраняет последний снимок при штатной остановке */
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+        log.info("RoomSnapshotService завершил работу");
+    }
+
+    /**
+     * Фиксирует состояние одной комнаты. Вызывающий держит блокировку комнаты.
+     *
+     * @param gameCode код комнаты
+     * @return снимок или {@code null}, если комната пуста или дуэль уже закончилась
+     */
+    public RoomSnapshot captureRoom(String gameCode) {
+        List<String> order = List.copyOf(playerOrder.getOrder(gameCode));
+        List<RoomSnapshot.Unit> units = new ArrayList<>();
+
+        for (Map.Entry<String, PlayerUnit> entry : unitRegistry.getUnits(gameCode).entrySet()) {
+            PlayerUnit unit = entry.getValue();
+            if (!unit.isAlive()) return null;
+            units.add(toSnapshot(entry.getKey(), unit));
+        }
+        if (order.isEmpty() || units.isEmpty()) return null;
+
+        DuelTurn turn = turnManager.getTurn(gameCode);
+        RoomSnapshot.Turn pending = turn != null
+                ? new RoomSnapshot.Turn(turn.getMoves(), turn.getReadyPlayers())
+                : null;
+
+        return new RoomSnapshot(gameCode, order, units, pending);
+    }
+
+    private static RoomSnapshot.Unit toSnapshot(String playerName, PlayerUnit unit) {
+        Body[] parts = Body.values();
+        double[] efficiency = new double[parts.length];
+        for (Body part : parts) {
+            efficiency[part.ordinal()] = unit.getBodyEfficiency().getCurrentEfficiency(part);
+        }
+        return new RoomSnapshot.Unit(playerName, unit.getId(), unit.getName(), unit.getImagePath(),
+                unit.getMaxHealth(), unit.getHealth(), unit.getDamage(), efficiency);
+    }
+
+    private void write(List<RoomSnapshot> rooms) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        Path tmp = Files.createTempFile(parent, "room-snapshot", ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+            mapper.writeValue(out, rooms);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ============================================================
+    // ====================== Восстановление ======================
+    // ============================================================
+
+    /** Восстанавливает комнаты из снимка прошлого запуска */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try {
+            if (enabled && Files.exists(file)) {
+                List<RoomSnapshot> rooms;
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                    rooms = mapper.readValue(in, SNAPSHOT_TYPE);
+                }
+                int restoredRooms = 0;
+                for (RoomSnapshot room : rooms) {
+                    if (tryRestoreRoom(room)) restoredRooms++;
+                }
+                log.info("Восстановлено {} из {} комнат из снимка {}", restoredRooms, rooms.size(), file);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось восстановить комнаты из снимка {}", file, e);
+        } finally {
+            restored = true;
+        }
+    }
+
+    /**
+     * Восстанавливает комнату из снимка при старте. Ошибка одной комнаты не мешает остальным:
+     * она записывается в лог, а частично восстановленное состояние комнаты удаляется.
+     *
+     * @return {@code true}, если комната восстановлена
+     */
+    private boolean tryRestoreRoom(RoomSnapshot room) {
+        try {
+            restoreRoom(room);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Не удалось восстановить комнату {} из снимка", room.gameCode(), e);
+            discardRoom(room.gameCode());
+            return false;
+        }
+    }
+
+    /**
+     * Восстанавливает одну комнату: юниты, незавершённый ход и порядок игроков
+     * (все игроки — оффлайн в окне ожидания переподключения).
+     *
+     * @param room снимок комнаты
+     */
+    public void restoreRoom(RoomSnapshot room) {
+        String gameCode = room.gameCode();
+
+        for (RoomSnapshot.Unit unit : room.units()) {
+            unitRegistry.registerUnit(gameCode, unit.playerName(), toUnit(unit));
+        }
+        if (room.turn() != null) {
+            turnManager.restoreTurn(gameCode, room.turn().moves(), room.turn().readyPlayers());
+        }
+        playerOrder.restoreRoom(gameCode, room.order());
+    }
+
+    /**
+     * Удаляет из памяти узла всё состояние комнаты, попадающее в снимок.
+     * Вызывающий держит блокировку комнаты.
+     *
+     * @param gameCode код комнаты
+     */
+    public void discardRoom(String gameCode) {
+        turnManager.removeTurn(gameCode);
+        unitRegistry.removeRoom(gameCode);
+        playerOrder.removeRoom(gameCode);
+    }
+
+    /**
+     * Освобождает юниты и незавершённый ход комнаты, которую все игроки покинули
+     * дольше окна ожидания переподключения — в том числе восстановленной комнаты,
+     * в которую никто не вернулся после рестарта.
+     *
+     * @param event событие удаления комнаты из {@link PlayerOrderService}
+     */
+    @EventListener
+    public void onRoomAbandoned(RoomAbandonedEvent event) {
+        String gameCode = event.gameCode();
+        combatService.inRoom(gameCode, () -> {
+            // за время доставки события в комнату мог войти новый игрок
+            if (!playerOrder.getOrder(gameCode).isEmpty()) return null;
+
+            turnManager.removeTurn(gameCode);
+            unitRegistry.removeRoom(gameCode);
+            return null;
+        });
+    }
+
+    /**
+     * Берёт юнит игрока из БД (вместе с шаблоном) и накладывает на него боевое состояние
+     * из снимка. Если игрока или юнита в БД нет (игрок удалён, переименован или сменил юнит),
+     * собирает юнит только из снимка.
+     */
+    private PlayerUnit toUnit(RoomSnapshot.Unit snapshot) {
+        PlayerUnit unit = playerRepository.findActiveUnit(snapshot.playerName()).orElse(null);
+
+        if (unit == null || !Objects.equals(unit.getId(), snapshot.unitId())) {
+            unit = new PlayerUnit(snapshot.unitId() != null ? snapshot.unitId() : -1L, null, snapshot.unitName(),
+                    snapshot.maxHealth(), snapshot.health(), snapshot.damage(), snapshot.imagePath());
+        }
+
+        double[] e = snapshot.efficiency();
+        unit.setMaxHealth(snapshot.maxHealth());
+        unit.setHealth(snapshot.health());
+        unit.setDamage(snapshot.damage());
+        unit.setBodyEfficiency(new BodyPartEfficiency(e[0], e[1], e[2], e[3], e[4], e[5]));
+        return unit;
+    }
+}
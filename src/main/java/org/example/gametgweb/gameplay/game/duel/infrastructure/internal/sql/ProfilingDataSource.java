@@ -0,0 +1,112 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * ProfilingDataSource — обёртка пула соединений, сообщающая {@link SqlStatementProfiler}
+ * о каждом выполненном запросе.
+ *
+ * <p>Соединения, запросы и результаты оборачиваются JDK-прокси: вызовы {@code execute*}
+ * замеряются и считаются, изменённые строки берутся из результата {@code executeUpdate}/{@code executeBatch},
+ * прочитанные — из {@link ResultSet#next()}. Остальные вызовы уходят в драйвер без изменений.
+ * Пакетный запрос считается одним обращением к БД.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    public ProfilingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection(), ProfilingDataSource::onConnectionCall);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password), ProfilingDataSource::onConnectionCall);
+    }
+
+    private static Object onConnectionCall(Object target, Method method, Object[] args) throws Throwable {
+        Object result = invoke(target, method, args);
+        if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+            return proxy(method.getReturnType(), statement, ProfilingDataSource::onStatementCall);
+        }
+        return result;
+    }
+
+    private static Object onStatementCall(Object target, Method method, Object[] args) throws Throwable {
+        if (!method.getName().startsWith("execute")) {
+            Object result = invoke(target, method, args);
+            return result instanceof ResultSet rs && method.getName().equals("getResultSet") ? wrap(rs) : result;
+        }
+
+        long start = System.nanoTime();
+        Object result = invoke(target, method, args);
+        SqlStatementProfiler.onStatement(System.nanoTime() - start, updatedRows(result));
+        return result instanceof ResultSet rs ? wrap(rs) : result;
+    }
+
+    private static Object onResultSetCall(Object target, Method method, Object[] args) throws Throwable {
+        Object result = invoke(target, method, args);
+        if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+            SqlStatementProfiler.onRows(1);
+        }
+        return result;
+    }
+
+    private static ResultSet wrap(ResultSet rs) {
+        return proxy(ResultSet.class, rs, ProfilingDataSource::onResultSetCall);
+    }
+
+    private static long updatedRows(Object result) {
+        return switch (result) {
+            case Integer n -> Math.max(n, 0);
+            case Long n -> Math.max(n, 0);
+            case int[] batch -> {
+                long sum = 0;
+                for (int n : batch) sum += Math.max(n, 0);
+                yield sum;
+            }
+            case long[] batch -> {
+                long sum = 0;
+                for (long n : batch) sum += Math.max(n, 0);
+                yield sum;
+            }
+            case null, default -> 0;
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Call call) {
+        InvocationHandler handler = (p, method, args) -> switch (method.getName()) {
+            // прокси сравнивается по ссылке: пул и Hibernate держат запросы в коллекциях
+            case "equals" -> args[0] == p;
+            case "hashCode" -> System.identityHashCode(p);
+            default -> call.handle(target, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
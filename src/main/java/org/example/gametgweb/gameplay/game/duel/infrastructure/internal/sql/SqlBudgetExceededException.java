@@ -0,0 +1,12 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql;
+
+/**
+ * Выбрасывается при закрытии области учёта SQL, если число запросов превысило бюджет,
+ * а проверка бюджетов включена ({@code game.sql.budget-fail=true}).
+ */
+public class SqlBudgetExceededException extends IllegalStateException {
+
+    public SqlBudgetExceededException(String scope, long statements, int budget) {
+        super(scope + ": " + statements + " SQL-запросов при бюджете " + budget);
+    }
+}
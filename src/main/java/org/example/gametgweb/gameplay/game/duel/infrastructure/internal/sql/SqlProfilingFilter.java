@@ -0,0 +1,55 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Открывает область учёта SQL ({@link SqlStatementProfiler}) на каждый HTTP-запрос.
+ * <p>
+ * Стоит перед фильтрами Spring Security, чтобы в область попадал и вход в систему.
+ * Запрос попадает в сводку под шаблоном пути ({@code "POST /JoinDuel"},
+ * {@code "POST /admin/rooms/{gameCode}/migrate"}); запросы без шаблона (обработанные
+ * фильтрами безопасности) — под фактическим путём, и только если обращались к БД.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlProfilingFilter extends OncePerRequestFilter {
+
+    private final SqlStatementProfiler profiler;
+
+    @Autowired
+    public SqlProfilingFilter(SqlStatementProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementProfiler.Scope scope = profiler.open(request.getMethod() + " " + request.getRequestURI());
+        Throwable failure = null;
+        try {
+            chain.doFilter(request, response);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                scope.rename(request.getMethod() + " " + pattern);
+            } else if (scope.getStatements() == 0) {
+                scope.discard();
+            }
+            scope.close(failure);
+        }
+    }
+}
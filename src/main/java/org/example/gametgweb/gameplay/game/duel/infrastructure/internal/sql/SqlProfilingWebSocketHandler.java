@@ -0,0 +1,49 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+/**
+ * Декоратор WebSocket-обработчика, открывающий область учёта SQL ({@link SqlStatementProfiler})
+ * на подключение, каждое входящее сообщение и закрытие сессии.
+ * <p>
+ * Области называются {@code "WS <путь> connect|message|close"}; обработчик может уточнить
+ * тип сообщения через {@link SqlStatementProfiler#label}, и тогда вместо {@code message}
+ * в сводке будет, например, {@code attack}.
+ */
+public class SqlProfilingWebSocketHandler extends WebSocketHandlerDecorator {
+
+    private final SqlStatementProfiler profiler;
+    private final String name;
+
+    public SqlProfilingWebSocketHandler(WebSocketHandler delegate, SqlStatementProfiler profiler, String path) {
+        super(delegate);
+        this.profiler = profiler;
+        this.name = "WS " + path;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        try (SqlStatementProfiler.Scope ignored = profiler.open(name + " connect")) {
+            super.afterConnectionEstablished(session);
+        }
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        try (SqlStatementProfiler.Scope ignored = profiler.open(name)) {
+            SqlStatementProfiler.label("message");
+            super.handleMessage(session, message);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        try (SqlStatementProfiler.Scope ignored = profiler.open(name + " close")) {
+            super.afterConnectionClosed(session, closeStatus);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.api.dto.SqlScopeStatsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SqlStatementProfiler — учёт SQL-запросов по областям: HTTP-запросам и WebSocket-сообщениям.
+ *
+ * <p>Область открывается на потоке обработки ({@link #open}) и собирает число запросов к БД,
+ * прочитанных и изменённых строк и время выполнения, которые сообщает {@link ProfilingDataSource}.
+ * При закрытии область добавляется в сводку по своему имени ({@code "POST /JoinDuel"},
+ * {@code "WS /ws/duel attack"}), которую отдаёт {@code /admin/sql-report}.
+ * Работа на других потоках (фоновые задачи, асинхронная загрузка юнита) в область не попадает.
+ *
+ * <p>Бюджеты задаются в {@code game.sql.budgets} списком {@code имя=N}. Область сверх бюджета
+ * пишется в лог и в счётчик сводки; при {@code game.sql.budget-fail=true} закрытие области
+ * бросает {@link SqlBudgetExceededException} — так бюджет проверяется в тестах. Если область
+ * закрывается из-за исключения обработки, превышение добавляется к нему как подавленное
+ * и не заменяет исходную ошибку.
+ *
+ * <p>Области вкладываются: запросы считаются во всех открытых областях потока, поэтому тест
+ * может измерить вызов сервиса внутри HTTP-запроса.
+ */
+@Slf4j
+@Component
+public class SqlStatementProfiler {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<String, ScopeStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, Integer> budgets = new HashMap<>();
+    private final boolean failOverBudget;
+
+    @Autowired
+    public SqlStatementProfiler(@Value("${game.sql.budgets:}") List<String> budgets,
+                                @Value("${game.sql.budget-fail:false}") boolean failOverBudget) {
+        this.failOverBudget = failOverBudget;
+        for (String entry : budgets) {
+            int eq = entry.lastIndexOf('=');
+            if (eq <= 0) continue;
+            this.budgets.put(entry.substring(0, eq).trim(), Integer.parseInt(entry.substring(eq + 1).trim()));
+        }
+    }
+
+    /**
+     * Открывает область учёта на текущем потоке.
+     *
+     * @param name имя области, под которым она попадёт в сводку
+     * @return область; закрывается в {@code try-with-resources}
+     */
+    public Scope open(String name) {
+        Scope scope = new Scope(this, name, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Уточняет имя текущей области, например типом обрабатываемого WebSocket-сообщения.
+     *
+     * @param detail уточнение, добавляемое к имени области
+     */
+    public static void label(String detail) {
+        Scope scope = CURRENT.get();
+        if (scope != null) scope.detail = detail;
+    }
+
+    /** Учитывает выполненный запрос во всех открытых областях потока */
+    static void onStatement(long nanos, long rows) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+            scope.rows += rows;
+            scope.nanos += nanos;
+        }
+    }
+
+    /** Учитывает прочитанные строки результата */
+    static void onRows(long rows) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.rows += rows;
+        }
+    }
+
+    /**
+     * Сводка по областям, от самых «дорогих» по числу запросов.
+     *
+     * @return статистика каждой области
+     */
+    public List<SqlScopeStatsDto> report() {
+        return stats.entrySet().stream()
+                .map(e -> e.getValue().toDto(e.getKey(), budgets.get(e.getKey())))
+                .sorted(Comparator.comparingLong(SqlScopeStatsDto::statements).reversed())
+                .toList();
+    }
+
+    /** Сбрасывает накопленную сводку */
+    public void reset() {
+        stats.clear();
+    }
+
+    /** @return превышение бюджета, которое нужно выбросить, или {@code null} */
+    private SqlBudgetExceededException complete(Scope scope) {
+        if (scope.discarded) return null;
+
+        String key = scope.key();
+        stats.computeIfAbsent(key, k -> new ScopeStats()).add(scope);
+
+        Integer budget = budgets.get(key);
+        if (budget == null || scope.statements <= budget) return null;
+
+        stats.get(key).overBudget.increment();
+        log.warn("{}: {} SQL-запросов при бюджете {} ({} строк, {} мс)",
+                key, scope.statements, budget, scope.rows, scope.nanos / 1_000_000);
+        return failOverBudget ? new SqlBudgetExceededException(key, scope.statements, budget) : null;
+    }
+
+    /**
+     * Область учёта SQL-запросов одного потока.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final SqlStatementProfiler profiler;
+        private final Scope parent;
+        private String name;
+        private String detail;
+        private boolean discarded;
+        private long statements;
+        private long rows;
+        private long nanos;
+
+        private Scope(SqlStatementProfiler profiler, String name, Scope parent) {
+            this.profiler = profiler;
+            this.name = name;
+            this.parent = parent;
+        }
+
+        /** Число запросов к БД в области */
+        public long getStatements() {
+            return statements;
+        }
+
+        /** Число прочитанных и изменённых строк */
+        public long getRows() {
+            return rows;
+        }
+
+        /** Суммарное время выполнения запросов, нс */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Переименовывает область, например по шаблону пути, известному только после обработки запроса.
+         *
+         * @param name новое имя
+         */
+        public void rename(String name) {
+            this.name = name;
+        }
+
+        /** Закрыть область, не добавляя её в сводку */
+        public void discard() {
+            this.discarded = true;
+        }
+
+        private String key() {
+            return detail == null ? name : name + " " + detail;
+        }
+
+        /**
+         * Закрывает область и добавляет её в сводку.
+         *
+         * @throws SqlBudgetExceededException если бюджет превышен и включён {@code game.sql.budget-fail}
+         */
+        @Override
+        public void close() {
+            close(null);
+        }
+
+        /**
+         * Закрывает область после обработки, которая могла завершиться исключением.
+         * Превышение бюджета при этом не заменяет исключение обработки, а добавляется к нему.
+         *
+         * @param failure исключение обработки или {@code null}, если она завершилась успешно
+         * @throws SqlBudgetExceededException если бюджет превышен, включён {@code game.sql.budget-fail}
+         *                                    и исключения обработки нет
+         */
+        public void close(Throwable failure) {
+            if (parent != null) CURRENT.set(parent);
+            else CURRENT.remove();
+
+            SqlBudgetExceededException breach = profiler.complete(this);
+            if (breach == null) return;
+            if (failure != null) failure.addSuppressed(breach);
+            else throw breach;
+        }
+    }
+
+    private static final class ScopeStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final AtomicLong maxStatements = new AtomicLong();
+        private final LongAdder overBudget = new LongAdder();
+
+        void add(Scope scope) {
+            calls.increment();
+            statements.add(scope.statements);
+            rows.add(scope.rows);
+            nanos.add(scope.nanos);
+            maxStatements.accumulateAndGet(scope.statements, Math::max);
+        }
+
+        SqlScopeStatsDto toDto(String scope, Integer budget) {
+            long n = Math.max(1, calls.sum());
+            return new SqlScopeStatsDto(scope, calls.sum(), statements.sum(),
+                    (double) statements.sum() / n, maxStatements.get(), rows.sum(),
+                    nanos.sum() / 1_000_000.0 / n, budget, overBudget.sum());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.example.gametgweb.characterSelection.infrastructure.persistence.entity.BodyPartEfficiency;
+
+import java.time.Instant;
+
+/**
+ * JPA Entity строки outbox-таблицы с результатом завершённой дуэли.
+ * <p>
+ * Строка записывается одной короткой транзакцией в момент окончания дуэли,
+ * ещё до отправки игрокам результата. Фактическое сохранение юнитов и удаление
+ * комнаты выполняет фоновый обработчик, после чего строка удаляется.
+ * <p>
+ * Для победы заполнены поля победителя и {@code loserUnitId};
+ * для ничьей — {@code loserUnitId} и {@code secondLoserUnitId}.
+ * <p>
+ * Строка, которую не удалось применить {@code game.outbox.max-attempts} раз подряд,
+ * получает {@code deadAt} и больше не выбирается обработчиком; последняя ошибка
+ * остаётся в {@code lastError} для ручного разбора.
+ */
+@Entity
+@Table(name = "duel_result_outbox")
+@Getter
+@Setter
+public class DuelResultOutboxEntity {
+
+    /**
+     * Исход дуэли, записанный в outbox.
+     */
+    public enum Outcome {
+        /** Есть победитель и проигравший. */
+        WIN,
+        /** Оба юнита погибли одновременно. */
+        DRAW
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Код комнаты, которую нужно удалить после сохранения результата. */
+    @Column(name = "game_code", nullable = false)
+    private String gameCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Outcome outcome;
+
+    /** Юнит победителя (только для {@link Outcome#WIN}). */
+    @Column(name = "winner_unit_id")
+    private Long winnerUnitId;
+
+    /** Здоровье победителя на момент окончания боя. */
+    @Column(name = "winner_health")
+    private Long winnerHealth;
+
+    /** Эффективность частей тела победителя на момент окончания боя. */
+    @Embedded
+    private BodyPartEfficiency winnerEfficiency;
+
+    @Column(name = "loser_unit_id", nullable = false)
+    private Long loserUnitId;
+
+    /** Второй проигравший (только для {@link Outcome#DRAW}). */
+    @Column(name = "second_loser_unit_id")
+    private Long secondLoserUnitId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /** Число неудачных попыток применить строку. */
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int attempts;
+
+    /** Текст последней ошибки применения. */
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    /** Момент, когда строка исчерпала попытки и ушла в dead-letter. */
+    @Column(name = "dead_at")
+    private Instant deadAt;
+
+    /**
+     * Конструктор по умолчанию, требуемый JPA.
+     */
+    public DuelResultOutboxEntity() {}
+}
@@ -13,13 +13,20 @@ import java.util.List;
  * <p>
  * Эта сущность представляет отдельный матч в Telegram-игре.
  * Содержит код игры, состояние, временные метки.
+ * <p>
+ * Игроки загружаются лениво. Сценарии, которым нужен состав комнаты (вход, выход),
+ * читают игру с графом {@value #WITH_PLAYERS}; список лобби обходится запросом-проекцией.
  */
 @Entity
+@NamedEntityGraph(name = GameSessionEntity.WITH_PLAYERS, attributeNodes = @NamedAttributeNode("players"))
 @Table(name = "games")
 @Getter
 @Setter
 public class GameSessionEntity {
 
+    /** Граф загрузки: игра и её игроки, без юнитов игроков. */
+    public static final String WITH_PLAYERS = "GameSession.players";
+
     /**
      * Уникальный идентификатор игры (Primary Key).
      * Генерируется автоматически базой данных.
@@ -43,9 +50,19 @@ public class GameSessionEntity {
     @Column(nullable = false)
     private GameState state;
 
+    /**
+     * Версия строки для оптимистичной блокировки.
+     * Растёт при каждом изменении игры, включая состав игроков; конкурентное обновление
+     * по устаревшей версии завершается {@link OptimisticLockException}.
+     * Значение по умолчанию в колонке нужно для уже существующих строк.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     @OneToMany(mappedBy = "gameSessionEntity",
             cascade = {CascadeType.PERSIST, CascadeType.MERGE},
-            fetch = FetchType.EAGER)
+            fetch = FetchType.LAZY)
     private List<PlayerEntity> players = new ArrayList<>();
 
     /**
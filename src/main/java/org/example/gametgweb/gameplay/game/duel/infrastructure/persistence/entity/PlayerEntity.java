@@ -5,15 +5,34 @@ import lombok.Getter;
 import lombok.Setter;
 import org.example.gametgweb.characterSelection.infrastructure.persistence.entity.PlayerUnitEntity;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 /**
  * Упрощённая JPA Entity для игрока в игре.
  * Содержит минимальные поля: telegramId, nickname, связь с игрой и активный юнит.
+ * <p>
+ * Активный юнит загружается лениво: вход в систему читает только строку игрока.
+ * Сценарии, которым юнит нужен, читают игрока с графом {@value #WITH_ACTIVE_UNIT}.
+ * <p>
+ * Игрок хранится в HTTP-сессии ({@code PlayerDetails}), а сессии лежат в общей базе узлов
+ * (spring-session-jdbc), поэтому сущность сериализуема. Ленивые связи при этом
+ * сериализуются как прокси с одним идентификатором.
  */
 @Entity
+@NamedEntityGraph(name = PlayerEntity.WITH_ACTIVE_UNIT,
+        attributeNodes = @NamedAttributeNode(value = "activeUnitEntity", subgraph = "template"),
+        subgraphs = @NamedSubgraph(name = "template", attributeNodes = @NamedAttributeNode("template")))
 @Table(name = "players")
 @Getter
 @Setter
-public class PlayerEntity {
+public class PlayerEntity implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Граф загрузки: игрок, его активный юнит и шаблон юнита. */
+    public static final String WITH_ACTIVE_UNIT = "Player.activeUnit";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,7 +52,7 @@ public class PlayerEntity {
      * Юнит которым игрок управляет прямо сейчас.
      * Позволяет хранить выбранного моба без отдельной коллекции всех юнитов.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "active_unit")
     private PlayerUnitEntity activeUnitEntity;
 
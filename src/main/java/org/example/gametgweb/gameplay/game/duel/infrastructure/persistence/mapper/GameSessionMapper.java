@@ -43,12 +43,14 @@ public class GameSessionMapper {
                 .collect(Collectors.toList())
                 : new ArrayList<>();
 
-        return new GameSession(
+        GameSession session = new GameSession(
                 entity.getId(),
                 entity.getGameCode(),
                 entity.getState(),
                 players
         );
+        session.setVersion(entity.getVersion());
+        return session;
     }
 
     /**
@@ -59,7 +61,7 @@ public class GameSessionMapper {
      *
      * @param domain доменная модель {@link GameSession}, содержащая данные сессии и игроков
      * @return DTO {@link GameSessionEntityDto}, содержащий идентификатор сессии, код игры,
-     *         состояние и список игроков в виде {@link PlayerUpdateDto}; если domain равен null,
+     *         состояние, версию и список игроков в виде {@link PlayerUpdateDto}; если domain равен null,
      *         возвращается null
      */
     public static GameSessionEntityDto toDto (GameSession domain) {
@@ -68,6 +70,7 @@ public class GameSessionMapper {
                 domain.getId(),
                 domain.getGameCode(),
                 domain.getState(),
+                domain.getVersion(),
                 new ArrayList<>()
         );
 
@@ -82,6 +85,7 @@ public class GameSessionMapper {
                     domain.getId(),
                     domain.getGameCode(),
                     domain.getState(),
+                    domain.getVersion(),
                     playerEntities
             );
         }
@@ -6,6 +6,7 @@ import org.example.gametgweb.gameplay.game.duel.api.dto.PlayerUpdateDto;
 import org.example.gametgweb.gameplay.game.duel.domain.model.GameSession;
 import org.example.gametgweb.gameplay.game.duel.domain.model.Player;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.entity.PlayerEntity;
+import org.hibernate.Hibernate;
 
 import java.util.ArrayList;
 
@@ -18,6 +19,10 @@ import java.util.ArrayList;
 public class PlayerMapper {
     /**
      * Преобразует JPA-сущность {@link PlayerEntity} в доменную модель {@link Player}.
+     * <p>
+     * Активный юнит маппится, только если он загружен вместе с игроком
+     * ({@link PlayerEntity#WITH_ACTIVE_UNIT}). Игроки из состава комнаты читаются без юнитов,
+     * и маппер не порождает для них отдельных запросов.
      *
      * @param pe JPA-сущность игрока, полученная из базы данных
      * @return доменная модель {@link Player}, отражающая бизнес-логику
@@ -35,7 +40,9 @@ public class PlayerMapper {
                 pe.getId(),
                 pe.getUsername(),
                 lightweightSession,
-                pe.getActiveUnitEntity() != null ? PlayerUnitMapper.toDomain(pe.getActiveUnitEntity()) : null
+                pe.getActiveUnitEntity() != null && Hibernate.isInitialized(pe.getActiveUnitEntity())
+                        ? PlayerUnitMapper.toDomain(pe.getActiveUnitEntity())
+                        : null
         );
     }
     /**
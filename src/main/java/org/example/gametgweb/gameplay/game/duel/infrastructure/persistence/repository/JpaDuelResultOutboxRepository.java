@@ -0,0 +1,67 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.repository;
+
+import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.entity.DuelResultOutboxEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Репозиторий outbox-таблицы результатов дуэлей {@link DuelResultOutboxEntity}.
+ */
+@Repository
+public interface JpaDuelResultOutboxRepository extends JpaRepository<DuelResultOutboxEntity, Long> {
+
+    /**
+     * Возвращает идентификаторы самых старых необработанных результатов, кроме dead-letter.
+     * Строки не блокируются: каждую перед применением нужно захватить через {@link #claim}.
+     *
+     * @param page размер пачки
+     * @return идентификаторы строк outbox в порядке записи
+     */
+    @Query("select e.id from DuelResultOutboxEntity e where e.deadAt is null order by e.id")
+    List<Long> findPendingIds(Pageable page);
+
+    /**
+     * Захватывает строку outbox до конца текущей транзакции.
+     * <p>
+     * {@code FOR UPDATE SKIP LOCKED}: строку, которую уже применяет другой узел,
+     * запрос пропускает без ожидания, поэтому одна строка не применяется дважды.
+     *
+     * @param id идентификатор строки
+     * @return строка или пустой, если она уже удалена, ушла в dead-letter или захвачена другим узлом
+     */
+    @Query(value = "SELECT * FROM duel_result_outbox WHERE id = :id AND dead_at IS NULL FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<DuelResultOutboxEntity> claim(@Param("id") Long id);
+
+    /**
+     * Учитывает неудачную попытку применить строку.
+     *
+     * @param id    идентификатор строки
+     * @param error текст ошибки
+     * @return число изменённых строк
+     */
+    @Modifying
+    @Query("update DuelResultOutboxEntity e set e.attempts = e.attempts + 1, e.lastError = :error where e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error);
+
+    /**
+     * Переводит строку в dead-letter, если попытки исчерпаны.
+     *
+     * @param id          идентификатор строки
+     * @param maxAttempts допустимое число неудачных попыток
+     * @param now         момент перевода
+     * @return 1, если строка ушла в dead-letter этим запросом, иначе 0
+     */
+    @Modifying
+    @Query("update DuelResultOutboxEntity e set e.deadAt = :now " +
+            "where e.id = :id and e.deadAt is null and e.attempts >= :maxAttempts")
+    int markDeadIfExhausted(@Param("id") Long id, @Param("maxAttempts") int maxAttempts, @Param("now") Instant now);
+}
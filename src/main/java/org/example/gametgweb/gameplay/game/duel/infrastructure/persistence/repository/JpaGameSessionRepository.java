@@ -1,9 +1,16 @@
 package org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.repository;
 
 import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.entity.GameSessionEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -11,6 +18,10 @@ import java.util.Optional;
  * <p>
  * Предоставляет стандартные CRUD-операции через {@link JpaRepository} и
  * дополнительные методы поиска игровой сессии по ID или по уникальному коду игры.
+ * <p>
+ * Каждый метод загружает ровно то, что нужно его сценарию: игру с игроками
+ * ({@link GameSessionEntity#WITH_PLAYERS}) для входа и выхода, код и число игроков для лобби,
+ * без строк игроков — для удаления завершённой игры.
  */
 @Repository
 public interface JpaGameSessionRepository extends JpaRepository<GameSessionEntity, Long> {
@@ -22,7 +33,69 @@ public interface JpaGameSessionRepository extends JpaRepository<GameSessionEntit
      * @return {@link Optional} с {@link GameSessionEntity}, если найдена,
      *         или пустой {@link Optional}, если сессия с таким кодом отсутствует
      */
+    @EntityGraph(GameSessionEntity.WITH_PLAYERS)
     Optional<GameSessionEntity> findByGameCode(String gameCode);
 
+    @Override
+    @EntityGraph(GameSessionEntity.WITH_PLAYERS)
+    List<GameSessionEntity> findAll();
+
+    /**
+     * Строка лобби: код комнаты и число игроков в ней.
+     */
+    interface LobbyRoom {
+        String getGameCode();
+
+        long getPlayersCount();
+    }
+
+    /**
+     * Возвращает комнаты для списка лобби одним агрегирующим запросом, не загружая игроков.
+     *
+     * @return код и число игроков каждой комнаты
+     */
+    @Query("select g.gameCode as gameCode, count(p) as playersCount " +
+            "from GameSessionEntity g left join g.players p group by g.id, g.gameCode")
+    List<LobbyRoom> findLobbyRooms();
+
+    /**
+     * Находит игровую сессию для изменения состава игроков.
+     * <p>
+     * Связи игроков хранятся на стороне {@code players}, поэтому сама строка игры при входе
+     * и выходе не меняется. Блокировка {@link LockModeType#OPTIMISTIC_FORCE_INCREMENT}
+     * поднимает версию при коммите, и конкурентное изменение той же игры получает конфликт версий.
+     *
+     * @param id идентификатор игровой сессии
+     * @return {@link Optional} с {@link GameSessionEntity} или пустой, если сессия не найдена
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @EntityGraph(GameSessionEntity.WITH_PLAYERS)
+    @Query("select g from GameSessionEntity g where g.id = :id")
+    Optional<GameSessionEntity> findForUpdateById(@Param("id") Long id);
+
     void deleteByGameCode(String gameCode);
+
+    /**
+     * Удаляет игру одним запросом, не загружая её.
+     * Связи игроков с игрой должны быть сняты заранее ({@link JpaPlayerRepository#detachAllFromGame}).
+     *
+     * @param gameCode уникальный код игры
+     * @return число удалённых строк
+     */
+    @Modifying
+    @Query("delete from GameSessionEntity g where g.gameCode = :gameCode")
+    int deleteGame(@Param("gameCode") String gameCode);
+
+    /**
+     * Создаёт игровую сессию, если сессии с таким кодом ещё нет, за один запрос к БД.
+     * Конкурентная вставка того же кода не падает на уникальном ограничении, а ничего не делает.
+     *
+     * @param gameCode уникальный код игры
+     * @param state    начальное состояние игры (имя {@link org.example.gametgweb.gameplay.game.duel.shared.domain.GameState})
+     * @return 1, если сессия создана этим запросом, иначе 0
+     */
+    @Modifying
+    @Query(value = "INSERT INTO games (game_code, state) VALUES (:gameCode, :state) ON CONFLICT (game_code) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("gameCode") String gameCode, @Param("state") String state);
 }
@@ -1,7 +1,12 @@
 package org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.repository;
 
+import org.example.gametgweb.characterSelection.infrastructure.persistence.entity.PlayerUnitEntity;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.entity.PlayerEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,6 +16,10 @@ import java.util.Optional;
  * <p>
  * Предоставляет стандартные CRUD-операции через {@link JpaRepository} и
  * дополнительные методы поиска игрока по уникальному имени.
+ * <p>
+ * {@link #findById} и {@link #findByUsername} читают только строку игрока (этого достаточно для входа
+ * в систему); методы {@code findWithActiveUnit...} загружают игрока вместе с активным юнитом
+ * и его шаблоном одним запросом.
  */
 @Repository
 public interface JpaPlayerRepository extends JpaRepository<PlayerEntity, Long> {
@@ -22,4 +31,42 @@ public interface JpaPlayerRepository extends JpaRepository<PlayerEntity, Long> {
      *         или пустой {@link Optional}, если игрока с таким username нет
      */
     Optional<PlayerEntity> findByUsername(String username);
+
+    /**
+     * Находит игрока по ID вместе с активным юнитом и шаблоном юнита.
+     *
+     * @param id идентификатор игрока
+     * @return {@link Optional} с {@link PlayerEntity} или пустой, если игрок не найден
+     */
+    @EntityGraph(PlayerEntity.WITH_ACTIVE_UNIT)
+    Optional<PlayerEntity> findWithActiveUnitById(Long id);
+
+    /**
+     * Находит игрока по имени вместе с активным юнитом и шаблоном юнита.
+     *
+     * @param username уникальное имя игрока
+     * @return {@link Optional} с {@link PlayerEntity} или пустой, если игрок не найден
+     */
+    @EntityGraph(PlayerEntity.WITH_ACTIVE_UNIT)
+    Optional<PlayerEntity> findWithActiveUnitByUsername(String username);
+
+    /**
+     * Загружает только активный юнит игрока с шаблоном, без строки игрока.
+     *
+     * @param username уникальное имя игрока
+     * @return {@link Optional} с юнитом или пустой, если игрока нет или юнит не выбран
+     */
+    @Query("select u from PlayerEntity p join p.activeUnitEntity u join fetch u.template where p.username = :username")
+    Optional<PlayerUnitEntity> findActiveUnitByUsername(@Param("username") String username);
+
+    /**
+     * Снимает привязку всех игроков к игре одним запросом.
+     *
+     * @param gameCode код игры
+     * @return число отвязанных игроков
+     */
+    @Modifying
+    @Query("update PlayerEntity p set p.gameSessionEntity = null " +
+            "where p.gameSessionEntity.id in (select g.id from GameSessionEntity g where g.gameCode = :gameCode)")
+    int detachAllFromGame(@Param("gameCode") String gameCode);
 }
@@ -32,4 +32,32 @@ public record BodyPartDestroyedNotificationDto(
                 message
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Создаёт уведомление со стандартным текстом вида "Вася потерял голову!".
+     *
+     * @param playerName имя игрока
+     * @param bodyPart   уничтоженная часть тела
+     * @return готовое DTO для отправки на фронт
+     */
+    public static BodyPartDestroyedNotificationDto destroyed(String playerName, Body bodyPart) {
+        return of(playerName, bodyPart, String.format("%s потерял %s!", playerName, accusativeName(bodyPart)));
+    }
+
+    /**
+     * Возвращает русское название части тела в винительном падеже.
+     *
+     * @param bodyPart часть тела
+     * @return название в винительном падеже
+     */
+    private static String accusativeName(Body bodyPart) {
+        return switch (bodyPart) {
+            case HEAD -> "голову";
+            case CHEST -> "грудь";
+            case LEFT_ARM -> "левую руку";
+            case RIGHT_ARM -> "правую руку";
+            case LEFT_LEG -> "левую ногу";
+            case RIGHT_LEG -> "правую ногу";
+        };
+    }
+}
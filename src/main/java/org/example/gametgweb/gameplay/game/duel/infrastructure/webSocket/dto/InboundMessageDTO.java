@@ -0,0 +1,26 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto;
+
+/**
+ * Входящее JSON-сообщение клиента дуэли после однопроходного разбора.
+ *
+ * <p>Содержит только поля, которые понимает сервер; остальные пропускаются
+ * декодером без построения дерева.
+ *
+ * @param type    тип сообщения ("chat", "attack", "resync", ...)
+ * @param body    выбранная часть тела для "attack"
+ * @param message текст для "chat"
+ * @param t       отметка времени сервера, возвращаемая в "pong"; {@code 0}, если её нет
+ */
+public record InboundMessageDTO(
+        String type,
+        String body,
+        String message,
+        long t
+) {
+    /**
+     * @return сообщение атаки, построенное из поля {@code body}
+     */
+    public AttackMessageDTO toAttack() {
+        return new AttackMessageDTO(body);
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto;
+
+/**
+ * Команда клиенту переподключиться: комната передана другому узлу.
+ *
+ * @param type тип сообщения ("migrate")
+ * @param url  ссылка на страницу дуэли на новом узле
+ */
+public record MigrateMessageDTO(String type, String url) {
+    public MigrateMessageDTO(String url) {
+        this("migrate", url);
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto;
+
+import java.util.List;
+
+/**
+ * Компактный кадр состояния комнаты для клиентов в дельта-режиме.
+ *
+ * <p>Содержит только изменения юнитов относительно кадра {@code seq - 1}.
+ * Если клиент видит разрыв в последовательности, он запрашивает полный снимок
+ * сообщением {@code {"type":"resync"}}.
+ *
+ * @param type      тип сообщения (всегда "ROOM_DELTA")
+ * @param seq       версия состояния комнаты, совпадает с {@link RoomStateMessageDTO#version()}
+ * @param units     изменившиеся юниты (пустой список, если изменений нет)
+ * @param round     результат раунда или {@code null}, если кадр вызван не раундом
+ * @param destroyed уничтоженные части тела (пустой список, если изменений нет)
+ */
+public record RoomDeltaMessageDTO(
+        String type,
+        long seq,
+        List<UnitDeltaDTO> units,
+        DuelRoundResponseDto round,
+        List<BodyPartDestroyedNotificationDto> destroyed
+) {
+    public RoomDeltaMessageDTO(long seq,
+                               List<UnitDeltaDTO> units,
+                               DuelRoundResponseDto round,
+                               List<BodyPartDestroyedNotificationDto> destroyed) {
+        this("ROOM_DELTA", seq, units, round, destroyed);
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto;
+
+import java.util.List;
+
+/**
+ * Единый кадр состояния комнаты дуэли.
+ *
+ * <p>Объединяет в одном сообщении всё, что меняется за ход:
+ * текущее состояние юнитов, результат раунда (если он был) и
+ * части тела, уничтоженные с момента предыдущего кадра.
+ *
+ * @param type      тип сообщения (всегда "ROOM_STATE")
+ * @param version   монотонно растущая версия состояния комнаты
+ * @param units     состояние юнитов в порядке игроков
+ * @param round     результат раунда или {@code null}, если кадр вызван не раундом
+ * @param destroyed уничтоженные части тела (пустой список, если изменений нет)
+ */
+public record RoomStateMessageDTO(
+        String type,
+        long version,
+        List<UnitStateDTO> units,
+        DuelRoundResponseDto round,
+        List<BodyPartDestroyedNotificationDto> destroyed
+) {
+    public RoomStateMessageDTO(long version,
+                               List<UnitStateDTO> units,
+                               DuelRoundResponseDto round,
+                               List<BodyPartDestroyedNotificationDto> destroyed) {
+        this("ROOM_STATE", version, units, round, destroyed);
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
+
+import java.util.Map;
+
+/**
+ * Изменение состояния одного юнита относительно предыдущего кадра.
+ *
+ * <p>Статические поля (имя, картинка, максимальное HP) не передаются —
+ * клиент берёт их из последнего полного снимка. Неизменившиеся поля равны {@code null}
+ * и не попадают в JSON.
+ *
+ * @param player     имя игрока, которому принадлежит юнит
+ * @param hp         новое текущее HP или {@code null}, если не изменилось
+ * @param efficiency изменившиеся эффективности частей тела или {@code null}
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UnitDeltaDTO(
+        String player,
+        Long hp,
+        Map<Body, Double> efficiency
+) {}
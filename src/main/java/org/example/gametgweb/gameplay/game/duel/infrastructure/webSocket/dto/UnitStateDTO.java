@@ -1,10 +1,15 @@
 package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto;
 
+import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
+
+import java.util.Map;
+
 public record UnitStateDTO(
         Long playerId,
         String player,
         String unitName,
         long hp,
         long hpMax,
-        String imagePath
+        String imagePath,
+        Map<Body, Double> efficiency
 ) {}
@@ -0,0 +1,64 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.handler;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+/**
+ * Декоратор WebSocket-обработчика, передающий ему сессию в {@link ConcurrentWebSocketSessionDecorator}.
+ * <p>
+ * В сессию пишут несколько потоков: обработка ходов, рассылка чата, шина между узлами, ping
+ * {@code LatencyMonitor}. Сам контейнер не допускает параллельной отправки в одну сессию и отвечает
+ * {@link IllegalStateException}. Обёртка отправляет кадры по одному, а пришедшие во время отправки
+ * ставит в буфер; при превышении {@code game.ws.send-time-limit-ms} или {@code game.ws.send-buffer-bytes}
+ * медленный клиент отключается, и остальные сессии комнаты его не ждут.
+ * <p>
+ * Обёртка создаётся один раз на подключение и хранится в атрибутах сессии, поэтому во всех
+ * вызовах обработчика и во всех реестрах это один и тот же объект.
+ */
+public class ConcurrentSendWebSocketHandler extends WebSocketHandlerDecorator {
+
+    /** Атрибут сессии с её обёрткой. */
+    private static final String DECORATOR_ATTRIBUTE = "CONCURRENT_SESSION";
+
+    private final int sendTimeLimitMs;
+    private final int bufferSizeLimit;
+
+    public ConcurrentSendWebSocketHandler(WebSocketHandler delegate, int sendTimeLimitMs, int bufferSizeLimit) {
+        super(delegate);
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        super.afterConnectionEstablished(decorate(session));
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        super.handleMessage(decorate(session), message);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        super.handleTransportError(decorate(session), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        try {
+            super.afterConnectionClosed(decorate(session), closeStatus);
+        } finally {
+            session.getAttributes().remove(DECORATOR_ATTRIBUTE);
+        }
+    }
+
+    private WebSocketSession decorate(WebSocketSession session) {
+        return (WebSocketSession) session.getAttributes().computeIfAbsent(DECORATOR_ATTRIBUTE,
+                k -> new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, bufferSizeLimit));
+    }
+}
@@ -1,61 +1,115 @@
 package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.handler;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.application.services.combat.AttackResult;
+import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelManager;
 import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelRoomService;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.AttackMessageDTO;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.ChatMessageDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.DuelRoundResponseDto;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.ErrorMessageDTO;
-import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.InfoMessageDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.InboundMessageDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.MigrateMessageDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.ConnectionGovernor;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.InboundRateLimiter;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.RoomSessionRegistry;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service.MessageDispatcherService;
 import org.example.gametgweb.gameplay.game.duel.application.services.combat.DuelCombatService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.flight.RoomFlightRecorder;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.flight.RoomFlightRecorder.Kind;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.latency.LatencyMonitor;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql.SqlStatementProfiler;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.DuelBinaryCodec;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.FrameCache;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.InboundMessageDecoder;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.MessageFormatter;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.RoomLogLimiter;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.WebSocketContext;
 import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * {@code DuelWebSocketHandler} — обработчик WebSocket-соединений для комнат дуэлей.
  * Основная задача — обрабатывать жизненный цикл соединений и сообщения игроков:
  * <ul>
  *   <li>Регистрация и удаление игроков в комнатах</li>
- *   <li>Приём сообщений чата и атак</li>
+ *   <li>Приём сообщений чата и атак (JSON или бинарный подпротокол {@value DuelBinaryCodec#SUBPROTOCOL})</li>
  *   <li>Взаимодействие с {@link DuelRoomService} и {@link DuelCombatService}</li>
+ *   <li>Ограничение частоты входящих кадров ({@link InboundRateLimiter}): общий лимит — до разбора,
+ *       лимиты чата и атак — до рассылки и боевой логики</li>
  * </ul>
  *
+ * Входящие кадры, ходы, результаты раундов, входы и выходы пишутся в журнал комнаты
+ * ({@link RoomFlightRecorder}); при ошибке обработки хода журнал выводится в лог.
+ * Ответы {@code pong} и время раундов идут в {@link LatencyMonitor}.
+ *
+ * Ход, отклонённый из-за переноса комнаты на другой узел, не считается принятым: игрок получает
+ * ошибку (перенос ещё идёт) или команду {@code migrate} на новый узел и повторяет ход там.
+ *
  * Все активные сессии и состояния юнитов хранятся в {@link DuelRoomService} через {@link RoomSessionRegistry}.
  */
 @Slf4j
 @Component
-public class DuelWebSocketHandler extends TextWebSocketHandler {
+public class DuelWebSocketHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
 
     private final DuelRoomService duelRoomService;
     private final DuelCombatService duelCombatService;
     private final MessageDispatcherService messageDispatcherService;
-    private final ObjectMapper mapper;
+    private final InboundMessageDecoder decoder;
+    private final MessageFormatter formatter;
+    private final FrameCache frameCache;
+    private final ConnectionGovernor governor;
+    private final InboundRateLimiter rateLimiter;
+    private final RoomLogLimiter logLimiter;
+    private final RoomFlightRecorder flightRecorder;
+    private final LatencyMonitor latencyMonitor;
+    private final DuelManager duelManager;
 
     @Autowired
-    public DuelWebSocketHandler(DuelRoomService duelRoomService, DuelCombatService duelCombatService, MessageDispatcherService messageDispatcherService, ObjectMapper mapper) {
+    public DuelWebSocketHandler(DuelRoomService duelRoomService, DuelCombatService duelCombatService, MessageDispatcherService messageDispatcherService,
+                                InboundMessageDecoder decoder, MessageFormatter formatter, FrameCache frameCache,
+                                ConnectionGovernor governor, InboundRateLimiter rateLimiter, RoomLogLimiter logLimiter,
+                                RoomFlightRecorder flightRecorder, LatencyMonitor latencyMonitor, DuelManager duelManager) {
         this.duelRoomService = duelRoomService;
         this.duelCombatService = duelCombatService;
         this.messageDispatcherService = messageDispatcherService;
-        this.mapper = mapper;
+        this.decoder = decoder;
+        this.formatter = formatter;
+        this.frameCache = frameCache;
+        this.governor = governor;
+        this.rateLimiter = rateLimiter;
+        this.logLimiter = logLimiter;
+        this.flightRecorder = flightRecorder;
+        this.latencyMonitor = latencyMonitor;
+        this.duelManager = duelManager;
+    }
+
+    /**
+     * Подпротоколы, которые сервер готов согласовать. Клиенты без заголовка
+     * {@code Sec-WebSocket-Protocol} продолжают работать в JSON.
+     */
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(DuelBinaryCodec.SUBPROTOCOL);
     }
 
     /**
      * Вызывается при успешном подключении нового клиента.
      * <p>
-     * Извлекает {@link WebSocketContext} из сессии, содержащий имя игрока и код комнаты.
-     * Если контекст отсутствует или не указан {@code gameCode}, соединение закрывается с ошибкой.
-     * Иначе игрок добавляется в комнату через {@link DuelRoomService#playerJoin}.
+     * Берёт {@link WebSocketContext}, собранный при handshake: имя игрока и код комнаты.
+     * Если контекста нет, соединение закрывается с ошибкой.
+     * Если исчерпан лимит подключений ({@link ConnectionGovernor}), соединение закрывается
+     * до входа в комнату. Иначе игрок добавляется в комнату через {@link DuelRoomService#playerJoin}.
      *
      * @param session активная WebSocket-сессия игрока
      * @throws Exception при ошибке инициализации соединения
@@ -67,36 +121,61 @@ public class DuelWebSocketHandler extends TextWebSocketHandler {
             closeBadSession(session);
             return;
         }
+        if (!governor.tryAcquire(session, ctx.playerName())) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Too many connections"));
+            return;
+        }
+        flightRecorder.record(ctx.gameCode(), Kind.JOIN, ctx.playerName(), session.getId());
         duelRoomService.playerJoin(ctx, session);
+        latencyMonitor.register(session, ctx.gameCode(), ctx.playerName());
     }
 
     /**
      * Вызывается при закрытии WebSocket-сессии.
      * <p>
-     * Удаляет игрока из комнаты через {@link DuelRoomService#playerLeave}.
+     * Освобождает место в {@link ConnectionGovernor} и удаляет игрока из комнаты
+     * через {@link DuelRoomService#playerLeave}. Сессии, не допущенные лимитами,
+     * в комнату не входили и её не покидают.
      *
      * @param session закрытая WebSocket-сессия
      * @param status  статус закрытия соединения
      */
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        latencyMonitor.unregister(session);
+        boolean admitted = governor.release(session);
         var ctx = WebSocketContext.from(session);
-        if (ctx != null) {
+        if (admitted && ctx != null) {
+            flightRecorder.record(ctx.gameCode(), Kind.LEAVE, ctx.playerName(), status.getReason(), 0, status.getCode());
             duelRoomService.playerLeave(ctx, session);
         }
     }
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        if (!admit(session, InboundRateLimiter.Kind.FRAME)) return;
+
         var ctx = WebSocketContext.from(session);
         if (ctx == null) return;
 
-        JsonNode payload = mapper.readTree(message.getPayload());
-        String type = payload.has("type") ? payload.get("type").asText() : null;
+        // один проход потоковым парсером: тип и полезная нагрузка без JsonNode-дерева
+        InboundMessageDTO payload = decoder.decode(message.getPayload());
+        String type = payload != null ? payload.type() : null;
+        // ответ на ping идёт в замер RTT и не попадает в журнал комнаты
+        if ("pong".equals(type)) {
+            SqlStatementProfiler.label("pong");
+            latencyMonitor.onPong(session, payload.t());
+            return;
+        }
+        flightRecorder.record(ctx.gameCode(), Kind.IN_FRAME, ctx.playerName(),
+                type != null ? type : "invalid", message.getPayloadLength(), 0);
+        if (type == null) return;
 
-        switch (type) {
+        switch (payload.type()) {
             case "chat" -> {
-                String text = payload.has("message") ? payload.get("message").asText() : "";
+                SqlStatementProfiler.label("chat");
+                if (!admit(session, InboundRateLimiter.Kind.CHAT)) return;
+                String text = payload.message() != null ? payload.message() : "";
                 ChatMessageDTO chatDto = new ChatMessageDTO(ctx.playerName(), text);
                 messageDispatcherService.broadcastChat(
                         ctx.gameCode(),
@@ -104,57 +183,139 @@ public class DuelWebSocketHandler extends TextWebSocketHandler {
                         chatDto.getMessage()
                 );
             }
-            case "attack" -> handleAttack(ctx, payload);
+            case "attack" -> {
+                SqlStatementProfiler.label("attack");
+                if (admit(session, InboundRateLimiter.Kind.ATTACK)) handleAttack(ctx, payload.toAttack());
+            }
+            // клиент в дельта-режиме обнаружил разрыв seq и просит полный снимок
+            case "resync" -> {
+                SqlStatementProfiler.label("resync");
+                duelRoomService.resyncRoomState(ctx, session);
+            }
         }
     }
 
-    private void handleAttack(WebSocketContext ctx, JsonNode payload) {
-        String gameCode = ctx.gameCode();
-        String player = ctx.playerName();
+    /**
+     * Обрабатывает кадры бинарного подпротокола: атаку, чат и запрос снимка.
+     * Нераспознанные кадры игнорируются.
+     */
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        if (!admit(session, InboundRateLimiter.Kind.FRAME)) return;
 
-        try {
-            AttackMessageDTO attack = mapper.treeToValue(payload, AttackMessageDTO.class);
-            Body body = attack.bodyEnum();
-            if (body == null) return;
+        var ctx = WebSocketContext.from(session);
+        if (ctx == null) return;
 
-            processAttackAndRespond(gameCode, player, body);
+        DuelBinaryCodec.Command command = DuelBinaryCodec.decode(message.getPayload());
+        flightRecorder.record(ctx.gameCode(), Kind.IN_FRAME, ctx.playerName(),
+                opcodeName(command), message.getPayloadLength(), 0);
+        if (command == null) {
+            if (logLimiter.allow(ctx.gameCode())) {
+                log.warn("Некорректный бинарный кадр от {} в комнате {}", ctx.playerName(), ctx.gameCode());
+            }
+            return;
+        }
+
+        switch (command.opcode()) {
+            case DuelBinaryCodec.OP_CHAT -> {
+                SqlStatementProfiler.label("chat");
+                if (admit(session, InboundRateLimiter.Kind.CHAT)) {
+                    messageDispatcherService.broadcastChat(ctx.gameCode(), ctx.playerName(), command.text());
+                }
+            }
+            case DuelBinaryCodec.OP_ATTACK -> {
+                SqlStatementProfiler.label("attack");
+                if (admit(session, InboundRateLimiter.Kind.ATTACK)) attack(ctx, command.body());
+            }
+            case DuelBinaryCodec.OP_RESYNC -> {
+                SqlStatementProfiler.label("resync");
+                duelRoomService.resyncRoomState(ctx, session);
+            }
+        }
+    }
+
+    /**
+     * Применяет лимит частоты к кадру сессии. При устойчивом флуде закрывает сессию.
+     *
+     * @return {@code true}, если кадр нужно обработать
+     */
+    private boolean admit(WebSocketSession session, InboundRateLimiter.Kind kind) throws IOException {
+        InboundRateLimiter.Verdict verdict = rateLimiter.check(session, kind);
+        if (verdict == InboundRateLimiter.Verdict.DISCONNECT) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Rate limit exceeded"));
+        }
+        return verdict == InboundRateLimiter.Verdict.ALLOW;
+    }
+
+    private void handleAttack(WebSocketContext ctx, AttackMessageDTO attack) {
+        Body body = attack.bodyEnum();
+        if (body == null) return;
+
+        attack(ctx, body);
+    }
+
+    private void attack(WebSocketContext ctx, Body body) {
+        try {
+            processAttackAndRespond(ctx.gameCode(), ctx.playerName(), body);
         } catch (Exception e) {
-            handleServerError(gameCode, player, e);
+            handleServerError(ctx.gameCode(), ctx.playerName(), e);
         }
     }
 
     private void processAttackAndRespond(String gameCode, String player, Body body) throws Exception {
-        String resultJson = duelCombatService.processAttack(gameCode, player, body);
+        flightRecorder.record(gameCode, Kind.MOVE, player, body.name());
+        long started = System.nanoTime();
+        AttackResult result = duelCombatService.processAttack(gameCode, player, body);
 
-        if (resultJson != null) {
-            broadcastRoundResult(gameCode, player, resultJson);
-            duelRoomService.sendUnitsState(gameCode);
-        } else {
-            sendWaitingMessage(gameCode, player);
+        switch (result.status()) {
+            case RESOLVED -> {
+                DuelRoundResponseDto round = result.round();
+                flightRecorder.recordRound(gameCode, round.attacker(), round.attackerHp(), round.defender(), round.defenderHp());
+                // результат раунда, HP и уничтоженные части тела уходят одним кадром
+                duelRoomService.sendRoomState(gameCode, round);
+                latencyMonitor.onRound(gameCode, System.nanoTime() - started);
+            }
+            case WAITING -> sendWaitingMessage(gameCode, player);
+            // ход не зарегистрирован: клиент снова включает атаку и повторяет ход
+            case MIGRATING -> sendError(gameCode, player, "Room is moving to another server, repeat your move");
+            // клиент переподключается к новому владельцу и повторяет ход там
+            case MOVED_AWAY -> sendMigrate(gameCode, player);
         }
     }
 
-    private void broadcastRoundResult(String gameCode, String player, String resultJson) {
-        messageDispatcherService.broadcastChat(gameCode, player, resultJson);
+    private void sendMigrate(String gameCode, String player) {
+        MigrateMessageDTO migrate = new MigrateMessageDTO(duelManager.roomLink(gameCode));
+        messageDispatcherService.sendToPlayer(gameCode, player, formatter.format(migrate));
     }
 
-    private void sendWaitingMessage(String gameCode, String player) throws Exception {
-        InfoMessageDTO info = new InfoMessageDTO("Move registered. Waiting for opponent...");
-        messageDispatcherService.sendToPlayer(gameCode, player, new ObjectMapper().writeValueAsString(info));
+    private void sendWaitingMessage(String gameCode, String player) {
+        messageDispatcherService.sendToPlayer(gameCode, player, frameCache.waitingForOpponent());
     }
 
     private void handleServerError(String gameCode, String player, Exception e) {
         log.error("Error processing attack", e);
+        flightRecorder.record(gameCode, Kind.ERROR, player, e.toString());
+        flightRecorder.logDump(gameCode, "ошибка обработки хода");
         try {
             sendError(gameCode, player, "Server error during attack processing");
-        } catch (IOException ex) {
+        } catch (RuntimeException ex) {
             log.error("Failed to send error message to player", ex);
         }
     }
 
-    private void sendError(String gameCode, String player, String message) throws IOException {
+    private void sendError(String gameCode, String player, String message) {
         ErrorMessageDTO err = new ErrorMessageDTO(message);
-        messageDispatcherService.sendToPlayer(gameCode, player, mapper.writeValueAsString(err));
+        messageDispatcherService.sendToPlayer(gameCode, player, formatter.format(err));
+    }
+
+    private static String opcodeName(DuelBinaryCodec.Command command) {
+        if (command == null) return "invalid";
+        return switch (command.opcode()) {
+            case DuelBinaryCodec.OP_ATTACK -> "attack";
+            case DuelBinaryCodec.OP_CHAT -> "chat";
+            case DuelBinaryCodec.OP_RESYNC -> "resync";
+            default -> "unknown";
+        };
     }
 
     private void closeBadSession(WebSocketSession session) throws IOException {
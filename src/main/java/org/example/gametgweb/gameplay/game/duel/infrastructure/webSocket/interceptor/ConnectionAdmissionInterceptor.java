@@ -0,0 +1,63 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.interceptor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.ConnectionGovernor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Интерцептор WebSocket handshake, отклоняющий подключения сверх лимитов {@link ConnectionGovernor}.
+ * <p>
+ * Отказ приходит ответом {@code 429} до апгрейда соединения, поэтому лишний сокет
+ * не занимает ни поток, ни место в рассылках комнаты. Окончательное резервирование места
+ * выполняет обработчик после установки сессии.
+ * <p>
+ * Бин проверяет все три лимита и стоит на {@code /ws/duel}. Для {@code /ws/campaign}
+ * создаётся экземпляр без лимита на игрока ({@code perPlayer = false}): кампания
+ * рассчитана на несколько вкладок одного игрока, а адрес и общий лимит узла действуют так же.
+ */
+@Slf4j
+@Component
+public class ConnectionAdmissionInterceptor implements HandshakeInterceptor {
+
+    private final ConnectionGovernor governor;
+
+    /** Учитывать ли лимит сессий на игрока. */
+    private final boolean perPlayer;
+
+    @Autowired
+    public ConnectionAdmissionInterceptor(ConnectionGovernor governor) {
+        this(governor, true);
+    }
+
+    public ConnectionAdmissionInterceptor(ConnectionGovernor governor, boolean perPlayer) {
+        this.governor = governor;
+        this.perPlayer = perPlayer;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        Principal principal = request.getPrincipal();
+        String player = perPlayer && principal != null ? principal.getName() : null;
+        String ip = ConnectionGovernor.addressOf(request.getRemoteAddress());
+
+        if (governor.admits(ip, player)) return true;
+
+        log.warn("Handshake игрока {} с адреса {} отклонён: превышен лимит подключений", player, ip);
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        return false;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {}
+}
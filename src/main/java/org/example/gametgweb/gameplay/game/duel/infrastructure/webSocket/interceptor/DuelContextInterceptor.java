@@ -0,0 +1,43 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.interceptor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.WebSocketContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * Интерцептор WebSocket handshake, собирающий {@link WebSocketContext} дуэли один раз на подключение.
+ * <p>
+ * Код комнаты, имя и id игрока и режим состояния разбираются из запроса и сохраняются
+ * в атрибутах сессии; обработчик кадров берёт готовый контекст без разбора строк.
+ * Подключение без {@code gameCode} или без аутентификации отклоняется ответом {@code 400}
+ * до апгрейда соединения.
+ */
+@Slf4j
+@Component
+public class DuelContextInterceptor implements HandshakeInterceptor {
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        WebSocketContext ctx = WebSocketContext.resolve(request.getURI(), request.getPrincipal());
+        if (ctx == null) {
+            log.warn("Handshake дуэли отклонён: нет gameCode или игрок не аутентифицирован ({})", request.getURI());
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return false;
+        }
+
+        ctx.store(attributes);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {}
+}
@@ -0,0 +1,64 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.interceptor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.cluster.RoomOwnership;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.WebSocketContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Интерцептор WebSocket handshake, отклоняющий подключения к комнатам чужих узлов.
+ * <p>
+ * Комната обслуживается только узлом-владельцем ({@link RoomOwnership}). Если upgrade
+ * пришёл на другой узел, handshake завершается ответом {@code 307} с {@code Location}
+ * на тот же путь у владельца (схема {@code ws}/{@code wss}). Клиенты, которые не следуют
+ * редиректу при upgrade (браузеры), узнают адрес владельца через {@code GET /duel/route}.
+ * <p>
+ * На узле-владельце игрок остаётся авторизованным: сессии общие для всех узлов
+ * (spring-session-jdbc, cookie на общий домен — см. {@link RoomOwnership}).
+ */
+@Slf4j
+@Component
+public class RoomAffinityInterceptor implements HandshakeInterceptor {
+
+    private final RoomOwnership ownership;
+
+    @Autowired
+    public RoomAffinityInterceptor(RoomOwnership ownership) {
+        this.ownership = ownership;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        // контекст уже собран DuelContextInterceptor
+        if (!(attributes.get(WebSocketContext.ATTRIBUTE) instanceof WebSocketContext ctx)) return true;
+
+        String gameCode = ctx.gameCode();
+        if (ownership.isLocal(gameCode)) return true;
+
+        URI uri = request.getURI();
+
+        String owner = ownership.ownerOf(gameCode);
+        URI target = URI.create(owner.replaceFirst("^http", "ws") + uri.getRawPath()
+                + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : ""));
+
+        log.info("Комната {} принадлежит узлу {} — handshake перенаправлен", gameCode, owner);
+        response.setStatusCode(HttpStatus.TEMPORARY_REDIRECT);
+        response.getHeaders().set(HttpHeaders.LOCATION, target.toString());
+        return false;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {}
+}
@@ -1,16 +1,15 @@
 package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.listener;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
 import org.example.gametgweb.gameplay.game.duel.application.events.DuelDrawEvent;
 import org.example.gametgweb.gameplay.game.duel.application.events.DuelFinishedEvent;
 import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelFinishService;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.UnitRegistryService;
 import org.example.gametgweb.gameplay.game.duel.application.events.notifier.DuelResultNotifier;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.UnitStateBroadcaster;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * DuelFinishEventListener — слушатель доменных событий окончания дуэли.
@@ -29,9 +28,9 @@ import org.springframework.transaction.annotation.Transactional;
  * <ul>
  *     <li>Определяет имена игроков по их юнитам без обращения к базе данных
  *         (через {@link UnitRegistryService});</li>
- *     <li>Отправляет игрокам результат дуэли через {@link DuelResultNotifier};</li>
- *     <li>Делегирует сохранение состояния юнитов и удаление комнаты
- *         сервису {@link DuelFinishService}.</li>
+ *     <li>Записывает результат в outbox через {@link DuelFinishService} —
+ *         сохранение юнитов и удаление комнаты выполнит фоновый обработчик;</li>
+ *     <li>Отправляет игрокам результат дуэли через {@link DuelResultNotifier}.</li>
  * </ul>
  * </p>
  *
@@ -44,61 +43,62 @@ public class DuelFinishEventListener {
     private final DuelFinishService duelFinishService;
     private final UnitRegistryService unitRegistryService;
     private final DuelResultNotifier duelResultNotifier;
+    private final UnitStateBroadcaster unitStateBroadcaster;
 
     @Autowired
     public DuelFinishEventListener(DuelFinishService duelFinishService,
                                    UnitRegistryService unitRegistryService,
-                                   DuelResultNotifier duelResultNotifier) {
+                                   DuelResultNotifier duelResultNotifier,
+                                   UnitStateBroadcaster unitStateBroadcaster) {
         this.duelFinishService = duelFinishService;
         this.unitRegistryService = unitRegistryService;
         this.duelResultNotifier = duelResultNotifier;
+        this.unitStateBroadcaster = unitStateBroadcaster;
     }
 
     /**
      * Обрабатывает событие завершения дуэли с победителем.
      *
-     * <p>Отправляет уведомление о победе и поражении соответствующим игрокам,
-     * затем завершает дуэль на уровне доменной логики.</p>
+     * <p>Сначала фиксирует результат в outbox (чтобы он не потерялся при падении),
+     * затем отправляет уведомление о победе и поражении соответствующим игрокам.</p>
      *
      * @param event событие завершения дуэли с победителем
-     * @throws JsonProcessingException если возникла ошибка сериализации сообщения
      */
     @EventListener
-    @Transactional
-    public void onDuelFinished(DuelFinishedEvent event) throws JsonProcessingException {
+    public void onDuelFinished(DuelFinishedEvent event) {
         PlayerUnit winner = event.winner();
         PlayerUnit loser = event.loser();
 
         String winnerPlayerName = unitRegistryService.resolvePlayer(event.gameCode(), winner);
         String loserPlayerName = unitRegistryService.resolvePlayer(event.gameCode(), loser);
 
+        duelFinishService.enqueueWin(event.gameCode(), winner, loser);
+
         duelResultNotifier.sendWin(event.gameCode(), winnerPlayerName);
         duelResultNotifier.sendLose(event.gameCode(), loserPlayerName);
-
-        duelFinishService.finishDuel(event.gameCode(), winner, loser);
+        unitStateBroadcaster.finishRoom(event.gameCode());
     }
 
     /**
      * Обрабатывает событие ничьей, при которой оба игрока погибают.
      *
-     * <p>Оба игрока получают уведомление о поражении, после чего
-     * выполняется сброс состояния их юнитов и удаление игровой комнаты.</p>
+     * <p>Результат фиксируется в outbox (сброс юнитов и удаление комнаты выполнит
+     * фоновый обработчик), после чего оба игрока получают уведомление о поражении.</p>
      *
      * @param event событие ничьей в дуэли
-     * @throws JsonProcessingException если возникла ошибка сериализации сообщения
      */
     @EventListener
-    @Transactional
-    public void onDuelDraw(DuelDrawEvent event) throws JsonProcessingException {
+    public void onDuelDraw(DuelDrawEvent event) {
         PlayerUnit loser1 = event.loser1();
         PlayerUnit loser2 = event.loser2();
 
         String loserPlayerName1 = unitRegistryService.resolvePlayer(event.gameCode(), loser1);
         String loserPlayerName2 = unitRegistryService.resolvePlayer(event.gameCode(), loser2);
 
+        duelFinishService.enqueueDraw(event.gameCode(), loser1, loser2);
+
         duelResultNotifier.sendLose(event.gameCode(), loserPlayerName1);
         duelResultNotifier.sendLose(event.gameCode(), loserPlayerName2);
-
-        duelFinishService.finishDuelWithDoubleDeath(event.gameCode(), loser1, loser2);
+        unitStateBroadcaster.finishRoom(event.gameCode());
     }
 }
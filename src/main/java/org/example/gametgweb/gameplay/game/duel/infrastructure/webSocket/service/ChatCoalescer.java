@@ -0,0 +1,142 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * ChatCoalescer — окно коалесцирования исходящих сообщений чата и уведомлений комнаты.
+ *
+ * <p>Первое сообщение комнаты открывает окно {@code game.chat.coalesce-window-ms}; всё, что пришло
+ * в комнату за это время, уходит одним кадром {@code {"type":"batch","messages":[...]}}.
+ * Сообщения уже сериализованы, поэтому пачка собирается склейкой строк без повторной сериализации.
+ * Одиночное сообщение отправляется как есть. Кадры состояния боя сюда не попадают
+ * и рассылаются без задержки.
+ *
+ * <p>Пачка комнаты живёт в {@link ConcurrentHashMap} и изымается из неё целиком при отправке,
+ * поэтому сообщение, пришедшее во время отправки, открывает новое окно и не теряется.
+ * Окно {@code 0} отключает коалесцирование.
+ *
+ * <p>Поток планировщика только отмеряет окна; сама рассылка пачки идёт в виртуальном потоке,
+ * поэтому медленный сокет одной комнаты не задерживает пачки остальных. Пачки одной комнаты
+ * выстраиваются в цепочку и уходят строго по очереди. Относительно кадров состояния боя порядок
+ * прежний: они отправляются сразу, а сообщения чата — с задержкой до одного окна.
+ */
+@Slf4j
+@Component
+public class ChatCoalescer {
+
+    /** Предел размера кадра пачки: кадр должен пройти и через шину между узлами. */
+    private static final int MAX_FRAME_CHARS = 4096;
+
+    private final long windowMs;
+    private final ConcurrentHashMap<String, List<String>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("chat-coalescer").daemon().factory());
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("chat-flush-", 0).factory());
+
+    /** Последняя поставленная рассылка комнаты: следующая пачка ждёт её завершения. */
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> flushing = new ConcurrentHashMap<>();
+
+    /** Получатель готовых кадров: код комнаты и JSON кадра. */
+    private volatile BiConsumer<String, String> sink = (gameCode, frame) -> {};
+
+    @Autowired
+    public ChatCoalescer(@Value("${game.chat.coalesce-window-ms:30}") long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Назначает получателя кадров (рассылку по комнате).
+     *
+     * @param sink код комнаты и JSON кадра
+     */
+    public void onFlush(BiConsumer<String, String> sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Ставит сообщение в пачку комнаты. При выключенном окне отправляет сразу.
+     *
+     * @param gameCode код комнаты
+     * @param json     сериализованное сообщение
+     */
+    public void offer(String gameCode, String json) {
+        if (windowMs <= 0) {
+            sink.accept(gameCode, json);
+            return;
+        }
+
+        boolean[] opened = {false};
+        pending.compute(gameCode, (k, batch) -> {
+            if (batch == null) {
+                batch = new ArrayList<>();
+                opened[0] = true;
+            }
+            batch.add(json);
+            return batch;
+        });
+
+        if (opened[0]) {
+            scheduler.schedule(() -> dispatch(gameCode), windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Ставит рассылку пачки комнаты после предыдущей рассылки этой же комнаты */
+    private void dispatch(String gameCode) {
+        CompletableFuture<Void> next = flushing.compute(gameCode, (k, previous) -> previous == null
+                ? CompletableFuture.runAsync(() -> flush(gameCode), senders)
+                : previous.exceptionally(error -> null).thenRunAsync(() -> flush(gameCode), senders));
+        next.whenComplete((ignored, error) -> flushing.remove(gameCode, next));
+    }
+
+    private void flush(String gameCode) {
+        List<String> batch = pending.remove(gameCode);
+        if (batch == null) return;
+
+        try {
+            if (batch.size() == 1) {
+                sink.accept(gameCode, batch.getFirst());
+                return;
+            }
+
+            StringBuilder frame = new StringBuilder(MAX_FRAME_CHARS);
+            int inFrame = 0;
+            for (String json : batch) {
+                if (inFrame > 0 && frame.length() + json.length() + 2 > MAX_FRAME_CHARS) {
+                    sink.accept(gameCode, frame.append("]}").toString());
+                    frame.setLength(0);
+                    inFrame = 0;
+                }
+                frame.append(inFrame == 0 ? "{\"type\":\"batch\",\"messages\":[" : ",").append(json);
+                inFrame++;
+            }
+            sink.accept(gameCode, frame.append("]}").toString());
+        } catch (RuntimeException e) {
+            log.error("Ошибка рассылки пачки сообщений комнаты {}", gameCode, e);
+        }
+    }
+
+    /** Отправляет накопленные пачки и останавливает планировщик */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(windowMs + 1000, TimeUnit.MILLISECONDS);
+        senders.shutdown();
+        senders.awaitTermination(1000, TimeUnit.MILLISECONDS);
+        log.info("ChatCoalescer завершил работу");
+    }
+}
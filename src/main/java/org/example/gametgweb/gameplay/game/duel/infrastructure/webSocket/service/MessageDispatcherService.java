@@ -1,13 +1,24 @@
 package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service;
 
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.bus.RoomBus;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.bus.RoomBusMessage;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.cluster.NodeIdentity;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.RoomSessionRegistry;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.MessageFormatter;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.WebSocketUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Сервис верхнего уровня, отвечающий за доставку WebSocket-сообщений игрокам.
@@ -25,23 +36,45 @@ import java.io.IOException;
  * <p>Все методы гарантированно формируют JSON и отправляют его в одну или несколько
  * WebSocket-сессий. Ошибки записи в WebSocket-канал конвертируются в непроверяемые
  * исключения, так как считаются фатальными на уровне игрового цикла.
+ *
+ * <p>Рассылки по комнате и адресные сообщения доходят до игроков на любом узле:
+ * кадр доставляется локальным сессиям и публикуется в {@link RoomBus}, а кадры
+ * других узлов из шины доставляются локальным сессиям. Отправка в конкретную
+ * сессию ({@link #sendFrame}, {@link #send}) всегда локальна. Бинарный кадр, адресованный
+ * игроку на другом узле, передаётся байтами и доставляется только сессии бинарного подпротокола.
+ *
+ * <p>Чат и уведомления о входе, выходе и реконнекте проходят через {@link ChatCoalescer}
+ * и в занятой комнате уходят пачками; кадры боя рассылаются сразу.
  */
+@Slf4j
 @Component
 public class MessageDispatcherService {
 
     private final RoomSessionRegistry registry;
     private final MessageFormatter formatter;
+    private final RoomBus bus;
+    private final ChatCoalescer coalescer;
+    private final String nodeId;
 
     /**
      * Создаёт сервис отправки сообщений.
      *
      * @param registry  реестр активных сессий по комнатам;
-     * @param formatter утилита сериализации объектов в JSON WebSocket-сообщения.
+     * @param formatter утилита сериализации объектов в JSON WebSocket-сообщения;
+     * @param bus       шина кадров между узлами;
+     * @param node      идентификатор текущего узла;
+     * @param coalescer окно коалесцирования чата и уведомлений.
      */
     @Autowired
-    public MessageDispatcherService(RoomSessionRegistry registry, MessageFormatter formatter) {
+    public MessageDispatcherService(RoomSessionRegistry registry, MessageFormatter formatter,
+                                    RoomBus bus, NodeIdentity node, ChatCoalescer coalescer) {
         this.registry = registry;
         this.formatter = formatter;
+        this.bus = bus;
+        this.coalescer = coalescer;
+        this.nodeId = node.getNodeId();
+        bus.subscribe(this::receive);
+        coalescer.onFlush(this::broadcastFrame);
     }
 
     /**
@@ -52,7 +85,7 @@ public class MessageDispatcherService {
      * @param text       текст сообщения.
      */
     public void broadcastChat(String gameCode, String playerName, String text) {
-        registry.broadcast(gameCode, formatter.chatMessage(playerName, text));
+        coalescer.offer(gameCode, formatter.chatMessage(playerName, text));
     }
 
     /**
@@ -62,7 +95,7 @@ public class MessageDispatcherService {
      * @param playerName имя подключившегося игрока.
      */
     public void broadcastJoin(String gameCode, String playerName) {
-        registry.broadcast(gameCode, formatter.joinMessage(playerName, gameCode));
+        coalescer.offer(gameCode, formatter.joinMessage(playerName, gameCode));
     }
 
     /**
@@ -72,7 +105,7 @@ public class MessageDispatcherService {
      * @param playerName имя вышедшего игрока.
      */
     public void broadcastLeave(String gameCode, String playerName) {
-        registry.broadcast(gameCode, formatter.leaveMessage(playerName, gameCode));
+        coalescer.offer(gameCode, formatter.leaveMessage(playerName, gameCode));
     }
 
     /**
@@ -83,7 +116,7 @@ public class MessageDispatcherService {
      * @param playerName имя игрока, переподключившегося к комнате.
      */
     public void broadcastReconnect(String gameCode, String playerName) {
-        registry.broadcast(gameCode, formatter.reconnectMessage(playerName));
+        coalescer.offer(gameCode, formatter.reconnectMessage(playerName));
     }
 
     /**
@@ -97,7 +130,85 @@ public class MessageDispatcherService {
      * @param message    готовая строка JSON-сообщения.
      */
     public void sendToPlayer(String gameCode, String playerName, String message) {
-        registry.sendToPlayer(gameCode, playerName, message);
+        sendToPlayer(gameCode, playerName, new TextMessage(message));
+    }
+
+    /**
+     * Отправляет конкретному игроку заранее сериализованный кадр.
+     *
+     * @param gameCode   код комнаты;
+     * @param playerName имя получателя;
+     * @param frame      готовое WebSocket-сообщение.
+     */
+    public void sendToPlayer(String gameCode, String playerName, WebSocketMessage<?> frame) {
+        if (registry.getSessionByPlayer(gameCode, playerName) != null) {
+            registry.sendToPlayer(gameCode, playerName, frame);
+        } else {
+            // игрок подключён к другому узлу
+            publish(gameCode, playerName, () -> frame);
+        }
+    }
+
+    /**
+     * Рассылает всем игрокам комнаты заранее сериализованный кадр.
+     *
+     * @param gameCode код комнаты;
+     * @param frame    готовое WebSocket-сообщение.
+     */
+    public void broadcastFrame(String gameCode, TextMessage frame) {
+        registry.broadcast(gameCode, frame);
+        publish(gameCode, null, () -> frame);
+    }
+
+    /**
+     * Рассылает кадр только сессиям комнаты на этом узле, без публикации в шину.
+     *
+     * @param gameCode код комнаты;
+     * @param frame    готовое WebSocket-сообщение.
+     */
+    public void broadcastLocal(String gameCode, TextMessage frame) {
+        registry.broadcast(gameCode, frame);
+    }
+
+    /**
+     * Рассылает всем игрокам комнаты JSON-сообщение.
+     *
+     * @param gameCode код комнаты;
+     * @param message  готовая строка JSON-сообщения.
+     */
+    public void broadcastFrame(String gameCode, String message) {
+        broadcastFrame(gameCode, new TextMessage(message));
+    }
+
+    /**
+     * Рассылает всем игрокам комнаты кадр, выбранный для каждой сессии отдельно.
+     *
+     * <p>Сессии других узлов получают {@code remoteFrame} — универсальное
+     * текстовое представление, которое создаётся, только если есть другие узлы.
+     *
+     * @param gameCode    код комнаты;
+     * @param frameFor    функция выбора готового кадра для локальной сессии;
+     * @param remoteFrame кадр для игроков на других узлах.
+     */
+    public void broadcastFrames(String gameCode, Function<WebSocketSession, ? extends WebSocketMessage<?>> frameFor,
+                                Supplier<TextMessage> remoteFrame) {
+        registry.broadcast(gameCode, frameFor);
+        publish(gameCode, null, remoteFrame);
+    }
+
+    /**
+     * Отправляет заранее сериализованный кадр в конкретную WebSocket-сессию.
+     *
+     * @param session целевая WebSocket-сессия;
+     * @param frame   готовое WebSocket-сообщение.
+     * @throws RuntimeException в случае ошибки записи в WebSocket-канал.
+     */
+    public void sendFrame(WebSocketSession session, WebSocketMessage<?> frame) {
+        try {
+            session.sendMessage(frame);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     /**
@@ -116,4 +227,51 @@ public class MessageDispatcherService {
             throw new RuntimeException(e);
         }
     }
+
+    // --- Межузловая доставка ---
+
+    private void publish(String gameCode, String playerName, Supplier<? extends WebSocketMessage<?>> frame) {
+        if (!bus.isDistributed()) return;
+
+        WebSocketMessage<?> message = frame.get();
+        if (message instanceof TextMessage text) {
+            bus.publish(new RoomBusMessage(nodeId, gameCode, playerName, text.getPayload(), false));
+        } else if (message instanceof BinaryMessage binary) {
+            ByteBuffer bytes = binary.getPayload().duplicate();
+            bus.publish(new RoomBusMessage(nodeId, gameCode, playerName,
+                    Base64.getEncoder().encodeToString(toArray(bytes)), true));
+        } else {
+            log.debug("Кадр {} не пересылается другим узлам", message.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Доставляет локальным сессиям кадр, опубликованный другим узлом.
+     */
+    private void receive(RoomBusMessage message) {
+        if (nodeId.equals(message.origin())) return;
+
+        WebSocketMessage<?> frame = message.binary()
+                ? new BinaryMessage(Base64.getDecoder().decode(message.payload()))
+                : new TextMessage(message.payload());
+        if (message.isBroadcast()) {
+            registry.broadcast(message.gameCode(), frame);
+            return;
+        }
+
+        WebSocketSession session = registry.getSessionByPlayer(message.gameCode(), message.player());
+        if (session == null) {
+            log.debug("Получатель {} из шины не подключён к узлу", message.player());
+        } else if (message.binary() && !WebSocketUtils.isBinary(session)) {
+            log.debug("Бинарный кадр из шины не отправлен: {} подключён без бинарного подпротокола", message.player());
+        } else {
+            registry.sendToPlayer(message.gameCode(), message.player(), frame);
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
 }
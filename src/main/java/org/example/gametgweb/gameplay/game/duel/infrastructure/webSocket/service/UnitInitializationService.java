@@ -1,20 +1,28 @@
 package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.PreparedUnitRegistry;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.UnitRegistryService;
 import org.example.gametgweb.gameplay.game.duel.domain.model.Player;
 import org.example.gametgweb.gameplay.game.duel.domain.repository.PlayerRepositoryImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * UnitInitializationService — Сервис, отвечающий за бизнес-логику инициализации
  * игрового юнита при первом подключении игрока к комнате.
  *
  * <p>Сервис выполняет:
  * <ul>
- * <li>Загрузку сущности игрока из базы данных (через {@link PlayerRepositoryImpl});</li>
+ * <li>Получение юнита, загруженного при входе в дуэль по HTTP ({@link PreparedUnitRegistry}),
+ * а при его отсутствии — загрузку сущности игрока из базы данных (через {@link PlayerRepositoryImpl});</li>
  * <li>Проверку наличия активного юнита;</li>
  * <li>Регистрацию активного юнита в реестре текущей игры (через {@link UnitRegistryService}).</li>
  * </ul>
@@ -26,33 +34,69 @@ public class UnitInitializationService {
 
     private final PlayerRepositoryImpl playerService;
     private final UnitRegistryService unitRegistry;
+    private final PreparedUnitRegistry preparedUnits;
+
+    /** Загрузка юнитов из БД при промахе {@link PreparedUnitRegistry}. */
+    private final ExecutorService loader = Executors.newVirtualThreadPerTaskExecutor();
 
     /**
      * Конструктор для внедрения зависимостей.
      *
      * @param playerService Репозиторий для доступа к данным игрока ({@link Player} Entity).
      * @param unitRegistry  Сервис для регистрации и хранения активных юнитов в контексте игры.
+     * @param preparedUnits Юниты, загруженные при входе в дуэль по HTTP.
      */
     @Autowired
-    public UnitInitializationService(PlayerRepositoryImpl playerService, UnitRegistryService unitRegistry) {
+    public UnitInitializationService(PlayerRepositoryImpl playerService, UnitRegistryService unitRegistry,
+                                     PreparedUnitRegistry preparedUnits) {
         this.playerService = playerService;
         this.unitRegistry = unitRegistry;
+        this.preparedUnits = preparedUnits;
     }
 
     /**
-     * Загружает данные игрока и регистрирует его активного юнита в реестре текущей дуэли.
+     * Начинает получение активного юнита игрока.
+     *
+     * <p>Юнит, загруженный при входе в дуэль, возвращается сразу. Иначе запрос в БД
+     * выполняется в виртуальном потоке, и вызывающий может параллельно выполнять
+     * независимые шаги подключения.</p>
+     *
+     * @param gameCode   Код комнаты.
+     * @param playerName Имя игрока.
+     * @return будущий юнит; {@code null} внутри, если у игрока нет активного юнита
+     */
+    public CompletableFuture<PlayerUnit> prepareUnit(String gameCode, String playerName) {
+        return preparedUnits.take(gameCode, playerName)
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> CompletableFuture.supplyAsync(() -> loadActiveUnit(playerName), loader));
+    }
+
+    /**
+     * Дожидается юнита, полученного через {@link #prepareUnit}, и регистрирует его в реестре текущей дуэли.
      *
      * <p>Если игрок или его активный юнит не найден, регистрация не выполняется,
      * но ошибки не генерируются, так как это может быть связано с неполными данными игрока.</p>
      *
-     * @param gameCode   Код комнаты, в которой регистрируется юнит.
-     * @param playerName Имя игрока, чей юнит регистрируется.
+     * @param gameCode   Код комнаты.
+     * @param playerName Имя игрока.
+     * @param unit       Будущий юнит игрока.
      */
-    public void handleNewJoin(String gameCode, String playerName) {
-        Player playerEntity = playerService.findByUsername(playerName);
-        if (playerEntity == null) return;
+    public void registerPrepared(String gameCode, String playerName, CompletableFuture<PlayerUnit> unit) {
+        PlayerUnit playerUnit;
+        try {
+            playerUnit = unit.join();
+        } catch (CompletionException e) {
+            log.error("Не удалось загрузить юнит игрока {} для комнаты {}", playerName, gameCode, e.getCause());
+            return;
+        }
+        register(gameCode, playerName, playerUnit);
+    }
+
+    private PlayerUnit loadActiveUnit(String playerName) {
+        return playerService.findActiveUnit(playerName).orElse(null);
+    }
 
-        PlayerUnit playerUnit = playerEntity.getActiveUnit().orElse(null);
+    private void register(String gameCode, String playerName, PlayerUnit playerUnit) {
         if (playerUnit == null) return;
 
         // Кладем полностью загруженный юнит в реестр
@@ -62,5 +106,10 @@ public class UnitInitializationService {
                 playerUnit.getName(), playerName, gameCode, playerUnit.getId());
     }
 
-
+    /** Дожидается начатых загрузок юнитов при остановке приложения */
+    @PreDestroy
+    public void shutdown() {
+        loader.close();
+        log.info("UnitInitializationService завершил работу");
+    }
 }
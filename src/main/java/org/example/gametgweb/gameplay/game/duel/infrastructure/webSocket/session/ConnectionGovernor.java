@@ -0,0 +1,158 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ConnectionGovernor — учёт и ограничение WebSocket-сессий на узле.
+ *
+ * <p>Три независимых лимита:
+ * <ul>
+ *     <li>{@code game.ws.max-per-player} — сокетов дуэли одного игрока;</li>
+ *     <li>{@code game.ws.max-per-ip} — сокетов с одного адреса (дуэли и кампания);</li>
+ *     <li>{@code game.ws.max-sessions} — всего сессий на узле (дуэли и кампания).</li>
+ * </ul>
+ *
+ * <p>По умолчанию игроку разрешены два сокета дуэли, хотя в комнате активен один:
+ * при переподключении новый сокет вытесняет старый, но место старого освобождается
+ * только после его закрытия. При лимите 1 переподключение с «зависшим» старым
+ * соединением получало бы отказ до таймаута TCP.
+ *
+ * <p>Адрес клиента берётся из {@code X-Forwarded-For} ({@code server.forward-headers-strategy=native}),
+ * поэтому узел должен быть доступен только через доверенный прокси: иначе клиент
+ * подставит любой адрес и обойдёт лимит на адрес.
+ *
+ * <p>Проверка в два шага: {@link #admits} — быстрая проверка без резервирования при handshake
+ * (отказ до апгрейда соединения), {@link #tryAcquire} — окончательное резервирование места
+ * уже установленной сессией. Место освобождается в {@link #release} при закрытии сессии.
+ * Зарезервированное место хранится в атрибуте сессии, поэтому повторное освобождение безопасно.
+ */
+@Slf4j
+@Component
+public class ConnectionGovernor {
+
+    /** Атрибут сессии с зарезервированным местом. */
+    private static final String PERMIT_ATTRIBUTE = "CONNECTION_PERMIT";
+
+    private final int maxPerPlayer;
+    private final int maxPerIp;
+    private final int maxSessions;
+
+    private final ConcurrentHashMap<String, Integer> byPlayer = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> byIp = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+
+    /**
+     * Зарезервированное сессией место.
+     *
+     * @param ip     адрес клиента
+     * @param player имя игрока или {@code null}
+     */
+    private record Permit(String ip, String player) {}
+
+    @Autowired
+    public ConnectionGovernor(@Value("${game.ws.max-per-player:2}") int maxPerPlayer,
+                              @Value("${game.ws.max-per-ip:20}") int maxPerIp,
+                              @Value("${game.ws.max-sessions:10000}") int maxSessions) {
+        this.maxPerPlayer = maxPerPlayer;
+        this.maxPerIp = maxPerIp;
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Быстрая проверка при handshake: есть ли место для ещё одной сессии.
+     * Ничего не резервирует, поэтому при гонке допускает небольшое превышение,
+     * которое отсекает {@link #tryAcquire}.
+     *
+     * @param ip     адрес клиента
+     * @param player имя игрока или {@code null}
+     */
+    public boolean admits(String ip, String player) {
+        return total.get() < maxSessions
+                && byIp.getOrDefault(ip, 0) < maxPerIp
+                && (player == null || byPlayer.getOrDefault(player, 0) < maxPerPlayer);
+    }
+
+    /**
+     * Резервирует место для установленной сессии.
+     *
+     * @param session WebSocket-сессия
+     * @param player  имя игрока или {@code null}
+     * @return {@code false}, если один из лимитов исчерпан (сессию нужно закрыть)
+     */
+    public boolean tryAcquire(WebSocketSession session, String player) {
+        String ip = addressOf(session.getRemoteAddress());
+
+        if (total.incrementAndGet() > maxSessions) {
+            total.decrementAndGet();
+            log.warn("Лимит сессий узла ({}) исчерпан, отказ игроку {}", maxSessions, player);
+            return false;
+        }
+        if (!increment(byIp, ip, maxPerIp)) {
+            total.decrementAndGet();
+            log.warn("Лимит сессий с адреса {} ({}) исчерпан, отказ игроку {}", ip, maxPerIp, player);
+            return false;
+        }
+        if (player != null && !increment(byPlayer, player, maxPerPlayer)) {
+            decrement(byIp, ip);
+            total.decrementAndGet();
+            log.warn("Лимит сессий игрока {} ({}) исчерпан", player, maxPerPlayer);
+            return false;
+        }
+
+        session.getAttributes().put(PERMIT_ATTRIBUTE, new Permit(ip, player));
+        return true;
+    }
+
+    /**
+     * Освобождает место закрытой сессии.
+     *
+     * @param session WebSocket-сессия
+     * @return {@code true}, если сессия была допущена и место освобождено
+     */
+    public boolean release(WebSocketSession session) {
+        if (!(session.getAttributes().remove(PERMIT_ATTRIBUTE) instanceof Permit permit)) return false;
+
+        if (permit.player() != null) decrement(byPlayer, permit.player());
+        decrement(byIp, permit.ip());
+        total.decrementAndGet();
+        return true;
+    }
+
+    /** Текущее число допущенных сессий узла */
+    public int getSessionCount() {
+        return total.get();
+    }
+
+    /**
+     * Нормализует адрес клиента в строковый ключ.
+     *
+     * @param address удалённый адрес или {@code null}
+     */
+    public static String addressOf(InetSocketAddress address) {
+        if (address == null) return "unknown";
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    private static boolean increment(ConcurrentHashMap<String, Integer> counts, String key, int limit) {
+        boolean[] admitted = {false};
+        counts.compute(key, (k, count) -> {
+            int current = count != null ? count : 0;
+            if (current >= limit) return count;
+            admitted[0] = true;
+            return current + 1;
+        });
+        return admitted[0];
+    }
+
+    private static void decrement(ConcurrentHashMap<String, Integer> counts, String key) {
+        counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+}
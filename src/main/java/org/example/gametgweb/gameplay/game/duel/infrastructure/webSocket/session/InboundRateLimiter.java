@@ -0,0 +1,149 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.api.dto.InboundLimitStatsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * InboundRateLimiter — ограничение частоты входящих кадров WebSocket-сессии дуэли.
+ *
+ * <p>У каждой сессии свои token bucket'ы на каждый вид кадра ({@link Kind}):
+ * {@code FRAME} — любой кадр, проверяется до разбора JSON; {@code CHAT} и {@code ATTACK} —
+ * после определения типа, до рассылки и боевой логики. Bucket хранится одним {@code long}
+ * (момент, когда bucket снова будет полон) и обновляется CAS'ом — без блокировок.
+ *
+ * <p>Нарушения тоже расходуют bucket: пока нарушений немного, лишние кадры просто отбрасываются,
+ * при устойчивом флуде сессия получает {@link Verdict#DISCONNECT}.
+ * Счётчики отброшенных кадров и отключений доступны через {@link #getStats}.
+ */
+@Slf4j
+@Component
+public class InboundRateLimiter {
+
+    /** Атрибут сессии с её bucket'ами. */
+    private static final String LIMITS_ATTRIBUTE = "RATE_LIMITS";
+
+    /** Вид входящего кадра. */
+    public enum Kind { FRAME, CHAT, ATTACK }
+
+    /** Решение по входящему кадру. */
+    public enum Verdict { ALLOW, DROP, DISCONNECT }
+
+    /**
+     * Параметры bucket'а.
+     *
+     * @param capacity        размер всплеска (токенов)
+     * @param intervalNanos   время пополнения одного токена
+     */
+    private record Rate(int capacity, long intervalNanos) {
+        static Rate of(int capacity, double perSecond) {
+            return new Rate(capacity, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+        }
+    }
+
+    /**
+     * Token bucket без блокировок. Состояние — момент времени, когда bucket снова будет полон;
+     * каждый токен сдвигает его на {@code intervalNanos}. Токен есть, пока этот момент отстоит
+     * от текущего не больше чем на {@code capacity} интервалов.
+     */
+    private static final class TokenBucket {
+        private final AtomicLong fullAt;
+
+        private TokenBucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        boolean tryTake(Rate rate, long now) {
+            long limit = rate.capacity() * rate.intervalNanos();
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + rate.intervalNanos();
+                if (next - now > limit) return false;
+                if (fullAt.compareAndSet(current, next)) return true;
+            }
+        }
+    }
+
+    /** Bucket'ы одной сессии: по одному на вид кадра и один на нарушения */
+    private static final class SessionLimits {
+        private final TokenBucket[] buckets = new TokenBucket[Kind.values().length];
+        private final TokenBucket violations;
+
+        private SessionLimits(long now) {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new TokenBucket(now);
+            }
+            violations = new TokenBucket(now);
+        }
+    }
+
+    private final Rate[] rates = new Rate[Kind.values().length];
+    private final Rate violationRate;
+
+    private final LongAdder[] dropped = new LongAdder[Kind.values().length];
+    private final LongAdder disconnects = new LongAdder();
+
+    @Autowired
+    public InboundRateLimiter(@Value("${game.ws.rate.frame.capacity:20}") int frameCapacity,
+                              @Value("${game.ws.rate.frame.per-second:10}") double framePerSecond,
+                              @Value("${game.ws.rate.chat.capacity:5}") int chatCapacity,
+                              @Value("${game.ws.rate.chat.per-second:1}") double chatPerSecond,
+                              @Value("${game.ws.rate.attack.capacity:4}") int attackCapacity,
+                              @Value("${game.ws.rate.attack.per-second:2}") double attackPerSecond,
+                              @Value("${game.ws.rate.violations.capacity:30}") int violationCapacity,
+                              @Value("${game.ws.rate.violations.per-second:0.5}") double violationPerSecond) {
+        rates[Kind.FRAME.ordinal()] = Rate.of(frameCapacity, framePerSecond);
+        rates[Kind.CHAT.ordinal()] = Rate.of(chatCapacity, chatPerSecond);
+        rates[Kind.ATTACK.ordinal()] = Rate.of(attackCapacity, attackPerSecond);
+        violationRate = Rate.of(violationCapacity, violationPerSecond);
+
+        for (int i = 0; i < dropped.length; i++) {
+            dropped[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Проверяет, можно ли обработать кадр сессии.
+     *
+     * @param session WebSocket-сессия
+     * @param kind    вид кадра
+     * @return {@link Verdict#ALLOW} — обработать, {@link Verdict#DROP} — отбросить,
+     *         {@link Verdict#DISCONNECT} — закрыть сессию за флуд
+     */
+    public Verdict check(WebSocketSession session, Kind kind) {
+        long now = System.nanoTime();
+        SessionLimits limits = (SessionLimits) session.getAttributes()
+                .computeIfAbsent(LIMITS_ATTRIBUTE, k -> new SessionLimits(now));
+
+        if (limits.buckets[kind.ordinal()].tryTake(rates[kind.ordinal()], now)) return Verdict.ALLOW;
+
+        dropped[kind.ordinal()].increment();
+        if (limits.violations.tryTake(violationRate, now)) return Verdict.DROP;
+
+        disconnects.increment();
+        log.warn("Сессия {} игрока {} отключена за превышение частоты сообщений ({})",
+                session.getId(), session.getAttributes().get("PLAYER_NAME"), kind);
+        return Verdict.DISCONNECT;
+    }
+
+    /**
+     * Счётчики ограничителя с момента старта узла.
+     *
+     * @param sessions текущее число сессий дуэлей узла
+     */
+    public InboundLimitStatsDto getStats(int sessions) {
+        return new InboundLimitStatsDto(
+                dropped[Kind.FRAME.ordinal()].sum(),
+                dropped[Kind.CHAT.ordinal()].sum(),
+                dropped[Kind.ATTACK.ordinal()].sum(),
+                disconnects.sum(),
+                sessions);
+    }
+}
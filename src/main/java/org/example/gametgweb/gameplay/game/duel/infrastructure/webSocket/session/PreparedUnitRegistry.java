@@ -0,0 +1,68 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PreparedUnitRegistry — активные юниты, загруженные при входе в дуэль по HTTP
+ * ({@code /StartDuel}, {@code /JoinDuel}, {@code /CreateDuel}) и ожидающие WebSocket-подключения.
+ *
+ * <p>Игрок с юнитом уже читается из БД, когда привязывается к игре. Юнит кладётся сюда
+ * по коду комнаты и имени игрока, и подключение к комнате забирает его без повторного запроса.
+ * Если подключение пришло на другой узел или запись устарела ({@code game.join.prefetch-ttl-ms}),
+ * юнит загружается из БД как раньше.
+ */
+@Slf4j
+@Component
+public class PreparedUnitRegistry {
+
+    private record Key(String gameCode, String playerName) {}
+
+    private record Prepared(PlayerUnit unit, long expiresAt) {}
+
+    private final ConcurrentHashMap<Key, Prepared> units = new ConcurrentHashMap<>();
+    private final long ttlMs;
+
+    @Autowired
+    public PreparedUnitRegistry(@Value("${game.join.prefetch-ttl-ms:60000}") long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Сохраняет загруженный юнит игрока до его подключения к комнате.
+     *
+     * @param gameCode   код комнаты
+     * @param playerName имя игрока
+     * @param unit       активный юнит игрока
+     */
+    public void put(String gameCode, String playerName, PlayerUnit unit) {
+        units.put(new Key(gameCode, playerName), new Prepared(unit, System.currentTimeMillis() + ttlMs));
+    }
+
+    /**
+     * Забирает юнит игрока, если он был загружен при входе и ещё не устарел.
+     *
+     * @param gameCode   код комнаты
+     * @param playerName имя игрока
+     * @return юнит или пустой {@link Optional}
+     */
+    public Optional<PlayerUnit> take(String gameCode, String playerName) {
+        Prepared prepared = units.remove(new Key(gameCode, playerName));
+        if (prepared == null || prepared.expiresAt() < System.currentTimeMillis()) return Optional.empty();
+        return Optional.of(prepared.unit());
+    }
+
+    /** Удаляет юниты игроков, которые так и не подключились */
+    @Scheduled(fixedDelayString = "${game.join.prefetch-ttl-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        units.values().removeIf(prepared -> prepared.expiresAt() < now);
+    }
+}
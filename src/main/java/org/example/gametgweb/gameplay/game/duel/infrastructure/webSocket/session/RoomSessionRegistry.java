@@ -1,15 +1,23 @@
 package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.flight.RoomFlightRecorder;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.jfr.BroadcastEvent;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.RoomLogLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * RoomSessionRegistry — потокобезопасный реестр активных WebSocket-сессий и игровых юнитов по комнатам.
@@ -22,29 +30,54 @@ import java.util.concurrent.ConcurrentHashMap;
  *     <li>Удаление сессий и очистка комнат, когда они становятся пустыми.</li>
  * </ul>
  *
+ * <p>У игрока в комнате не больше одной сессии: новая сессия вытесняет прежнюю,
+ * поэтому рассылки не размножаются на дубликаты (несколько вкладок одного игрока).
+ *
  * <p>Использует потокобезопасные коллекции {@link ConcurrentHashMap} и {@link ConcurrentHashMap#newKeySet()}.
+ *
+ * <p>Отправка кадров логируется на DEBUG, ошибки отправки — с лимитом на комнату ({@link RoomLogLimiter}):
+ * массовый обрыв соединений не превращается в поток одинаковых строк.
+ * Отправки и их ошибки пишутся в журнал комнаты ({@link RoomFlightRecorder}).
  */
 @Slf4j
 @Component
 public class RoomSessionRegistry {
 
+    /** Атрибут сессии, вытесненной более новой сессией того же игрока. */
+    public static final String DISPLACED_ATTRIBUTE = "DISPLACED";
+
     /**
      * Активные WebSocket-сессии игроков, сгруппированные по коду комнаты.
      * Key — gameCode, Value — набор сессий игроков в комнате.
      */
     private final ConcurrentHashMap<String, Set<WebSocketSession>> gameSessions = new ConcurrentHashMap<>();
 
+    private final RoomLogLimiter logLimiter;
+    private final RoomFlightRecorder flightRecorder;
+
+    @Autowired
+    public RoomSessionRegistry(RoomLogLimiter logLimiter, RoomFlightRecorder flightRecorder) {
+        this.logLimiter = logLimiter;
+        this.flightRecorder = flightRecorder;
+    }
+
     // ============================================================
     // =============== Работа с WebSocket-сессиями =================
     // ============================================================
 
     /**
      * Добавляет WebSocket-сессию игрока в комнату.
+     * Прежние сессии того же игрока в комнате вытесняются и закрываются.
      *
      * @param gameCode код комнаты
      * @param session  WebSocket-сессия игрока
      */
     public void addSession(String gameCode, WebSocketSession session) {
+        Object playerName = session.getAttributes().get("PLAYER_NAME");
+        if (playerName != null) {
+            displacePlayerSessions(gameCode, playerName.toString(), session);
+        }
+
         gameSessions
                 .computeIfAbsent(gameCode, k -> ConcurrentHashMap.newKeySet())
                 .add(session);
@@ -53,6 +86,38 @@ public class RoomSessionRegistry {
         logPlayersInRoom(gameCode);
     }
 
+    /**
+     * Проверяет, была ли сессия вытеснена более новой сессией того же игрока.
+     *
+     * @param session WebSocket-сессия
+     */
+    public static boolean isDisplaced(WebSocketSession session) {
+        return Boolean.TRUE.equals(session.getAttributes().get(DISPLACED_ATTRIBUTE));
+    }
+
+    /**
+     * Удаляет из комнаты и закрывает все сессии игрока, кроме указанной.
+     * Сессии помечаются {@link #DISPLACED_ATTRIBUTE} до закрытия, чтобы их закрытие
+     * не считалось выходом игрока.
+     */
+    private void displacePlayerSessions(String gameCode, String playerName, WebSocketSession keep) {
+        Set<WebSocketSession> sessions = gameSessions.get(gameCode);
+        if (sessions == null) return;
+
+        for (WebSocketSession old : sessions) {
+            if (old == keep || !playerName.equals(old.getAttributes().get("PLAYER_NAME"))) continue;
+
+            old.getAttributes().put(DISPLACED_ATTRIBUTE, Boolean.TRUE);
+            sessions.remove(old);
+            log.info("Сессия {} игрока {} вытеснена новой сессией {}", old.getId(), playerName, keep.getId());
+            try {
+                old.close(CloseStatus.POLICY_VIOLATION.withReason("Replaced by a newer connection"));
+            } catch (IOException e) {
+                log.debug("Не удалось закрыть вытесненную сессию {}: {}", old.getId(), e.getMessage());
+            }
+        }
+    }
+
     /**
      * Удаляет WebSocket-сессию из комнаты.
      *
@@ -116,6 +181,32 @@ public class RoomSessionRegistry {
      * @param message  текст сообщения
      */
     public void broadcast(String gameCode, String message) {
+        broadcast(gameCode, new TextMessage(message));
+    }
+
+    /**
+     * Рассылает уже готовый кадр всем игрокам в комнате.
+     *
+     * <p>Кадр создаётся один раз и переиспользуется для каждой сессии,
+     * поэтому сериализация не повторяется на каждого получателя.
+     *
+     * @param gameCode код комнаты
+     * @param frame    готовое WebSocket-сообщение
+     */
+    public void broadcast(String gameCode, WebSocketMessage<?> frame) {
+        broadcast(gameCode, s -> frame);
+    }
+
+    /**
+     * Рассылает всем игрокам в комнате кадр, выбранный для каждой сессии отдельно.
+     *
+     * <p>Используется, когда разные клиенты получают разные представления одного
+     * и того же состояния (например, полный снимок или дельту).
+     *
+     * @param gameCode код комнаты
+     * @param frameFor функция выбора кадра для конкретной сессии
+     */
+    public void broadcast(String gameCode, Function<WebSocketSession, ? extends WebSocketMessage<?>> frameFor) {
         Set<WebSocketSession> sessions = getSessions(gameCode);
         if (sessions == null || sessions.isEmpty()) {
             log.debug("Комната {} пуста — сообщение не отправлено", gameCode);
@@ -124,14 +215,31 @@ public class RoomSessionRegistry {
 
         sessions.removeIf(s -> !s.isOpen());
 
-        sessions.forEach(s -> {
-            try {
-                s.sendMessage(new TextMessage(message));
-            } catch (IOException e) {
-                log.error("Ошибка отправки сообщения (session={}): {}", s.getId(), e.getMessage());
-                safeRemoveSession(gameCode, s);
+        BroadcastEvent event = new BroadcastEvent();
+        event.begin();
+        int recipients = 0;
+        long payloadBytes = 0;
+        try {
+            for (WebSocketSession s : sessions) {
+                try {
+                    WebSocketMessage<?> frame = frameFor.apply(s);
+                    s.sendMessage(frame);
+                    recipients++;
+                    payloadBytes += frame.getPayloadLength();
+                } catch (IOException | IllegalStateException | SessionLimitExceededException e) {
+                    flightRecorder.record(gameCode, RoomFlightRecorder.Kind.SEND_FAIL,
+                            (String) s.getAttributes().get("PLAYER_NAME"), e.getMessage());
+                    if (logLimiter.allow(gameCode)) {
+                        log.atError().addKeyValue("room", gameCode).addKeyValue("session", s.getId())
+                                .log("Ошибка отправки сообщения: {}", e.getMessage());
+                    }
+                    safeRemoveSession(gameCode, s);
+                }
             }
-        });
+        } finally {
+            event.complete(gameCode, recipients, payloadBytes);
+        }
+        flightRecorder.record(gameCode, RoomFlightRecorder.Kind.SEND, null, null, payloadBytes, recipients);
     }
 
     /**
@@ -142,11 +250,23 @@ public class RoomSessionRegistry {
      * @param message    текст сообщения
      */
     public void sendToPlayer(String gameCode, String playerName, String message) {
-        log.info("🔥 sendToPlayer вызван: gameCode={}, playerName={}", gameCode, playerName);
+        sendToPlayer(gameCode, playerName, new TextMessage(message));
+    }
 
+    /**
+     * Отправляет уже готовый кадр конкретному игроку в комнате.
+     *
+     * @param gameCode   код комнаты
+     * @param playerName имя игрока
+     * @param frame      готовое WebSocket-сообщение
+     */
+    public void sendToPlayer(String gameCode, String playerName, WebSocketMessage<?> frame) {
         Set<WebSocketSession> sessions = getSessions(gameCode);
         if (sessions == null || sessions.isEmpty()) {
-            log.warn("⚠️ Нет сессий для комнаты {}", gameCode);
+            if (logLimiter.allow(gameCode)) {
+                log.atWarn().addKeyValue("room", gameCode).addKeyValue("player", playerName)
+                        .log("Нет сессий для комнаты — кадр не отправлен");
+            }
             return;
         }
 
@@ -156,12 +276,20 @@ public class RoomSessionRegistry {
         sessions.stream()
                 .filter(s -> playerName.equals(s.getAttributes().get("PLAYER_NAME")))
                 .forEach(s -> {
-                    log.info("✉️ Отправляем сообщение игроку {} (sessionId={})", playerName, s.getId());
                     try {
-                        s.sendMessage(new TextMessage(message));
-                        log.info("✅ Сообщение отправлено игроку {}", playerName);
-                    } catch (IOException e) {
-                        log.error("❌ Ошибка при отправке игроку {}: {}", playerName, e.getMessage());
+                        s.sendMessage(frame);
+                        flightRecorder.record(gameCode, RoomFlightRecorder.Kind.SEND, playerName, null,
+                                frame.getPayloadLength(), 1);
+                        if (logLimiter.debug(log, gameCode)) {
+                            log.atDebug().addKeyValue("room", gameCode).addKeyValue("player", playerName)
+                                    .addKeyValue("session", s.getId()).log("Кадр отправлен игроку");
+                        }
+                    } catch (IOException | IllegalStateException | SessionLimitExceededException e) {
+                        flightRecorder.record(gameCode, RoomFlightRecorder.Kind.SEND_FAIL, playerName, e.getMessage());
+                        if (logLimiter.allow(gameCode)) {
+                            log.atError().addKeyValue("room", gameCode).addKeyValue("player", playerName)
+                                    .log("Ошибка при отправке игроку: {}", e.getMessage());
+                        }
                         safeRemoveSession(gameCode, s);
                     }
                 });
@@ -189,14 +317,17 @@ public class RoomSessionRegistry {
     }
 
     /**
-     * Логирует всех активных игроков в комнате.
+     * Логирует всех активных игроков в комнате (DEBUG).
+     * Строка со списком игроков собирается, только если DEBUG включён.
      *
      * @param gameCode код комнаты
      */
     public void logPlayersInRoom(String gameCode) {
+        if (!log.isDebugEnabled()) return;
+
         Set<WebSocketSession> sessions = gameSessions.getOrDefault(gameCode, Set.of());
         if (sessions.isEmpty()) {
-            log.info("Комната {} пуста", gameCode);
+            log.debug("Комната {} пуста", gameCode);
             return;
         }
 
@@ -206,6 +337,6 @@ public class RoomSessionRegistry {
                 .reduce((a, b) -> a + ", " + b)
                 .orElse("неизвестные игроки");
 
-        log.info("Комната {} содержит игроков: {}", gameCode, players);
+        log.debug("Комната {} содержит игроков: {}", gameCode, players);
     }
 }
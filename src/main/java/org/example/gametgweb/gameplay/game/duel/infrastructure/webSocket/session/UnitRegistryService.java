@@ -3,6 +3,8 @@ package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.sessio
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.RoomLogLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
@@ -25,6 +27,14 @@ public class UnitRegistryService {
      */
     private final ConcurrentHashMap<String, Map<String, String>> unitToPlayerMap = new ConcurrentHashMap<>();
 
+    /** Лимит подробных логов на комнату: поиск и обновление юнитов идут на каждый ход. */
+    private final RoomLogLimiter logLimiter;
+
+    @Autowired
+    public UnitRegistryService(RoomLogLimiter logLimiter) {
+        this.logLimiter = logLimiter;
+    }
+
     /**
      * Регистрирует юнита игрока в комнате.
      *
@@ -33,10 +43,14 @@ public class UnitRegistryService {
      * @param unit     игровой юнит
      */
     public void registerUnit(String gameCode, String playerName, PlayerUnit unit) {
+        putUnit(gameCode, playerName, unit);
+        log.info("Юнит игрока {} (имя юнита {}) добавлен в комнату {}", playerName, unit.getName(), gameCode);
+    }
+
+    private void putUnit(String gameCode, String playerName, PlayerUnit unit) {
         gameUnits.computeIfAbsent(gameCode, k -> new ConcurrentHashMap<>()).put(playerName, unit);
         unitToPlayerMap.computeIfAbsent(gameCode, k -> new ConcurrentHashMap<>())
                 .put(unit.getName(), playerName);
-        log.info("Юнит игрока {} (имя юнита {}) добавлен в комнату {}", playerName, unit.getName(), gameCode);
     }
 
     /**
@@ -47,16 +61,22 @@ public class UnitRegistryService {
      * @return юнит игрока или null, если не найден
      */
     public PlayerUnit getUnit(String gameCode, String playerName) {
-        PlayerUnit unit = gameUnits.getOrDefault(gameCode, new ConcurrentHashMap<>()).get(playerName);
-        log.info("getUnit: {} в комнате {} -> {}", playerName, gameCode, unit != null ? "найден" : "не найден");
+        Map<String, PlayerUnit> units = gameUnits.get(gameCode);
+        PlayerUnit unit = units != null ? units.get(playerName) : null;
+        if (logLimiter.debug(log, gameCode)) {
+            log.atDebug().addKeyValue("room", gameCode).addKeyValue("player", playerName)
+                    .log("getUnit -> {}", unit != null ? "найден" : "не найден");
+        }
         return unit;
     }
     /**
      * Обновляет юнита игрока в комнате (например, после раунда боя).
      */
     public void updateUnit(String gameCode, String playerName, PlayerUnit updatedUnit) {
-        registerUnit(gameCode, playerName, updatedUnit);
-        log.info("Юнит игрока {} обновлен в комнате {}", playerName, gameCode);
+        putUnit(gameCode, playerName, updatedUnit);
+        if (logLimiter.debug(log, gameCode)) {
+            log.atDebug().addKeyValue("room", gameCode).addKeyValue("player", playerName).log("Юнит обновлён");
+        }
     }
 
     /**
@@ -76,6 +96,16 @@ public class UnitRegistryService {
         log.info("Юнит {} удален из комнаты {}", playerName, gameCode);
     }
 
+    /**
+     * Удаляет всех юнитов комнаты (например, после передачи комнаты другому узлу).
+     *
+     * @param gameCode код комнаты
+     */
+    public void removeRoom(String gameCode) {
+        gameUnits.remove(gameCode);
+        unitToPlayerMap.remove(gameCode);
+        log.info("Юниты комнаты {} удалены", gameCode);
+    }
 
     public Map<String, PlayerUnit> getUnits(String gameCode) {
         return getGameUnits().getOrDefault(gameCode, Map.of());
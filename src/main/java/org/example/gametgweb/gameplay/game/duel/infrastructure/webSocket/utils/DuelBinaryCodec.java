@@ -0,0 +1,224 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
+
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.BodyPartDestroyedNotificationDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.DuelRoundResponseDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.RoomDeltaMessageDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.RoomStateMessageDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.UnitDeltaDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.UnitStateDTO;
+import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
+import org.springframework.web.socket.BinaryMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Кодек бинарного подпротокола дуэли {@value #SUBPROTOCOL}.
+ *
+ * <p>Подпротокол согласуется через заголовок {@code Sec-WebSocket-Protocol}
+ * и работает рядом с JSON: бинарными идут только «горячие» кадры,
+ * все остальные сообщения (join/leave/info/duelResult) остаются текстовыми JSON.
+ *
+ * <p>Все числа — big-endian. Строка ({@code str}) — {@code u16} длина в байтах и UTF-8,
+ * длина {@code 0xFFFF} означает {@code null}.
+ *
+ * <p>Входящие кадры (клиент → сервер):
+ * <pre>
+ * 0x01 ATTACK  [op:u8][body:u8 — ordinal {@link Body}]
+ * 0x02 CHAT    [op:u8][text: UTF-8 до конца кадра]
+ * 0x03 RESYNC  [op:u8]
+ * </pre>
+ *
+ * <p>Исходящие кадры (сервер → клиент):
+ * <pre>
+ * 0x10 ROOM_STATE [op:u8][version:i64][units:u8]{unit}[round][destroyed]
+ *      unit = [playerId:i64][player:str][unitName:str][imagePath:str][hp:i64][hpMax:i64]
+ *             [hasEff:u8]{eff:f32 × число частей тела, в порядке ordinal}
+ * 0x11 ROOM_DELTA [op:u8][seq:i64][units:u8]{delta}[round][destroyed]
+ *      delta = [player:str][flags:u8 — 1: hp, 2: eff][hp:i64]?[effCount:u8 {body:u8, eff:f32}]?
+ * round     = [present:u8] [attacker:str][defender:str][turns:u16 {str}][attackerHp:f64][defenderHp:f64]
+ * destroyed = [count:u8] {[player:str][body:u8][message:str]}
+ * </pre>
+ */
+public final class DuelBinaryCodec {
+
+    /** Имя бинарного подпротокола для заголовка {@code Sec-WebSocket-Protocol}. */
+    public static final String SUBPROTOCOL = "duel.bin.v1";
+
+    public static final byte OP_ATTACK = 0x01;
+    public static final byte OP_CHAT = 0x02;
+    public static final byte OP_RESYNC = 0x03;
+
+    public static final byte OP_ROOM_STATE = 0x10;
+    public static final byte OP_ROOM_DELTA = 0x11;
+
+    private static final int NULL_STRING = 0xFFFF;
+    private static final int FLAG_HP = 1;
+    private static final int FLAG_EFFICIENCY = 2;
+
+    private DuelBinaryCodec() {}
+
+    /**
+     * Разобранный входящий бинарный кадр.
+     *
+     * @param opcode код операции
+     * @param body   часть тела для атаки (иначе {@code null})
+     * @param text   текст чата (иначе {@code null})
+     */
+    public record Command(byte opcode, Body body, String text) {}
+
+    // ============================================================
+    // ======================= Входящие ===========================
+    // ============================================================
+
+    /**
+     * Разбирает входящий бинарный кадр клиента.
+     *
+     * @param payload содержимое кадра
+     * @return команда или {@code null}, если кадр пустой, неизвестен или повреждён
+     */
+    public static Command decode(ByteBuffer payload) {
+        ByteBuffer buf = payload.duplicate();
+        try {
+            byte opcode = buf.get();
+            return switch (opcode) {
+                case OP_ATTACK -> {
+                    int ordinal = Byte.toUnsignedInt(buf.get());
+                    Body[] parts = Body.values();
+                    yield ordinal < parts.length ? new Command(opcode, parts[ordinal], null) : null;
+                }
+                case OP_CHAT -> new Command(opcode, null, StandardCharsets.UTF_8.decode(buf).toString());
+                case OP_RESYNC -> new Command(opcode, null, null);
+                default -> null;
+            };
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    // ============================================================
+    // ======================= Исходящие ==========================
+    // ============================================================
+
+    /**
+     * Кодирует полный кадр состояния комнаты.
+     *
+     * @param frame кадр состояния
+     * @return бинарное WebSocket-сообщение
+     */
+    public static BinaryMessage encode(RoomStateMessageDTO frame) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(OP_ROOM_STATE);
+            out.writeLong(frame.version());
+            out.writeByte(frame.units().size());
+            for (UnitStateDTO unit : frame.units()) {
+                out.writeLong(unit.playerId() != null ? unit.playerId() : -1L);
+                writeString(out, unit.player());
+                writeString(out, unit.unitName());
+                writeString(out, unit.imagePath());
+                out.writeLong(unit.hp());
+                out.writeLong(unit.hpMax());
+                writeEfficiency(out, unit.efficiency());
+            }
+            writeRound(out, frame.round());
+            writeDestroyed(out, frame.destroyed());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new BinaryMessage(bytes.toByteArray());
+    }
+
+    /**
+     * Кодирует дельта-кадр состояния комнаты.
+     *
+     * @param frame дельта-кадр
+     * @return бинарное WebSocket-сообщение
+     */
+    public static BinaryMessage encode(RoomDeltaMessageDTO frame) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(OP_ROOM_DELTA);
+            out.writeLong(frame.seq());
+            out.writeByte(frame.units().size());
+            for (UnitDeltaDTO delta : frame.units()) {
+                writeString(out, delta.player());
+                int flags = (delta.hp() != null ? FLAG_HP : 0) | (delta.efficiency() != null ? FLAG_EFFICIENCY : 0);
+                out.writeByte(flags);
+                if (delta.hp() != null) {
+                    out.writeLong(delta.hp());
+                }
+                if (delta.efficiency() != null) {
+                    out.writeByte(delta.efficiency().size());
+                    for (Map.Entry<Body, Double> entry : delta.efficiency().entrySet()) {
+                        out.writeByte(entry.getKey().ordinal());
+                        out.writeFloat(entry.getValue().floatValue());
+                    }
+                }
+            }
+            writeRound(out, frame.round());
+            writeDestroyed(out, frame.destroyed());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new BinaryMessage(bytes.toByteArray());
+    }
+
+    // --- Вспомогательные методы ---
+
+    private static void writeEfficiency(DataOutputStream out, Map<Body, Double> efficiency) throws IOException {
+        if (efficiency == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        for (Body part : Body.values()) {
+            Double value = efficiency.get(part);
+            out.writeFloat(value != null ? value.floatValue() : 0f);
+        }
+    }
+
+    private static void writeRound(DataOutputStream out, DuelRoundResponseDto round) throws IOException {
+        if (round == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        writeString(out, round.attacker());
+        writeString(out, round.defender());
+        String[] turns = round.turnMessages() != null ? round.turnMessages() : new String[0];
+        out.writeShort(turns.length);
+        for (String turn : turns) {
+            writeString(out, turn);
+        }
+        out.writeDouble(round.attackerHp());
+        out.writeDouble(round.defenderHp());
+    }
+
+    private static void writeDestroyed(DataOutputStream out, List<BodyPartDestroyedNotificationDto> destroyed) throws IOException {
+        out.writeByte(destroyed.size());
+        for (BodyPartDestroyedNotificationDto part : destroyed) {
+            writeString(out, part.player());
+            out.writeByte(part.bodyPart().ordinal());
+            writeString(out, part.message());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(NULL_STRING);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(utf8.length, NULL_STRING - 1);
+        out.writeShort(length);
+        out.write(utf8, 0, length);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
+
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.InfoMessageDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кеш заранее сериализованных серверных сообщений дуэли.
+ *
+ * <p>Постоянные сообщения ({@code bothSelected}, ожидание соперника) кодируются
+ * один раз при старте и отправляются как один и тот же неизменяемый {@link TextMessage}.
+ * Сообщения с малым числом вариантов (результат дуэли) хранятся как {@link FrameTemplate}
+ * со слотом под имя игрока, поэтому горячие уведомления не проходят через Jackson.
+ */
+@Component
+public class FrameCache {
+
+    private final TextMessage bothSelected;
+    private final TextMessage waitingForOpponent;
+    private final FrameTemplate win;
+    private final FrameTemplate lose;
+
+    /**
+     * @param formatter сериализатор, которым один раз кодируются все кадры кеша.
+     */
+    @Autowired
+    public FrameCache(MessageFormatter formatter) {
+        this.bothSelected = new TextMessage(formatter.format(Map.of("type", "bothSelected")));
+        this.waitingForOpponent = new TextMessage(formatter.format(
+                new InfoMessageDTO("Move registered. Waiting for opponent...")));
+        this.win = FrameTemplate.compile(formatter.format(duelResult("Вы победили!")));
+        this.lose = FrameTemplate.compile(formatter.format(duelResult("Вы проиграли!")));
+    }
+
+    /**
+     * @return кадр {@code {"type":"bothSelected"}} — оба игрока выбрали цели.
+     */
+    public TextMessage bothSelected() {
+        return bothSelected;
+    }
+
+    /**
+     * @return информационный кадр о том, что ход принят и ожидается соперник.
+     */
+    public TextMessage waitingForOpponent() {
+        return waitingForOpponent;
+    }
+
+    /**
+     * Кадр результата дуэли для конкретного игрока.
+     *
+     * @param playerName имя игрока-получателя
+     * @param won        {@code true} — победа, {@code false} — поражение
+     * @return JSON-строка с типом "duelResult"
+     */
+    public String duelResult(String playerName, boolean won) {
+        return (won ? win : lose).render(playerName);
+    }
+
+    private static Map<String, String> duelResult(String text) {
+        Map<String, String> payload = new LinkedHashMap<>();
+        payload.put("type", "duelResult");
+        payload.put("resultText", text);
+        payload.put("targetPlayer", "{{0}}");
+        return payload;
+    }
+}
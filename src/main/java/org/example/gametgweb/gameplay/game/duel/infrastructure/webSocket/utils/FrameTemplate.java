@@ -0,0 +1,86 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Заранее сериализованное JSON-сообщение со слотами для подстановки значений.
+ *
+ * <p>Шаблон строится один раз из JSON, в строковых значениях которого стоят
+ * маркеры {@code {{0}}}, {@code {{1}}}, ... . При отправке маркеры заменяются
+ * экранированными по правилам JSON значениями — Jackson при этом не вызывается.
+ *
+ * <pre>
+ * FrameTemplate t = FrameTemplate.compile("{\"type\":\"join\",\"playerName\":\"{{0}}\"}");
+ * t.render("Alice"); // {"type":"join","playerName":"Alice"}
+ * </pre>
+ *
+ * <p>Объект неизменяем и потокобезопасен.
+ */
+public final class FrameTemplate {
+
+    private static final Pattern SLOT = Pattern.compile("\\{\\{(\\d+)}}");
+
+    /** Постоянные куски JSON между слотами; их на один больше, чем слотов. */
+    private final String[] parts;
+
+    /** Номер подставляемого значения для каждого слота. */
+    private final int[] slots;
+
+    private final int constantLength;
+
+    private FrameTemplate(String[] parts, int[] slots) {
+        this.parts = parts;
+        this.slots = slots;
+
+        int length = 0;
+        for (String part : parts) length += part.length();
+        this.constantLength = length;
+    }
+
+    /**
+     * Компилирует шаблон из готового JSON с маркерами {@code {{n}}}.
+     *
+     * @param json сериализованное сообщение с маркерами внутри строковых значений
+     * @return шаблон
+     */
+    public static FrameTemplate compile(String json) {
+        List<String> parts = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+
+        Matcher matcher = SLOT.matcher(json);
+        int from = 0;
+        while (matcher.find()) {
+            parts.add(json.substring(from, matcher.start()));
+            slots.add(Integer.parseInt(matcher.group(1)));
+            from = matcher.end();
+        }
+        parts.add(json.substring(from));
+
+        return new FrameTemplate(
+                parts.toArray(String[]::new),
+                slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Подставляет значения в слоты.
+     *
+     * @param values значения по номерам слотов; {@code null} подставляется как пустая строка
+     * @return готовая JSON-строка
+     */
+    public String render(String... values) {
+        StringBuilder json = new StringBuilder(constantLength + 16 * slots.length);
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+
+        for (int i = 0; i < slots.length; i++) {
+            json.append(parts[i]);
+            String value = values[slots[i]];
+            if (value != null) encoder.quoteAsString(value, json);
+        }
+        return json.append(parts[parts.length - 1]).toString();
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.InboundMessageDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Однопроходный декодер входящих JSON-сообщений дуэли.
+ *
+ * <p>Читает сообщение потоковым {@link JsonParser} и сразу собирает
+ * {@link InboundMessageDTO}: без промежуточного {@code JsonNode}-дерева
+ * и без повторного разбора для привязки к DTO. Порядок полей не важен —
+ * {@code type} может идти как до, так и после полезной нагрузки.
+ * Неизвестные поля (в том числе вложенные объекты и массивы) пропускаются.
+ */
+@Component
+public class InboundMessageDecoder {
+
+    private final JsonFactory factory;
+
+    /**
+     * @param mapper ObjectMapper, настроенный Spring; используется только его {@link JsonFactory}.
+     */
+    @Autowired
+    public InboundMessageDecoder(ObjectMapper mapper) {
+        this.factory = mapper.getFactory();
+    }
+
+    /**
+     * Разбирает JSON-сообщение клиента.
+     *
+     * @param payload текст WebSocket-сообщения
+     * @return разобранное сообщение или {@code null}, если это не JSON-объект
+     * @throws IOException при синтаксической ошибке JSON
+     */
+    public InboundMessageDTO decode(String payload) throws IOException {
+        try (JsonParser parser = factory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+
+            String type = null;
+            String body = null;
+            String message = null;
+            long t = 0;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "type" -> type = textOrNull(parser, value);
+                    case "body" -> body = textOrNull(parser, value);
+                    case "message" -> message = textOrNull(parser, value);
+                    case "t" -> {
+                        if (value == JsonToken.VALUE_NUMBER_INT) t = parser.getLongValue();
+                        else parser.skipChildren();
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            return new InboundMessageDTO(type, body, message, t);
+        }
+    }
+
+    private static String textOrNull(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) return null;
+        if (value.isScalarValue()) return parser.getValueAsString();
+
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.ChatMessageDTO;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.InfoMessageDTO;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.JoinLeaveMessageDTO;
@@ -29,11 +30,20 @@ import org.springframework.stereotype.Component;
  * </pre>
  *
  * <p>Все методы возвращают уже сериализованную JSON-строку, готовую к отправке через WebSocket.
+ * Частые сообщения (join/leave/chat/reconnect) собираются из {@link FrameTemplate},
+ * сериализованных один раз при создании форматтера.
  */
 @Component
 public class MessageFormatter {
 
-    private final ObjectMapper mapper;
+    /** Общий заранее построенный {@link ObjectWriter}: потокобезопасен и не пересоздаётся на каждое сообщение. */
+    private final ObjectWriter writer;
+
+    /** Шаблоны частых сообщений: сериализуются один раз, имена подставляются в слоты. */
+    private final FrameTemplate joinTemplate;
+    private final FrameTemplate leaveTemplate;
+    private final FrameTemplate chatTemplate;
+    private final FrameTemplate reconnectTemplate;
 
     /**
      * Создает форматтер сообщений, используя {@link ObjectMapper} настроенный Spring.
@@ -42,7 +52,15 @@ public class MessageFormatter {
      */
     @Autowired
     public MessageFormatter(ObjectMapper mapper) {
-        this.mapper = mapper;
+        this.writer = mapper.writer();
+
+        this.joinTemplate = FrameTemplate.compile(format(new JoinLeaveMessageDTO(
+                "join", "{{0}}", "{{1}}", "{{0}} подключился к комнате {{1}}!")));
+        this.leaveTemplate = FrameTemplate.compile(format(new JoinLeaveMessageDTO(
+                "leave", "{{0}}", "{{1}}", "{{0}} вышел из комнаты {{1}}!")));
+        this.chatTemplate = FrameTemplate.compile(format(new ChatMessageDTO("{{0}}", "{{1}}")));
+        this.reconnectTemplate = FrameTemplate.compile(format(new InfoMessageDTO(
+                "reconnect", "Соединение восстановлено для игрока {{0}}")));
     }
 
     /**
@@ -63,13 +81,7 @@ public class MessageFormatter {
      * </pre>
      */
     public String joinMessage(String playerName, String gameCode) {
-        JoinLeaveMessageDTO dto = new JoinLeaveMessageDTO(
-                "join",
-                playerName,
-                gameCode,
-                playerName + " подключился к комнате " + gameCode + "!"
-        );
-        return format(dto);
+        return joinTemplate.render(playerName, gameCode);
     }
 
     /**
@@ -90,13 +102,7 @@ public class MessageFormatter {
      * </pre>
      */
     public String leaveMessage(String playerName, String gameCode) {
-        JoinLeaveMessageDTO dto = new JoinLeaveMessageDTO(
-                "leave",
-                playerName,
-                gameCode,
-                playerName + " вышел из комнаты " + gameCode + "!"
-        );
-        return format(dto);
+        return leaveTemplate.render(playerName, gameCode);
     }
 
     /**
@@ -116,8 +122,7 @@ public class MessageFormatter {
      * </pre>
      */
     public String chatMessage(String playerName, String message) {
-        ChatMessageDTO dto = new ChatMessageDTO(playerName, message);
-        return format(dto);
+        return chatTemplate.render(playerName, message);
     }
 
     /**
@@ -135,11 +140,7 @@ public class MessageFormatter {
      * </pre>
      */
     public String reconnectMessage(String playerName) {
-        InfoMessageDTO dto = new InfoMessageDTO(
-                "reconnect",
-                "Соединение восстановлено для игрока " + playerName
-        );
-        return format(dto);
+        return reconnectTemplate.render(playerName);
     }
 
     /**
@@ -151,7 +152,7 @@ public class MessageFormatter {
      */
     public String format(Object payload) {
         try {
-            return mapper.writeValueAsString(payload);
+            return writer.writeValueAsString(payload);
         } catch (Exception e) {
             throw new RuntimeException("Ошибка сериализации payload", e);
         }
@@ -1,6 +1,8 @@
 package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.gametgweb.gameplay.game.duel.shared.PlayerDetails;
+import org.springframework.security.core.Authentication;
 
 import java.security.Principal;
 
@@ -49,4 +51,17 @@ public final class PrincipalUtils {
             return null;
         }
     }
+
+    /**
+     * Извлекает идентификатор игрока из аутентификации Spring Security без обращения к БД.
+     *
+     * @param principal объект Principal, содержащий данные аутентификации
+     * @return id игрока или {@code null}, если аутентификация не содержит {@link PlayerDetails}
+     */
+    public static Long resolvePlayerId(Principal principal) {
+        if (principal instanceof Authentication auth && auth.getPrincipal() instanceof PlayerDetails details) {
+            return details.playerEntity().getId();
+        }
+        return null;
+    }
 }
@@ -0,0 +1,131 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RoomLogLimiter — ограничение частоты логов горячих путей дуэли по комнатам.
+ *
+ * <p>Комната может записать не больше {@code game.log.per-room-per-second} сообщений в секунду;
+ * остальные отбрасываются до записи и без форматирования. Число отброшенных сообщений
+ * выводится одной строкой при следующем разрешённом сообщении комнаты, так что шторм ошибок
+ * одной комнаты виден в логе, но не забивает его и не съедает CPU.
+ *
+ * <p>Подробные логи горячих путей (отправка кадров, поиск юнитов, удары) пишутся на DEBUG
+ * через {@link #debug}: при выключенном DEBUG проверка стоит одно сравнение уровня,
+ * при включённом на лету ({@code /admin/logging}) — выборка и те же лимиты на комнату.
+ * Выборка {@code game.log.debug-sample-every=N} пропускает каждое N-е DEBUG-сообщение комнаты,
+ * поэтому при высокой нагрузке в логе остаётся равномерный срез, а не первые сообщения каждой секунды.
+ * Ошибки ({@link #allow}) в выборку не попадают: каждая из них важна, они только ограничены по частоте.
+ * Лимит и выборка меняются там же без перезапуска.
+ */
+@Slf4j
+@Component
+public class RoomLogLimiter {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private volatile int perSecond;
+    private volatile int sampleEvery;
+
+    @Autowired
+    public RoomLogLimiter(@Value("${game.log.per-room-per-second:5}") int perSecond,
+                          @Value("${game.log.debug-sample-every:1}") int sampleEvery) {
+        this.perSecond = perSecond;
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    /**
+     * Можно ли записать ещё одно сообщение комнаты в текущую секунду.
+     *
+     * @param gameCode код комнаты
+     * @return {@code true}, если сообщение нужно записать
+     */
+    public boolean allow(String gameCode) {
+        return allow(gameCode, windows.computeIfAbsent(gameCode, k -> new Window()));
+    }
+
+    private boolean allow(String gameCode, Window window) {
+        long now = System.nanoTime();
+        long start = window.start.get();
+        if (now - start >= WINDOW_NANOS && window.start.compareAndSet(start, now)) {
+            window.count.set(0);
+            int dropped = window.dropped.getAndSet(0);
+            if (dropped > 0) {
+                log.atWarn().addKeyValue("room", gameCode).addKeyValue("dropped", dropped)
+                        .log("Лог комнаты ограничен: пропущено {} сообщений", dropped);
+            }
+        }
+        if (window.count.incrementAndGet() <= perSecond) return true;
+        window.dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Подробный лог горячего пути: включён DEBUG у логгера, сообщение попало в выборку
+     * и комната не превысила лимит.
+     *
+     * @param logger   логгер вызывающего класса
+     * @param gameCode код комнаты
+     * @return {@code true}, если сообщение нужно записать
+     */
+    public boolean debug(Logger logger, String gameCode) {
+        if (!logger.isDebugEnabled()) return false;
+
+        Window window = windows.computeIfAbsent(gameCode, k -> new Window());
+        int every = sampleEvery;
+        if (every > 1 && window.sampled.getAndIncrement() % every != 0) return false;
+        return allow(gameCode, window);
+    }
+
+    public int getPerSecond() {
+        return perSecond;
+    }
+
+    public int getSampleEvery() {
+        return sampleEvery;
+    }
+
+    /**
+     * Меняет выборку DEBUG-сообщений на лету.
+     *
+     * @param sampleEvery записывать каждое N-е сообщение комнаты; {@code 1} — все
+     */
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    /**
+     * Меняет лимит на лету.
+     *
+     * @param perSecond сообщений в секунду на комнату
+     */
+    public void setPerSecond(int perSecond) {
+        this.perSecond = Math.max(0, perSecond);
+    }
+
+    /** Удаляет окна комнат, которые давно ничего не писали */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        windows.values().removeIf(window -> now - window.start.get() > IDLE_NANOS);
+    }
+
+    private static final class Window {
+        private final AtomicLong start = new AtomicLong(System.nanoTime());
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger dropped = new AtomicInteger();
+        private final AtomicLong sampled = new AtomicLong();
+    }
+}
@@ -2,26 +2,58 @@ package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
 
 import lombok.extern.slf4j.Slf4j;
 import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
+import org.example.gametgweb.gameplay.game.duel.application.events.RoomAbandonedEvent;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.BodyPartDestroyedNotificationDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.DuelRoundResponseDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.RoomDeltaMessageDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.RoomStateMessageDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.UnitDeltaDTO;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.UnitStateDTO;
-import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.UnitsStateMessageDTO;
-import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.SessionRegistryService;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.UnitRegistryService;
 import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service.MessageDispatcherService;
+import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Сервис, отвечающий за сбор актуального состояния игровых юнитов
- * и рассылку этого состояния всем активным WebSocket-сессиям,
+ * Сервис, отвечающий за сбор актуального состояния комнаты дуэли
+ * и рассылку его всем активным WebSocket-сессиям,
  * связанным с определенной игровой сессией (gameCode).
  *
+ * <p>На каждое изменение состояния формируется ровно один версионированный кадр
+ * {@link RoomStateMessageDTO}: состояние юнитов, результат раунда и уничтоженные части тела.
+ * Кадр сериализуется один раз и рассылается всем сессиям комнаты.
+ * Если с момента прошлого кадра ничего не изменилось, рассылка не выполняется.
+ *
+ * <p>Клиенты, подключившиеся с {@code units=delta}, после первого полного снимка получают
+ * компактный {@link RoomDeltaMessageDTO} с изменившимися HP и эффективностью частей тела.
+ * Номер {@code seq} дельты совпадает с версией кадра, поэтому разрыв последовательности
+ * клиент обнаруживает сам и запрашивает снимок заново.
+ *
+ * <p>Сессиям, согласовавшим подпротокол {@value DuelBinaryCodec#SUBPROTOCOL},
+ * те же кадры отправляются в бинарном виде через {@link DuelBinaryCodec}.
+ *
+ * <p>Состояние комнаты удаляется после финального кадра дуэли ({@link #finishRoom})
+ * или когда комнату бросили до конца боя ({@link RoomAbandonedEvent}): новая дуэль
+ * с тем же кодом начинается с нулевой версии и без уничтоженных частей тела.
+ *
  * Использует UnitRegistryService для получения данных юнитов,
- * SessionRegistryService для получения списка сессий и
+ * MessageFormatter для сериализации и
  * MessageDispatcherService для фактической отправки сообщений.
  */
 @Component
@@ -29,43 +61,129 @@ import java.util.Set;
 public class UnitStateBroadcaster {
 
     private final UnitRegistryService unitRegistry;
-    private final SessionRegistryService sessionRegistry;
     private final MessageDispatcherService messageDispatcher;
+    private final MessageFormatter formatter;
+
+    /**
+     * Последний разосланный кадр по каждой комнате.
+     * Key — gameCode, Value — состояние, от которого считаются изменения.
+     */
+    private final ConcurrentHashMap<String, RoomFrame> frames = new ConcurrentHashMap<>();
+
+    /**
+     * Атрибут сессии: клиент уже получил полный снимок и может применять дельты.
+     */
+    private static final String SNAPSHOT_ATTRIBUTE = "ROOM_STATE_SNAPSHOT";
 
     /**
      * Конструктор для внедрения зависимостей.
      *
      * @param unitRegistry Сервис для доступа к данным юнитов в игре.
-     * @param sessionRegistry Сервис для управления и получения списка активных WebSocket-сессий.
-     * @param messageDispatcher Сервис для отправки сообщений в конкретные WebSocket-сессии.
+     * @param messageDispatcher Сервис для отправки сообщений в WebSocket-сессии.
+     * @param formatter Сервис сериализации сообщений в JSON.
      */
     @Autowired
     public UnitStateBroadcaster(UnitRegistryService unitRegistry,
-                                SessionRegistryService sessionRegistry,
-                                MessageDispatcherService messageDispatcher) {
+                                MessageDispatcherService messageDispatcher,
+                                MessageFormatter formatter) {
         this.unitRegistry = unitRegistry;
-        this.sessionRegistry = sessionRegistry;
         this.messageDispatcher = messageDispatcher;
+        this.formatter = formatter;
     }
 
     /**
-     * Главный метод для сбора состояния всех юнитов в игре
-     * и его широковещательной рассылки всем участникам.
+     * Главный метод: собирает состояние комнаты и рассылает его всем участникам,
+     * если оно изменилось с прошлого кадра.
      *
-     * Процесс состоит из трех шагов: сбор данных, формирование DTO сообщения, рассылка.
+     * Процесс состоит из трех шагов: сбор данных, формирование кадра, рассылка.
      *
      * @param gameCode Уникальный код текущей игры, для которой собирается состояние.
-     * @param playerOrder Список идентификаторов игроков, определяющий порядок юнитов в сообщении.
+     * @param playerOrder Список игроков, определяющий порядок юнитов в сообщении.
+     * @param round Результат раунда или {@code null}, если кадр вызван не раундом.
+     * @return {@code true}, если кадр был разослан; {@code false}, если изменений не было.
      */
-    public void broadcastUnitsState(String gameCode, List<String> playerOrder) {
-        // 1. Сбор данных
-        List<UnitStateDTO> units = collectUnitStates(gameCode, playerOrder);
+    public boolean broadcastRoomState(String gameCode, List<String> playerOrder, DuelRoundResponseDto round) {
+        RoomFrame frame = frames.computeIfAbsent(gameCode, k -> new RoomFrame());
+
+        synchronized (frame) {
+            // 1. Сбор данных
+            List<UnitStateDTO> units = collectUnitStates(gameCode, playerOrder);
+            List<BodyPartDestroyedNotificationDto> destroyed = collectDestroyedParts(gameCode, playerOrder, frame);
 
-        // 2. Формирование сообщения
-        UnitsStateMessageDTO payload = createUnitsStateMessage(units);
+            if (round == null && destroyed.isEmpty() && units.equals(frame.units)) {
+                log.debug("Состояние комнаты {} не изменилось — кадр не отправлен", gameCode);
+                releaseIfFinished(gameCode, frame);
+                return false;
+            }
 
-        // 3. Рассылка
-        broadcastMessage(gameCode, payload);
+            // 2. Формирование кадра: полный снимок и дельта сериализуются не более одного раза
+            List<UnitDeltaDTO> deltas = diffUnits(frame.units, units);
+            frame.version++;
+            frame.units = units;
+            FramePair message = new FramePair(
+                    new RoomStateMessageDTO(frame.version, units, round, destroyed),
+                    deltas != null ? new RoomDeltaMessageDTO(frame.version, deltas, round, destroyed) : null);
+
+            // 3. Рассылка
+            messageDispatcher.broadcastFrames(gameCode, session -> frameFor(session, message), message::full);
+            releaseIfFinished(gameCode, frame);
+            return true;
+        }
+    }
+
+    /**
+     * Отправляет одной сессии полный снимок текущего состояния комнаты
+     * (без результата раунда), не затрагивая остальных участников.
+     *
+     * <p>Используется при подключении и реконнекте, когда состояние комнаты
+     * для остальных игроков не изменилось.
+     *
+     * @param gameCode Код игры.
+     * @param playerOrder Список игроков в нужном порядке.
+     * @param session Сессия, которой нужен снимок.
+     */
+    public void sendSnapshot(String gameCode, List<String> playerOrder, WebSocketSession session) {
+        RoomFrame frame = frames.computeIfAbsent(gameCode, k -> new RoomFrame());
+
+        synchronized (frame) {
+            List<UnitStateDTO> units = frame.units != null ? frame.units : collectUnitStates(gameCode, playerOrder);
+            RoomStateMessageDTO snapshot = new RoomStateMessageDTO(frame.version, units, null, List.of());
+            messageDispatcher.sendFrame(session, WebSocketUtils.isBinary(session)
+                    ? DuelBinaryCodec.encode(snapshot)
+                    : new TextMessage(formatter.format(snapshot)));
+            session.getAttributes().put(SNAPSHOT_ATTRIBUTE, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Помечает комнату завершённой и освобождает её состояние после финального кадра.
+     *
+     * <p>События окончания дуэли доставляются асинхронно, поэтому финальный кадр
+     * (с погибшим юнитом) может уйти как до, так и после этого вызова:
+     * если он уже разослан — состояние освобождается сразу, иначе — сразу после его рассылки.
+     *
+     * @param gameCode Код игры.
+     */
+    public void finishRoom(String gameCode) {
+        RoomFrame frame = frames.get(gameCode);
+        if (frame == null) return;
+
+        synchronized (frame) {
+            frame.finished = true;
+            if (frame.units != null && frame.units.stream().anyMatch(u -> u.hp() <= 0)) {
+                releaseIfFinished(gameCode, frame);
+            }
+        }
+    }
+
+    /**
+     * Удаляет состояние комнаты, брошенной игроками до конца дуэли.
+     *
+     * @param event событие удаления комнаты
+     */
+    @EventListener
+    public void onRoomAbandoned(RoomAbandonedEvent event) {
+        frames.remove(event.gameCode());
     }
 
 // --- Вспомогательные методы ---
@@ -89,32 +207,165 @@ public class UnitStateBroadcaster {
                     unit.getName(),
                     unit.getHealth(),
                     unit.getMaxHealth(),
-                    unit.getImagePath()
+                    unit.getImagePath(),
+                    collectEfficiency(unit)
             ));
         }
         return units;
     }
 
     /**
-     * 2. Создает DTO сообщения о состоянии юнитов.
-     * @param units Список DTO состояний юнитов.
-     * @return Объект сообщения.
+     * 2. Находит части тела, уничтоженные с момента прошлого кадра,
+     * и запоминает их, чтобы не сообщать о них повторно.
+     * @param gameCode Код игры.
+     * @param playerOrder Список игроков в нужном порядке.
+     * @param frame Последний кадр комнаты.
+     * @return Список уведомлений о новых уничтоженных частях тела.
      */
-    private UnitsStateMessageDTO createUnitsStateMessage(List<UnitStateDTO> units) {
-        return new UnitsStateMessageDTO(units);
+    private List<BodyPartDestroyedNotificationDto> collectDestroyedParts(String gameCode, List<String> playerOrder, RoomFrame frame) {
+        List<BodyPartDestroyedNotificationDto> destroyed = new ArrayList<>();
+
+        for (String player : playerOrder) {
+            PlayerUnit unit = unitRegistry.getUnit(gameCode, player);
+            if (unit == null || unit.getBodyEfficiency() == null) continue;
+
+            Set<Body> known = frame.destroyedParts.computeIfAbsent(player, k -> EnumSet.noneOf(Body.class));
+            for (Body part : Body.values()) {
+                if (unit.getBodyEfficiency().getCurrentEfficiency(part) == 0.0 && known.add(part)) {
+                    destroyed.add(BodyPartDestroyedNotificationDto.destroyed(player, part));
+                }
+            }
+        }
+        return destroyed;
     }
 
     /**
-     * 3. Отправляет сообщение о состоянии юнитов всем активным сессиям в игре.
-     * @param gameCode Код игры.
-     * @param payload Объект сообщения для отправки.
+     * Снимает текущие эффективности частей тела юнита.
+     * @param unit Юнит игрока.
+     * @return Эффективность по каждой части тела или {@code null}, если она не задана.
+     */
+    private Map<Body, Double> collectEfficiency(PlayerUnit unit) {
+        if (unit.getBodyEfficiency() == null) return null;
+
+        Map<Body, Double> efficiency = new EnumMap<>(Body.class);
+        for (Body part : Body.values()) {
+            efficiency.put(part, unit.getBodyEfficiency().getCurrentEfficiency(part));
+        }
+        return efficiency;
+    }
+
+    /**
+     * Считает изменения юнитов относительно прошлого кадра.
+     * @param previous Юниты прошлого кадра.
+     * @param current Юниты текущего кадра.
+     * @return Список дельт или {@code null}, если изменился состав юнитов
+     * или их статические поля — тогда дельтой состояние не выразить.
+     */
+    private List<UnitDeltaDTO> diffUnits(List<UnitStateDTO> previous, List<UnitStateDTO> current) {
+        if (previous == null || previous.size() != current.size()) return null;
+
+        List<UnitDeltaDTO> deltas = new ArrayList<>();
+        for (int i = 0; i < current.size(); i++) {
+            UnitStateDTO was = previous.get(i);
+            UnitStateDTO now = current.get(i);
+
+            if (!Objects.equals(was.playerId(), now.playerId())
+                    || !Objects.equals(was.player(), now.player())
+                    || !Objects.equals(was.unitName(), now.unitName())
+                    || !Objects.equals(was.imagePath(), now.imagePath())
+                    || was.hpMax() != now.hpMax()
+                    || (was.efficiency() == null) != (now.efficiency() == null)) {
+                return null;
+            }
+
+            Long hp = was.hp() != now.hp() ? now.hp() : null;
+            Map<Body, Double> efficiency = null;
+            if (now.efficiency() != null) {
+                for (Map.Entry<Body, Double> entry : now.efficiency().entrySet()) {
+                    if (!entry.getValue().equals(was.efficiency().get(entry.getKey()))) {
+                        if (efficiency == null) efficiency = new EnumMap<>(Body.class);
+                        efficiency.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
+            if (hp != null || efficiency != null) {
+                deltas.add(new UnitDeltaDTO(now.player(), hp, efficiency));
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Выбирает кадр для конкретной сессии: дельту — клиентам в дельта-режиме,
+     * у которых уже есть полный снимок, иначе полный кадр.
+     * Формат (JSON или бинарный) определяется согласованным подпротоколом.
+     */
+    private WebSocketMessage<?> frameFor(WebSocketSession session, FramePair frame) {
+        boolean binary = WebSocketUtils.isBinary(session);
+        if (frame.deltaDto != null
+                && WebSocketUtils.isDeltaMode(session)
+                && session.getAttributes().containsKey(SNAPSHOT_ATTRIBUTE)) {
+            return binary ? frame.binaryDelta() : frame.delta();
+        }
+        session.getAttributes().put(SNAPSHOT_ATTRIBUTE, Boolean.TRUE);
+        return binary ? frame.binaryFull() : frame.full();
+    }
+
+    /**
+     * Удаляет кадр завершённой комнаты. Вызывается под монитором кадра.
+     */
+    private void releaseIfFinished(String gameCode, RoomFrame frame) {
+        if (frame.finished) {
+            frames.remove(gameCode, frame);
+        }
+    }
+
+    /**
+     * Полный и дельта-представление одного кадра в JSON и бинарном виде.
+     * Каждое сериализуется лениво и только один раз — при первой сессии, которой оно нужно.
      */
-    private void broadcastMessage(String gameCode, Object payload) {
-        Set<WebSocketSession> sessions = sessionRegistry.getSessions(gameCode);
+    private final class FramePair {
+        private final RoomStateMessageDTO fullDto;
+        private final RoomDeltaMessageDTO deltaDto;
+        private TextMessage fullMessage;
+        private TextMessage deltaMessage;
+        private BinaryMessage binaryFullMessage;
+        private BinaryMessage binaryDeltaMessage;
+
+        private FramePair(RoomStateMessageDTO fullDto, RoomDeltaMessageDTO delta) {
+            this.fullDto = fullDto;
+            this.deltaDto = delta;
+        }
+
+        private TextMessage full() {
+            if (fullMessage == null) fullMessage = new TextMessage(formatter.format(fullDto));
+            return fullMessage;
+        }
+
+        private TextMessage delta() {
+            if (deltaMessage == null) deltaMessage = new TextMessage(formatter.format(deltaDto));
+            return deltaMessage;
+        }
 
-        for (WebSocketSession session : sessions) {
-            messageDispatcher.send(session, payload);
+        private BinaryMessage binaryFull() {
+            if (binaryFullMessage == null) binaryFullMessage = DuelBinaryCodec.encode(fullDto);
+            return binaryFullMessage;
+        }
+
+        private BinaryMessage binaryDelta() {
+            if (binaryDeltaMessage == null) binaryDeltaMessage = DuelBinaryCodec.encode(deltaDto);
+            return binaryDeltaMessage;
         }
     }
 
+    /**
+     * Последний разосланный кадр комнаты. Доступ — только под монитором самого объекта.
+     */
+    private static final class RoomFrame {
+        private long version;
+        private boolean finished;
+        private List<UnitStateDTO> units;
+        private final Map<String, Set<Body>> destroyedParts = new HashMap<>();
+    }
 }
@@ -2,50 +2,71 @@ package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
 
 import org.springframework.web.socket.WebSocketSession;
 
+import java.net.URI;
+import java.security.Principal;
+import java.util.Map;
+
 /**
- * Контекст WebSocket-сессии, содержащий ключевые данные:
+ * Контекст WebSocket-сессии дуэли, содержащий ключевые данные:
  * <ul>
  *     <li>gameCode — уникальный код игровой комнаты;</li>
- *     <li>playerName — имя игрока (если известно).</li>
+ *     <li>playerName — имя игрока;</li>
+ *     <li>playerId — идентификатор игрока из аутентификации (если доступен);</li>
+ *     <li>deltaUnits — клиент запросил дельта-режим состояния юнитов ({@code units=delta}).</li>
  * </ul>
  * <p>
- * Используется для централизованного доступа к атрибутам сессии
- * и предотвращения дублирования кода в обработчиках WebSocket.
+ * Контекст собирается один раз при handshake ({@link #resolve}) и хранится в атрибуте
+ * сессии {@link #ATTRIBUTE}; обработка кадров получает его без разбора URI и Principal.
  */
-public record WebSocketContext(String gameCode, String playerName) {
+public record WebSocketContext(String gameCode, String playerName, Long playerId, boolean deltaUnits) {
+
+    /** Атрибут сессии с контекстом. */
+    public static final String ATTRIBUTE = "DUEL_CONTEXT";
 
     /**
-     * Создает {@link WebSocketContext} из WebSocket-сессии.
+     * Собирает контекст из запроса на подключение.
      * <p>
-     * Извлекает код комнаты из query-параметров URL
-     * и имя игрока через {@link PrincipalUtils}.
-     * <p>
-     * Сохраняет значения в атрибутах сессии:
-     * <ul>
-     *     <li>"GAME_CODE" — код комнаты;</li>
-     *     <li>"PLAYER_NAME" — имя игрока (если доступно).</li>
-     * </ul>
+     * Извлекает код комнаты и режим состояния из query-параметров URL,
+     * имя и идентификатор игрока — через {@link PrincipalUtils}.
      *
-     * @param session WebSocket-сессия
-     * @return объект {@link WebSocketContext}, либо {@code null}, если gameCode отсутствует
+     * @param uri       URI запроса на подключение
+     * @param principal аутентифицированный пользователь
+     * @return контекст или {@code null}, если нет gameCode или игрок не аутентифицирован
      */
-    public static WebSocketContext from(WebSocketSession session) {
-        if (session == null || session.getUri() == null) return null;
+    public static WebSocketContext resolve(URI uri, Principal principal) {
+        if (uri == null) return null;
 
-        // Извлекаем query-параметр gameCode
-        String query = session.getUri().getQuery();
-        String gameCode = WebSocketUtils.extractQueryParam(query, "gameCode");
+        Map<String, String> params = WebSocketUtils.parseQueryParams(uri.getRawQuery());
+        String gameCode = params.get("gameCode");
         if (gameCode == null || gameCode.isBlank()) return null;
 
-        // Получаем имя игрока через PrincipalUtils
-        String playerName = PrincipalUtils.resolvePlayerName(session.getPrincipal());
+        String playerName = PrincipalUtils.resolvePlayerName(principal);
+        if (playerName == null) return null;
+
+        return new WebSocketContext(gameCode, playerName, PrincipalUtils.resolvePlayerId(principal),
+                "delta".equals(params.get("units")));
+    }
 
-        // Сохраняем данные в атрибутах сессии
-        session.getAttributes().put("GAME_CODE", gameCode);
-        if (playerName != null) {
-            session.getAttributes().put("PLAYER_NAME", playerName);
-        }
+    /**
+     * Сохраняет контекст в атрибутах сессии. Дублирует код комнаты и имя игрока
+     * в атрибуты "GAME_CODE" и "PLAYER_NAME", по которым сессии ищет реестр комнат.
+     *
+     * @param attributes атрибуты будущей сессии
+     */
+    public void store(Map<String, Object> attributes) {
+        attributes.put(ATTRIBUTE, this);
+        attributes.put("GAME_CODE", gameCode);
+        attributes.put("PLAYER_NAME", playerName);
+    }
 
-        return new WebSocketContext(gameCode, playerName);
+    /**
+     * Возвращает контекст, сохранённый в сессии при handshake.
+     *
+     * @param session WebSocket-сессия
+     * @return объект {@link WebSocketContext}, либо {@code null}, если контекста нет
+     */
+    public static WebSocketContext from(WebSocketSession session) {
+        if (session == null) return null;
+        return session.getAttributes().get(ATTRIBUTE) instanceof WebSocketContext ctx ? ctx : null;
     }
 }
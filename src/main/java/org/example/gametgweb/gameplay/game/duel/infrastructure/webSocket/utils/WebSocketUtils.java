@@ -1,5 +1,7 @@
 package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
 
+import org.springframework.web.socket.WebSocketSession;
+
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
@@ -39,4 +41,34 @@ public final class WebSocketUtils {
     public static String extractQueryParam(String query, String key) {
         return parseQueryParams(query).get(key);
     }
+
+    /**
+     * Проверяет, запросил ли клиент дельта-режим состояния юнитов
+     * (query-параметр {@code units=delta} при подключении).
+     *
+     * <p>Режим берётся из {@link WebSocketContext}, собранного при handshake;
+     * для сессий без контекста результат кешируется в атрибуте сессии "UNITS_DELTA",
+     * чтобы не разбирать URI при каждой рассылке.
+     *
+     * @param session WebSocket-сессия
+     * @return {@code true}, если клиент умеет применять дельты
+     */
+    public static boolean isDeltaMode(WebSocketSession session) {
+        WebSocketContext ctx = WebSocketContext.from(session);
+        if (ctx != null) return ctx.deltaUnits();
+
+        return (Boolean) session.getAttributes().computeIfAbsent("UNITS_DELTA", k ->
+                session.getUri() != null
+                        && "delta".equals(extractQueryParam(session.getUri().getQuery(), "units")));
+    }
+
+    /**
+     * Проверяет, согласован ли для сессии бинарный подпротокол дуэли.
+     *
+     * @param session WebSocket-сессия
+     * @return {@code true}, если клиент выбрал {@value DuelBinaryCodec#SUBPROTOCOL}
+     */
+    public static boolean isBinary(WebSocketSession session) {
+        return DuelBinaryCodec.SUBPROTOCOL.equals(session.getAcceptedProtocol());
+    }
 }
@@ -8,10 +8,23 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.List;
 
-public record PlayerDetails(PlayerEntity playerEntity) implements UserDetails {
+/**
+ * Данные игрока для Spring Security.
+ *
+ * @param playerEntity игрок
+ * @param admin        входит ли игрок в {@code game.admin.usernames} (роль {@code ROLE_ADMIN})
+ */
+public record PlayerDetails(PlayerEntity playerEntity, boolean admin) implements UserDetails {
+
+    public PlayerDetails(PlayerEntity playerEntity) {
+        this(playerEntity, false);
+    }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
+        if (admin) {
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
         return List.of(new SimpleGrantedAuthority("ROLE_USER"));
     }
 
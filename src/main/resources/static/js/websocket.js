@@ -8,15 +8,34 @@
     const wsProtocol = location.protocol === 'https:' ? 'wss' : 'ws';
     let ws = null;
     let wsConnected = false;
+    let wsEverOpened = false;    // false до первого onopen: отказ в handshake, а не обрыв
+    let roomStateVersion = 0;
+    let roomUnits = [];          // последний полный снимок юнитов, к которому применяются дельты
+    let resyncPending = false;
 
     try {
         ws = new WebSocket(
-            `${wsProtocol}://${location.host}/ws/duel?gameCode=${encodeURIComponent(gameCode)}&player=${encodeURIComponent(playerName)}`
+            `${wsProtocol}://${location.host}/ws/duel?gameCode=${encodeURIComponent(gameCode)}&player=${encodeURIComponent(playerName)}&units=delta`
         );
     } catch (e) {
         log("❌ Ошибка: WebSocket не может быть создан.");
     }
 
+    // Комната могла принадлежать другому узлу: узнаём владельца и переходим на его страницу дуэли
+    function redirectToRoomOwner() {
+        fetch(`/duel/route?gameCode=${encodeURIComponent(gameCode)}`)
+            .then(res => res.ok ? res.text() : null)
+            .then(link => {
+                if (!link) return;
+                const target = new URL(link, location.href);
+                if (target.host !== location.host) {
+                    log("↪️ Комната обслуживается другим сервером, переподключение...");
+                    location.href = target.href;
+                }
+            })
+            .catch(() => {});
+    }
+
     // ====== КНОПКА АТАКИ ======
     const attackBtn = document.getElementById('attackBtn');
 
@@ -24,13 +43,17 @@
     if (ws) {
         ws.onopen = () => {
             wsConnected = true;
+            wsEverOpened = true;
             log(`✅ Подключено к комнате "${gameCode}" как ${playerName}`);
             ws.send(JSON.stringify({ type: 'join', playerName }));
         };
 
-        ws.onclose = () => {
+        ws.onclose = (event) => {
             wsConnected = false;
             log("🔒 Соединение закрыто");
+            // 1008: бой открыт в другой вкладке или превышен лимит подключений
+            if (event.code === 1008) log(`⛔ ${event.reason || 'Подключение отклонено сервером'}`);
+            if (!wsEverOpened) redirectToRoomOwner();
         };
 
         ws.onerror = () => {
@@ -39,10 +62,25 @@
         };
 
         ws.onmessage = (event) => {
-            console.log("🛰️ RAW MESSAGE:", event.data); // <- прямо в начале
-
             const msg = JSON.parse(event.data);
 
+            // ping сервера для замера задержки: сразу возвращаем отметку, до остальной обработки
+            if (msg.type === 'ping') {
+                ws.send(JSON.stringify({ type: 'pong', t: msg.t }));
+                return;
+            }
+
+            console.log("🛰️ RAW MESSAGE:", event.data);
+
+            // пачка сообщений чата и уведомлений, собранная сервером за окно коалесцирования
+            if (msg.type === 'batch') {
+                msg.messages.forEach(handleMessage);
+                return;
+            }
+            handleMessage(msg);
+        };
+
+        function handleMessage(msg) {
             if (msg.type === 'join') {
                 log(`👤 ${msg.message}`);
                 return;
@@ -58,6 +96,12 @@
                 log(`ℹ️ ${msg.message}`);
                 return;
             }
+            // Комната перенесена на другой узел — переподключаемся туда
+            if (msg.type === 'migrate') {
+                log("🔀 Комната переезжает на другой сервер, переподключение...");
+                location.href = msg.url;
+                return;
+            }
             if (msg.type === 'error') {
                 log(`❌ ${msg.message}`);
                 attackBtn.disabled = false;
@@ -76,19 +120,53 @@
                 showDuelResult(msg.resultText);
                 return;
             }
-            // НОВЫЙ ОБРАБОТЧИК
-            if (msg.type === 'BODY_PART_DESTROYED') {
-                console.log("💀 BODY PART DESTROYED:", msg);
-                handleBodyPartDestroyed(msg);
+            // Единый кадр состояния комнаты: юниты, результат раунда, уничтоженные части тела
+            if (msg.type === 'ROOM_STATE') {
+                if (msg.version < roomStateVersion) return; // устаревший кадр
+                roomStateVersion = msg.version;
+
+                if (msg.round) showRoundResult(msg.round);
+                if (Array.isArray(msg.destroyed)) msg.destroyed.forEach(handleBodyPartDestroyed);
+                if (Array.isArray(msg.units)) {
+                    roomUnits = msg.units;
+                    renderUnits(roomUnits);
+                }
+                resyncPending = false;
                 return;
             }
+            // Дельта к последнему снимку: только изменившиеся HP и эффективность частей тела
+            if (msg.type === 'ROOM_DELTA') {
+                if (msg.seq <= roomStateVersion) return; // устаревший кадр
+
+                if (msg.round) showRoundResult(msg.round);
+                if (Array.isArray(msg.destroyed)) msg.destroyed.forEach(handleBodyPartDestroyed);
 
-            if (msg.type === 'UNITS_STATE') {
-                if (!Array.isArray(msg.units)) return;
+                if (msg.seq !== roomStateVersion + 1) {
+                    requestResync(); // пропущен кадр — дельту применить нельзя
+                    return;
+                }
+                roomStateVersion = msg.seq;
 
+                msg.units.forEach(d => {
+                    const unit = roomUnits.find(u => u.player === d.player);
+                    if (!unit) return;
+                    if (d.hp != null) unit.hp = d.hp;
+                    if (d.efficiency) unit.efficiency = Object.assign(unit.efficiency || {}, d.efficiency);
+                });
+                renderUnits(roomUnits);
+                return;
+            }
+
+            function requestResync() {
+                if (resyncPending) return;
+                resyncPending = true;
+                ws.send(JSON.stringify({ type: 'resync' }));
+            }
+
+            function renderUnits(units) {
                 const slots = [null, null]; // Слот 1 и Слот 2
 
-                msg.units.forEach(u => {
+                units.forEach(u => {
                     // Сначала проверяем, не занят ли юнит уже слотом
                     if (slots[0] && slots[0].playerId === u.playerId) {
                         slots[0] = u; // обновляем
@@ -114,6 +192,16 @@
                     }
                 });
             }
+
+            function showRoundResult(round) {
+                chatMsg("💥 Результат раунда:");
+                round.turnMessages.forEach(m => chatMsg(`→ ${m}`));
+                chatMsg(`❤️ HP Плеер 1: ${round.attackerHp}, Плеер 2: ${round.defenderHp}`);
+
+                attackBtn.disabled = false;
+                resetSelectedBody();
+            }
+
             function setUnitToSlot(slot, unit) {
                 const img = document.getElementById(`player${slot}Img`);
                 const name = document.getElementById(`player${slot}Name`);
@@ -145,31 +233,16 @@
 
             // --- ЧАТ (как в старом скрипте) ---
             if (msg.type === 'chat') {
-                let inner = null;
-                try { inner = JSON.parse(msg.message); } catch {}
-
-                if (inner && inner.turnMessages) {
-                    // 👉 это не настоящий чат, а боевой лог раунда
-                    chatMsg("💥 Результат раунда:");
-                    inner.turnMessages.forEach(m => chatMsg(`→ ${m}`));
-                    chatMsg(`❤️ HP Плеер 1: ${inner.attackerHp}, Плеер 2: ${inner.defenderHp}`);
-
-                    attackBtn.disabled = false;
-                    resetSelectedBody();
-
-                } else {
-                    // 👉 обычное сообщение игрока
-                    const sender = msg.playerName ?? msg.sender;
-                    const text = msg.message ?? msg.text;
+                const sender = msg.playerName ?? msg.sender;
+                const text = msg.message ?? msg.text;
 
-                    chatMsg(`${sender}: ${text}`);
+                chatMsg(`${sender}: ${text}`);
 
-                    // 💬 показываем пузырь над моделькой
-                    showBubble(sender, text);
-                }
+                // 💬 показываем пузырь над моделькой
+                showBubble(sender, text);
             }
 
-        };
+        }
     }
 
     // ====== ФУНКЦИИ ДЛЯ ВНЕШНЕГО ИСПОЛЬЗОВАНИЯ ======
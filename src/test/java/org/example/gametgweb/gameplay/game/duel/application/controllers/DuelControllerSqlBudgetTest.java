@@ -0,0 +1,121 @@
+package org.example.gametgweb.gameplay.game.duel.application.controllers;
+
+import org.example.gametgweb.gameplay.game.duel.api.dto.GameSessionDto;
+import org.example.gametgweb.gameplay.game.duel.api.dto.SqlScopeStatsDto;
+import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelManager;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql.ProfilingDataSource;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql.SqlBudgetExceededException;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql.SqlProfilingFilter;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.sql.SqlStatementProfiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджет SQL-запросов лобби ({@code GET /GetAllDuels}) с {@code game.sql.budget-fail=true}:
+ * запросы идут через {@link ProfilingDataSource} и считаются {@link SqlProfilingFilter},
+ * как в приложении; пул соединений заменён заглушкой.
+ */
+@ExtendWith(MockitoExtension.class)
+class DuelControllerSqlBudgetTest {
+
+    private static final String SCOPE = "GET /GetAllDuels";
+
+    @Mock
+    private DuelManager duelManager;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private DataSource pool;
+
+    private DataSource dataSource;
+    private SqlStatementProfiler profiler;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ProfilingDataSource(pool);
+        profiler = new SqlStatementProfiler(List.of(SCOPE + "=1"), true);
+        mvc = MockMvcBuilders.standaloneSetup(new DuelController(duelManager))
+                .addFilters(new SqlProfilingFilter(profiler))
+                .build();
+    }
+
+    @Test
+    void lobbyFitsItsBudget() throws Exception {
+        when(duelManager.getAllDuels()).thenAnswer(invocation -> {
+            query(1);
+            return List.of(new GameSessionDto("ROOM1", 2));
+        });
+
+        mvc.perform(get("/GetAllDuels"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].gameCode").value("ROOM1"));
+
+        SqlScopeStatsDto stats = profiler.report().getFirst();
+        assertEquals(SCOPE, stats.scope());
+        assertEquals(1, stats.statements());
+        assertEquals(0, stats.overBudget());
+    }
+
+    @Test
+    void extraQueryFailsTheRequest() {
+        when(duelManager.getAllDuels()).thenAnswer(invocation -> {
+            query(2);
+            return List.of();
+        });
+
+        assertThrows(SqlBudgetExceededException.class, () -> mvc.perform(get("/GetAllDuels")));
+        assertEquals(1, profiler.report().getFirst().overBudget());
+    }
+
+    @Test
+    void breachDoesNotMaskHandlerFailure() {
+        when(duelManager.getAllDuels()).thenAnswer(invocation -> {
+            query(2);
+            throw new IllegalStateException("lobby unavailable");
+        });
+
+        Exception failure = assertThrows(Exception.class, () -> mvc.perform(get("/GetAllDuels")));
+
+        assertFalse(failure instanceof SqlBudgetExceededException);
+        assertTrue(causedBy(failure, "lobby unavailable"));
+        assertTrue(Arrays.stream(failure.getSuppressed()).anyMatch(SqlBudgetExceededException.class::isInstance));
+    }
+
+    private void query(int statements) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (int i = 0; i < statements; i++) {
+                statement.executeQuery("select 1");
+            }
+        }
+    }
+
+    private static boolean causedBy(Throwable failure, String message) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof IllegalStateException && message.equals(t.getMessage())) return true;
+        }
+        return false;
+    }
+}
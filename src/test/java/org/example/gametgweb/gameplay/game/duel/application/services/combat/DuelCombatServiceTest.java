@@ -0,0 +1,89 @@
+package org.example.gametgweb.gameplay.game.duel.application.services.combat;
+
+import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelDeathDetector;
+import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelTurn;
+import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelTurnManager;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.cluster.RoomOwnership;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service.MessageDispatcherService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.UnitRegistryService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.FrameCache;
+import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DuelCombatServiceTest {
+
+    private static final String ROOM = "ROOM1";
+
+    @Mock
+    private DuelTurnManager turnManager;
+    @Mock
+    private CombatService combatService;
+    @Mock
+    private MessageDispatcherService messageDispatcher;
+    @Mock
+    private UnitRegistryService unitRegistryService;
+    @Mock
+    private FrameCache frameCache;
+    @Mock
+    private DuelDeathDetector duelDeathDetector;
+    @Mock
+    private RoomOwnership ownership;
+
+    private DuelCombatService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DuelCombatService(turnManager, combatService, messageDispatcher,
+                unitRegistryService, frameCache, duelDeathDetector, ownership);
+    }
+
+    @Test
+    void firstMoveWaitsForOpponent() throws Exception {
+        DuelTurn turn = new DuelTurn();
+        turn.addMove("alice", Body.HEAD);
+        when(turnManager.addMove(ROOM, "alice", Body.HEAD)).thenReturn(turn);
+
+        AttackResult result = service.processAttack(ROOM, "alice", Body.HEAD);
+
+        assertEquals(AttackResult.Status.WAITING, result.status());
+        assertNull(result.round());
+        assertFalse(result.rejected());
+    }
+
+    @Test
+    void moveDuringMigrationIsRejectedAndNotRegistered() throws Exception {
+        when(ownership.isMigrating(ROOM)).thenReturn(true);
+
+        AttackResult result = service.processAttack(ROOM, "alice", Body.HEAD);
+
+        assertEquals(AttackResult.Status.MIGRATING, result.status());
+        assertTrue(result.rejected());
+        verify(turnManager, never()).addMove(anyString(), anyString(), any());
+    }
+
+    @Test
+    void moveAfterRoomMovedAwayIsRejectedAndNotRegistered() throws Exception {
+        when(ownership.isMovedAway(ROOM)).thenReturn(true);
+
+        AttackResult result = service.processAttack(ROOM, "alice", Body.HEAD);
+
+        assertEquals(AttackResult.Status.MOVED_AWAY, result.status());
+        assertTrue(result.rejected());
+        verify(turnManager, never()).addMove(anyString(), anyString(), any());
+    }
+}
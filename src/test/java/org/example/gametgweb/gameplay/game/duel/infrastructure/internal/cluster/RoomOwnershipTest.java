@@ -0,0 +1,160 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.cluster;
+
+import org.example.gametgweb.gameplay.game.duel.application.events.RoomAbandonedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomOwnershipTest {
+
+    private static final String A = "https://duel-a.example.org";
+    private static final String B = "https://duel-b.example.org";
+    private static final String C = "https://duel-c.example.org";
+    private static final List<String> NODES = List.of(A, B, C);
+
+    @Test
+    void withoutClusterEveryRoomIsLocal() {
+        RoomOwnership ownership = ownership(A, List.of());
+
+        assertTrue(ownership.isLocal("ROOM1"));
+        assertEquals(A, ownership.ownerOf("ROOM1"));
+        assertNull(ownership.ownerExcluding("ROOM1", null));
+    }
+
+    @Test
+    void nodeOutsideTheListServesEverythingLocally() {
+        RoomOwnership ownership = ownership("https://stray.example.org", NODES);
+
+        assertTrue(ownership.isLocal("ROOM1"));
+        assertFalse(ownership.isMember(A));
+    }
+
+    @Test
+    void allNodesAgreeOnTheOwner() {
+        RoomOwnership a = ownership(A, NODES);
+        RoomOwnership b = ownership(B, List.of(C, A, B));
+
+        for (int i = 0; i < 1000; i++) {
+            String gameCode = "ROOM" + i;
+            assertEquals(a.ownerOf(gameCode), b.ownerOf(gameCode));
+        }
+    }
+
+    @Test
+    void roomsAreSpreadAcrossNodes() {
+        RoomOwnership ownership = ownership(A, NODES);
+        Map<String, Integer> rooms = new HashMap<>();
+
+        for (int i = 0; i < 3000; i++) {
+            rooms.merge(ownership.ownerOf("ROOM" + i), 1, Integer::sum);
+        }
+
+        for (String node : NODES) {
+            int count = rooms.getOrDefault(node, 0);
+            assertTrue(count > 800 && count < 1200, node + " владеет " + count + " комнатами из 3000");
+        }
+    }
+
+    @Test
+    void removingANodeMovesOnlyItsRooms() {
+        RoomOwnership full = ownership(A, NODES);
+        RoomOwnership withoutC = ownership(A, List.of(A, B));
+
+        for (int i = 0; i < 1000; i++) {
+            String gameCode = "ROOM" + i;
+            String owner = full.ownerOf(gameCode);
+            if (!owner.equals(C)) {
+                assertEquals(owner, withoutC.ownerOf(gameCode));
+            }
+            // вывод узла переносит комнату туда, где её будет искать хеш без этого узла
+            assertEquals(withoutC.ownerOf(gameCode), full.ownerExcluding(gameCode, C));
+        }
+    }
+
+    @Test
+    void movedAndAdoptedRoomsOverrideTheHash() {
+        RoomOwnership ownership = ownership(A, NODES);
+        String local = roomOwnedBy(ownership, A);
+        String remote = roomOwnedBy(ownership, B);
+
+        ownership.moveTo(local, C);
+        assertEquals(C, ownership.ownerOf(local));
+        assertFalse(ownership.isLocal(local));
+        assertTrue(ownership.isMovedAway(local));
+
+        ownership.adopt(remote);
+        assertTrue(ownership.isLocal(remote));
+
+        ownership.adopt(local);
+        assertTrue(ownership.isLocal(local));
+        assertFalse(ownership.isMovedAway(local));
+    }
+
+    @Test
+    void roomCannotBeMovedOutsideTheCluster() {
+        RoomOwnership ownership = ownership(A, NODES);
+
+        assertThrows(IllegalArgumentException.class, () -> ownership.moveTo("ROOM1", "https://evil.example.com"));
+        assertFalse(ownership.isMovedAway("ROOM1"));
+    }
+
+    @Test
+    void migrationMarkIsExclusive() {
+        RoomOwnership ownership = ownership(A, NODES);
+
+        assertTrue(ownership.beginMigration("ROOM1"));
+        assertFalse(ownership.beginMigration("ROOM1"));
+        assertTrue(ownership.isMigrating("ROOM1"));
+
+        ownership.endMigration("ROOM1");
+        assertFalse(ownership.isMigrating("ROOM1"));
+    }
+
+    @Test
+    void finishedOrAbandonedRoomIsForgotten() {
+        RoomOwnership ownership = ownership(A, NODES);
+        String remote = roomOwnedBy(ownership, B);
+        String local = roomOwnedBy(ownership, A);
+
+        ownership.adopt(remote);
+        ownership.onRoomAbandoned(new RoomAbandonedEvent(remote));
+        assertEquals(B, ownership.ownerOf(remote));
+
+        ownership.moveTo(local, C);
+        ownership.forget(local);
+        assertFalse(ownership.isMovedAway(local));
+        assertTrue(ownership.isLocal(local));
+    }
+
+    @Test
+    void movedRoomsExpireAfterRetention() {
+        RoomOwnership keeping = ownership(A, NODES);
+        RoomOwnership expiring = new RoomOwnership(new NodeIdentity(A), NODES, 0);
+
+        keeping.moveTo("ROOM1", C);
+        expiring.moveTo("ROOM1", C);
+        keeping.evictMoved();
+        expiring.evictMoved();
+
+        assertTrue(keeping.isMovedAway("ROOM1"));
+        assertFalse(expiring.isMovedAway("ROOM1"));
+    }
+
+    private static RoomOwnership ownership(String self, List<String> nodes) {
+        return new RoomOwnership(new NodeIdentity(self), nodes, 3_600_000);
+    }
+
+    private static String roomOwnedBy(RoomOwnership ownership, String node) {
+        for (int i = 0; ; i++) {
+            if (ownership.ownerOf("ROOM" + i).equals(node)) return "ROOM" + i;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.eventlog;
+
+import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class DuelEventLogTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("duel-log");
+    }
+
+    @Test
+    void recordsAreReadBackInOrder() throws Exception {
+        DuelEventLog eventLog = newLog();
+        eventLog.append(start("ABC"));
+        eventLog.append(round("ABC"));
+        eventLog.append(new DuelLogRecord.End("ABC", 3L));
+        eventLog.close();
+
+        List<DuelLogRecord> records = scan();
+
+        assertEquals(3, records.size());
+        DuelLogRecord.Start start = assertInstanceOf(DuelLogRecord.Start.class, records.get(0));
+        assertEquals(42L, start.seed());
+        assertEquals("Knight", start.units().getFirst().name());
+        assertArrayEquals(new double[]{1, 0.5, 1, 1, 1, 1}, start.units().getFirst().efficiency());
+        assertEquals(round("ABC"), records.get(1));
+        assertEquals(new DuelLogRecord.End("ABC", 3L), records.get(2));
+    }
+
+    @Test
+    void restartContinuesLastSegment() throws Exception {
+        DuelEventLog first = newLog();
+        first.append(round("ABC"));
+        first.close();
+
+        DuelEventLog second = newLog();
+        second.append(new DuelLogRecord.End("ABC", 3L));
+        second.close();
+
+        assertEquals(List.of(round("ABC"), new DuelLogRecord.End("ABC", 3L)), scan());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void concurrentAppendsAreAllWritten() throws Exception {
+        DuelEventLog eventLog = newLog();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String room = "R" + t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    eventLog.append(new DuelLogRecord.End(room, i));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        eventLog.close();
+
+        assertEquals(4000, scan().size());
+    }
+
+    private DuelEventLog newLog() {
+        return new DuelEventLog(true, directory.toString(), 1, 16 * 1024);
+    }
+
+    private List<DuelLogRecord> scan() {
+        List<DuelLogRecord> records = new ArrayList<>();
+        newLogForReading().scan(records::add);
+        return records;
+    }
+
+    private DuelEventLog newLogForReading() {
+        return new DuelEventLog(false, directory.toString(), 1, 1);
+    }
+
+    private static DuelLogRecord.Start start(String gameCode) {
+        return new DuelLogRecord.Start(gameCode, 1L, 42L, List.of(
+                new DuelLogRecord.UnitSnapshot(7L, "Knight", 100, 100, 10, new double[]{1, 0.5, 1, 1, 1, 1})));
+    }
+
+    private static DuelLogRecord.Round round(String gameCode) {
+        return new DuelLogRecord.Round(gameCode, 2L,
+                7L, Body.HEAD, 8L, Body.CHEST,
+                15, true, 10, false,
+                false, true, 90, 85);
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.flight;
+
+import org.example.gametgweb.gameplay.game.duel.api.dto.FlightEventDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.flight.RoomFlightRecorder.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomFlightRecorderTest {
+
+    @Test
+    void eventsComeBackOldestFirst() {
+        RoomFlightRecorder recorder = new RoomFlightRecorder(true, 8, 600_000);
+
+        recorder.record("ROOM1", Kind.JOIN, "alice", "s1");
+        recorder.record("ROOM1", Kind.IN_FRAME, "alice", "attack", 42, 0);
+        recorder.record("ROOM1", Kind.SEND, null, null, 100, 2);
+
+        List<FlightEventDto> events = recorder.dump("ROOM1");
+        assertEquals(List.of(0L, 1L, 2L), events.stream().map(FlightEventDto::seq).toList());
+        assertEquals(List.of("JOIN", "IN_FRAME", "SEND"), events.stream().map(FlightEventDto::kind).toList());
+
+        FlightEventDto frame = events.get(1);
+        assertEquals("alice", frame.player());
+        assertEquals("attack", frame.detail());
+        assertEquals(42, frame.size());
+
+        assertEquals(2, events.get(2).count());
+    }
+
+    @Test
+    void ringKeepsOnlyTheLastEvents() {
+        RoomFlightRecorder recorder = new RoomFlightRecorder(true, 3, 600_000);
+
+        for (int i = 0; i < 5; i++) {
+            recorder.record("ROOM1", Kind.MOVE, "alice", "HEAD", 0, i);
+        }
+
+        List<FlightEventDto> events = recorder.dump("ROOM1");
+        assertEquals(List.of(2L, 3L, 4L), events.stream().map(FlightEventDto::seq).toList());
+        assertEquals(List.of(2, 3, 4), events.stream().map(FlightEventDto::count).toList());
+    }
+
+    @Test
+    void roundIsFormattedOnDump() {
+        RoomFlightRecorder recorder = new RoomFlightRecorder(true, 2, 600_000);
+
+        recorder.recordRound("ROOM1", "alice", 80.0, "bob", 35.5);
+        // перезапись ячейки раунда обычным событием не оставляет в ней полей раунда
+        recorder.record("ROOM1", Kind.SEND, null, null, 10, 2);
+        recorder.record("ROOM1", Kind.MOVE, "bob", "LEGS");
+        recorder.recordRound("ROOM1", "alice", 60.0, "bob", 10.0);
+
+        List<FlightEventDto> events = recorder.dump("ROOM1");
+        assertEquals("MOVE", events.get(0).kind());
+        assertEquals("LEGS", events.get(0).detail());
+
+        FlightEventDto round = events.get(1);
+        assertEquals("ROUND", round.kind());
+        assertEquals("alice", round.player());
+        assertEquals("60.0% / bob 10.0%", round.detail());
+        assertEquals(0, round.size());
+    }
+
+    @Test
+    void roomsHaveSeparateRings() {
+        RoomFlightRecorder recorder = new RoomFlightRecorder(true, 4, 600_000);
+
+        recorder.record("ROOM1", Kind.JOIN, "alice", null);
+        recorder.record("ROOM2", Kind.JOIN, "bob", null);
+
+        assertEquals(Set.of("ROOM1", "ROOM2"), recorder.rooms());
+        assertEquals("bob", recorder.dump("ROOM2").getFirst().player());
+        assertTrue(recorder.dump("ROOM3").isEmpty());
+    }
+
+    @Test
+    void disabledRecorderKeepsNothing() {
+        RoomFlightRecorder recorder = new RoomFlightRecorder(false, 4, 600_000);
+
+        recorder.record("ROOM1", Kind.JOIN, "alice", null);
+        recorder.recordRound("ROOM1", "alice", 100, "bob", 100);
+
+        assertTrue(recorder.rooms().isEmpty());
+    }
+
+    @Test
+    void idleRoomsAreEvicted() throws InterruptedException {
+        RoomFlightRecorder recorder = new RoomFlightRecorder(true, 4, 0);
+
+        recorder.record("ROOM1", Kind.JOIN, "alice", null);
+        Thread.sleep(5);
+        recorder.evictIdle();
+
+        assertTrue(recorder.rooms().isEmpty());
+        assertTrue(recorder.dump("ROOM1").isEmpty());
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.scheduling;
+
+import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelFinishService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.persistence.repository.JpaDuelResultOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DuelResultOutboxWorkerTest {
+
+    @Mock
+    private JpaDuelResultOutboxRepository outboxRepository;
+
+    @Mock
+    private DuelFinishService duelFinishService;
+
+    private DuelResultOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new DuelResultOutboxWorker(outboxRepository, duelFinishService, 50, 3);
+    }
+
+    @Test
+    void appliesEveryPendingRowInOrder() {
+        when(outboxRepository.findPendingIds(PageRequest.of(0, 50))).thenReturn(List.of(1L, 2L));
+        when(duelFinishService.finalizeResult(anyLong())).thenReturn(true);
+
+        worker.drain();
+
+        verify(duelFinishService).finalizeResult(1L);
+        verify(duelFinishService).finalizeResult(2L);
+        verify(duelFinishService, never()).recordFailure(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void rowClaimedByAnotherNodeIsNotAFailure() {
+        when(outboxRepository.findPendingIds(PageRequest.of(0, 50))).thenReturn(List.of(1L));
+        when(duelFinishService.finalizeResult(1L)).thenReturn(false);
+
+        worker.drain();
+
+        verify(duelFinishService, never()).recordFailure(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void failedRowIsCountedAndDoesNotStopTheBatch() {
+        IllegalStateException error = new IllegalStateException("unit missing");
+        when(outboxRepository.findPendingIds(PageRequest.of(0, 50))).thenReturn(List.of(1L, 2L));
+        when(duelFinishService.finalizeResult(1L)).thenThrow(error);
+        when(duelFinishService.finalizeResult(2L)).thenReturn(true);
+
+        worker.drain();
+
+        verify(duelFinishService).recordFailure(1L, error, 3);
+        verify(duelFinishService).finalizeResult(2L);
+    }
+
+    @Test
+    void failureBookkeepingErrorDoesNotStopTheBatch() {
+        when(outboxRepository.findPendingIds(PageRequest.of(0, 50))).thenReturn(List.of(1L, 2L));
+        when(duelFinishService.finalizeResult(1L)).thenThrow(new IllegalStateException("db down"));
+        when(duelFinishService.recordFailure(eq(1L), any(), eq(3))).thenThrow(new IllegalStateException("db down"));
+        when(duelFinishService.finalizeResult(2L)).thenReturn(true);
+
+        worker.drain();
+
+        verify(duelFinishService).finalizeResult(2L);
+    }
+
+    @Test
+    void emptyOutboxDoesNothing() {
+        when(outboxRepository.findPendingIds(PageRequest.of(0, 50))).thenReturn(List.of());
+
+        worker.drain();
+
+        verify(duelFinishService, never()).finalizeResult(anyLong());
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.internal.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
+import org.example.gametgweb.gameplay.game.duel.application.services.combat.DuelCombatService;
+import org.example.gametgweb.gameplay.game.duel.application.services.duel.DuelTurnManager;
+import org.example.gametgweb.gameplay.game.duel.application.services.order.PlayerOrderService;
+import org.example.gametgweb.gameplay.game.duel.domain.repository.PlayerRepositoryImpl;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.UnitRegistryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomSnapshotServiceTest {
+
+    private static final double[] FULL_EFFICIENCY = {1, 1, 1, 1, 1, 1};
+
+    @Mock
+    private PlayerOrderService playerOrder;
+    @Mock
+    private UnitRegistryService unitRegistry;
+    @Mock
+    private DuelTurnManager turnManager;
+    @Mock
+    private DuelCombatService combatService;
+    @Mock
+    private PlayerRepositoryImpl playerRepository;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void unitOfMissingPlayerIsRebuiltFromTheSnapshot() {
+        when(playerRepository.findActiveUnit("alice")).thenReturn(Optional.empty());
+
+        service(dir.resolve("snapshot.json.gz")).restoreRoom(room("ROOM1", "alice", FULL_EFFICIENCY));
+
+        ArgumentCaptor<PlayerUnit> unit = ArgumentCaptor.forClass(PlayerUnit.class);
+        verify(unitRegistry).registerUnit(eq("ROOM1"), eq("alice"), unit.capture());
+        assertEquals(7L, unit.getValue().getId());
+        assertEquals(40, unit.getValue().getHealth());
+        verify(playerOrder).restoreRoom("ROOM1", List.of("alice"));
+    }
+
+    @Test
+    void brokenRoomDoesNotStopTheRest() throws Exception {
+        when(playerRepository.findActiveUnit(anyString())).thenReturn(Optional.empty());
+        Path file = dir.resolve("snapshot.json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            // у первой комнаты обрезан массив эффективности — её юнит не собрать
+            mapper.writeValue(out, List.of(room("BAD", "alice", new double[]{1}), room("GOOD", "bob", FULL_EFFICIENCY)));
+        }
+
+        service(file).restore();
+
+        verify(playerOrder, never()).restoreRoom(eq("BAD"), any());
+        verify(unitRegistry).removeRoom("BAD");
+        verify(playerOrder).restoreRoom("GOOD", List.of("bob"));
+    }
+
+    private RoomSnapshotService service(Path file) {
+        return new RoomSnapshotService(playerOrder, unitRegistry, turnManager, combatService,
+                playerRepository, mapper, true, file.toString());
+    }
+
+    private static RoomSnapshot room(String gameCode, String player, double[] efficiency) {
+        RoomSnapshot.Unit unit = new RoomSnapshot.Unit(player, 7L, "Knight", "knight.png", 100, 40, 10, efficiency);
+        return new RoomSnapshot(gameCode, List.of(player), List.of(unit), null);
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.handler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrentSendWebSocketHandlerTest {
+
+    @Mock
+    private WebSocketHandler delegate;
+
+    @Mock
+    private WebSocketSession session;
+
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    private ConcurrentSendWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        when(session.getAttributes()).thenReturn(attributes);
+        handler = new ConcurrentSendWebSocketHandler(delegate, 1000, 1024);
+    }
+
+    @Test
+    void everyCallbackSeesTheSameDecoratedSession() throws Exception {
+        TextMessage message = new TextMessage("{}");
+
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, message);
+
+        ArgumentCaptor<WebSocketSession> established = ArgumentCaptor.forClass(WebSocketSession.class);
+        ArgumentCaptor<WebSocketSession> handled = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(delegate).afterConnectionEstablished(established.capture());
+        verify(delegate).handleMessage(handled.capture(), eq(message));
+
+        assertInstanceOf(ConcurrentWebSocketSessionDecorator.class, established.getValue());
+        assertSame(established.getValue(), handled.getValue());
+    }
+
+    @Test
+    void decoratorIsDroppedAfterClose() throws Exception {
+        handler.afterConnectionEstablished(session);
+        ArgumentCaptor<WebSocketSession> established = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(delegate).afterConnectionEstablished(established.capture());
+
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        ArgumentCaptor<WebSocketSession> closed = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(delegate).afterConnectionClosed(closed.capture(), any());
+        assertSame(established.getValue(), closed.getValue());
+        assertTrue(attributes.isEmpty());
+    }
+}
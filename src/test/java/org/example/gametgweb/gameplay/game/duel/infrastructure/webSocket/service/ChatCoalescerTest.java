@@ -0,0 +1,88 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatCoalescerTest {
+
+    private final ChatCoalescer coalescer = new ChatCoalescer(10);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void messagesWithinWindowGoOutAsOneBatch() throws InterruptedException {
+        List<String> frames = new CopyOnWriteArrayList<>();
+        CountDownLatch sent = new CountDownLatch(1);
+        coalescer.onFlush((gameCode, frame) -> {
+            frames.add(frame);
+            sent.countDown();
+        });
+
+        coalescer.offer("ROOM1", "{\"n\":1}");
+        coalescer.offer("ROOM1", "{\"n\":2}");
+
+        assertTrue(sent.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("{\"type\":\"batch\",\"messages\":[{\"n\":1},{\"n\":2}]}"), frames);
+    }
+
+    @Test
+    void slowRoomDoesNotDelayOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastSent = new CountDownLatch(1);
+        coalescer.onFlush((gameCode, frame) -> {
+            if (gameCode.equals("SLOW")) {
+                await(release);
+            } else {
+                fastSent.countDown();
+            }
+        });
+
+        coalescer.offer("SLOW", "{}");
+        Thread.sleep(20);
+        coalescer.offer("FAST", "{}");
+
+        assertTrue(fastSent.await(1, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    void batchesOfOneRoomKeepOrder() throws InterruptedException {
+        List<String> frames = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        coalescer.onFlush((gameCode, frame) -> {
+            // первая пачка задерживается дольше окна: вторая ждёт её, а не обгоняет
+            if (frame.equals("{\"n\":1}")) await(release);
+            frames.add(frame);
+            done.countDown();
+        });
+
+        coalescer.offer("ROOM1", "{\"n\":1}");
+        Thread.sleep(30);
+        coalescer.offer("ROOM1", "{\"n\":2}");
+        Thread.sleep(30);
+        release.countDown();
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("{\"n\":1}", "{\"n\":2}"), frames);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
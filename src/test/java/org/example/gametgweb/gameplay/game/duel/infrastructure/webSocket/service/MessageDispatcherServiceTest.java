@@ -0,0 +1,104 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service;
+
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.bus.LocalRoomBus;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.internal.cluster.NodeIdentity;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.RoomSessionRegistry;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.DuelBinaryCodec;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils.MessageFormatter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Два диспетчера с разными идентификаторами узла на одной {@link LocalRoomBus} —
+ * локальная замена кластера: кадр для игрока, подключённого к другому узлу, проходит через шину.
+ */
+@ExtendWith(MockitoExtension.class)
+class MessageDispatcherServiceTest {
+
+    private static final String GAME = "ROOM1";
+
+    @Mock
+    private RoomSessionRegistry registryA;
+
+    @Mock
+    private RoomSessionRegistry registryB;
+
+    @Mock
+    private MessageFormatter formatter;
+
+    @Mock
+    private ChatCoalescer coalescer;
+
+    @Mock
+    private WebSocketSession bobSession;
+
+    private MessageDispatcherService nodeA;
+
+    @BeforeEach
+    void setUp() {
+        LocalRoomBus bus = new LocalRoomBus();
+        nodeA = new MessageDispatcherService(registryA, formatter, bus, new NodeIdentity("node-a"), coalescer);
+        new MessageDispatcherService(registryB, formatter, bus, new NodeIdentity("node-b"), coalescer);
+    }
+
+    @Test
+    void binaryFrameReachesPlayerOnAnotherNode() {
+        when(registryB.getSessionByPlayer(GAME, "bob")).thenReturn(bobSession);
+        when(bobSession.getAcceptedProtocol()).thenReturn(DuelBinaryCodec.SUBPROTOCOL);
+
+        nodeA.sendToPlayer(GAME, "bob", new BinaryMessage(new byte[]{1, 2, 3}));
+
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(registryB).sendToPlayer(eq(GAME), eq("bob"), sent.capture());
+        BinaryMessage frame = assertInstanceOf(BinaryMessage.class, sent.getValue());
+        assertEquals(ByteBuffer.wrap(new byte[]{1, 2, 3}), frame.getPayload());
+    }
+
+    @Test
+    void binaryFrameIsNotSentToJsonSession() {
+        when(registryB.getSessionByPlayer(GAME, "bob")).thenReturn(bobSession);
+        when(bobSession.getAcceptedProtocol()).thenReturn(null);
+
+        nodeA.sendToPlayer(GAME, "bob", new BinaryMessage(new byte[]{1}));
+
+        verify(registryB, never()).sendToPlayer(anyString(), anyString(), any(WebSocketMessage.class));
+    }
+
+    @Test
+    void textFrameReachesPlayerOnAnotherNode() {
+        when(registryB.getSessionByPlayer(GAME, "bob")).thenReturn(bobSession);
+
+        nodeA.sendToPlayer(GAME, "bob", "{\"type\":\"duelResult\"}");
+
+        verify(registryB).sendToPlayer(GAME, "bob", new TextMessage("{\"type\":\"duelResult\"}"));
+    }
+
+    @Test
+    void broadcastReachesOtherNodeButNotItsOrigin() {
+        TextMessage frame = new TextMessage("{\"type\":\"bothSelected\"}");
+
+        nodeA.broadcastFrame(GAME, frame);
+
+        verify(registryA).broadcast(GAME, (WebSocketMessage<?>) frame);
+        verify(registryB).broadcast(GAME, (WebSocketMessage<?>) frame);
+    }
+}
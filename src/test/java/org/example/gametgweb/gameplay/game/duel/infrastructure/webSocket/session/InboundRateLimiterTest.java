@@ -0,0 +1,93 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session;
+
+import org.example.gametgweb.gameplay.game.duel.api.dto.InboundLimitStatsDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.InboundRateLimiter.Kind;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.InboundRateLimiter.Verdict;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Пополнение bucket'ов в тестах практически остановлено (один токен в тысячу секунд),
+ * поэтому результат не зависит от скорости машины.
+ */
+class InboundRateLimiterTest {
+
+    private static final double FROZEN = 0.001;
+
+    @Test
+    void burstUpToCapacityIsAllowed() {
+        InboundRateLimiter limiter = limiter(3, 10);
+        WebSocketSession session = session();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Verdict.ALLOW, limiter.check(session, Kind.CHAT));
+        }
+        assertEquals(Verdict.DROP, limiter.check(session, Kind.CHAT));
+    }
+
+    @Test
+    void sustainedFloodDisconnects() {
+        InboundRateLimiter limiter = limiter(1, 2);
+        WebSocketSession session = session();
+
+        assertEquals(Verdict.ALLOW, limiter.check(session, Kind.CHAT));
+        assertEquals(Verdict.DROP, limiter.check(session, Kind.CHAT));
+        assertEquals(Verdict.DROP, limiter.check(session, Kind.CHAT));
+        assertEquals(Verdict.DISCONNECT, limiter.check(session, Kind.CHAT));
+
+        InboundLimitStatsDto stats = limiter.getStats(1);
+        assertEquals(3, stats.droppedChat());
+        assertEquals(1, stats.disconnects());
+        assertEquals(1, stats.sessions());
+    }
+
+    @Test
+    void kindsHaveSeparateBuckets() {
+        InboundRateLimiter limiter = limiter(1, 10);
+        WebSocketSession session = session();
+
+        assertEquals(Verdict.ALLOW, limiter.check(session, Kind.CHAT));
+        assertEquals(Verdict.DROP, limiter.check(session, Kind.CHAT));
+        assertEquals(Verdict.ALLOW, limiter.check(session, Kind.ATTACK));
+        assertEquals(Verdict.ALLOW, limiter.check(session, Kind.FRAME));
+    }
+
+    @Test
+    void sessionsHaveSeparateBuckets() {
+        InboundRateLimiter limiter = limiter(1, 10);
+        WebSocketSession first = session();
+        WebSocketSession second = session();
+
+        assertEquals(Verdict.ALLOW, limiter.check(first, Kind.ATTACK));
+        assertEquals(Verdict.DROP, limiter.check(first, Kind.ATTACK));
+        assertEquals(Verdict.ALLOW, limiter.check(second, Kind.ATTACK));
+    }
+
+    @Test
+    void bucketRefillsOverTime() throws InterruptedException {
+        InboundRateLimiter limiter = new InboundRateLimiter(1, 100, 1, 100, 1, 100, 10, FROZEN);
+        WebSocketSession session = session();
+
+        assertEquals(Verdict.ALLOW, limiter.check(session, Kind.FRAME));
+        assertEquals(Verdict.DROP, limiter.check(session, Kind.FRAME));
+
+        Thread.sleep(50);
+        assertEquals(Verdict.ALLOW, limiter.check(session, Kind.FRAME));
+    }
+
+    private static InboundRateLimiter limiter(int capacity, int violations) {
+        return new InboundRateLimiter(capacity, FROZEN, capacity, FROZEN, capacity, FROZEN, violations, FROZEN);
+    }
+
+    private static WebSocketSession session() {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(new HashMap<>());
+        return session;
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
+
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.BodyPartDestroyedNotificationDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.DuelRoundResponseDto;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.RoomDeltaMessageDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.RoomStateMessageDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.UnitDeltaDTO;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.dto.UnitStateDTO;
+import org.example.gametgweb.gameplay.game.duel.shared.domain.Body;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Кадры подпротокола {@value DuelBinaryCodec#SUBPROTOCOL}: входящие разбираются в команды,
+ * исходящие читаются обратно по раскладке из документации кодека.
+ */
+class DuelBinaryCodecTest {
+
+    @Test
+    void decodesAttackChatAndResync() {
+        DuelBinaryCodec.Command attack = DuelBinaryCodec.decode(frame(DuelBinaryCodec.OP_ATTACK, (byte) Body.LEFT_LEG.ordinal()));
+        assertEquals(DuelBinaryCodec.OP_ATTACK, attack.opcode());
+        assertEquals(Body.LEFT_LEG, attack.body());
+
+        byte[] text = "привет".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer chat = ByteBuffer.allocate(1 + text.length).put(DuelBinaryCodec.OP_CHAT).put(text).flip();
+        assertEquals("привет", DuelBinaryCodec.decode(chat).text());
+
+        assertEquals(DuelBinaryCodec.OP_RESYNC, DuelBinaryCodec.decode(frame(DuelBinaryCodec.OP_RESYNC)).opcode());
+    }
+
+    @Test
+    void rejectsEmptyUnknownAndTruncatedFrames() {
+        assertNull(DuelBinaryCodec.decode(ByteBuffer.allocate(0)));
+        assertNull(DuelBinaryCodec.decode(frame((byte) 0x7F)));
+        assertNull(DuelBinaryCodec.decode(frame(DuelBinaryCodec.OP_ATTACK)));
+        assertNull(DuelBinaryCodec.decode(frame(DuelBinaryCodec.OP_ATTACK, (byte) Body.values().length)));
+    }
+
+    @Test
+    void decodeDoesNotConsumeCallerBuffer() {
+        ByteBuffer payload = frame(DuelBinaryCodec.OP_ATTACK, (byte) 0);
+        DuelBinaryCodec.decode(payload);
+        assertEquals(2, payload.remaining());
+    }
+
+    @Test
+    void roomStateRoundTrip() {
+        Map<Body, Double> efficiency = new EnumMap<>(Body.class);
+        efficiency.put(Body.HEAD, 0.5);
+        RoomStateMessageDTO frame = new RoomStateMessageDTO(42,
+                List.of(new UnitStateDTO(7L, "alice", "Knight", 80, 100, "/img/k.png", efficiency),
+                        new UnitStateDTO(null, "bob", "Goblin", 10, 50, null, null)),
+                new DuelRoundResponseDto("alice", "bob", new String[]{"hit", "miss"}, 80.0, 20.0),
+                List.of(BodyPartDestroyedNotificationDto.of("bob", Body.RIGHT_ARM, "lost")));
+
+        ByteBuffer in = DuelBinaryCodec.encode(frame).getPayload();
+
+        assertEquals(DuelBinaryCodec.OP_ROOM_STATE, in.get());
+        assertEquals(42L, in.getLong());
+        assertEquals(2, in.get());
+
+        assertEquals(7L, in.getLong());
+        assertEquals("alice", readString(in));
+        assertEquals("Knight", readString(in));
+        assertEquals("/img/k.png", readString(in));
+        assertEquals(80L, in.getLong());
+        assertEquals(100L, in.getLong());
+        assertEquals(1, in.get());
+        for (Body part : Body.values()) {
+            assertEquals(part == Body.HEAD ? 0.5f : 0f, in.getFloat());
+        }
+
+        assertEquals(-1L, in.getLong());
+        assertEquals("bob", readString(in));
+        assertEquals("Goblin", readString(in));
+        assertNull(readString(in));
+        assertEquals(10L, in.getLong());
+        assertEquals(50L, in.getLong());
+        assertEquals(0, in.get());
+
+        assertRound(in);
+        assertDestroyed(in);
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void roomDeltaRoundTrip() {
+        Map<Body, Double> efficiency = new EnumMap<>(Body.class);
+        efficiency.put(Body.CHEST, 0.25);
+        RoomDeltaMessageDTO frame = new RoomDeltaMessageDTO(9,
+                List.of(new UnitDeltaDTO("alice", 55L, null), new UnitDeltaDTO("bob", null, efficiency)),
+                new DuelRoundResponseDto("alice", "bob", new String[]{"hit", "miss"}, 80.0, 20.0),
+                List.of(BodyPartDestroyedNotificationDto.of("bob", Body.RIGHT_ARM, "lost")));
+
+        ByteBuffer in = DuelBinaryCodec.encode(frame).getPayload();
+
+        assertEquals(DuelBinaryCodec.OP_ROOM_DELTA, in.get());
+        assertEquals(9L, in.getLong());
+        assertEquals(2, in.get());
+
+        assertEquals("alice", readString(in));
+        assertEquals(1, in.get());
+        assertEquals(55L, in.getLong());
+
+        assertEquals("bob", readString(in));
+        assertEquals(2, in.get());
+        assertEquals(1, in.get());
+        assertEquals(Body.CHEST.ordinal(), in.get());
+        assertEquals(0.25f, in.getFloat());
+
+        assertRound(in);
+        assertDestroyed(in);
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void frameWithoutRoundOrDestroyedParts() {
+        ByteBuffer in = DuelBinaryCodec.encode(new RoomDeltaMessageDTO(1, List.of(), null, List.of())).getPayload();
+
+        assertEquals(DuelBinaryCodec.OP_ROOM_DELTA, in.get());
+        assertEquals(1L, in.getLong());
+        assertEquals(0, in.get());
+        assertEquals(0, in.get());
+        assertEquals(0, in.get());
+        assertFalse(in.hasRemaining());
+    }
+
+    private static void assertRound(ByteBuffer in) {
+        assertEquals(1, in.get());
+        assertEquals("alice", readString(in));
+        assertEquals("bob", readString(in));
+        assertEquals(2, in.getShort());
+        assertEquals("hit", readString(in));
+        assertEquals("miss", readString(in));
+        assertEquals(80.0, in.getDouble(), 0.0);
+        assertEquals(20.0, in.getDouble(), 0.0);
+    }
+
+    private static void assertDestroyed(ByteBuffer in) {
+        assertEquals(1, in.get());
+        assertEquals("bob", readString(in));
+        assertEquals(Body.RIGHT_ARM.ordinal(), in.get());
+        assertEquals("lost", readString(in));
+    }
+
+    private static ByteBuffer frame(byte... bytes) {
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        if (length == 0xFFFF) return null;
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
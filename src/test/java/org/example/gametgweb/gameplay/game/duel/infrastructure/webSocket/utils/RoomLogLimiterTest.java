@@ -0,0 +1,96 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoomLogLimiterTest {
+
+    @Test
+    void roomWritesUpToItsLimitPerSecond() {
+        RoomLogLimiter limiter = new RoomLogLimiter(3, 1);
+
+        assertEquals(3, allowed(limiter, "ROOM1", 10));
+    }
+
+    @Test
+    void roomsHaveSeparateLimits() {
+        RoomLogLimiter limiter = new RoomLogLimiter(2, 1);
+
+        assertEquals(2, allowed(limiter, "ROOM1", 5));
+        assertTrue(limiter.allow("ROOM2"));
+    }
+
+    @Test
+    void limitResetsEverySecond() throws InterruptedException {
+        RoomLogLimiter limiter = new RoomLogLimiter(1, 1);
+
+        assertTrue(limiter.allow("ROOM1"));
+        assertFalse(limiter.allow("ROOM1"));
+
+        Thread.sleep(1100);
+        assertTrue(limiter.allow("ROOM1"));
+    }
+
+    @Test
+    void limitChangesAtRuntime() {
+        RoomLogLimiter limiter = new RoomLogLimiter(5, 1);
+
+        limiter.setPerSecond(0);
+
+        assertFalse(limiter.allow("ROOM1"));
+    }
+
+    @Test
+    void debugIsFreeWhenDisabled() {
+        RoomLogLimiter limiter = new RoomLogLimiter(1, 1);
+        Logger logger = mock(Logger.class);
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        assertFalse(limiter.debug(logger, "ROOM1"));
+        // отключённый DEBUG не расходует лимит комнаты
+        assertTrue(limiter.allow("ROOM1"));
+    }
+
+    @Test
+    void debugIsSampledPerRoom() {
+        RoomLogLimiter limiter = new RoomLogLimiter(100, 3);
+        Logger logger = mock(Logger.class);
+        when(logger.isDebugEnabled()).thenReturn(true);
+
+        int written = 0;
+        for (int i = 0; i < 9; i++) {
+            if (limiter.debug(logger, "ROOM1")) written++;
+        }
+
+        assertEquals(3, written);
+        assertTrue(limiter.debug(logger, "ROOM2"));
+    }
+
+    @Test
+    void sampledDebugStillRespectsTheLimit() {
+        RoomLogLimiter limiter = new RoomLogLimiter(2, 2);
+        Logger logger = mock(Logger.class);
+        when(logger.isDebugEnabled()).thenReturn(true);
+
+        int written = 0;
+        for (int i = 0; i < 20; i++) {
+            if (limiter.debug(logger, "ROOM1")) written++;
+        }
+
+        assertEquals(2, written);
+    }
+
+    private static int allowed(RoomLogLimiter limiter, String gameCode, int attempts) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.allow(gameCode)) allowed++;
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.gametgweb.characterSelection.domain.model.PlayerUnit;
+import org.example.gametgweb.gameplay.game.duel.application.events.RoomAbandonedEvent;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.service.MessageDispatcherService;
+import org.example.gametgweb.gameplay.game.duel.infrastructure.webSocket.session.UnitRegistryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UnitStateBroadcasterTest {
+
+    private static final String ROOM = "ROOM1";
+    private static final List<String> ORDER = List.of("alice");
+
+    @Mock
+    private UnitRegistryService unitRegistry;
+    @Mock
+    private MessageDispatcherService messageDispatcher;
+    @Mock
+    private WebSocketSession session;
+
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    private UnitStateBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new UnitStateBroadcaster(unitRegistry, messageDispatcher, new MessageFormatter(new ObjectMapper()));
+    }
+
+    @Test
+    void abandonedRoomStartsOverWithFreshState() {
+        when(session.getAttributes()).thenReturn(attributes);
+        when(unitRegistry.getUnit(ROOM, "alice")).thenReturn(unit(40));
+        broadcaster.broadcastRoomState(ROOM, ORDER, null);
+
+        broadcaster.onRoomAbandoned(new RoomAbandonedEvent(ROOM));
+
+        // новая дуэль с тем же кодом: полный юнит, версия с нуля
+        when(unitRegistry.getUnit(ROOM, "alice")).thenReturn(unit(100));
+        broadcaster.sendSnapshot(ROOM, ORDER, session);
+
+        String snapshot = sentPayload();
+        assertTrue(snapshot.contains("\"version\":0"), snapshot);
+        assertTrue(snapshot.contains("\"hp\":100"), snapshot);
+    }
+
+    @Test
+    void liveRoomKeepsItsVersion() {
+        when(session.getAttributes()).thenReturn(attributes);
+        when(unitRegistry.getUnit(ROOM, "alice")).thenReturn(unit(40));
+        broadcaster.broadcastRoomState(ROOM, ORDER, null);
+
+        broadcaster.sendSnapshot(ROOM, ORDER, session);
+
+        assertTrue(sentPayload().contains("\"version\":1"));
+    }
+
+    private String sentPayload() {
+        ArgumentCaptor<TextMessage> frame = ArgumentCaptor.forClass(TextMessage.class);
+        verify(messageDispatcher).sendFrame(eq(session), frame.capture());
+        return frame.getValue().getPayload();
+    }
+
+    private static PlayerUnit unit(long hp) {
+        return new PlayerUnit(1L, null, "Knight", 100, hp, 10, "knight.png");
+    }
+}